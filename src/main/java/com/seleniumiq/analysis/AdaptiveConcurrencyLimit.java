@@ -0,0 +1,63 @@
+package com.seleniumiq.analysis;
+
+/**
+ * Concurrency limit for LLM requests that adapts to how the provider copes.
+ *
+ * Additive increase, multiplicative decrease: each healthy response grows the limit by
+ * 1/limit (about one per round of requests), an error halves it, and a response much slower
+ * than the best recent latency shrinks it by 10% - a local model that serializes requests
+ * shows up as latency growing with concurrency, long before it starts failing.
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    private static final double ERROR_BACKOFF = 0.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+    // Lets the baseline creep up so a permanently slower model does not pin the limit low
+    private static final double BASELINE_DRIFT = 0.01;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private double limit;
+    private double baselineNanos;
+    
+    /**
+     * @param latencyTolerance How many times the baseline latency a response may take before the limit shrinks
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+    
+    /**
+     * Record the outcome of one request
+     */
+    public synchronized void onSample(long latencyNanos, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * ERROR_BACKOFF);
+            return;
+        }
+        
+        if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+        }
+        
+        if (latencyNanos > baselineNanos * latencyTolerance) {
+            limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+    
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    public synchronized long getBaselineLatencyMillis() {
+        return (long) (baselineNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,230 @@
+package com.seleniumiq.analysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of raw LLM responses keyed on {@link EventFingerprint}s.
+ *
+ * The in-memory tier is an LRU bounded by entry count; entries expire after the TTL. The optional
+ * persistent tier keeps one file per fingerprint so later CI runs reuse earlier analyses; it is
+ * bounded by file count and pruned oldest first. Responses are stored unparsed so a hit is
+ * re-parsed against the session asking for it.
+ */
+public class AnalysisCache {
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisCache.class);
+    
+    private static final String FILE_SUFFIX = ".json";
+    private static final int PRUNE_INTERVAL = 64;
+    
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Path directory;
+    private final int maxDiskEntries;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicInteger writesSincePrune = new AtomicInteger(0);
+    
+    /**
+     * @param maxEntries Maximum number of responses kept in memory
+     * @param ttl How long a response stays valid, in memory and on disk
+     * @param directory Directory of the persistent tier, or null to keep the cache in memory only
+     * @param maxDiskEntries Maximum number of responses kept on disk
+     */
+    public AnalysisCache(int maxEntries, Duration ttl, Path directory, int maxDiskEntries) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.directory = directory;
+        this.maxDiskEntries = maxDiskEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AnalysisCache.this.maxEntries;
+            }
+        };
+        
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                logger.warn("Cannot create analysis cache directory {}; using memory only", directory, e);
+            }
+        }
+    }
+    
+    /**
+     * Look up a cached response, falling back to the persistent tier
+     */
+    public Optional<String> get(String fingerprint) {
+        Instant now = Instant.now();
+        synchronized (entries) {
+            Entry entry = entries.get(fingerprint);
+            if (entry != null) {
+                if (!isExpired(entry.createdAt, now)) {
+                    hits.incrementAndGet();
+                    return Optional.of(entry.response);
+                }
+                entries.remove(fingerprint);
+            }
+        }
+        
+        Entry stored = readFromDisk(fingerprint, now);
+        if (stored == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            entries.put(fingerprint, stored);
+        }
+        hits.incrementAndGet();
+        return Optional.of(stored.response);
+    }
+    
+    /**
+     * Store a response in memory and, if configured, on disk
+     */
+    public void put(String fingerprint, String response) {
+        Entry entry = new Entry(response, Instant.now());
+        synchronized (entries) {
+            entries.put(fingerprint, entry);
+        }
+        writeToDisk(fingerprint, response);
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    
+    /**
+     * Drop all in-memory entries; the persistent tier is kept
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+    
+    private boolean isExpired(Instant createdAt, Instant now) {
+        return createdAt.plus(ttl).isBefore(now);
+    }
+    
+    private Entry readFromDisk(String fingerprint, Instant now) {
+        if (directory == null) {
+            return null;
+        }
+        
+        Path file = directory.resolve(fingerprint + FILE_SUFFIX);
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            Instant createdAt = Files.getLastModifiedTime(file).toInstant();
+            if (isExpired(createdAt, now)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return new Entry(Files.readString(file, StandardCharsets.UTF_8), createdAt);
+        } catch (IOException e) {
+            logger.debug("Failed to read cached analysis: {}", file, e);
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String fingerprint, String response) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        
+        Path file = directory.resolve(fingerprint + FILE_SUFFIX);
+        Path temp = null;
+        try {
+            // Write then rename so concurrent CI jobs sharing the directory never read a partial file
+            temp = Files.createTempFile(directory, fingerprint, ".tmp");
+            Files.writeString(temp, response, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.debug("Failed to persist cached analysis: {}", file, e);
+            deleteQuietly(temp);
+            return;
+        }
+        
+        if (writesSincePrune.incrementAndGet() >= PRUNE_INTERVAL) {
+            writesSincePrune.set(0);
+            pruneDisk();
+        }
+    }
+    
+    /**
+     * Delete expired files, then the oldest ones beyond the disk limit
+     */
+    private void pruneDisk() {
+        Instant now = Instant.now();
+        List<Path> files = new ArrayList<>();
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                FileTime time = Files.getLastModifiedTime(file);
+                if (isExpired(time.toInstant(), now)) {
+                    Files.deleteIfExists(file);
+                } else {
+                    files.add(file);
+                    modified.put(file, time);
+                }
+            }
+            
+            if (files.size() > maxDiskEntries) {
+                files.sort(Comparator.comparing(modified::get));
+                for (Path file : files.subList(0, files.size() - maxDiskEntries)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to prune analysis cache directory: {}", directory, e);
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}", file, e);
+        }
+    }
+    
+    private static final class Entry {
+        private final String response;
+        private final Instant createdAt;
+        
+        private Entry(String response, Instant createdAt) {
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
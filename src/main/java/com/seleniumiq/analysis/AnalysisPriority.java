@@ -0,0 +1,13 @@
+package com.seleniumiq.analysis;
+
+/**
+ * Order in which queued LLM analyses are sent; earlier constants go first
+ */
+public enum AnalysisPriority {
+    /** Final analysis of a session that has ended; its report waits for it */
+    FINAL,
+    /** Analysis requested because a test failed */
+    FAILED_TEST,
+    /** Periodic or on-demand analysis of a running session */
+    PERIODIC
+}
@@ -0,0 +1,42 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.Suggestion;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Deterministic check that turns a single browser event into an issue without involving the LLM.
+ * Rules run on the analysis path for every event, so they should be cheap and side-effect free.
+ */
+public interface AnalysisRule {
+    
+    String getName();
+    
+    /**
+     * Event types this rule inspects; an empty set means every type
+     */
+    Set<String> getEventTypes();
+    
+    /**
+     * @return The issue found in the event, or null if the rule does not apply
+     */
+    Suggestion.Issue evaluate(BrowserEvent event);
+    
+    /**
+     * Create a rule from a function
+     */
+    static AnalysisRule of(String name, Set<String> eventTypes, Function<BrowserEvent, Suggestion.Issue> evaluator) {
+        return new AnalysisRule() {
+            @Override
+            public String getName() { return name; }
+            
+            @Override
+            public Set<String> getEventTypes() { return eventTypes; }
+            
+            @Override
+            public Suggestion.Issue evaluate(BrowserEvent event) { return evaluator.apply(event); }
+        };
+    }
+}
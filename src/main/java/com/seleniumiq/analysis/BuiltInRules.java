@@ -0,0 +1,167 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.NetworkTiming;
+import com.seleniumiq.model.Suggestion;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The rules the {@link RuleEngine} starts with: server errors, JavaScript exceptions, slow requests
+ * and mixed content. Each check looks at fields already on the event, so only matching events pay
+ * for building an issue.
+ */
+public final class BuiltInRules {
+    
+    private static final Set<String> NETWORK_TYPES = Set.of("network");
+    private static final Set<String> EXCEPTION_TYPES = Set.of("javascript-exception");
+    private static final Set<String> CONSOLE_TYPES = Set.of("console");
+    private static final String MIXED_CONTENT_MARKER = "Mixed Content";
+    private static final Pattern INSECURE_RESOURCE = Pattern.compile("insecure ([\\w ]+?) '([^']+)'");
+    private static final int MAX_TITLE_DETAIL = 120;
+    
+    private BuiltInRules() {
+    }
+    
+    /**
+     * All built-in rules
+     *
+     * @param slowRequestThreshold Latency at or above which a request is reported as slow
+     */
+    public static List<AnalysisRule> defaults(Duration slowRequestThreshold) {
+        return List.of(
+            serverError(),
+            javascriptException(),
+            slowRequest(slowRequestThreshold),
+            mixedContent()
+        );
+    }
+    
+    /**
+     * Responses with a 5xx status
+     */
+    public static AnalysisRule serverError() {
+        return AnalysisRule.of("server-error", NETWORK_TYPES, event -> {
+            NetworkTiming timing = timingOf(event);
+            if (timing == null || timing.getStatusCode() < 500) {
+                return null;
+            }
+            String endpoint = endpointOf(timing);
+            return Suggestion.Issue.builder()
+                .type("error")
+                .title("Server error " + timing.getStatusCode() + " from " + endpoint)
+                .description(method(timing) + endpoint + " returned HTTP " + timing.getStatusCode() + ".")
+                .suggestion("Check the server logs for this endpoint and the health of the test environment "
+                    + "before treating the test failure as a product bug.")
+                .priority(Suggestion.Priority.HIGH)
+                .impact("Server errors usually fail the test or leave the page in a partial state.")
+                .build();
+        });
+    }
+    
+    /**
+     * Uncaught JavaScript exceptions
+     */
+    public static AnalysisRule javascriptException() {
+        return AnalysisRule.of("javascript-exception", EXCEPTION_TYPES, event -> {
+            String message = firstLine(event.getMessage());
+            return Suggestion.Issue.builder()
+                .type("error")
+                .title("JavaScript exception: " + truncate(message))
+                .description("Uncaught exception in the page: " + message)
+                .suggestion("Reproduce the exception with the stack trace from the report and fix the failing script; "
+                    + "if it comes from a third-party script, consider blocking it in tests.")
+                .priority(Suggestion.Priority.HIGH)
+                .impact("Uncaught exceptions can stop page logic and cause flaky element lookups.")
+                .build();
+        });
+    }
+    
+    /**
+     * Requests slower than the threshold
+     */
+    public static AnalysisRule slowRequest(Duration threshold) {
+        long thresholdMs = threshold.toMillis();
+        return AnalysisRule.of("slow-request", NETWORK_TYPES, event -> {
+            NetworkTiming timing = timingOf(event);
+            if (timing == null || timing.getLatencyMs() < thresholdMs) {
+                return null;
+            }
+            String endpoint = endpointOf(timing);
+            return Suggestion.Issue.builder()
+                .type("performance")
+                .title("Slow request to " + endpoint)
+                .description(String.format("%s%s took %.0f ms (threshold %d ms).",
+                    method(timing), endpoint, timing.getLatencyMs(), thresholdMs))
+                .suggestion(timing.getTtfbMs() > timing.getDownloadMs()
+                    ? "Most of the time is spent waiting for the server; profile the backend or stub the call in tests."
+                    : "Most of the time is spent downloading; reduce the response size or enable compression.")
+                .priority(Suggestion.Priority.MEDIUM)
+                .impact("Slow requests lengthen test runs and make timing-dependent waits flaky.")
+                .build();
+        });
+    }
+    
+    /**
+     * Insecure resources loaded from a secure page, as reported by the browser console
+     */
+    public static AnalysisRule mixedContent() {
+        return AnalysisRule.of("mixed-content", CONSOLE_TYPES, event -> {
+            String message = event.getMessage();
+            if (message == null || !message.contains(MIXED_CONTENT_MARKER)) {
+                return null;
+            }
+            Matcher matcher = INSECURE_RESOURCE.matcher(message);
+            String resource = matcher.find() ? matcher.group(1) + " " + stripQuery(matcher.group(2)) : "resource";
+            return Suggestion.Issue.builder()
+                .type("security")
+                .title("Mixed content: insecure " + truncate(resource))
+                .description(firstLine(message))
+                .suggestion("Load the resource over HTTPS or use a protocol-relative URL.")
+                .priority(Suggestion.Priority.MEDIUM)
+                .impact("Browsers block or warn about mixed content, which can break the page in production.")
+                .build();
+        });
+    }
+    
+    private static NetworkTiming timingOf(BrowserEvent event) {
+        return event.getContent() instanceof NetworkTiming ? (NetworkTiming) event.getContent() : null;
+    }
+    
+    /**
+     * URL without query string, with numeric ids collapsed so findings for the same endpoint merge
+     */
+    private static String endpointOf(NetworkTiming timing) {
+        String url = timing.getUrl();
+        return url != null ? EventFingerprint.normalize(stripQuery(url), null) : "unknown URL";
+    }
+    
+    private static String method(NetworkTiming timing) {
+        return timing.getMethod() != null ? timing.getMethod() + " " : "";
+    }
+    
+    private static String stripQuery(String url) {
+        int end = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && (end < 0 || fragment < end)) {
+            end = fragment;
+        }
+        return end >= 0 ? url.substring(0, end) : url;
+    }
+    
+    private static String firstLine(String text) {
+        if (text == null) {
+            return "";
+        }
+        int newline = text.indexOf('\n');
+        return newline >= 0 ? text.substring(0, newline).trim() : text.trim();
+    }
+    
+    private static String truncate(String text) {
+        return text.length() <= MAX_TITLE_DETAIL ? text : text.substring(0, MAX_TITLE_DETAIL) + "...";
+    }
+}
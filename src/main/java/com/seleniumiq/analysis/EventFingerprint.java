@@ -0,0 +1,95 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed fingerprint of an event batch, used as the analysis cache key.
+ *
+ * Volatile parts that differ between otherwise identical runs are normalized away: timestamps,
+ * UUIDs, long hex tokens, numeric ids in URLs, durations and sizes, and the session name.
+ * Event order is ignored, event counts are not.
+ */
+public final class EventFingerprint {
+    
+    private static final Pattern UUID = Pattern.compile(
+        "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern TIMESTAMP = Pattern.compile(
+        "\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:?\\d{2})?");
+    private static final Pattern HEX_TOKEN = Pattern.compile("\\b(?=[0-9a-fA-F]*\\d)[0-9a-fA-F]{16,}\\b");
+    private static final Pattern URL_ID = Pattern.compile("(?<=[/=])\\d+(?=[/?&#;.]|\\s|$)");
+    private static final Pattern MEASUREMENT = Pattern.compile("\\d+(\\.\\d+)?(?=\\s?(ms|s|bytes|KB|MB)\\b)");
+    private static final Pattern LONG_NUMBER = Pattern.compile("\\d{5,}");
+    
+    private EventFingerprint() {
+    }
+    
+    /**
+     * Fingerprint a batch of events
+     *
+     * @param salt Anything else the answer depends on, such as provider, model and prompt version
+     * @return Hex-encoded SHA-256 digest
+     */
+    public static String of(List<BrowserEvent> events, MonitoringSession session, String salt) {
+        String sessionName = session != null ? session.getName() : null;
+        List<String> lines = new ArrayList<>(events.size());
+        for (BrowserEvent event : events) {
+            lines.add(event.getType() + '|' + event.getLevel() + '|'
+                + normalize(event.getMessage(), sessionName) + '|'
+                + normalize(event.getSource(), sessionName) + '|'
+                + normalize(event.getDetails(), sessionName));
+        }
+        Collections.sort(lines);
+        
+        MessageDigest digest = sha256();
+        digest.update(salt.getBytes(StandardCharsets.UTF_8));
+        for (String line : lines) {
+            digest.update((byte) '\n');
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Strip the volatile parts of a message, URL or stack trace
+     */
+    public static String normalize(String text, String sessionName) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        
+        String normalized = text;
+        if (sessionName != null && sessionName.length() >= 3) {
+            normalized = normalized.replace(sessionName, "<session>");
+        }
+        normalized = replace(UUID, normalized, "<uuid>");
+        normalized = replace(TIMESTAMP, normalized, "<ts>");
+        normalized = replace(HEX_TOKEN, normalized, "<hex>");
+        normalized = replace(URL_ID, normalized, "<id>");
+        normalized = replace(MEASUREMENT, normalized, "#");
+        return replace(LONG_NUMBER, normalized, "#");
+    }
+    
+    private static String replace(Pattern pattern, String text, String replacement) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.replaceAll(replacement) : text;
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.Suggestion;
+
+/**
+ * Receives issues as soon as analysis finds them, before the full {@link com.seleniumiq.model.AnalysisResult}
+ * is available. Called from analysis threads; implementations should return quickly.
+ */
+@FunctionalInterface
+public interface IssueListener {
+    
+    void onIssue(MonitoringSession session, Suggestion.Issue issue);
+}
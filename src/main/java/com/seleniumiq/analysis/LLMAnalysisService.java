@@ -3,10 +3,13 @@ package com.seleniumiq.analysis;
 import com.seleniumiq.config.MonitorConfig;
 import com.seleniumiq.model.BrowserEvent;
 import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.NetworkTiming;
 import com.seleniumiq.model.AnalysisResult;
 import com.seleniumiq.model.Suggestion;
+import com.seleniumiq.llm.CircuitBreakerProvider;
 import com.seleniumiq.llm.LLMProvider;
 import com.seleniumiq.llm.LLMProviderFactory;
+import com.seleniumiq.llm.PooledProvider;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -14,15 +17,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 
@@ -37,7 +49,25 @@ public class LLMAnalysisService {
     private final ObjectMapper objectMapper;
     private final ExecutorService analysisExecutor;
     private final BlockingQueue<AnalysisTask> analysisQueue;
-    private final AtomicInteger queueSize = new AtomicInteger(0);
+    // Queued periodic task per session id, replaced by newer analyses of the same session
+    private final Map<String, AnalysisTask> queuedPeriodic = new ConcurrentHashMap<>();
+    private final Map<AnalysisPriority, PriorityStats> priorityStats = new EnumMap<>(AnalysisPriority.class);
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    // Notified when the last call in flight completes
+    private final Object idle = new Object();
+    private final AtomicInteger dispatchPasses = new AtomicInteger(0);
+    private final AtomicLong taskSequence = new AtomicLong(0);
+    private final AtomicLong batchedCalls = new AtomicLong(0);
+    private final AtomicLong batchedAnalyses = new AtomicLong(0);
+    private final AnalysisCache analysisCache;
+    private final PromptCompiler promptCompiler;
+    private final String cacheSalt;
+    private volatile RuleEngine ruleEngine;
+    private final List<IssueListener> issueListeners = new CopyOnWriteArrayList<>();
+    
+    // Console levels that on their own never justify an LLM call
+    private static final Set<String> LOW_SEVERITY_LEVELS = Set.of("TRACE", "DEBUG", "VERBOSE", "LOG", "INFO");
     
     // Analysis prompt templates
     private static final String SYSTEM_PROMPT = """
@@ -99,12 +129,67 @@ public class LLMAnalysisService {
         Consider the context of automated testing and provide suggestions that would help improve test reliability and performance.
         """;
     
+    // Several sessions in one prompt; the answer is keyed by the section keys
+    private static final String BATCH_PROMPT_TEMPLATE = """
+        Analyze the browser events of the following %d Selenium test sessions. Analyze each session
+        independently; do not mix findings between sessions.
+        
+        %s
+        For every session key, provide insights on errors and exceptions, performance issues,
+        test stability problems, security concerns and optimization opportunities.
+        
+        Respond with a single JSON object that has one property per session key, whose value uses
+        the response structure described above, for example:
+        {"S1": {"summary": "...", "severity": "LOW", "issues": [], "recommendations": []}}
+        """;
+    
+    private static final String BATCH_SECTION_TEMPLATE = """
+        === Session key: %s ===
+        Session: %s
+        Time Range: %s to %s
+        Total Events: %d
+        
+        Events Summary:
+        %s
+        Event Details:
+        %s
+        """;
+    
     public LLMAnalysisService(MonitorConfig config) {
+        this(config, LLMProviderFactory.create(config));
+    }
+    
+    /**
+     * Service backed by an already built provider chain
+     */
+    LLMAnalysisService(MonitorConfig config, LLMProvider llmProvider) {
         this.config = config;
-        this.llmProvider = LLMProviderFactory.create(config);
+        this.llmProvider = llmProvider;
         this.objectMapper = new ObjectMapper();
-        this.analysisExecutor = Executors.newFixedThreadPool(2);
-        this.analysisQueue = new LinkedBlockingQueue<>();
+        this.analysisExecutor = config.getExecutionMode().newExecutor("seleniumiq-analysis", 2);
+        this.analysisQueue = new PriorityBlockingQueue<>();
+        // A pool of endpoints can take proportionally more requests at once
+        int endpoints = Math.max(1, config.getLlmEndpoints().size());
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(config.getAnalysisInitialConcurrency(),
+            config.getAnalysisMinConcurrency(), config.getAnalysisMaxConcurrency() * endpoints,
+            config.getAnalysisLatencyTolerance());
+        for (AnalysisPriority priority : AnalysisPriority.values()) {
+            priorityStats.put(priority, new PriorityStats());
+        }
+        this.analysisCache = config.isAnalysisCacheEnabled()
+            ? new AnalysisCache(config.getAnalysisCacheMaxEntries(), config.getAnalysisCacheTtl(),
+                                config.getAnalysisCacheDirectory(), config.getAnalysisCacheMaxDiskEntries())
+            : null;
+        // Cached answers are only valid for the same model and prompts; the token budget and slow-request
+        // threshold decide which events the compiled prompt keeps
+        String model = "ollama".equalsIgnoreCase(config.getProvider()) ? config.getOllamaModel() : config.getModel();
+        this.cacheSalt = config.getProvider() + ":" + model + ":"
+            + Integer.toHexString(SYSTEM_PROMPT.hashCode()) + Integer.toHexString(ANALYSIS_PROMPT_TEMPLATE.hashCode())
+            + ":" + config.getAnalysisPromptTokenBudget() + ":" + config.getSlowRequestThreshold().toMillis();
+        this.promptCompiler = new PromptCompiler(config.getAnalysisPromptTokenBudget(), config.getSlowRequestThreshold());
+        this.ruleEngine = new RuleEngine(config.isAnalysisRulesEnabled()
+            ? BuiltInRules.defaults(config.getSlowRequestThreshold())
+            : List.of());
         
         logger.info("LLM Analysis Service initialized with provider: {}", config.getProvider());
     }
@@ -117,42 +202,355 @@ public class LLMAnalysisService {
      * @return CompletableFuture containing analysis results
      */
     public CompletableFuture<AnalysisResult> analyzeEvents(List<BrowserEvent> events, MonitoringSession session) {
+        return analyzeEvents(events, session, AnalysisPriority.PERIODIC);
+    }
+    
+    /**
+     * Analyze a list of browser events, queueing the LLM call behind analyses of higher priority.
+     * A queued periodic analysis is dropped when a newer analysis of the same session is queued;
+     * its future then completes with the newer result.
+     * 
+     * @param events List of browser events to analyze
+     * @param session The monitoring session context
+     * @param priority Position of the LLM call in the analysis queue
+     * @return CompletableFuture containing analysis results
+     */
+    public CompletableFuture<AnalysisResult> analyzeEvents(List<BrowserEvent> events, MonitoringSession session,
+                                                           AnalysisPriority priority) {
         if (events.isEmpty()) {
             return CompletableFuture.completedFuture(
                 AnalysisResult.empty("No events to analyze")
             );
         }
         
-        return CompletableFuture.supplyAsync(() -> {
+        // Events the rules classify are reported directly; only the rest is worth an LLM call
+        RuleEngine.Result ruleResult = ruleEngine.evaluate(events);
+        List<Suggestion.Issue> ruleIssues = ruleResult.getIssues();
+        notifyIssues(session, ruleIssues);
+        List<BrowserEvent> batch = ruleResult.hasIssues() ? ruleResult.getUnmatchedEvents() : events;
+        if (ruleResult.hasIssues() && !hasSignificantEvents(batch)) {
+            logger.debug("Rules classified all significant events for session: {} ({} issues)",
+                       session.getName(), ruleIssues.size());
+            return CompletableFuture.completedFuture(ruleBasedResult(ruleIssues, session,
+                String.format("%d issue(s) identified by analysis rules in %d events", ruleIssues.size(), events.size())));
+        }
+        
+        String cacheKey = analysisCache != null ? EventFingerprint.of(batch, session, cacheSalt) : null;
+        if (cacheKey != null) {
+            Optional<String> cached = analysisCache.get(cacheKey);
+            if (cached.isPresent()) {
+                logger.debug("Reusing cached analysis for session: {} ({} events)", session.getName(), batch.size());
+                AnalysisResult cachedResult = parseAnalysisResponse(cached.get(), session);
+                notifyIssues(session, cachedResult.getIssues());
+                return CompletableFuture.completedFuture(withRuleIssues(cachedResult, ruleIssues, events.size(), session));
+            }
+        }
+        
+        if (isCircuitOpen()) {
+            logger.debug("LLM provider circuit is open, using rule findings for session: {}", session.getName());
+            return CompletableFuture.completedFuture(llmUnavailableResult(ruleIssues, events.size(), session));
+        }
+        
+        // Stream only when someone is listening for issues as they are written. Reading a stream
+        // blocks, so that path runs on the analysis pool; otherwise no thread waits on the provider.
+        StreamingIssueParser issueParser = config.isLlmStreaming() && !issueListeners.isEmpty()
+            ? new StreamingIssueParser(objectMapper, this::parseIssue, issue -> notifyIssue(session, issue))
+            : null;
+        Object[] promptArguments = promptArguments(batch, session);
+        String analysisPrompt = String.format(ANALYSIS_PROMPT_TEMPLATE, promptArguments);
+        // Periodic analyses may share one LLM call with other sessions; streamed answers cannot be split
+        boolean batchable = priority == AnalysisPriority.PERIODIC && issueParser == null
+            && config.getAnalysisBatchMaxSessions() > 1;
+        AnalysisTask task = new AnalysisTask(batch, session, priority, taskSequence.incrementAndGet(),
+            batchable ? promptArguments : null,
+            () -> issueParser != null
+                ? CompletableFuture.supplyAsync(
+                    () -> llmProvider.analyzeStreaming(analysisPrompt, SYSTEM_PROMPT, issueParser), analysisExecutor)
+                : llmProvider.analyzeAsync(analysisPrompt, SYSTEM_PROMPT));
+        
+        task.getResponse().handle((response, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                if (cause instanceof CircuitBreakerProvider.CircuitOpenException) {
+                    return llmUnavailableResult(ruleIssues, events.size(), session);
+                }
+                logger.error("Analysis failed for session: {}", session.getName(), cause);
+                return withRuleIssues(AnalysisResult.error("Analysis failed: " + cause.getMessage()),
+                    ruleIssues, events.size(), session);
+            }
+            
+            AnalysisResult result = parseAnalysisResponse(response, session);
+            if (issueParser == null || issueParser.getEmittedCount() == 0) {
+                notifyIssues(session, result.getIssues());
+            }
+            if (cacheKey != null && !result.hasError()) {
+                analysisCache.put(cacheKey, response);
+            }
+            
+            logger.debug("Analysis completed for session: {} with {} events", 
+                       session.getName(), batch.size());
+            
+            return withRuleIssues(result, ruleIssues, events.size(), session);
+        }).whenComplete((result, error) -> complete(task.getFuture(), result, error));
+        
+        enqueue(task);
+        return task.getFuture();
+    }
+    
+    /**
+     * Queue a task, folding in a still-queued periodic task of the same session
+     */
+    private void enqueue(AnalysisTask task) {
+        String sessionId = task.getSession().getId();
+        AnalysisTask stale = task.getPriority() == AnalysisPriority.PERIODIC
+            ? queuedPeriodic.put(sessionId, task)
+            : queuedPeriodic.remove(sessionId);
+        
+        priorityStats.get(task.getPriority()).queued.incrementAndGet();
+        analysisQueue.add(task);
+        
+        // remove() fails when the dispatcher already took the stale task; it then runs as usual
+        if (stale != null && analysisQueue.remove(stale)) {
+            PriorityStats staleStats = priorityStats.get(stale.getPriority());
+            staleStats.queued.decrementAndGet();
+            staleStats.coalesced.incrementAndGet();
+            logger.debug("Coalesced queued periodic analysis into newer {} analysis for session: {}",
+                       task.getPriority(), task.getSession().getName());
+            task.getFuture().whenComplete((result, error) -> complete(stale.getFuture(), result, error));
+        }
+        
+        dispatch();
+    }
+    
+    /**
+     * Start queued tasks, highest priority first, while the concurrency limit allows. Only one
+     * thread drains at a time; calls arriving meanwhile make it take another pass.
+     */
+    private void dispatch() {
+        if (dispatchPasses.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (inFlight.get() < concurrencyLimit.getLimit()) {
+                AnalysisTask task = analysisQueue.poll();
+                if (task == null) {
+                    break;
+                }
+                start(task);
+            }
+        } while (dispatchPasses.decrementAndGet() != 0);
+    }
+    
+    private void start(AnalysisTask task) {
+        List<AnalysisTask> tasks = collectBatch(task);
+        inFlight.incrementAndGet();
+        long startedAt = System.nanoTime();
+        for (AnalysisTask started : tasks) {
+            queuedPeriodic.remove(started.getSession().getId(), started);
+            priorityStats.get(started.getPriority()).recordStart(startedAt - started.getEnqueuedAt());
+        }
+        
+        CompletableFuture<String> call;
+        try {
+            if (tasks.size() == 1) {
+                call = task.getRequest().get();
+            } else {
+                batchedCalls.incrementAndGet();
+                batchedAnalyses.addAndGet(tasks.size());
+                logger.debug("Sending {} session analyses in one LLM call", tasks.size());
+                call = llmProvider.analyzeAsync(buildBatchPrompt(tasks), SYSTEM_PROMPT);
+            }
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        
+        call.whenComplete((response, error) -> {
+            // Requests rejected by an open circuit say nothing about the provider's capacity
+            if (!(error != null && unwrap(error) instanceof CircuitBreakerProvider.CircuitOpenException)) {
+                concurrencyLimit.onSample(System.nanoTime() - startedAt, error != null);
+            }
+            if (inFlight.decrementAndGet() == 0) {
+                synchronized (idle) {
+                    idle.notifyAll();
+                }
+            }
+            if (tasks.size() == 1) {
+                complete(task.getResponse(), response, error);
+            } else {
+                fanOut(tasks, response, error);
+            }
+            dispatch();
+        });
+    }
+    
+    /**
+     * The task plus the queued batchable tasks right behind it, within the session and token limits.
+     * Batchable tasks are periodic, the lowest priority, so they are always at the head of the
+     * queue together; a higher-priority task arriving meanwhile ends the batch.
+     */
+    private List<AnalysisTask> collectBatch(AnalysisTask first) {
+        if (!first.isBatchable()) {
+            return List.of(first);
+        }
+        
+        List<AnalysisTask> tasks = new ArrayList<>();
+        tasks.add(first);
+        int tokens = first.getEstimatedTokens();
+        while (tasks.size() < config.getAnalysisBatchMaxSessions()) {
+            AnalysisTask next = analysisQueue.peek();
+            if (next == null || !next.isBatchable()
+                || tokens + next.getEstimatedTokens() > config.getAnalysisBatchTokenBudget()) {
+                break;
+            }
+            AnalysisTask taken = analysisQueue.poll();
+            if (taken != next) {
+                if (taken != null) {
+                    analysisQueue.add(taken);
+                }
+                break;
+            }
+            tokens += next.getEstimatedTokens();
+            tasks.add(next);
+        }
+        return tasks;
+    }
+    
+    /**
+     * Hand each task its part of a batched answer, as if it had been asked on its own
+     */
+    private void fanOut(List<AnalysisTask> tasks, String response, Throwable error) {
+        JsonNode answers = null;
+        if (error == null) {
             try {
-                queueSize.incrementAndGet();
-                
-                String analysisPrompt = buildAnalysisPrompt(events, session);
-                String llmResponse = llmProvider.analyze(analysisPrompt, SYSTEM_PROMPT);
-                
-                AnalysisResult result = parseAnalysisResponse(llmResponse, session);
-                
-                logger.debug("Analysis completed for session: {} with {} events", 
-                           session.getName(), events.size());
-                
-                return result;
-                
+                answers = objectMapper.readTree(response);
             } catch (Exception e) {
-                logger.error("Analysis failed for session: {}", session.getName(), e);
-                return AnalysisResult.error("Analysis failed: " + e.getMessage());
-            } finally {
-                queueSize.decrementAndGet();
+                error = e;
             }
-        }, analysisExecutor);
+        }
+        
+        for (int i = 0; i < tasks.size(); i++) {
+            CompletableFuture<String> taskResponse = tasks.get(i).getResponse();
+            JsonNode answer = answers != null ? answers.get(batchKey(i)) : null;
+            if (answer != null && answer.isObject()) {
+                taskResponse.complete(answer.toString());
+            } else if (error != null) {
+                taskResponse.completeExceptionally(error);
+            } else {
+                taskResponse.completeExceptionally(
+                    new IllegalStateException("Batched LLM answer has no entry for session key " + batchKey(i)));
+            }
+        }
+    }
+    
+    private static String batchKey(int index) {
+        return "S" + (index + 1);
+    }
+    
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+    
+    /**
+     * Add a rule to the pre-LLM rule stage
+     */
+    public synchronized void registerRule(AnalysisRule rule) {
+        ruleEngine = ruleEngine.withRule(rule);
+        logger.info("Registered analysis rule: {}", rule.getName());
+    }
+    
+    /**
+     * Register a listener that receives each issue as soon as it is found
+     */
+    public void addIssueListener(IssueListener listener) {
+        issueListeners.add(listener);
+    }
+    
+    public void removeIssueListener(IssueListener listener) {
+        issueListeners.remove(listener);
+    }
+    
+    /**
+     * Whether a batch contains anything worth an LLM call: warnings, errors, failed or slow requests
+     */
+    public boolean hasSignificantEvents(List<BrowserEvent> events) {
+        for (BrowserEvent event : events) {
+            if (isSignificant(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private boolean isSignificant(BrowserEvent event) {
+        String level = event.getLevel();
+        if (level != null && !LOW_SEVERITY_LEVELS.contains(level.toUpperCase())) {
+            return true;
+        }
+        if (event.getContent() instanceof NetworkTiming) {
+            NetworkTiming timing = (NetworkTiming) event.getContent();
+            return timing.isFailed() || timing.getLatencyMs() >= config.getSlowRequestThreshold().toMillis();
+        }
+        return false;
+    }
+    
+    /**
+     * Analysis cache hit and miss counts, or zeros when the cache is disabled
+     */
+    public Map<String, Long> getCacheStats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("hits", analysisCache != null ? analysisCache.getHitCount() : 0L);
+        stats.put("misses", analysisCache != null ? analysisCache.getMissCount() : 0L);
+        stats.put("entries", analysisCache != null ? (long) analysisCache.size() : 0L);
+        return stats;
+    }
+    
+    /**
+     * Scheduler state: the adaptive concurrency limit and, per priority, queue depth, tasks started,
+     * tasks coalesced into newer ones, and time spent waiting in the queue
+     */
+    public Map<String, Object> getSchedulerStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("concurrencyLimit", concurrencyLimit.getLimit());
+        stats.put("inFlight", inFlight.get());
+        stats.put("baselineLatencyMs", concurrencyLimit.getBaselineLatencyMillis());
+        stats.put("batchedCalls", batchedCalls.get());
+        stats.put("batchedAnalyses", batchedAnalyses.get());
+        for (AnalysisPriority priority : AnalysisPriority.values()) {
+            stats.put(priority.name().toLowerCase(), priorityStats.get(priority).snapshot());
+        }
+        return stats;
+    }
+    
+    /**
+     * Circuit breaker state and transition counts, or an empty map when the breaker is disabled
+     */
+    public Map<String, Object> getCircuitBreakerStats() {
+        return llmProvider instanceof CircuitBreakerProvider
+            ? ((CircuitBreakerProvider) llmProvider).getStats()
+            : Map.of();
+    }
+    
+    /**
+     * Per-endpoint load, latency and health when several endpoints are configured, otherwise an empty map
+     */
+    public Map<String, Object> getEndpointStats() {
+        LLMProvider provider = llmProvider instanceof CircuitBreakerProvider
+            ? ((CircuitBreakerProvider) llmProvider).getDelegate()
+            : llmProvider;
+        return provider instanceof PooledProvider ? ((PooledProvider) provider).getStats() : Map.of();
     }
     
     /**
      * Get the current analysis queue size
      * 
-     * @return Current queue size
+     * @return Analyses waiting for or holding an LLM request slot
      */
     public int getQueueSize() {
-        return queueSize.get();
+        return analysisQueue.size() + inFlight.get();
     }
     
     /**
@@ -161,9 +559,33 @@ public class LLMAnalysisService {
     public void shutdown() {
         logger.info("Shutting down LLM Analysis Service...");
         
+        AnalysisTask pending;
+        while ((pending = analysisQueue.poll()) != null) {
+            priorityStats.get(pending.getPriority()).queued.decrementAndGet();
+            // Through the response handler, so the rule findings of the session are still reported
+            pending.getResponse().completeExceptionally(new IllegalStateException("Analysis service shut down"));
+        }
+        
+        // Let calls already sent finish, e.g. the final analyses of sessions whose reports wait for them
+        long deadline = System.nanoTime() + config.getTimeout().toNanos();
+        synchronized (idle) {
+            long remaining;
+            while (inFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (inFlight.get() > 0) {
+            logger.warn("Closing the LLM provider with {} analyses still in flight", inFlight.get());
+        }
+        
         analysisExecutor.shutdown();
         try {
-            if (!analysisExecutor.awaitTermination(30, java.util.concurrent.TimeUnit.SECONDS)) {
+            if (!analysisExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
                 analysisExecutor.shutdownNow();
             }
         } catch (InterruptedException e) {
@@ -179,64 +601,126 @@ public class LLMAnalysisService {
     }
     
     /**
-     * Build the analysis prompt from events and session context
+     * Build one prompt for several sessions, each in a section under its batch key
      */
-    private String buildAnalysisPrompt(List<BrowserEvent> events, MonitoringSession session) {
-        // Sort events by timestamp
-        List<BrowserEvent> sortedEvents = events.stream()
-            .sorted((e1, e2) -> e1.getTimestamp().compareTo(e2.getTimestamp()))
-            .collect(Collectors.toList());
-        
-        Instant startTime = sortedEvents.get(0).getTimestamp();
-        Instant endTime = sortedEvents.get(sortedEvents.size() - 1).getTimestamp();
-        
-        // Generate events summary
-        Map<String, Long> eventTypeCounts = events.stream()
-            .collect(Collectors.groupingBy(
-                BrowserEvent::getType, 
-                Collectors.counting()
-            ));
-        
-        StringBuilder summaryBuilder = new StringBuilder();
-        eventTypeCounts.forEach((type, count) -> 
-            summaryBuilder.append(String.format("- %s: %d events\n", type, count))
-        );
-        
-        // Generate detailed event information
-        StringBuilder detailsBuilder = new StringBuilder();
-        for (int i = 0; i < Math.min(sortedEvents.size(), 20); i++) {
-            BrowserEvent event = sortedEvents.get(i);
-            detailsBuilder.append(String.format(
-                "[%s] %s: %s\n",
-                DateTimeFormatter.ISO_INSTANT.format(event.getTimestamp()),
-                event.getType(),
-                event.getMessage()
-            ));
-            
-            if (event.getDetails() != null && !event.getDetails().isEmpty()) {
-                detailsBuilder.append("  Details: ").append(event.getDetails()).append("\n");
-            }
-            
-            if (event.getLevel() != null) {
-                detailsBuilder.append("  Level: ").append(event.getLevel()).append("\n");
+    private String buildBatchPrompt(List<AnalysisTask> tasks) {
+        StringBuilder sections = new StringBuilder();
+        for (int i = 0; i < tasks.size(); i++) {
+            sections.append(tasks.get(i).getBatchSection(batchKey(i))).append("\n");
+        }
+        return String.format(BATCH_PROMPT_TEMPLATE, tasks.size(), sections);
+    }
+    
+    /**
+     * Build the analysis prompt arguments from events and session context: session name,
+     * time range, event count, events summary and event details
+     */
+    private Object[] promptArguments(List<BrowserEvent> events, MonitoringSession session) {
+        Instant startTime = events.get(0).getTimestamp();
+        Instant endTime = startTime;
+        for (BrowserEvent event : events) {
+            if (event.getTimestamp().isBefore(startTime)) {
+                startTime = event.getTimestamp();
+            } else if (event.getTimestamp().isAfter(endTime)) {
+                endTime = event.getTimestamp();
             }
-            
-            detailsBuilder.append("\n");
         }
         
-        if (sortedEvents.size() > 20) {
-            detailsBuilder.append(String.format("... and %d more events\n", sortedEvents.size() - 20));
-        }
+        PromptCompiler.Sections sections = promptCompiler.compile(events, session.getName());
         
-        return String.format(
-            ANALYSIS_PROMPT_TEMPLATE,
+        return new Object[] {
             session.getName(),
             DateTimeFormatter.ISO_INSTANT.format(startTime),
             DateTimeFormatter.ISO_INSTANT.format(endTime),
             events.size(),
-            summaryBuilder.toString(),
-            detailsBuilder.toString()
-        );
+            sections.getSummary(),
+            sections.getDetails()
+        };
+    }
+    
+    private void notifyIssues(MonitoringSession session, List<Suggestion.Issue> issues) {
+        for (Suggestion.Issue issue : issues) {
+            notifyIssue(session, issue);
+        }
+    }
+    
+    private void notifyIssue(MonitoringSession session, Suggestion.Issue issue) {
+        for (IssueListener listener : issueListeners) {
+            try {
+                listener.onIssue(session, issue);
+            } catch (Exception e) {
+                logger.warn("Issue listener failed for session: {}", session.getName(), e);
+            }
+        }
+    }
+    
+    /**
+     * Fast-fail result while the LLM provider's circuit is open: whatever the rules found
+     */
+    private AnalysisResult llmUnavailableResult(List<Suggestion.Issue> ruleIssues, int eventCount, MonitoringSession session) {
+        return ruleBasedResult(ruleIssues, session, String.format(
+            "LLM provider unavailable; %d issue(s) identified by analysis rules in %d events", ruleIssues.size(), eventCount));
+    }
+    
+    private boolean isCircuitOpen() {
+        return llmProvider instanceof CircuitBreakerProvider
+            && ((CircuitBreakerProvider) llmProvider).getState() == CircuitBreakerProvider.State.OPEN;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * Result for a batch the rules fully classified
+     */
+    private AnalysisResult ruleBasedResult(List<Suggestion.Issue> issues, MonitoringSession session, String summary) {
+        return AnalysisResult.builder()
+            .sessionId(session.getId())
+            .sessionName(session.getName())
+            .timestamp(Instant.now())
+            .summary(summary)
+            .severity(severityOf(issues, AnalysisResult.Severity.LOW))
+            .issues(issues)
+            .build();
+    }
+    
+    /**
+     * Put the rule findings in front of the LLM's issues. A failed LLM analysis (timeout, server
+     * error, unparsable answer) still reports the rule findings rather than only the error.
+     */
+    private AnalysisResult withRuleIssues(AnalysisResult result, List<Suggestion.Issue> ruleIssues,
+                                          int eventCount, MonitoringSession session) {
+        if (ruleIssues.isEmpty()) {
+            return result;
+        }
+        if (result.hasError()) {
+            return ruleBasedResult(ruleIssues, session, String.format(
+                "LLM analysis failed (%s); %d issue(s) identified by analysis rules in %d events",
+                result.getErrorMessage(), ruleIssues.size(), eventCount));
+        }
+        
+        List<Suggestion.Issue> issues = new ArrayList<>(ruleIssues);
+        issues.addAll(result.getIssues());
+        return AnalysisResult.builder()
+            .sessionId(result.getSessionId())
+            .sessionName(result.getSessionName())
+            .timestamp(result.getTimestamp())
+            .summary(result.getSummary())
+            .severity(severityOf(ruleIssues, result.getSeverity()))
+            .issues(issues)
+            .recommendations(result.getRecommendations())
+            .build();
+    }
+    
+    private static AnalysisResult.Severity severityOf(List<Suggestion.Issue> issues, AnalysisResult.Severity floor) {
+        AnalysisResult.Severity severity = floor != null ? floor : AnalysisResult.Severity.LOW;
+        for (Suggestion.Issue issue : issues) {
+            if (issue.getPriority() != null && issue.getPriority().ordinal() > severity.ordinal()) {
+                severity = AnalysisResult.Severity.valueOf(issue.getPriority().name());
+            }
+        }
+        return severity;
     }
     
     /**
@@ -314,21 +798,83 @@ public class LLMAnalysisService {
     }
     
     /**
-     * Internal class for analysis tasks
+     * Internal class for analysis tasks, ordered by priority and then by arrival
      */
-    private static class AnalysisTask {
+    private static class AnalysisTask implements Comparable<AnalysisTask> {
         private final List<BrowserEvent> events;
         private final MonitoringSession session;
-        private final CompletableFuture<AnalysisResult> future;
+        private final CompletableFuture<AnalysisResult> future = new CompletableFuture<>();
+        private final AnalysisPriority priority;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+        // Prompt arguments for a batch section, or null when the task must be sent on its own
+        private final Object[] batchArguments;
+        private final int estimatedTokens;
+        private final Supplier<CompletableFuture<String>> request;
+        // Raw LLM answer; a coalesced task never gets one
+        private final CompletableFuture<String> response = new CompletableFuture<>();
         
-        public AnalysisTask(List<BrowserEvent> events, MonitoringSession session, CompletableFuture<AnalysisResult> future) {
+        public AnalysisTask(List<BrowserEvent> events, MonitoringSession session, AnalysisPriority priority,
+                            long sequence, Object[] batchArguments, Supplier<CompletableFuture<String>> request) {
             this.events = events;
             this.session = session;
-            this.future = future;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.batchArguments = batchArguments;
+            this.estimatedTokens = batchArguments != null ? PromptCompiler.estimateTokens(getBatchSection("S0")) : 0;
+            this.request = request;
         }
         
         public List<BrowserEvent> getEvents() { return events; }
         public MonitoringSession getSession() { return session; }
         public CompletableFuture<AnalysisResult> getFuture() { return future; }
+        public AnalysisPriority getPriority() { return priority; }
+        public long getEnqueuedAt() { return enqueuedAt; }
+        public boolean isBatchable() { return batchArguments != null; }
+        public int getEstimatedTokens() { return estimatedTokens; }
+        public Supplier<CompletableFuture<String>> getRequest() { return request; }
+        public CompletableFuture<String> getResponse() { return response; }
+        
+        public String getBatchSection(String key) {
+            Object[] arguments = new Object[batchArguments.length + 1];
+            arguments[0] = key;
+            System.arraycopy(batchArguments, 0, arguments, 1, batchArguments.length);
+            return String.format(BATCH_SECTION_TEMPLATE, arguments);
+        }
+        
+        @Override
+        public int compareTo(AnalysisTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    /**
+     * Queue metrics of one priority
+     */
+    private static class PriorityStats {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        
+        void recordStart(long waitNanos) {
+            queued.decrementAndGet();
+            started.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+        
+        Map<String, Long> snapshot() {
+            long count = started.get();
+            Map<String, Long> stats = new LinkedHashMap<>();
+            stats.put("queued", (long) queued.get());
+            stats.put("started", count);
+            stats.put("coalesced", coalesced.get());
+            stats.put("avgWaitMs", count > 0 ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count) : 0L);
+            stats.put("maxWaitMs", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+            return stats;
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.NetworkTiming;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns an event batch into the summary and detail sections of an analysis prompt.
+ *
+ * Events that only differ in ids, timestamps or durations are collapsed into one line with an
+ * "xN" count. The groups are ranked by severity, then by novelty (rarer first, then earlier
+ * first), and added until the token budget is spent; the chosen lines are printed in time order.
+ */
+class PromptCompiler {
+    
+    // Long stack traces say little more after the first frames
+    private static final int MAX_DETAILS_CHARS = 600;
+    
+    private final int tokenBudget;
+    private final long slowRequestMillis;
+    
+    PromptCompiler(int tokenBudget, Duration slowRequestThreshold) {
+        this.tokenBudget = tokenBudget;
+        this.slowRequestMillis = slowRequestThreshold.toMillis();
+    }
+    
+    /**
+     * Compile the event sections of the prompt
+     */
+    Sections compile(List<BrowserEvent> events, String sessionName) {
+        Map<String, Long> typeCounts = new TreeMap<>();
+        Map<String, EventGroup> groups = new LinkedHashMap<>();
+        for (BrowserEvent event : events) {
+            typeCounts.merge(event.getType(), 1L, Long::sum);
+            String key = event.getType() + '|' + event.getLevel() + '|'
+                + EventFingerprint.normalize(event.getMessage(), sessionName);
+            groups.computeIfAbsent(key, k -> new EventGroup(event, severity(event))).add(event);
+        }
+        
+        StringBuilder summary = new StringBuilder();
+        typeCounts.forEach((type, count) -> summary.append(String.format("- %s: %d events\n", type, count)));
+        
+        List<EventGroup> ranked = new ArrayList<>(groups.values());
+        ranked.sort(Comparator.comparingInt((EventGroup group) -> -group.severity)
+            .thenComparingInt(group -> group.count)
+            .thenComparing(group -> group.first));
+        
+        List<EventGroup> chosen = new ArrayList<>();
+        int tokens = 0;
+        int omittedEvents = 0;
+        for (EventGroup group : ranked) {
+            int groupTokens = estimateTokens(group.render());
+            // The top-ranked group is always included, whatever its size
+            if (chosen.isEmpty() || tokens + groupTokens <= tokenBudget) {
+                chosen.add(group);
+                tokens += groupTokens;
+            } else {
+                omittedEvents += group.count;
+            }
+        }
+        chosen.sort(Comparator.comparing(group -> group.first));
+        
+        StringBuilder details = new StringBuilder();
+        for (EventGroup group : chosen) {
+            details.append(group.render());
+        }
+        if (omittedEvents > 0) {
+            details.append(String.format("... and %d more lower-ranked events (%d distinct) left out\n",
+                omittedEvents, ranked.size() - chosen.size()));
+        }
+        
+        return new Sections(summary.toString(), details.toString());
+    }
+    
+    /**
+     * Approximate the number of LLM tokens in the text: letter and digit runs count one token per
+     * four characters, every other non-whitespace character one token. Close enough to BPE
+     * tokenizers for URLs, stack traces and JSON, where a plain length/4 undercounts.
+     */
+    static int estimateTokens(CharSequence text) {
+        int tokens = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                run++;
+                continue;
+            }
+            tokens += (run + 3) / 4;
+            run = 0;
+            if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        return tokens + (run + 3) / 4;
+    }
+    
+    private int severity(BrowserEvent event) {
+        int severity = levelSeverity(event.getLevel());
+        if ("javascript-exception".equals(event.getType())) {
+            severity = Math.max(severity, 4);
+        }
+        if (event.getContent() instanceof NetworkTiming) {
+            NetworkTiming timing = (NetworkTiming) event.getContent();
+            if (timing.isFailed() || timing.getStatusCode() >= 500) {
+                severity = Math.max(severity, 4);
+            } else if (timing.getLatencyMs() >= slowRequestMillis) {
+                severity = Math.max(severity, 2);
+            }
+        }
+        return severity;
+    }
+    
+    private static int levelSeverity(String level) {
+        if (level == null) {
+            return 0;
+        }
+        switch (level.toUpperCase()) {
+            case "SEVERE":
+            case "CRITICAL":
+            case "ERROR":
+                return 3;
+            case "WARN":
+            case "WARNING":
+                return 2;
+            case "INFO":
+            case "LOG":
+                return 1;
+            default:
+                return 0;
+        }
+    }
+    
+    /**
+     * Events summary and event details sections
+     */
+    static class Sections {
+        private final String summary;
+        private final String details;
+        
+        Sections(String summary, String details) {
+            this.summary = summary;
+            this.details = details;
+        }
+        
+        String getSummary() { return summary; }
+        String getDetails() { return details; }
+    }
+    
+    /**
+     * Events collapsed into one prompt line
+     */
+    private static class EventGroup {
+        private final BrowserEvent representative;
+        private final int severity;
+        private int count;
+        private Instant first;
+        private Instant last;
+        private String rendered;
+        
+        EventGroup(BrowserEvent representative, int severity) {
+            this.representative = representative;
+            this.severity = severity;
+        }
+        
+        void add(BrowserEvent event) {
+            count++;
+            Instant timestamp = event.getTimestamp();
+            if (first == null || timestamp.isBefore(first)) {
+                first = timestamp;
+            }
+            if (last == null || timestamp.isAfter(last)) {
+                last = timestamp;
+            }
+        }
+        
+        String render() {
+            if (rendered == null) {
+                StringBuilder line = new StringBuilder(String.format("[%s] %s: %s",
+                    DateTimeFormatter.ISO_INSTANT.format(first), representative.getType(), representative.getMessage()));
+                if (count > 1) {
+                    line.append(String.format(" x%d (last at %s)", count, DateTimeFormatter.ISO_INSTANT.format(last)));
+                }
+                line.append("\n");
+                
+                String details = representative.getDetails();
+                if (details != null && !details.isEmpty()) {
+                    if (details.length() > MAX_DETAILS_CHARS) {
+                        details = details.substring(0, MAX_DETAILS_CHARS) + "...";
+                    }
+                    line.append("  Details: ").append(details).append("\n");
+                }
+                if (representative.getLevel() != null) {
+                    line.append("  Level: ").append(representative.getLevel()).append("\n");
+                }
+                rendered = line.append("\n").toString();
+            }
+            return rendered;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link AnalysisRule}s over event batches before anything is sent to the LLM.
+ *
+ * Rules are compiled into a per-event-type dispatch table once, so each event is only checked
+ * by the rules that can match it. Repeated findings (same rule, same title) are folded into a
+ * single issue with an occurrence count. The engine is immutable; {@link #withRule} returns a new one.
+ */
+public class RuleEngine {
+    
+    private static final AnalysisRule[] NO_RULES = new AnalysisRule[0];
+    
+    private final List<AnalysisRule> rules;
+    private final Map<String, AnalysisRule[]> rulesByType;
+    private final AnalysisRule[] rulesForAllTypes;
+    
+    public RuleEngine(List<AnalysisRule> rules) {
+        this.rules = List.copyOf(rules);
+        
+        List<AnalysisRule> anyType = new ArrayList<>();
+        Map<String, List<AnalysisRule>> byType = new HashMap<>();
+        for (AnalysisRule rule : this.rules) {
+            if (rule.getEventTypes().isEmpty()) {
+                anyType.add(rule);
+            } else {
+                rule.getEventTypes().forEach(type -> byType.computeIfAbsent(type, t -> new ArrayList<>()).add(rule));
+            }
+        }
+        
+        // Rules for all types also run for each specific type, after the type-specific ones
+        this.rulesForAllTypes = anyType.toArray(NO_RULES);
+        this.rulesByType = new HashMap<>();
+        byType.forEach((type, typeRules) -> {
+            List<AnalysisRule> combined = new ArrayList<>(typeRules);
+            combined.addAll(anyType);
+            rulesByType.put(type, combined.toArray(NO_RULES));
+        });
+    }
+    
+    /**
+     * A new engine with an additional rule
+     */
+    public RuleEngine withRule(AnalysisRule rule) {
+        List<AnalysisRule> extended = new ArrayList<>(rules);
+        extended.add(rule);
+        return new RuleEngine(extended);
+    }
+    
+    public List<AnalysisRule> getRules() {
+        return rules;
+    }
+    
+    /**
+     * Evaluate a batch of events
+     */
+    public Result evaluate(List<BrowserEvent> events) {
+        Map<String, Finding> findings = new LinkedHashMap<>();
+        List<BrowserEvent> unmatched = new ArrayList<>();
+        
+        for (BrowserEvent event : events) {
+            AnalysisRule[] candidates = event.getType() != null
+                ? rulesByType.getOrDefault(event.getType(), rulesForAllTypes)
+                : rulesForAllTypes;
+            
+            boolean matched = false;
+            for (AnalysisRule rule : candidates) {
+                Suggestion.Issue issue = rule.evaluate(event);
+                if (issue != null) {
+                    matched = true;
+                    findings.computeIfAbsent(rule.getName() + '|' + issue.getTitle(), key -> new Finding(issue)).count++;
+                }
+            }
+            if (!matched) {
+                unmatched.add(event);
+            }
+        }
+        
+        List<Suggestion.Issue> issues = new ArrayList<>(findings.size());
+        findings.values().forEach(finding -> issues.add(finding.toIssue()));
+        return new Result(issues, unmatched);
+    }
+    
+    /**
+     * Issues found by the rules, and the events none of them matched
+     */
+    public static class Result {
+        private final List<Suggestion.Issue> issues;
+        private final List<BrowserEvent> unmatchedEvents;
+        
+        private Result(List<Suggestion.Issue> issues, List<BrowserEvent> unmatchedEvents) {
+            this.issues = Collections.unmodifiableList(issues);
+            this.unmatchedEvents = Collections.unmodifiableList(unmatchedEvents);
+        }
+        
+        public List<Suggestion.Issue> getIssues() { return issues; }
+        public List<BrowserEvent> getUnmatchedEvents() { return unmatchedEvents; }
+        
+        public boolean hasIssues() {
+            return !issues.isEmpty();
+        }
+    }
+    
+    private static final class Finding {
+        private final Suggestion.Issue issue;
+        private int count;
+        
+        private Finding(Suggestion.Issue issue) {
+            this.issue = issue;
+        }
+        
+        private Suggestion.Issue toIssue() {
+            if (count == 1) {
+                return issue;
+            }
+            return Suggestion.Issue.builder()
+                .type(issue.getType())
+                .title(issue.getTitle())
+                .description(issue.getDescription() + " (seen " + count + " times)")
+                .suggestion(issue.getSuggestion())
+                .priority(issue.getPriority())
+                .impact(issue.getImpact())
+                .build();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Picks complete elements of the top-level "issues" array out of a partially received LLM answer.
+ *
+ * Chunks are scanned character by character, tracking string and nesting state; as soon as an
+ * issue object closes it is parsed and handed to the sink, without waiting for the rest of the
+ * response. Text outside the top-level object (such as markdown fences) is ignored.
+ */
+class StreamingIssueParser implements Consumer<String> {
+    private static final Logger logger = LoggerFactory.getLogger(StreamingIssueParser.class);
+    
+    private static final String ISSUES_KEY = "issues";
+    
+    private final ObjectMapper objectMapper;
+    private final Function<JsonNode, Suggestion.Issue> issueParser;
+    private final Consumer<Suggestion.Issue> sink;
+    
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private final StringBuilder topLevelString = new StringBuilder();
+    private String lastTopLevelString;
+    private String currentKey;
+    private boolean inIssues;
+    private final StringBuilder element = new StringBuilder();
+    private boolean capturing;
+    private int emitted;
+    
+    StreamingIssueParser(ObjectMapper objectMapper, Function<JsonNode, Suggestion.Issue> issueParser,
+                         Consumer<Suggestion.Issue> sink) {
+        this.objectMapper = objectMapper;
+        this.issueParser = issueParser;
+        this.sink = sink;
+    }
+    
+    @Override
+    public void accept(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            step(chunk.charAt(i));
+        }
+    }
+    
+    int getEmittedCount() {
+        return emitted;
+    }
+    
+    private void step(char c) {
+        if (capturing) {
+            element.append(c);
+        }
+        
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+                return;
+            } else if (c == '"') {
+                inString = false;
+                if (depth == 1) {
+                    lastTopLevelString = topLevelString.toString();
+                }
+                return;
+            }
+            if (depth == 1) {
+                topLevelString.append(c);
+            }
+            return;
+        }
+        
+        switch (c) {
+            case '"':
+                inString = true;
+                if (depth == 1) {
+                    topLevelString.setLength(0);
+                }
+                break;
+            case ':':
+                if (depth == 1) {
+                    currentKey = lastTopLevelString;
+                }
+                break;
+            case ',':
+                if (depth == 1) {
+                    currentKey = null;
+                }
+                break;
+            case '[':
+                if (depth == 1 && ISSUES_KEY.equals(currentKey)) {
+                    inIssues = true;
+                }
+                depth++;
+                break;
+            case '{':
+                if (inIssues && depth == 2 && !capturing) {
+                    capturing = true;
+                    element.setLength(0);
+                    element.append(c);
+                }
+                depth++;
+                break;
+            case '}':
+            case ']':
+                depth = Math.max(0, depth - 1);
+                if (capturing && depth == 2) {
+                    capturing = false;
+                    emit(element.toString());
+                } else if (inIssues && depth == 1) {
+                    inIssues = false;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void emit(String json) {
+        try {
+            Suggestion.Issue issue = issueParser.apply(objectMapper.readTree(json));
+            emitted++;
+            sink.accept(issue);
+        } catch (Exception e) {
+            logger.debug("Skipping unparseable streamed issue: {}", json, e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.seleniumiq.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Which threads run analysis, provider I/O and report writing.
+ *
+ * PLATFORM keeps the small fixed pools. VIRTUAL gives each task its own virtual thread, so work
+ * blocked on the network or disk does not hold up other sessions; concurrency against the LLM is
+ * then bounded by the provider limit rather than by pool size.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+    
+    /**
+     * Executor for blocking work
+     *
+     * @param name Thread name prefix
+     * @param platformThreads Pool size in PLATFORM mode
+     */
+    public ExecutorService newExecutor(String name, int platformThreads) {
+        if (this == VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformThreads);
+    }
+    
+    public static ExecutionMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -1,6 +1,16 @@
 package com.seleniumiq.config;
 
+import com.seleniumiq.events.BrowserEventCodec;
+import com.seleniumiq.events.EventRingBuffer;
+import com.seleniumiq.llm.PooledProvider;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Configuration class for SeleniumIQ
@@ -16,10 +26,73 @@ public class MonitorConfig {
     private final boolean realtimeSuggestionsEnabled;
     private final Duration analysisInterval;
     private final int batchSize;
+    private final boolean skipLowSeverityAnalysis;
+    private final boolean analysisRulesEnabled;
+    private final int analysisPromptTokenBudget;
+    
+    // Priority scheduling of LLM analyses (monitoring.analysis.scheduler)
+    private final int analysisInitialConcurrency;
+    private final int analysisMinConcurrency;
+    private final int analysisMaxConcurrency;
+    private final double analysisLatencyTolerance;
+    private final int analysisBatchMaxSessions;
+    private final int analysisBatchTokenBudget;
+    
+    // Analysis response cache (monitoring.analysis.cache)
+    private final boolean analysisCacheEnabled;
+    private final int analysisCacheMaxEntries;
+    private final Duration analysisCacheTtl;
+    private final Path analysisCacheDirectory;
+    private final int analysisCacheMaxDiskEntries;
     
     // Ollama specific configuration
     private final String ollamaBaseUrl;
     private final String ollamaModel;
+    private final boolean ollamaWarmUp;
+    private final Duration ollamaModelCheckTtl;
+    private final boolean llmStreaming;
+    private final int maxConcurrentLlmRequests;
+    private final boolean circuitBreakerEnabled;
+    private final int circuitBreakerFailureThreshold;
+    private final Duration circuitBreakerOpenDuration;
+    
+    // Several endpoints of the provider (llm.endpoints)
+    private final List<String> llmEndpoints;
+    private final PooledProvider.Balancing llmLoadBalancing;
+    private final boolean llmHedging;
+    private final Duration llmHealthCheckInterval;
+    private final int httpMaxIdleConnections;
+    private final Duration httpKeepAlive;
+    private final int httpMaxRequests;
+    private final int httpMaxRequestsPerHost;
+    private final boolean http2Enabled;
+    private final Duration httpPingInterval;
+    private final ExecutionMode executionMode;
+    
+    // Event storage configuration
+    private final int eventBufferCapacity;
+    private final EventRingBuffer.OverflowPolicy eventOverflowPolicy;
+    private final Duration networkRequestTimeout;
+    private final Path spillDirectory;
+    private final BrowserEventCodec.Compression spillCompression;
+    private final boolean journalEnabled;
+    private final Path journalDirectory;
+    private final int journalSegmentSize;
+    private final boolean journalRecoverOnStart;
+    
+    // Capture filters (monitoring.filters)
+    private final String minLogLevel;
+    private final boolean failedRequestsOnly;
+    private final List<String> excludedDomains;
+    private final List<String> includedContentTypes;
+    private final Duration slowRequestThreshold;
+    
+    // Report generation (monitoring.output.reports)
+    private final int maxEventsPerReport;
+    private final int reportWriterThreads;
+    private final int reportQueueCapacity;
+    private final boolean reportFsync;
+    private final Duration reportShutdownTimeout;
     
     private MonitorConfig(Builder builder) {
         this.monitoringEnabled = builder.monitoringEnabled;
@@ -32,32 +105,189 @@ public class MonitorConfig {
         this.realtimeSuggestionsEnabled = builder.realtimeSuggestionsEnabled;
         this.analysisInterval = builder.analysisInterval;
         this.batchSize = builder.batchSize;
+        this.skipLowSeverityAnalysis = builder.skipLowSeverityAnalysis;
+        this.analysisRulesEnabled = builder.analysisRulesEnabled;
+        this.analysisPromptTokenBudget = builder.analysisPromptTokenBudget;
+        this.analysisInitialConcurrency = builder.analysisInitialConcurrency;
+        this.analysisMinConcurrency = builder.analysisMinConcurrency;
+        this.analysisMaxConcurrency = builder.analysisMaxConcurrency;
+        this.analysisLatencyTolerance = builder.analysisLatencyTolerance;
+        this.analysisBatchMaxSessions = builder.analysisBatchMaxSessions;
+        this.analysisBatchTokenBudget = builder.analysisBatchTokenBudget;
+        this.analysisCacheEnabled = builder.analysisCacheEnabled;
+        this.analysisCacheMaxEntries = builder.analysisCacheMaxEntries;
+        this.analysisCacheTtl = builder.analysisCacheTtl;
+        this.analysisCacheDirectory = builder.analysisCacheDirectory;
+        this.analysisCacheMaxDiskEntries = builder.analysisCacheMaxDiskEntries;
         this.ollamaBaseUrl = builder.ollamaBaseUrl;
         this.ollamaModel = builder.ollamaModel;
+        this.ollamaWarmUp = builder.ollamaWarmUp;
+        this.ollamaModelCheckTtl = builder.ollamaModelCheckTtl;
+        this.llmStreaming = builder.llmStreaming;
+        this.maxConcurrentLlmRequests = builder.maxConcurrentLlmRequests;
+        this.circuitBreakerEnabled = builder.circuitBreakerEnabled;
+        this.circuitBreakerFailureThreshold = builder.circuitBreakerFailureThreshold;
+        this.circuitBreakerOpenDuration = builder.circuitBreakerOpenDuration;
+        this.llmEndpoints = builder.llmEndpoints;
+        this.llmLoadBalancing = builder.llmLoadBalancing;
+        this.llmHedging = builder.llmHedging;
+        this.llmHealthCheckInterval = builder.llmHealthCheckInterval;
+        this.httpMaxIdleConnections = builder.httpMaxIdleConnections;
+        this.httpKeepAlive = builder.httpKeepAlive;
+        this.httpMaxRequests = builder.httpMaxRequests;
+        this.httpMaxRequestsPerHost = builder.httpMaxRequestsPerHost;
+        this.http2Enabled = builder.http2Enabled;
+        this.httpPingInterval = builder.httpPingInterval;
+        this.executionMode = builder.executionMode;
+        this.eventBufferCapacity = builder.eventBufferCapacity;
+        this.eventOverflowPolicy = builder.eventOverflowPolicy;
+        this.networkRequestTimeout = builder.networkRequestTimeout;
+        this.spillDirectory = builder.spillDirectory;
+        this.spillCompression = builder.spillCompression;
+        this.journalEnabled = builder.journalEnabled;
+        this.journalDirectory = builder.journalDirectory;
+        this.journalSegmentSize = builder.journalSegmentSize;
+        this.journalRecoverOnStart = builder.journalRecoverOnStart;
+        this.minLogLevel = builder.minLogLevel;
+        this.failedRequestsOnly = builder.failedRequestsOnly;
+        this.excludedDomains = List.copyOf(builder.excludedDomains);
+        this.includedContentTypes = List.copyOf(builder.includedContentTypes);
+        this.slowRequestThreshold = builder.slowRequestThreshold;
+        this.maxEventsPerReport = builder.maxEventsPerReport;
+        this.reportWriterThreads = builder.reportWriterThreads;
+        this.reportQueueCapacity = builder.reportQueueCapacity;
+        this.reportFsync = builder.reportFsync;
+        this.reportShutdownTimeout = builder.reportShutdownTimeout;
     }
     
     public static MonitorConfig load() {
-        // Load configuration with Ollama as default provider
+        // LLM settings: Ollama as default provider, overridable through system properties
         String provider = System.getProperty("seleniumiq.llm.provider", "ollama");
         String ollamaUrl = System.getProperty("seleniumiq.ollama.url", "http://localhost:11434");
         String ollamaModel = System.getProperty("seleniumiq.ollama.model", "mistral:latest");
         
+        // Monitoring settings come from application.conf (system properties override by path)
+        Config llm = loadSection("seleniumiq.llm");
+        Config monitoring = loadSection("seleniumiq.monitoring");
+        Builder defaults = new Builder();
+        
         return new Builder()
-            .monitoringEnabled(true)
+            .monitoringEnabled(getBoolean(monitoring, "enabled", defaults.monitoringEnabled))
             .provider(provider)
             .apiKey(System.getenv("OPENAI_API_KEY"))
             .baseUrl("https://api.openai.com/v1")
             .model("gpt-4")
             .timeout(Duration.ofSeconds(60)) // Longer timeout for local models
             .maxRetries(3)
-            .realtimeSuggestionsEnabled(true)
-            .analysisInterval(Duration.ofSeconds(30))
-            .batchSize(10)
+            .realtimeSuggestionsEnabled(getBoolean(monitoring, "analysis.real-time-suggestions", defaults.realtimeSuggestionsEnabled))
+            .analysisInterval(getDuration(monitoring, "analysis.analysis-interval", defaults.analysisInterval))
+            .batchSize(getInt(monitoring, "analysis.batch-size", defaults.batchSize))
+            .skipLowSeverityAnalysis(getBoolean(monitoring, "analysis.skip-low-severity", defaults.skipLowSeverityAnalysis))
+            .analysisRulesEnabled(getBoolean(monitoring, "analysis.rules.enabled", defaults.analysisRulesEnabled))
+            .analysisPromptTokenBudget(getInt(monitoring, "analysis.prompt-token-budget", defaults.analysisPromptTokenBudget))
+            .analysisInitialConcurrency(getInt(monitoring, "analysis.scheduler.initial-concurrency", defaults.analysisInitialConcurrency))
+            .analysisMinConcurrency(getInt(monitoring, "analysis.scheduler.min-concurrency", defaults.analysisMinConcurrency))
+            .analysisMaxConcurrency(getInt(monitoring, "analysis.scheduler.max-concurrency", defaults.analysisMaxConcurrency))
+            .analysisLatencyTolerance(getDouble(monitoring, "analysis.scheduler.latency-tolerance", defaults.analysisLatencyTolerance))
+            .analysisBatchMaxSessions(getInt(monitoring, "analysis.scheduler.batch-max-sessions", defaults.analysisBatchMaxSessions))
+            .analysisBatchTokenBudget(getInt(monitoring, "analysis.scheduler.batch-token-budget", defaults.analysisBatchTokenBudget))
+            .analysisCacheEnabled(getBoolean(monitoring, "analysis.cache.enabled", defaults.analysisCacheEnabled))
+            .analysisCacheMaxEntries(getInt(monitoring, "analysis.cache.max-entries", defaults.analysisCacheMaxEntries))
+            .analysisCacheTtl(getDuration(monitoring, "analysis.cache.ttl", defaults.analysisCacheTtl))
+            .analysisCacheDirectory(getPath(monitoring, "analysis.cache.directory", defaults.analysisCacheDirectory))
+            .analysisCacheMaxDiskEntries(getInt(monitoring, "analysis.cache.max-disk-entries", defaults.analysisCacheMaxDiskEntries))
             .ollamaBaseUrl(ollamaUrl)
             .ollamaModel(ollamaModel)
+            .ollamaWarmUp(getBoolean(llm, "ollama.warm-up", defaults.ollamaWarmUp))
+            .ollamaModelCheckTtl(getDuration(llm, "ollama.model-check-ttl", defaults.ollamaModelCheckTtl))
+            .llmStreaming(getBoolean(llm, "streaming", defaults.llmStreaming))
+            .maxConcurrentLlmRequests(getInt(llm, "max-concurrent-requests", defaults.maxConcurrentLlmRequests))
+            .circuitBreakerEnabled(getBoolean(llm, "circuit-breaker.enabled", defaults.circuitBreakerEnabled))
+            .circuitBreakerFailureThreshold(getInt(llm, "circuit-breaker.failure-threshold", defaults.circuitBreakerFailureThreshold))
+            .circuitBreakerOpenDuration(getDuration(llm, "circuit-breaker.open-duration", defaults.circuitBreakerOpenDuration))
+            .llmEndpoints(getStringList(llm, "endpoints", defaults.llmEndpoints))
+            .llmLoadBalancing(PooledProvider.Balancing.fromString(
+                getString(llm, "load-balancing", defaults.llmLoadBalancing.name())))
+            .llmHedging(getBoolean(llm, "hedging", defaults.llmHedging))
+            .llmHealthCheckInterval(getDuration(llm, "health-check-interval", defaults.llmHealthCheckInterval))
+            .httpMaxIdleConnections(getInt(llm, "http.max-idle-connections", defaults.httpMaxIdleConnections))
+            .httpKeepAlive(getDuration(llm, "http.keep-alive", defaults.httpKeepAlive))
+            .httpMaxRequests(getInt(llm, "http.max-requests", defaults.httpMaxRequests))
+            .httpMaxRequestsPerHost(getInt(llm, "http.max-requests-per-host", defaults.httpMaxRequestsPerHost))
+            .http2Enabled(getBoolean(llm, "http.http2", defaults.http2Enabled))
+            .httpPingInterval(getDuration(llm, "http.ping-interval", defaults.httpPingInterval))
+            .executionMode(ExecutionMode.fromString(
+                getString(monitoring, "execution-mode", defaults.executionMode.name())))
+            // The original seleniumiq.events.* system properties still take precedence over the config paths
+            .eventBufferCapacity(Integer.getInteger("seleniumiq.events.buffer-capacity",
+                getInt(monitoring, "events.buffer-capacity", defaults.eventBufferCapacity)))
+            .eventOverflowPolicy(EventRingBuffer.OverflowPolicy.fromString(System.getProperty("seleniumiq.events.overflow-policy",
+                getString(monitoring, "events.overflow-policy", defaults.eventOverflowPolicy.name()))))
+            .networkRequestTimeout(getDuration(monitoring, "events.network-request-timeout", defaults.networkRequestTimeout))
+            .spillDirectory(getPath(monitoring, "events.spill-directory", defaults.spillDirectory))
+            .spillCompression(BrowserEventCodec.Compression.fromString(
+                getString(monitoring, "events.spill-compression", defaults.spillCompression.name())))
+            .journalEnabled(getBoolean(monitoring, "events.journal.enabled", defaults.journalEnabled))
+            .journalDirectory(getPath(monitoring, "events.journal.directory", defaults.journalDirectory))
+            .journalSegmentSize(getBytes(monitoring, "events.journal.segment-size", defaults.journalSegmentSize))
+            .journalRecoverOnStart(getBoolean(monitoring, "events.journal.recover-on-start", defaults.journalRecoverOnStart))
+            .minLogLevel(getString(monitoring, "filters.min-log-level", defaults.minLogLevel))
+            .failedRequestsOnly(getBoolean(monitoring, "filters.network.failed-requests-only", defaults.failedRequestsOnly))
+            .excludedDomains(getStringList(monitoring, "filters.network.excluded-domains", defaults.excludedDomains))
+            .includedContentTypes(getStringList(monitoring, "filters.network.included-content-types", defaults.includedContentTypes))
+            .slowRequestThreshold(getDuration(monitoring, "filters.performance.slow-request-threshold", defaults.slowRequestThreshold))
+            .maxEventsPerReport(getInt(monitoring, "output.reports.max-events-per-report", defaults.maxEventsPerReport))
+            .reportWriterThreads(getInt(monitoring, "output.reports.writer.threads", defaults.reportWriterThreads))
+            .reportQueueCapacity(getInt(monitoring, "output.reports.writer.queue-capacity", defaults.reportQueueCapacity))
+            .reportFsync(getBoolean(monitoring, "output.reports.writer.fsync", defaults.reportFsync))
+            .reportShutdownTimeout(getDuration(monitoring, "output.reports.writer.shutdown-timeout", defaults.reportShutdownTimeout))
             .build();
     }
     
+    /**
+     * Load a section of application.conf, or an empty config if it is absent
+     */
+    private static Config loadSection(String path) {
+        Config root = ConfigFactory.load();
+        return root.hasPath(path) ? root.getConfig(path) : ConfigFactory.empty();
+    }
+    
+    private static String getString(Config config, String path, String fallback) {
+        return config.hasPath(path) ? config.getString(path) : fallback;
+    }
+    
+    private static int getInt(Config config, String path, int fallback) {
+        return config.hasPath(path) ? config.getInt(path) : fallback;
+    }
+    
+    private static double getDouble(Config config, String path, double fallback) {
+        return config.hasPath(path) ? config.getDouble(path) : fallback;
+    }
+    
+    private static boolean getBoolean(Config config, String path, boolean fallback) {
+        return config.hasPath(path) ? config.getBoolean(path) : fallback;
+    }
+    
+    // Accepts size units such as "8m"; plain numbers are bytes
+    private static int getBytes(Config config, String path, int fallback) {
+        return config.hasPath(path) ? Math.toIntExact(config.getBytes(path)) : fallback;
+    }
+    
+    // Plain numbers are read as milliseconds
+    private static Duration getDuration(Config config, String path, Duration fallback) {
+        return config.hasPath(path) ? config.getDuration(path) : fallback;
+    }
+    
+    // Blank values keep the fallback
+    private static Path getPath(Config config, String path, Path fallback) {
+        String value = getString(config, path, "");
+        return value.isBlank() ? fallback : Paths.get(value);
+    }
+    
+    private static List<String> getStringList(Config config, String path, List<String> fallback) {
+        return config.hasPath(path) ? config.getStringList(path) : fallback;
+    }
+    
     // Getters
     public boolean isMonitoringEnabled() { return monitoringEnabled; }
     public String getProvider() { return provider; }
@@ -69,8 +299,59 @@ public class MonitorConfig {
     public boolean isRealtimeSuggestionsEnabled() { return realtimeSuggestionsEnabled; }
     public Duration getAnalysisInterval() { return analysisInterval; }
     public int getBatchSize() { return batchSize; }
+    public boolean isSkipLowSeverityAnalysis() { return skipLowSeverityAnalysis; }
+    public boolean isAnalysisRulesEnabled() { return analysisRulesEnabled; }
+    public int getAnalysisPromptTokenBudget() { return analysisPromptTokenBudget; }
+    public int getAnalysisInitialConcurrency() { return analysisInitialConcurrency; }
+    public int getAnalysisMinConcurrency() { return analysisMinConcurrency; }
+    public int getAnalysisMaxConcurrency() { return analysisMaxConcurrency; }
+    public double getAnalysisLatencyTolerance() { return analysisLatencyTolerance; }
+    public int getAnalysisBatchMaxSessions() { return analysisBatchMaxSessions; }
+    public int getAnalysisBatchTokenBudget() { return analysisBatchTokenBudget; }
+    public boolean isAnalysisCacheEnabled() { return analysisCacheEnabled; }
+    public int getAnalysisCacheMaxEntries() { return analysisCacheMaxEntries; }
+    public Duration getAnalysisCacheTtl() { return analysisCacheTtl; }
+    public Path getAnalysisCacheDirectory() { return analysisCacheDirectory; }
+    public int getAnalysisCacheMaxDiskEntries() { return analysisCacheMaxDiskEntries; }
     public String getOllamaBaseUrl() { return ollamaBaseUrl; }
     public String getOllamaModel() { return ollamaModel; }
+    public boolean isOllamaWarmUp() { return ollamaWarmUp; }
+    public Duration getOllamaModelCheckTtl() { return ollamaModelCheckTtl; }
+    public boolean isLlmStreaming() { return llmStreaming; }
+    public int getMaxConcurrentLlmRequests() { return maxConcurrentLlmRequests; }
+    public boolean isCircuitBreakerEnabled() { return circuitBreakerEnabled; }
+    public int getCircuitBreakerFailureThreshold() { return circuitBreakerFailureThreshold; }
+    public Duration getCircuitBreakerOpenDuration() { return circuitBreakerOpenDuration; }
+    public List<String> getLlmEndpoints() { return llmEndpoints; }
+    public PooledProvider.Balancing getLlmLoadBalancing() { return llmLoadBalancing; }
+    public boolean isLlmHedging() { return llmHedging; }
+    public Duration getLlmHealthCheckInterval() { return llmHealthCheckInterval; }
+    public int getHttpMaxIdleConnections() { return httpMaxIdleConnections; }
+    public Duration getHttpKeepAlive() { return httpKeepAlive; }
+    public int getHttpMaxRequests() { return httpMaxRequests; }
+    public int getHttpMaxRequestsPerHost() { return httpMaxRequestsPerHost; }
+    public boolean isHttp2Enabled() { return http2Enabled; }
+    public Duration getHttpPingInterval() { return httpPingInterval; }
+    public ExecutionMode getExecutionMode() { return executionMode; }
+    public int getEventBufferCapacity() { return eventBufferCapacity; }
+    public EventRingBuffer.OverflowPolicy getEventOverflowPolicy() { return eventOverflowPolicy; }
+    public Duration getNetworkRequestTimeout() { return networkRequestTimeout; }
+    public Path getSpillDirectory() { return spillDirectory; }
+    public BrowserEventCodec.Compression getSpillCompression() { return spillCompression; }
+    public boolean isJournalEnabled() { return journalEnabled; }
+    public Path getJournalDirectory() { return journalDirectory; }
+    public int getJournalSegmentSize() { return journalSegmentSize; }
+    public boolean isJournalRecoverOnStart() { return journalRecoverOnStart; }
+    public String getMinLogLevel() { return minLogLevel; }
+    public boolean isFailedRequestsOnly() { return failedRequestsOnly; }
+    public List<String> getExcludedDomains() { return excludedDomains; }
+    public List<String> getIncludedContentTypes() { return includedContentTypes; }
+    public Duration getSlowRequestThreshold() { return slowRequestThreshold; }
+    public int getMaxEventsPerReport() { return maxEventsPerReport; }
+    public int getReportWriterThreads() { return reportWriterThreads; }
+    public int getReportQueueCapacity() { return reportQueueCapacity; }
+    public boolean isReportFsync() { return reportFsync; }
+    public Duration getReportShutdownTimeout() { return reportShutdownTimeout; }
     
     public static class Builder {
         private boolean monitoringEnabled = true;
@@ -83,8 +364,59 @@ public class MonitorConfig {
         private boolean realtimeSuggestionsEnabled = true;
         private Duration analysisInterval = Duration.ofSeconds(30);
         private int batchSize = 10;
+        private boolean skipLowSeverityAnalysis = true;
+        private boolean analysisRulesEnabled = true;
+        private int analysisPromptTokenBudget = 1200;
+        private int analysisInitialConcurrency = 2;
+        private int analysisMinConcurrency = 1;
+        private int analysisMaxConcurrency = 4;
+        private double analysisLatencyTolerance = 2.0;
+        private int analysisBatchMaxSessions = 4;
+        private int analysisBatchTokenBudget = 3000;
+        private boolean analysisCacheEnabled = true;
+        private int analysisCacheMaxEntries = 512;
+        private Duration analysisCacheTtl = Duration.ofHours(24);
+        private Path analysisCacheDirectory = null;
+        private int analysisCacheMaxDiskEntries = 5000;
         private String ollamaBaseUrl = "http://localhost:11434";
         private String ollamaModel = "mistral:latest";
+        private boolean ollamaWarmUp = true;
+        private Duration ollamaModelCheckTtl = Duration.ofMinutes(10);
+        private boolean llmStreaming = true;
+        private int maxConcurrentLlmRequests = 4;
+        private boolean circuitBreakerEnabled = true;
+        private int circuitBreakerFailureThreshold = 3;
+        private Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+        private List<String> llmEndpoints = List.of();
+        private PooledProvider.Balancing llmLoadBalancing = PooledProvider.Balancing.LEAST_OUTSTANDING;
+        private boolean llmHedging = false;
+        private Duration llmHealthCheckInterval = Duration.ofSeconds(15);
+        private int httpMaxIdleConnections = 16;
+        private Duration httpKeepAlive = Duration.ofMinutes(5);
+        private int httpMaxRequests = 128;
+        private int httpMaxRequestsPerHost = 64;
+        private boolean http2Enabled = true;
+        private Duration httpPingInterval = Duration.ofSeconds(30);
+        private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+        private int eventBufferCapacity = 8192;
+        private EventRingBuffer.OverflowPolicy eventOverflowPolicy = EventRingBuffer.OverflowPolicy.SPILL;
+        private Duration networkRequestTimeout = Duration.ofMinutes(2);
+        private Path spillDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "seleniumiq-spill");
+        private BrowserEventCodec.Compression spillCompression = BrowserEventCodec.Compression.NONE;
+        private boolean journalEnabled = false;
+        private Path journalDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "seleniumiq-journal");
+        private int journalSegmentSize = 8 * 1024 * 1024;
+        private boolean journalRecoverOnStart = true;
+        private String minLogLevel = "INFO";
+        private boolean failedRequestsOnly = false;
+        private List<String> excludedDomains = List.of();
+        private List<String> includedContentTypes = List.of();
+        private Duration slowRequestThreshold = Duration.ofSeconds(5);
+        private int maxEventsPerReport = 1000;
+        private int reportWriterThreads = 1;
+        private int reportQueueCapacity = 64;
+        private boolean reportFsync = true;
+        private Duration reportShutdownTimeout = Duration.ofSeconds(30);
         
         public Builder monitoringEnabled(boolean enabled) { this.monitoringEnabled = enabled; return this; }
         public Builder provider(String provider) { this.provider = provider; return this; }
@@ -96,8 +428,59 @@ public class MonitorConfig {
         public Builder realtimeSuggestionsEnabled(boolean enabled) { this.realtimeSuggestionsEnabled = enabled; return this; }
         public Builder analysisInterval(Duration interval) { this.analysisInterval = interval; return this; }
         public Builder batchSize(int batchSize) { this.batchSize = batchSize; return this; }
+        public Builder skipLowSeverityAnalysis(boolean skip) { this.skipLowSeverityAnalysis = skip; return this; }
+        public Builder analysisRulesEnabled(boolean enabled) { this.analysisRulesEnabled = enabled; return this; }
+        public Builder analysisPromptTokenBudget(int tokens) { this.analysisPromptTokenBudget = tokens; return this; }
+        public Builder analysisInitialConcurrency(int limit) { this.analysisInitialConcurrency = limit; return this; }
+        public Builder analysisMinConcurrency(int limit) { this.analysisMinConcurrency = limit; return this; }
+        public Builder analysisMaxConcurrency(int limit) { this.analysisMaxConcurrency = limit; return this; }
+        public Builder analysisLatencyTolerance(double tolerance) { this.analysisLatencyTolerance = tolerance; return this; }
+        public Builder analysisBatchMaxSessions(int maxSessions) { this.analysisBatchMaxSessions = maxSessions; return this; }
+        public Builder analysisBatchTokenBudget(int tokens) { this.analysisBatchTokenBudget = tokens; return this; }
+        public Builder analysisCacheEnabled(boolean enabled) { this.analysisCacheEnabled = enabled; return this; }
+        public Builder analysisCacheMaxEntries(int maxEntries) { this.analysisCacheMaxEntries = maxEntries; return this; }
+        public Builder analysisCacheTtl(Duration ttl) { this.analysisCacheTtl = ttl; return this; }
+        public Builder analysisCacheDirectory(Path directory) { this.analysisCacheDirectory = directory; return this; }
+        public Builder analysisCacheMaxDiskEntries(int maxEntries) { this.analysisCacheMaxDiskEntries = maxEntries; return this; }
         public Builder ollamaBaseUrl(String url) { this.ollamaBaseUrl = url; return this; }
         public Builder ollamaModel(String model) { this.ollamaModel = model; return this; }
+        public Builder ollamaWarmUp(boolean warmUp) { this.ollamaWarmUp = warmUp; return this; }
+        public Builder ollamaModelCheckTtl(Duration ttl) { this.ollamaModelCheckTtl = ttl; return this; }
+        public Builder llmStreaming(boolean streaming) { this.llmStreaming = streaming; return this; }
+        public Builder maxConcurrentLlmRequests(int max) { this.maxConcurrentLlmRequests = max; return this; }
+        public Builder circuitBreakerEnabled(boolean enabled) { this.circuitBreakerEnabled = enabled; return this; }
+        public Builder circuitBreakerFailureThreshold(int failures) { this.circuitBreakerFailureThreshold = failures; return this; }
+        public Builder circuitBreakerOpenDuration(Duration duration) { this.circuitBreakerOpenDuration = duration; return this; }
+        public Builder llmEndpoints(List<String> endpoints) { this.llmEndpoints = endpoints; return this; }
+        public Builder llmLoadBalancing(PooledProvider.Balancing balancing) { this.llmLoadBalancing = balancing; return this; }
+        public Builder llmHedging(boolean hedging) { this.llmHedging = hedging; return this; }
+        public Builder llmHealthCheckInterval(Duration interval) { this.llmHealthCheckInterval = interval; return this; }
+        public Builder httpMaxIdleConnections(int connections) { this.httpMaxIdleConnections = connections; return this; }
+        public Builder httpKeepAlive(Duration keepAlive) { this.httpKeepAlive = keepAlive; return this; }
+        public Builder httpMaxRequests(int requests) { this.httpMaxRequests = requests; return this; }
+        public Builder httpMaxRequestsPerHost(int requests) { this.httpMaxRequestsPerHost = requests; return this; }
+        public Builder http2Enabled(boolean enabled) { this.http2Enabled = enabled; return this; }
+        public Builder httpPingInterval(Duration interval) { this.httpPingInterval = interval; return this; }
+        public Builder executionMode(ExecutionMode mode) { this.executionMode = mode; return this; }
+        public Builder eventBufferCapacity(int capacity) { this.eventBufferCapacity = capacity; return this; }
+        public Builder eventOverflowPolicy(EventRingBuffer.OverflowPolicy policy) { this.eventOverflowPolicy = policy; return this; }
+        public Builder networkRequestTimeout(Duration timeout) { this.networkRequestTimeout = timeout; return this; }
+        public Builder spillDirectory(Path directory) { this.spillDirectory = directory; return this; }
+        public Builder spillCompression(BrowserEventCodec.Compression compression) { this.spillCompression = compression; return this; }
+        public Builder journalEnabled(boolean enabled) { this.journalEnabled = enabled; return this; }
+        public Builder journalDirectory(Path directory) { this.journalDirectory = directory; return this; }
+        public Builder journalSegmentSize(int bytes) { this.journalSegmentSize = bytes; return this; }
+        public Builder journalRecoverOnStart(boolean recover) { this.journalRecoverOnStart = recover; return this; }
+        public Builder minLogLevel(String level) { this.minLogLevel = level; return this; }
+        public Builder failedRequestsOnly(boolean failedOnly) { this.failedRequestsOnly = failedOnly; return this; }
+        public Builder excludedDomains(List<String> domains) { this.excludedDomains = domains; return this; }
+        public Builder includedContentTypes(List<String> contentTypes) { this.includedContentTypes = contentTypes; return this; }
+        public Builder slowRequestThreshold(Duration threshold) { this.slowRequestThreshold = threshold; return this; }
+        public Builder maxEventsPerReport(int maxEvents) { this.maxEventsPerReport = maxEvents; return this; }
+        public Builder reportWriterThreads(int threads) { this.reportWriterThreads = threads; return this; }
+        public Builder reportQueueCapacity(int capacity) { this.reportQueueCapacity = capacity; return this; }
+        public Builder reportFsync(boolean fsync) { this.reportFsync = fsync; return this; }
+        public Builder reportShutdownTimeout(Duration timeout) { this.reportShutdownTimeout = timeout; return this; }
         
         public MonitorConfig build() {
             return new MonitorConfig(this);
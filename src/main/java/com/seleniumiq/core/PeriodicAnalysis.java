@@ -0,0 +1,113 @@
+package com.seleniumiq.core;
+
+import com.seleniumiq.analysis.AnalysisPriority;
+import com.seleniumiq.analysis.LLMAnalysisService;
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.events.BiDiEventCollector;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Analyzes the events sessions capture while they run, one batch per session and tick.
+ *
+ * Each session keeps a watermark: the sequence up to which its events were analyzed or skipped as
+ * low-severity. Batches are taken oldest first from the watermark, so every new event still held in
+ * memory is looked at; the watermark only moves past a batch once its analysis succeeded. Events
+ * overwritten in the ring buffer before their turn are left to the final report.
+ */
+class PeriodicAnalysis {
+    private static final Logger logger = LoggerFactory.getLogger(PeriodicAnalysis.class);
+    
+    private final MonitorConfig config;
+    private final BiDiEventCollector eventCollector;
+    private final LLMAnalysisService analysisService;
+    private final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
+    
+    PeriodicAnalysis(MonitorConfig config, BiDiEventCollector eventCollector, LLMAnalysisService analysisService) {
+        this.config = config;
+        this.eventCollector = eventCollector;
+        this.analysisService = analysisService;
+    }
+    
+    /**
+     * Submit the oldest batch of the session's new events that is worth analyzing.
+     * Idle sessions and sessions with an analysis still running are skipped; low-severity batches
+     * are passed over without an analysis.
+     */
+    void analyzeNewEvents(MonitoringSession session) {
+        String sessionId = session.getId();
+        Watermark watermark = watermarks.computeIfAbsent(sessionId, id -> new Watermark());
+        if (!watermark.inFlight.compareAndSet(false, true)) {
+            return;
+        }
+        
+        long end = eventCollector.getEventSequence(sessionId);
+        // Older events are no longer in memory
+        long start = Math.max(watermark.sequence, end - config.getEventBufferCapacity());
+        int batchSize = Math.max(1, config.getBatchSize());
+        while (start < end) {
+            long batchEnd = Math.min(end, start + batchSize);
+            List<BrowserEvent> events = eventCollector.getEventsSince(sessionId, start, batchEnd, batchSize);
+            if (events.isEmpty()
+                    || config.isSkipLowSeverityAnalysis() && !analysisService.hasSignificantEvents(events)) {
+                logger.debug("Skipping analysis of {} low-severity events in session: {}", events.size(), session.getName());
+                start = batchEnd;
+                watermark.sequence = start;
+                continue;
+            }
+            
+            submit(events, session, watermark, batchEnd);
+            return;
+        }
+        watermark.inFlight.set(false);
+    }
+    
+    /**
+     * Forget the progress of a session that stopped
+     */
+    void remove(String sessionId) {
+        watermarks.remove(sessionId);
+    }
+    
+    /**
+     * Sequence up to which the session's events have been analyzed or skipped
+     */
+    long getWatermark(String sessionId) {
+        Watermark watermark = watermarks.get(sessionId);
+        return watermark != null ? watermark.sequence : 0;
+    }
+    
+    private void submit(List<BrowserEvent> events, MonitoringSession session, Watermark watermark, long batchEnd) {
+        analysisService.analyzeEvents(events, session, AnalysisPriority.PERIODIC)
+            .thenAccept(result -> {
+                if (!result.hasError()) {
+                    watermark.sequence = batchEnd;
+                }
+                if (result.hasIssues()) {
+                    logger.info("Analysis found {} issues in session: {}",
+                              result.getIssues().size(), session.getName());
+                }
+            })
+            .exceptionally(throwable -> {
+                logger.error("Periodic analysis failed for session: {}", session.getName(), throwable);
+                return null;
+            })
+            .whenComplete((ignored, throwable) -> watermark.inFlight.set(false));
+    }
+    
+    /**
+     * Sequence up to which a session's events have been analyzed, and whether an analysis is running
+     */
+    private static final class Watermark {
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private volatile long sequence;
+    }
+}
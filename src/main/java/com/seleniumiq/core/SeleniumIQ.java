@@ -2,7 +2,12 @@ package com.seleniumiq.core;
 
 import com.seleniumiq.config.MonitorConfig;
 import com.seleniumiq.events.BiDiEventCollector;
+import com.seleniumiq.events.JournalRecovery;
+import com.seleniumiq.analysis.AnalysisPriority;
+import com.seleniumiq.analysis.AnalysisRule;
+import com.seleniumiq.analysis.IssueListener;
 import com.seleniumiq.analysis.LLMAnalysisService;
+import com.seleniumiq.llm.HttpTransport;
 import com.seleniumiq.reporting.ReportGenerator;
 import com.seleniumiq.model.MonitoringSession;
 import com.seleniumiq.model.BrowserEvent;
@@ -17,6 +22,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -37,10 +43,17 @@ public class SeleniumIQ {
     private final LLMAnalysisService analysisService;
     private final ReportGenerator reportGenerator;
     private final ScheduledExecutorService analysisScheduler;
+    private final ExecutorService reportExecutor;
     
     // Active monitoring sessions
     private final Map<String, MonitoringSession> activeSessions = new ConcurrentHashMap<>();
     
+    // Analysis of the events of running sessions
+    private final PeriodicAnalysis periodicAnalysis;
+    
+    // Final analysis and report of stopped sessions
+    private final SessionReports sessionReports;
+    
     // Singleton instance for global access
     private static volatile SeleniumIQ instance;
     
@@ -52,7 +65,15 @@ public class SeleniumIQ {
         this.eventCollector = new BiDiEventCollector(config);
         this.analysisService = new LLMAnalysisService(config);
         this.reportGenerator = new ReportGenerator(config);
+        this.periodicAnalysis = new PeriodicAnalysis(config, eventCollector, analysisService);
+        this.sessionReports = new SessionReports(config, eventCollector, analysisService, reportGenerator);
         this.analysisScheduler = Executors.newScheduledThreadPool(2);
+        this.reportExecutor = config.getExecutionMode().newExecutor("seleniumiq-report", 2);
+        
+        // Write reports for sessions journaled by a run that died before reporting
+        if (config.isJournalEnabled() && config.isJournalRecoverOnStart()) {
+            recoverJournals();
+        }
         
         // Schedule periodic analysis
         schedulePeriodicAnalysis();
@@ -132,12 +153,13 @@ public class SeleniumIQ {
      */
     public void stopMonitoring(String sessionId) {
         MonitoringSession session = activeSessions.remove(sessionId);
+        periodicAnalysis.remove(sessionId);
         if (session != null) {
             try {
                 eventCollector.stopCollecting(session);
                 
                 // Generate final report for this session
-                generateSessionReport(session);
+                sessionReports.report(session);
                 
                 logger.info("Stopped monitoring session: {} ({})", session.getName(), sessionId);
                 
@@ -163,6 +185,17 @@ public class SeleniumIQ {
      * @return CompletableFuture containing analysis results
      */
     public CompletableFuture<AnalysisResult> getRealtimeSuggestions(String sessionId) {
+        return getRealtimeSuggestions(sessionId, AnalysisPriority.PERIODIC);
+    }
+    
+    /**
+     * Get real-time suggestions for a specific session
+     * 
+     * @param sessionId The session ID to analyze
+     * @param priority Queue position of the LLM call, e.g. FAILED_TEST to analyze a failure ahead of periodic work
+     * @return CompletableFuture containing analysis results
+     */
+    public CompletableFuture<AnalysisResult> getRealtimeSuggestions(String sessionId, AnalysisPriority priority) {
         MonitoringSession session = activeSessions.get(sessionId);
         if (session == null) {
             return CompletableFuture.completedFuture(
@@ -171,7 +204,26 @@ public class SeleniumIQ {
         }
         
         List<BrowserEvent> recentEvents = eventCollector.getRecentEvents(sessionId, 20);
-        return analysisService.analyzeEvents(recentEvents, session);
+        return analysisService.analyzeEvents(recentEvents, session, priority);
+    }
+    
+    /**
+     * Register a custom rule that classifies events before they are sent to the LLM
+     *
+     * @param rule The rule to add to the analysis rule stage
+     */
+    public void registerAnalysisRule(AnalysisRule rule) {
+        analysisService.registerRule(rule);
+    }
+    
+    /**
+     * Receive issues as soon as analysis finds them, including ones streamed from the LLM before its
+     * answer is complete
+     * 
+     * @param listener Called for each issue found in any monitored session
+     */
+    public void addIssueListener(IssueListener listener) {
+        analysisService.addIssueListener(listener);
     }
     
     /**
@@ -237,7 +289,7 @@ public class SeleniumIQ {
                 logger.error("Failed to generate comprehensive report", e);
                 throw new RuntimeException("Report generation failed", e);
             }
-        });
+        }, reportExecutor);
     }
     
     /**
@@ -250,6 +302,11 @@ public class SeleniumIQ {
         stats.put("activeSessions", activeSessions.size());
         stats.put("totalEventsCollected", eventCollector.getTotalEventsCount());
         stats.put("analysisQueueSize", analysisService.getQueueSize());
+        stats.put("analysisCache", analysisService.getCacheStats());
+        stats.put("analysisScheduler", analysisService.getSchedulerStats());
+        stats.put("llmCircuitBreaker", analysisService.getCircuitBreakerStats());
+        stats.put("llmEndpoints", analysisService.getEndpointStats());
+        stats.put("reportWriter", reportGenerator.getWriterStats());
         stats.put("configProvider", config.getProvider());
         stats.put("monitoringEnabled", config.isMonitoringEnabled());
         
@@ -276,6 +333,23 @@ public class SeleniumIQ {
         }
     }
     
+    /**
+     * Replay orphaned event journals in the background; journals of live sessions are locked and skipped
+     */
+    private void recoverJournals() {
+        JournalRecovery recovery = new JournalRecovery(config.getJournalDirectory(), reportGenerator);
+        reportExecutor.execute(() -> {
+            try {
+                int recovered = recovery.recoverAll();
+                if (recovered > 0) {
+                    logger.info("Generated {} report(s) for sessions recovered from the event journal", recovered);
+                }
+            } catch (Exception e) {
+                logger.error("Event journal recovery failed", e);
+            }
+        });
+    }
+    
     /**
      * Schedule periodic analysis of collected events
      */
@@ -289,20 +363,7 @@ public class SeleniumIQ {
         analysisScheduler.scheduleAtFixedRate(() -> {
             try {
                 for (MonitoringSession session : activeSessions.values()) {
-                    List<BrowserEvent> events = eventCollector.getRecentEvents(session.getId(), config.getBatchSize());
-                    if (!events.isEmpty()) {
-                        analysisService.analyzeEvents(events, session)
-                            .thenAccept(result -> {
-                                if (result.hasIssues()) {
-                                    logger.info("Analysis found {} issues in session: {}", 
-                                              result.getIssues().size(), session.getName());
-                                }
-                            })
-                            .exceptionally(throwable -> {
-                                logger.error("Periodic analysis failed for session: {}", session.getName(), throwable);
-                                return null;
-                            });
-                    }
+                    periodicAnalysis.analyzeNewEvents(session);
                 }
             } catch (Exception e) {
                 logger.error("Error in periodic analysis", e);
@@ -312,33 +373,6 @@ public class SeleniumIQ {
         logger.info("Scheduled periodic analysis every {} seconds", intervalSeconds);
     }
     
-    /**
-     * Generate a final report for a completed session
-     */
-    private void generateSessionReport(MonitoringSession session) {
-        try {
-            List<BrowserEvent> allEvents = eventCollector.getAllEvents(session.getId());
-            if (!allEvents.isEmpty()) {
-                // Get final analysis for the session
-                analysisService.analyzeEvents(allEvents, session)
-                    .thenAccept(analysisResult -> {
-                        // Generate report with analysis results
-                        reportGenerator.generateSessionReport(session, allEvents, analysisResult);
-                        logger.info("Generated report with AI analysis for session: {}", session.getName());
-                    })
-                    .exceptionally(throwable -> {
-                        // Generate report without analysis if analysis fails
-                        reportGenerator.generateSessionReport(session, allEvents);
-                        logger.warn("Generated report without AI analysis for session: {} - analysis failed: {}", 
-                                  session.getName(), throwable.getMessage());
-                        return null;
-                    });
-            }
-        } catch (Exception e) {
-            logger.error("Failed to generate report for session: {}", session.getName(), e);
-        }
-    }
-    
     /**
      * Shutdown the monitoring system gracefully
      */
@@ -357,8 +391,22 @@ public class SeleniumIQ {
             Thread.currentThread().interrupt();
         }
         
+        reportExecutor.shutdown();
+        try {
+            if (!reportExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                reportExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            reportExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        sessionReports.awaitPending(config.getReportShutdownTimeout());
         analysisService.shutdown();
+        // No LLM calls are left; release the shared HTTP clients' dispatcher threads and connections
+        HttpTransport.shutdown();
         reportGenerator.shutdown();
+        eventCollector.shutdown();
         
         logger.info("SeleniumIQ shutdown complete");
     }
@@ -0,0 +1,151 @@
+package com.seleniumiq.core;
+
+import com.seleniumiq.analysis.AnalysisPriority;
+import com.seleniumiq.analysis.LLMAnalysisService;
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.events.BiDiEventCollector;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.reporting.ReportGenerator;
+import com.seleniumiq.reporting.SessionSummary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Final analysis and report of stopped sessions.
+ *
+ * A stopped session's report waits for its final analysis and is then queued on the report writer.
+ * At shutdown, reports whose analysis does not finish in time are queued without it, so no
+ * session goes unreported.
+ */
+class SessionReports {
+    private static final Logger logger = LoggerFactory.getLogger(SessionReports.class);
+    
+    private final MonitorConfig config;
+    private final BiDiEventCollector eventCollector;
+    private final LLMAnalysisService analysisService;
+    private final ReportGenerator reportGenerator;
+    
+    // Reports still waiting for their final analysis or the report writer, with the analysis they wait for
+    private final Map<CompletableFuture<?>, CompletableFuture<AnalysisResult>> pending = new ConcurrentHashMap<>();
+    
+    SessionReports(MonitorConfig config, BiDiEventCollector eventCollector, LLMAnalysisService analysisService,
+                   ReportGenerator reportGenerator) {
+        this.config = config;
+        this.eventCollector = eventCollector;
+        this.analysisService = analysisService;
+        this.reportGenerator = reportGenerator;
+    }
+    
+    /**
+     * Analyze a stopped session's events and queue its report
+     */
+    void report(MonitoringSession session) {
+        String sessionId = session.getId();
+        try {
+            // Analyze the in-memory tail; the report streams the full history, including spilled events
+            List<BrowserEvent> recentEvents = eventCollector.getRecentEvents(sessionId, config.getEventBufferCapacity());
+            Supplier<Stream<BrowserEvent>> allEvents = () -> eventCollector.streamAllEvents(sessionId);
+            SessionSummary summary = eventCollector.getSessionSummary(sessionId);
+            if (!recentEvents.isEmpty()) {
+                // Completed with null to report without the analysis when shutdown cannot wait for it
+                CompletableFuture<AnalysisResult> finalAnalysis = new CompletableFuture<>();
+                CompletableFuture<AnalysisResult> analysis = analysisService.analyzeEvents(recentEvents, session, AnalysisPriority.FINAL);
+                analysis.whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        finalAnalysis.completeExceptionally(throwable);
+                    } else {
+                        finalAnalysis.complete(result);
+                    }
+                });
+                finalAnalysis.whenComplete((result, throwable) -> analysis.cancel(true));
+                
+                CompletableFuture<?> report = finalAnalysis
+                    .exceptionally(throwable -> {
+                        // Generate report without analysis if analysis fails
+                        logger.warn("Reporting without AI analysis for session: {} - analysis failed: {}",
+                                  session.getName(), throwable.getMessage());
+                        return null;
+                    })
+                    .thenApply(analysisResult -> {
+                        if (summary != null) {
+                            reportGenerator.foldSession(summary, analysisResult);
+                        }
+                        return analysisResult;
+                    })
+                    // Reports are written on the report writer threads, not in the thread completing the analysis
+                    .thenCompose(analysisResult -> reportGenerator.submitSessionReport(session, allEvents, analysisResult, summary))
+                    .whenComplete((ignored, throwable) -> {
+                        if (throwable != null) {
+                            logger.error("Failed to write report for session: {}", session.getName(), throwable);
+                        } else {
+                            logger.info("Generated report for session: {}", session.getName());
+                        }
+                        // Spilled events must stay readable until the report is written
+                        eventCollector.releaseSession(sessionId);
+                    });
+                pending.put(report, finalAnalysis);
+                report.whenComplete((ignored, throwable) -> pending.remove(report));
+            } else {
+                if (summary != null) {
+                    reportGenerator.foldSession(summary, null);
+                }
+                eventCollector.releaseSession(sessionId);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to generate report for session: {}", session.getName(), e);
+        }
+    }
+    
+    /**
+     * Wait for the final analyses of stopped sessions, so their reports are queued with the analysis
+     * before the analysis service and the report writer shut down. Reports whose analysis is still
+     * running after the timeout are queued without it.
+     */
+    void awaitPending(Duration timeout) {
+        CompletableFuture<?>[] reports = pending.keySet().toArray(new CompletableFuture<?>[0]);
+        if (reports.length == 0) {
+            return;
+        }
+        logger.info("Waiting for {} session report(s) to finish analysis", reports.length);
+        try {
+            CompletableFuture.allOf(reports).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            int late = 0;
+            for (CompletableFuture<AnalysisResult> analysis : pending.values()) {
+                // Queues the report in this thread, ahead of the report writer's shutdown
+                if (analysis.complete(null)) {
+                    late++;
+                }
+            }
+            if (late > 0) {
+                logger.warn("Analysis of {} stopped session(s) did not finish within {}s; reporting them without it",
+                           late, timeout.toSeconds());
+            }
+        } catch (ExecutionException e) {
+            // Failed reports are logged where they fail
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Reports still waiting for their final analysis or the report writer
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -3,6 +3,7 @@ package com.seleniumiq.events;
 import com.seleniumiq.config.MonitorConfig;
 import com.seleniumiq.model.BrowserEvent;
 import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.reporting.SessionSummary;
 
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.devtools.DevTools;
@@ -14,13 +15,14 @@ import org.openqa.selenium.devtools.v85.performance.Performance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Real BiDi event collector that uses Chrome DevTools Protocol (CDP) and WebDriver BiDi
@@ -29,14 +31,26 @@ import java.util.Optional;
 public class BiDiEventCollector {
     private static final Logger logger = LoggerFactory.getLogger(BiDiEventCollector.class);
     
+    private static final int MAX_PENDING_REQUESTS = 10_000;
+    private static final int SPILL_QUEUE_CAPACITY = 8192;
+    
     private final MonitorConfig config;
-    private final Map<String, List<BrowserEvent>> sessionEvents = new ConcurrentHashMap<>();
+    private final CaptureFilter captureFilter;
+    private final SpillWriter spillWriter;
+    private final Map<String, EventRingBuffer> sessionEvents = new ConcurrentHashMap<>();
+    private final Map<String, EventSpillLog> spillLogs = new ConcurrentHashMap<>();
+    private final Map<String, EventJournal> journals = new ConcurrentHashMap<>();
     private final Map<String, DevTools> activeDevTools = new ConcurrentHashMap<>();
+    private final Map<String, NetworkRequestTracker> networkTrackers = new ConcurrentHashMap<>();
+    private final Map<String, SessionSummary> summaries = new ConcurrentHashMap<>();
     private final AtomicLong totalEventsCount = new AtomicLong(0);
     
     public BiDiEventCollector(MonitorConfig config) {
         this.config = config;
-        logger.info("Real BiDi Event Collector initialized");
+        this.captureFilter = new CaptureFilter(config);
+        this.spillWriter = config.getEventOverflowPolicy() == EventRingBuffer.OverflowPolicy.SPILL ? new SpillWriter() : null;
+        logger.info("Real BiDi Event Collector initialized (buffer capacity: {}, overflow policy: {})",
+                   config.getEventBufferCapacity(), config.getEventOverflowPolicy());
     }
     
     /**
@@ -46,7 +60,11 @@ public class BiDiEventCollector {
         String sessionId = session.getId();
         WebDriver driver = session.getDriver();
         
-        sessionEvents.put(sessionId, new ArrayList<>());
+        sessionEvents.put(sessionId, createEventBuffer(session));
+        summaries.put(sessionId, new SessionSummary());
+        if (config.isJournalEnabled()) {
+            openJournal(session);
+        }
         
         try {
             // Check if driver supports DevTools (BiDi)
@@ -75,6 +93,55 @@ public class BiDiEventCollector {
         }
     }
     
+    /**
+     * Create the per-session ring buffer; with the SPILL policy overwritten events are queued for
+     * the spill writer, which appends them to an on-disk log
+     */
+    private EventRingBuffer createEventBuffer(MonitoringSession session) {
+        EventRingBuffer.OverflowPolicy policy = config.getEventOverflowPolicy();
+        if (policy != EventRingBuffer.OverflowPolicy.SPILL) {
+            return new EventRingBuffer(config.getEventBufferCapacity(), policy);
+        }
+        
+        EventSpillLog spillLog = new EventSpillLog(config.getSpillDirectory().resolve(session.getId()),
+                                                   session.getStartTime(), config.getSpillCompression(),
+                                                   SPILL_QUEUE_CAPACITY);
+        spillLogs.put(session.getId(), spillLog);
+        spillWriter.register(spillLog);
+        return new EventRingBuffer(config.getEventBufferCapacity(), policy, (sequence, event) -> {
+            // Wake the writer once when the queue is half full, and whenever it overflows
+            if (!spillLog.offer(sequence, event) || spillLog.getQueuedCount() == SPILL_QUEUE_CAPACITY / 2) {
+                spillWriter.wake();
+            }
+        });
+    }
+    
+    /**
+     * Open the crash-recovery journal for a session; monitoring continues without it on failure
+     */
+    private void openJournal(MonitoringSession session) {
+        try {
+            journals.put(session.getId(),
+                EventJournal.open(config.getJournalDirectory(), session, config.getJournalSegmentSize()));
+        } catch (Exception e) {
+            logger.error("Failed to open event journal for session: {}. Continuing without journaling.", session.getId(), e);
+        }
+    }
+    
+    /**
+     * Store a captured event in the session buffer and, if enabled, the session journal,
+     * and count it in the session summary
+     */
+    private void record(EventRingBuffer events, EventJournal journal, SessionSummary summary, BrowserEvent event) {
+        if (events.append(event)) {
+            totalEventsCount.incrementAndGet();
+            summary.record(event);
+            if (journal != null) {
+                journal.append(event);
+            }
+        }
+    }
+    
     /**
      * Enable CDP/BiDi domains for monitoring
      */
@@ -105,19 +172,25 @@ public class BiDiEventCollector {
      * Set up real-time event listeners
      */
     private void setupEventListeners(DevTools devTools, String sessionId) {
-        List<BrowserEvent> events = sessionEvents.get(sessionId);
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        EventJournal journal = journals.get(sessionId);
+        SessionSummary summary = summaries.get(sessionId);
         
         // Listen to console messages
         devTools.addListener(Log.entryAdded(), logEntry -> {
             try {
+                String level = logEntry.getLevel().toString();
+                if (!captureFilter.acceptConsoleLevel(level)) {
+                    return;
+                }
+                
                 BrowserEvent event = BrowserEvent.consoleLog(
                     sessionId,
-                    logEntry.getLevel().toString(),
+                    level,
                     logEntry.getText(),
                     logEntry.getUrl().orElse("unknown")
                 );
-                events.add(event);
-                totalEventsCount.incrementAndGet();
+                record(events, journal, summary, event);
                 
                 logger.debug("Captured console log: {} - {}", logEntry.getLevel(), logEntry.getText());
             } catch (Exception e) {
@@ -138,8 +211,7 @@ public class BiDiEventCollector {
                     exceptionText,
                     stackTrace
                 );
-                events.add(event);
-                totalEventsCount.incrementAndGet();
+                record(events, journal, summary, event);
                 
                 logger.debug("Captured JS exception: {}", exceptionText);
             } catch (Exception e) {
@@ -147,19 +219,42 @@ public class BiDiEventCollector {
             }
         });
         
-        // Listen to network requests
+        // Correlate network events by request id to get real timing
+        NetworkRequestTracker tracker = new NetworkRequestTracker(
+            config.getNetworkRequestTimeout(),
+            MAX_PENDING_REQUESTS,
+            captureFilter,
+            summary::recordRequest,
+            timing -> record(events, journal, summary, BrowserEvent.networkRequest(sessionId, timing)),
+            timing -> record(events, journal, summary, BrowserEvent.networkFailure(sessionId, timing))
+        );
+        networkTrackers.put(sessionId, tracker);
+        
+        devTools.addListener(Network.requestWillBeSent(), requestWillBeSent -> {
+            try {
+                tracker.onRequestWillBeSent(
+                    requestWillBeSent.getRequestId().toString(),
+                    requestWillBeSent.getRequest().getUrl(),
+                    requestWillBeSent.getRequest().getMethod(),
+                    requestWillBeSent.getType().map(Enum::name).orElse(null),
+                    requestWillBeSent.getTimestamp().toJson().doubleValue()
+                );
+            } catch (Exception e) {
+                logger.debug("Error processing request event", e);
+            }
+        });
+        
         devTools.addListener(Network.responseReceived(), responseReceived -> {
             try {
                 var response = responseReceived.getResponse();
-                
-                BrowserEvent event = BrowserEvent.networkRequest(
-                    sessionId,
+                tracker.onResponseReceived(
+                    responseReceived.getRequestId().toString(),
                     response.getUrl(),
-                    response.getStatus().intValue(),
-                    System.currentTimeMillis() // This is a simplification - real timing would need requestWillBeSent
+                    response.getStatus(),
+                    response.getMimeType(),
+                    responseReceived.getTimestamp().toJson().doubleValue(),
+                    response.getTiming().orElse(null)
                 );
-                events.add(event);
-                totalEventsCount.incrementAndGet();
                 
                 logger.debug("Captured network response: {} - {}", response.getStatus(), response.getUrl());
             } catch (Exception e) {
@@ -167,27 +262,25 @@ public class BiDiEventCollector {
             }
         });
         
-        // Listen to network failures
+        devTools.addListener(Network.loadingFinished(), loadingFinished -> {
+            try {
+                tracker.onLoadingFinished(
+                    loadingFinished.getRequestId().toString(),
+                    loadingFinished.getTimestamp().toJson().doubleValue(),
+                    loadingFinished.getEncodedDataLength().longValue()
+                );
+            } catch (Exception e) {
+                logger.debug("Error processing loading finished event", e);
+            }
+        });
+        
         devTools.addListener(Network.loadingFailed(), loadingFailed -> {
             try {
-                BrowserEvent event = BrowserEvent.networkRequest(
-                    sessionId,
+                tracker.onLoadingFailed(
                     loadingFailed.getRequestId().toString(),
-                    0, // Failed request
-                    0
+                    loadingFailed.getTimestamp().toJson().doubleValue(),
+                    loadingFailed.getErrorText()
                 );
-                // Create network failure event using builder
-                event = new BrowserEvent.Builder()
-                    .sessionId(sessionId)
-                    .type("network-failure")
-                    .level("ERROR")
-                    .message("Network request failed: " + loadingFailed.getErrorText())
-                    .source(loadingFailed.getRequestId().toString())
-                    .details("Error: " + loadingFailed.getErrorText())
-                    .timestamp(Instant.now())
-                    .build();
-                events.add(event);
-                totalEventsCount.incrementAndGet();
                 
                 logger.debug("Captured network failure: {}", loadingFailed.getErrorText());
             } catch (Exception e) {
@@ -211,10 +304,15 @@ public class BiDiEventCollector {
                 logger.debug("Closed DevTools session for: {}", sessionId);
             }
             
-            List<BrowserEvent> events = sessionEvents.get(sessionId);
+            NetworkRequestTracker tracker = networkTrackers.remove(sessionId);
+            if (tracker != null) {
+                tracker.clear();
+            }
+            
+            EventRingBuffer events = sessionEvents.get(sessionId);
             if (events != null) {
-                logger.info("Stopped BiDi event collection for session: {} (collected {} real events)", 
-                           sessionId, events.size());
+                logger.info("Stopped BiDi event collection for session: {} (collected {} real events, {} dropped)", 
+                           sessionId, events.getAppendedCount(), events.getDroppedCount());
             }
         } catch (Exception e) {
             logger.error("Error stopping BiDi collection for session: {}", sessionId, e);
@@ -225,22 +323,107 @@ public class BiDiEventCollector {
      * Get recent events for a session
      */
     public List<BrowserEvent> getRecentEvents(String sessionId, int limit) {
-        List<BrowserEvent> events = sessionEvents.get(sessionId);
-        if (events == null || events.isEmpty()) {
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        if (events == null) {
             return new ArrayList<>();
         }
         
-        // Return the most recent events
-        int fromIndex = Math.max(0, events.size() - limit);
-        return new ArrayList<>(events.subList(fromIndex, events.size()));
+        return events.snapshot(limit);
+    }
+    
+    /**
+     * Sequence number the next captured event of a session will get; events are numbered from zero.
+     * Use as a watermark with {@link #getEventsSince(String, long, long, int)}.
+     */
+    public long getEventSequence(String sessionId) {
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        return events != null ? events.getAppendedCount() : 0;
     }
     
     /**
-     * Get all events for a session
+     * Get the most recent in-memory events captured at or after {@code fromSequence} and before {@code toSequence}
+     */
+    public List<BrowserEvent> getEventsSince(String sessionId, long fromSequence, long toSequence, int limit) {
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        if (events == null) {
+            return new ArrayList<>();
+        }
+        
+        return events.snapshotRange(fromSequence, toSequence, limit);
+    }
+    
+    /**
+     * Get all events for a session, including spilled ones, materialized in memory.
+     * Prefer {@link #streamAllEvents(String)} for long-running sessions.
      */
     public List<BrowserEvent> getAllEvents(String sessionId) {
-        List<BrowserEvent> events = sessionEvents.get(sessionId);
-        return events != null ? new ArrayList<>(events) : new ArrayList<>();
+        try (Stream<BrowserEvent> events = streamAllEvents(sessionId)) {
+            return events.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+    
+    /**
+     * Stream all events for a session, oldest first: spilled events from disk, then the in-memory buffer.
+     * Each event appears once even while events are being evicted. The stream must be closed to
+     * release spill file handles.
+     */
+    public Stream<BrowserEvent> streamAllEvents(String sessionId) {
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        if (events == null) {
+            return Stream.empty();
+        }
+        
+        EventSpillLog spillLog = spillLogs.get(sessionId);
+        if (spillLog == null) {
+            return events.snapshot().stream();
+        }
+        
+        return streamAll(events, spillLog);
+    }
+    
+    /**
+     * Spilled events followed by the in-memory ones, each exactly once. Memory is read first; the
+     * disk snapshot then waits for everything evicted meanwhile, and in-memory events whose
+     * sequence is already on disk are skipped.
+     */
+    static Stream<BrowserEvent> streamAll(EventRingBuffer events, EventSpillLog spillLog) {
+        EventRingBuffer.Snapshot inMemory = events.sequencedSnapshot();
+        EventSpillLog.Snapshot spilled = spillLog.snapshot(inMemory.getEvictedBelow());
+        return Stream.concat(spilled.stream(), inMemory.since(spilled.getWatermark()).stream());
+    }
+    
+    /**
+     * Running totals of a session's captured events, or null for an unknown session
+     */
+    public SessionSummary getSessionSummary(String sessionId) {
+        return summaries.get(sessionId);
+    }
+    
+    /**
+     * Release all stored events of a stopped session, deleting any spill and journal files.
+     * Call only once the session report has been written; until then the journal allows recovery.
+     */
+    public void releaseSession(String sessionId) {
+        sessionEvents.remove(sessionId);
+        summaries.remove(sessionId);
+        EventSpillLog spillLog = spillLogs.remove(sessionId);
+        if (spillLog != null) {
+            spillWriter.unregister(spillLog);
+            spillLog.delete();
+        }
+        EventJournal journal = journals.remove(sessionId);
+        if (journal != null) {
+            journal.delete();
+        }
+    }
+    
+    /**
+     * Stop the spill writer thread; call once no session is collecting and its reports are written
+     */
+    public void shutdown() {
+        if (spillWriter != null) {
+            spillWriter.close();
+        }
     }
     
     /**
@@ -255,21 +438,21 @@ public class BiDiEventCollector {
      */
     private void simulateEventCollection(MonitoringSession session) {
         String sessionId = session.getId();
-        List<BrowserEvent> events = sessionEvents.get(sessionId);
+        EventRingBuffer events = sessionEvents.get(sessionId);
+        EventJournal journal = journals.get(sessionId);
+        SessionSummary summary = summaries.get(sessionId);
         
         logger.warn("Using simulated events for session: {} (BiDi not available)", sessionId);
         
         // Add some realistic simulated events
-        events.add(BrowserEvent.consoleLog(sessionId, "INFO", "Page navigation started", "about:blank"));
-        events.add(BrowserEvent.performanceMetric(sessionId, "navigation-start", System.currentTimeMillis()));
-        events.add(BrowserEvent.consoleLog(sessionId, "INFO", "DOM content loaded", "test-page"));
-        events.add(BrowserEvent.performanceMetric(sessionId, "dom-content-loaded", System.currentTimeMillis()));
+        record(events, journal, summary, BrowserEvent.consoleLog(sessionId, "INFO", "Page navigation started", "about:blank"));
+        record(events, journal, summary, BrowserEvent.performanceMetric(sessionId, "navigation-start", System.currentTimeMillis()));
+        record(events, journal, summary, BrowserEvent.consoleLog(sessionId, "INFO", "DOM content loaded", "test-page"));
+        record(events, journal, summary, BrowserEvent.performanceMetric(sessionId, "dom-content-loaded", System.currentTimeMillis()));
         
         // Add a warning to indicate simulation
-        events.add(BrowserEvent.consoleLog(sessionId, "WARN", 
+        record(events, journal, summary, BrowserEvent.consoleLog(sessionId, "WARN", 
                    "SeleniumIQ: Using simulated events - enable BiDi for real browser monitoring", 
                    "seleniumiq"));
-        
-        totalEventsCount.addAndGet(events.size());
     }
 }
\ No newline at end of file
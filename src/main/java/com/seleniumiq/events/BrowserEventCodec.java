@@ -0,0 +1,600 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.NetworkTiming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact binary encoding of {@link BrowserEvent}s for spill files and the event journal.
+ *
+ * Encoders and decoders are stateful per stream (a spill or journal segment):
+ * <ul>
+ *   <li>Repeated short strings (session id, type, level, source, URLs, metadata keys) are sent once
+ *       and then referenced by dictionary index.</li>
+ *   <li>Timestamps are zig-zag varint nanosecond deltas against a base instant, normally the session start.</li>
+ *   <li>Events backed by a {@link NetworkTiming} are stored structurally and re-rendered lazily when decoded.</li>
+ * </ul>
+ * A decoder must see every record of its stream in order, since dictionary entries are defined inline.
+ */
+public final class BrowserEventCodec {
+    
+    public static final int MAX_DICTIONARY_SIZE = 4096;
+    public static final int MAX_DICTIONARY_STRING_LENGTH = 256;
+    
+    // Event kinds
+    private static final int KIND_PLAIN = 0;
+    private static final int KIND_NETWORK = 1;
+    
+    // String tags: null, literal, literal added to the dictionary, then dictionary references
+    private static final int STRING_NULL = 0;
+    private static final int STRING_LITERAL = 1;
+    private static final int STRING_DEFINE = 2;
+    private static final int STRING_REFERENCE = 3;
+    
+    // Id forms: arbitrary string, or "<prefix>-<sequence>" with a dictionary-encoded prefix
+    private static final int ID_STRING = 0;
+    private static final int ID_SEQUENCE = 1;
+    
+    // Metadata value tags; values of any other type are stored as their toString()
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_INT = 2;
+    private static final int VALUE_LONG = 3;
+    private static final int VALUE_DOUBLE = 4;
+    private static final int VALUE_TRUE = 5;
+    private static final int VALUE_FALSE = 6;
+    private static final int VALUE_SHORT = 7;
+    private static final int VALUE_BYTE = 8;
+    private static final int VALUE_FLOAT = 9;
+    private static final int VALUE_LIST = 10;
+    private static final int VALUE_MAP = 11;
+    
+    // NetworkTiming optional field bits
+    private static final int HAS_LATENCY = 1;
+    private static final int HAS_DNS = 1 << 1;
+    private static final int HAS_CONNECT = 1 << 2;
+    private static final int HAS_TTFB = 1 << 3;
+    private static final int HAS_DOWNLOAD = 1 << 4;
+    private static final int HAS_TRANSFER_SIZE = 1 << 5;
+    
+    private BrowserEventCodec() {
+    }
+    
+    /**
+     * Block compression applied by stream writers on top of the record encoding
+     */
+    public enum Compression {
+        NONE,
+        DEFLATE;
+        
+        public static Compression fromString(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+    
+    public static Encoder encoder(Instant base) {
+        return new Encoder(base);
+    }
+    
+    public static Decoder decoder(Instant base) {
+        return new Decoder(base);
+    }
+    
+    static long toEpochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+    
+    static Instant fromEpochNanos(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+    
+    /**
+     * Encodes events of one stream. {@link #encode} must be called by one thread at a time;
+     * {@link #encodeShared} may run concurrently with it.
+     */
+    public static final class Encoder {
+        private final long baseNanos;
+        // Concurrent so encodeShared can read it while encode adds entries
+        private final Map<String, Integer> dictionary = new ConcurrentHashMap<>();
+        
+        private Encoder(Instant base) {
+            this.baseNanos = toEpochNanos(base);
+        }
+        
+        /**
+         * Forget all dictionary entries, e.g. when the writer starts a new segment
+         */
+        public void reset() {
+            dictionary.clear();
+        }
+        
+        /**
+         * Number of dictionary entries, to pass to {@link #truncate}
+         */
+        public int mark() {
+            return dictionary.size();
+        }
+        
+        /**
+         * Forget the entries added since {@link #mark}, when the record that defined them is not written
+         */
+        public void truncate(int mark) {
+            dictionary.values().removeIf(index -> index >= mark);
+        }
+        
+        public void encode(BrowserEvent event, Output out) {
+            write(event, out, true);
+        }
+        
+        /**
+         * Encode against the dictionary as it is, without adding entries, so a writer can encode
+         * outside its lock. The result is only valid if the dictionary was not reset or truncated
+         * in the meantime.
+         *
+         * @return false, leaving {@code out} incomplete, if the event has a string the dictionary should learn first
+         */
+        public boolean encodeShared(BrowserEvent event, Output out) {
+            return write(event, out, false);
+        }
+        
+        private boolean write(BrowserEvent event, Output out, boolean define) {
+            NetworkTiming timing = event.getContent() instanceof NetworkTiming
+                ? (NetworkTiming) event.getContent() : null;
+            
+            out.writeVarInt(timing != null ? KIND_NETWORK : KIND_PLAIN);
+            out.writeVarLong(zigZag(toEpochNanos(event.getTimestamp()) - baseNanos));
+            if (!writeId(event.getId(), out, define)
+                    || !writeShared(event.getSessionId(), out, define)
+                    || !writeShared(event.getType(), out, define)
+                    || !writeShared(event.getLevel(), out, define)
+                    || !writeShared(event.getSource(), out, define)) {
+                return false;
+            }
+            
+            if (timing != null) {
+                return writeTiming(timing, out, define);
+            }
+            
+            writeLiteral(event.getMessage(), out);
+            writeLiteral(event.getDetails(), out);
+            Map<String, Object> metadata = event.getMetadata();
+            if (metadata == null) {
+                out.writeVarInt(0);
+                return true;
+            }
+            out.writeVarInt(metadata.size() + 1);
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                if (!writeShared(entry.getKey(), out, define) || !writeValue(entry.getValue(), out, define)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private boolean writeTiming(NetworkTiming timing, Output out, boolean define) {
+            writeLiteral(timing.getRequestId(), out);
+            if (!writeShared(timing.getUrl(), out, define)
+                    || !writeShared(timing.getMethod(), out, define)
+                    || !writeShared(timing.getResourceType(), out, define)) {
+                return false;
+            }
+            out.writeVarInt(timing.getStatusCode());
+            if (!writeShared(timing.getMimeType(), out, define)) {
+                return false;
+            }
+            writeLiteral(timing.getErrorText(), out);
+            
+            int present = (timing.getLatencyMs() >= 0 ? HAS_LATENCY : 0)
+                | (timing.getDnsMs() >= 0 ? HAS_DNS : 0)
+                | (timing.getConnectMs() >= 0 ? HAS_CONNECT : 0)
+                | (timing.getTtfbMs() >= 0 ? HAS_TTFB : 0)
+                | (timing.getDownloadMs() >= 0 ? HAS_DOWNLOAD : 0)
+                | (timing.getTransferSize() >= 0 ? HAS_TRANSFER_SIZE : 0);
+            out.writeVarInt(present);
+            if ((present & HAS_LATENCY) != 0) out.writeDouble(timing.getLatencyMs());
+            if ((present & HAS_DNS) != 0) out.writeDouble(timing.getDnsMs());
+            if ((present & HAS_CONNECT) != 0) out.writeDouble(timing.getConnectMs());
+            if ((present & HAS_TTFB) != 0) out.writeDouble(timing.getTtfbMs());
+            if ((present & HAS_DOWNLOAD) != 0) out.writeDouble(timing.getDownloadMs());
+            if ((present & HAS_TRANSFER_SIZE) != 0) out.writeVarLong(timing.getTransferSize());
+            return true;
+        }
+        
+        /**
+         * Metadata values keep their type: strings, booleans, the boxed integer and floating-point
+         * types, and nested lists and maps (with string keys) as parsed from JSON. Other numbers
+         * (BigInteger, BigDecimal) become doubles and any other value its toString().
+         */
+        private boolean writeValue(Object value, Output out, boolean define) {
+            if (value == null) {
+                out.writeVarInt(VALUE_NULL);
+            } else if (value instanceof Integer) {
+                out.writeVarInt(VALUE_INT);
+                out.writeVarLong(zigZag((Integer) value));
+            } else if (value instanceof Long) {
+                out.writeVarInt(VALUE_LONG);
+                out.writeVarLong(zigZag((Long) value));
+            } else if (value instanceof Short) {
+                out.writeVarInt(VALUE_SHORT);
+                out.writeVarLong(zigZag((Short) value));
+            } else if (value instanceof Byte) {
+                out.writeVarInt(VALUE_BYTE);
+                out.writeVarLong(zigZag((Byte) value));
+            } else if (value instanceof Float) {
+                out.writeVarInt(VALUE_FLOAT);
+                out.writeDouble((Float) value);
+            } else if (value instanceof Number) {
+                out.writeVarInt(VALUE_DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                out.writeVarInt((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof Collection) {
+                Collection<?> list = (Collection<?>) value;
+                out.writeVarInt(VALUE_LIST);
+                out.writeVarInt(list.size());
+                for (Object element : list) {
+                    if (!writeValue(element, out, define)) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeVarInt(VALUE_MAP);
+                out.writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    String key = entry.getKey() != null ? entry.getKey().toString() : null;
+                    if (!writeShared(key, out, define) || !writeValue(entry.getValue(), out, define)) {
+                        return false;
+                    }
+                }
+            } else {
+                out.writeVarInt(VALUE_STRING);
+                return writeShared(value.toString(), out, define);
+            }
+            return true;
+        }
+        
+        /**
+         * Sequence ids ("<jvm prefix>-<n>") share their prefix through the dictionary
+         */
+        private boolean writeId(String id, Output out, boolean define) {
+            int dash = id != null ? id.lastIndexOf('-') : -1;
+            if (dash > 0 && isSequence(id, dash + 1)) {
+                out.writeVarInt(ID_SEQUENCE);
+                if (!writeShared(id.substring(0, dash), out, define)) {
+                    return false;
+                }
+                out.writeVarLong(Long.parseLong(id, dash + 1, id.length(), 10));
+                return true;
+            }
+            out.writeVarInt(ID_STRING);
+            writeLiteral(id, out);
+            return true;
+        }
+        
+        /**
+         * @return false if the string should be added to the dictionary but {@code define} is off
+         */
+        private boolean writeShared(String value, Output out, boolean define) {
+            if (value == null) {
+                out.writeVarInt(STRING_NULL);
+                return true;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                out.writeVarInt(STRING_REFERENCE + index);
+                return true;
+            }
+            if (value.length() <= MAX_DICTIONARY_STRING_LENGTH && dictionary.size() < MAX_DICTIONARY_SIZE) {
+                if (!define) {
+                    return false;
+                }
+                dictionary.put(value, dictionary.size());
+                out.writeVarInt(STRING_DEFINE);
+            } else {
+                out.writeVarInt(STRING_LITERAL);
+            }
+            out.writeString(value);
+            return true;
+        }
+        
+        private static void writeLiteral(String value, Output out) {
+            if (value == null) {
+                out.writeVarInt(STRING_NULL);
+                return;
+            }
+            out.writeVarInt(STRING_LITERAL);
+            out.writeString(value);
+        }
+        
+        // Digits only, no leading zero, and short enough to fit a long
+        private static boolean isSequence(String id, int start) {
+            int length = id.length() - start;
+            if (length < 1 || length > 18 || (length > 1 && id.charAt(start) == '0')) {
+                return false;
+            }
+            for (int i = start; i < id.length(); i++) {
+                char c = id.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Decodes events of one stream; not thread-safe
+     */
+    public static final class Decoder {
+        private final long baseNanos;
+        private final List<String> dictionary = new ArrayList<>();
+        
+        private Decoder(Instant base) {
+            this.baseNanos = toEpochNanos(base);
+        }
+        
+        public void reset() {
+            dictionary.clear();
+        }
+        
+        /**
+         * Timestamp of an encoded event, read without consuming the buffer or touching the dictionary
+         */
+        public Instant peekTimestamp(ByteBuffer in) {
+            ByteBuffer record = in.duplicate();
+            readVarInt(record);
+            return fromEpochNanos(baseNanos + unZigZag(readVarLong(record)));
+        }
+        
+        public BrowserEvent decode(ByteBuffer in) {
+            int kind = readVarInt(in);
+            Instant timestamp = fromEpochNanos(baseNanos + unZigZag(readVarLong(in)));
+            String id = readId(in);
+            
+            BrowserEvent.Builder builder = new BrowserEvent.Builder()
+                .id(id)
+                .timestamp(timestamp)
+                .sessionId(readShared(in))
+                .type(readShared(in))
+                .level(readShared(in))
+                .source(readShared(in));
+            
+            if (kind == KIND_NETWORK) {
+                return builder.content(readTiming(in)).build();
+            }
+            if (kind != KIND_PLAIN) {
+                throw new IllegalStateException("Unknown event kind: " + kind);
+            }
+            
+            builder.message(readShared(in)).details(readShared(in));
+            int entries = readVarInt(in) - 1;
+            if (entries >= 0) {
+                Map<String, Object> metadata = new LinkedHashMap<>();
+                for (int i = 0; i < entries; i++) {
+                    metadata.put(readShared(in), readValue(in));
+                }
+                builder.metadata(metadata);
+            }
+            return builder.build();
+        }
+        
+        private NetworkTiming readTiming(ByteBuffer in) {
+            NetworkTiming.Builder timing = NetworkTiming.builder()
+                .requestId(readShared(in))
+                .url(readShared(in))
+                .method(readShared(in))
+                .resourceType(readShared(in))
+                .statusCode(readVarInt(in))
+                .mimeType(readShared(in))
+                .errorText(readShared(in));
+            
+            int present = readVarInt(in);
+            if ((present & HAS_LATENCY) != 0) timing.latencyMs(in.getDouble());
+            if ((present & HAS_DNS) != 0) timing.dnsMs(in.getDouble());
+            if ((present & HAS_CONNECT) != 0) timing.connectMs(in.getDouble());
+            if ((present & HAS_TTFB) != 0) timing.ttfbMs(in.getDouble());
+            if ((present & HAS_DOWNLOAD) != 0) timing.downloadMs(in.getDouble());
+            if ((present & HAS_TRANSFER_SIZE) != 0) timing.transferSize(readVarLong(in));
+            return timing.build();
+        }
+        
+        private Object readValue(ByteBuffer in) {
+            int tag = readVarInt(in);
+            switch (tag) {
+                case VALUE_NULL: return null;
+                case VALUE_STRING: return readShared(in);
+                case VALUE_INT: return (int) unZigZag(readVarLong(in));
+                case VALUE_LONG: return unZigZag(readVarLong(in));
+                case VALUE_DOUBLE: return in.getDouble();
+                case VALUE_TRUE: return Boolean.TRUE;
+                case VALUE_FALSE: return Boolean.FALSE;
+                case VALUE_SHORT: return (short) unZigZag(readVarLong(in));
+                case VALUE_BYTE: return (byte) unZigZag(readVarLong(in));
+                case VALUE_FLOAT: return (float) in.getDouble();
+                case VALUE_LIST: return readList(in);
+                case VALUE_MAP: return readMap(in);
+                default: throw new IllegalStateException("Unknown metadata value tag: " + tag);
+            }
+        }
+        
+        private List<Object> readList(ByteBuffer in) {
+            int size = readVarInt(in);
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readValue(in));
+            }
+            return list;
+        }
+        
+        private Map<String, Object> readMap(ByteBuffer in) {
+            int size = readVarInt(in);
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(readShared(in), readValue(in));
+            }
+            return map;
+        }
+        
+        private String readId(ByteBuffer in) {
+            int form = readVarInt(in);
+            if (form == ID_SEQUENCE) {
+                String prefix = readShared(in);
+                return prefix + "-" + readVarLong(in);
+            }
+            return readShared(in);
+        }
+        
+        // Handles every string tag, so literal and dictionary fields decode the same way
+        private String readShared(ByteBuffer in) {
+            int tag = readVarInt(in);
+            switch (tag) {
+                case STRING_NULL:
+                    return null;
+                case STRING_LITERAL:
+                    return readString(in);
+                case STRING_DEFINE:
+                    String value = readString(in);
+                    dictionary.add(value);
+                    return value;
+                default:
+                    return dictionary.get(tag - STRING_REFERENCE);
+            }
+        }
+    }
+    
+    /**
+     * Growable byte buffer that records are encoded into before being copied to their destination
+     */
+    public static final class Output {
+        private byte[] bytes;
+        private int size;
+        
+        public Output(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+        
+        public int size() { return size; }
+        public byte[] array() { return bytes; }
+        
+        public void reset() {
+            size = 0;
+        }
+        
+        public void writeTo(ByteBuffer target) {
+            target.put(bytes, 0, size);
+        }
+        
+        public void writeTo(OutputStream target) throws IOException {
+            target.write(bytes, 0, size);
+        }
+        
+        public void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+        
+        public void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+        
+        public void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+        
+        public void writeDouble(double value) {
+            ensureCapacity(Double.BYTES);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+        
+        /**
+         * Length-prefixed UTF-8; ASCII strings are copied without an intermediate byte array
+         */
+        public void writeString(String value) {
+            int length = value.length();
+            boolean ascii = true;
+            for (int i = 0; i < length && ascii; i++) {
+                ascii = value.charAt(i) < 0x80;
+            }
+            if (ascii) {
+                writeVarInt(length);
+                ensureCapacity(length);
+                for (int i = 0; i < length; i++) {
+                    bytes[size++] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+        
+        private void ensureCapacity(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+    
+    public static int readVarInt(ByteBuffer in) {
+        return (int) readVarLong(in);
+    }
+    
+    public static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+    
+    public static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(in.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(in.position() + length);
+        return value;
+    }
+    
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
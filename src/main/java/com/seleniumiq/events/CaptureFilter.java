@@ -0,0 +1,143 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.config.MonitorConfig;
+
+import java.util.List;
+
+/**
+ * Ingestion-time filter compiled from the {@code monitoring.filters} configuration.
+ *
+ * Each check works on the raw CDP values before any {@code BrowserEvent} is built, and only
+ * the filters that are actually configured end up in the predicate chain, so rejected noise
+ * (analytics beacons, verbose console output) costs no allocation.
+ */
+public class CaptureFilter {
+
+    @FunctionalInterface
+    private interface ResponsePredicate {
+        boolean test(int status, String mimeType);
+    }
+
+    private static final int LEVEL_DEBUG = 0;
+    private static final int LEVEL_INFO = 1;
+    private static final int LEVEL_WARN = 2;
+    private static final int LEVEL_ERROR = 3;
+
+    private final int minConsoleLevel;
+    private final String[] excludedDomains;
+    private final ResponsePredicate responsePredicate;
+    private final double slowRequestThresholdMs;
+
+    public CaptureFilter(MonitorConfig config) {
+        this.minConsoleLevel = levelRank(config.getMinLogLevel());
+        this.excludedDomains = config.getExcludedDomains().stream()
+            .map(domain -> domain.trim().toLowerCase())
+            .filter(domain -> !domain.isEmpty())
+            .toArray(String[]::new);
+        this.slowRequestThresholdMs = config.getSlowRequestThreshold().toMillis();
+        this.responsePredicate = compileResponsePredicate(config);
+    }
+
+    /**
+     * Whether a console entry with the given CDP level should be captured
+     */
+    public boolean acceptConsoleLevel(String level) {
+        return levelRank(level) >= minConsoleLevel;
+    }
+
+    /**
+     * Whether a request to this URL should be tracked at all
+     */
+    public boolean acceptRequestUrl(String url) {
+        if (excludedDomains.length == 0 || url == null) {
+            return true;
+        }
+
+        int hostStart = url.indexOf("://");
+        hostStart = hostStart < 0 ? 0 : hostStart + 3;
+        int hostEnd = hostStart;
+        while (hostEnd < url.length()) {
+            char c = url.charAt(hostEnd);
+            if (c == '/' || c == ':' || c == '?' || c == '#') {
+                break;
+            }
+            hostEnd++;
+        }
+
+        for (String domain : excludedDomains) {
+            if (hostMatches(url, hostStart, hostEnd, domain)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a completed request should be captured. Failed and slow requests are always kept.
+     */
+    public boolean acceptResponse(int status, String mimeType, double latencyMs) {
+        return status >= 400 || latencyMs >= slowRequestThresholdMs || responsePredicate.test(status, mimeType);
+    }
+
+    private static ResponsePredicate compileResponsePredicate(MonitorConfig config) {
+        if (config.isFailedRequestsOnly()) {
+            // Only failures pass, and those are already accepted before the chain runs
+            return (status, mimeType) -> false;
+        }
+
+        List<String> contentTypes = config.getIncludedContentTypes();
+        if (contentTypes.isEmpty()) {
+            return (status, mimeType) -> true;
+        }
+
+        String[] prefixes = contentTypes.stream()
+            .map(type -> type.trim().toLowerCase())
+            .toArray(String[]::new);
+        return (status, mimeType) -> {
+            if (mimeType == null) {
+                return false;
+            }
+            for (String prefix : prefixes) {
+                if (mimeType.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Host equals the domain or is a subdomain of it, compared in place without substrings
+     */
+    private static boolean hostMatches(String url, int hostStart, int hostEnd, String domain) {
+        int hostLength = hostEnd - hostStart;
+        if (hostLength < domain.length()) {
+            return false;
+        }
+
+        int offset = hostEnd - domain.length();
+        if (!url.regionMatches(true, offset, domain, 0, domain.length())) {
+            return false;
+        }
+        return hostLength == domain.length() || url.charAt(offset - 1) == '.';
+    }
+
+    /**
+     * Rank CDP (verbose/info/warning/error) and configuration (DEBUG/INFO/WARN/ERROR) level names
+     */
+    private static int levelRank(String level) {
+        if (level == null) {
+            return LEVEL_INFO;
+        }
+        if (level.equalsIgnoreCase("error") || level.equalsIgnoreCase("severe")) {
+            return LEVEL_ERROR;
+        }
+        if (level.equalsIgnoreCase("warning") || level.equalsIgnoreCase("warn")) {
+            return LEVEL_WARN;
+        }
+        if (level.equalsIgnoreCase("verbose") || level.equalsIgnoreCase("debug")) {
+            return LEVEL_DEBUG;
+        }
+        return LEVEL_INFO;
+    }
+}
@@ -0,0 +1,285 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Crash-safe, append-only journal of a session's events.
+ *
+ * Events are encoded with {@link BrowserEventCodec} and copied straight into memory-mapped segment
+ * files of a fixed size, so the data survives the JVM being killed (it lives in the OS page cache).
+ * Appends encode outside the journal's lock against the segment dictionary; only events with
+ * strings the dictionary has not seen yet are encoded under it. A journal left behind by a dead JVM
+ * is replayed by {@link JournalRecovery} on the next start.
+ *
+ * The session directory is created and locked under a temporary name and then renamed, so recovery
+ * (in this or another JVM) never finds a live journal unlocked.
+ *
+ * Segment layout: a magic number and the session start (the codec's timestamp base), followed by
+ * records of {@code [int length][byte type][payload]}. Each segment has its own codec dictionary.
+ * The length is written after the payload, so a record torn by a crash reads as length zero and
+ * marks the end of the segment.
+ */
+public class EventJournal {
+    private static final Logger logger = LoggerFactory.getLogger(EventJournal.class);
+    
+    static final int SEGMENT_MAGIC = 0x53514A32; // "SQJ2"
+    static final int RECORD_HEADER_BYTES = Integer.BYTES + 1;
+    static final byte RECORD_SESSION = 1;
+    static final byte RECORD_EVENT = 2;
+    static final byte RECORD_CLOSED = 3;
+    static final String LOCK_FILE = "journal.lock";
+    static final String SEGMENT_GLOB = "segment-*.jnl";
+    static final String CREATING_PREFIX = ".creating-";
+    
+    // Directories of journals open in this JVM, which recovery must leave alone
+    private static final Set<Path> OPEN_DIRECTORIES = ConcurrentHashMap.newKeySet();
+    
+    private static final ThreadLocal<BrowserEventCodec.Output> ENCODE_BUFFER =
+        ThreadLocal.withInitial(() -> new BrowserEventCodec.Output(1024));
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final Instant base;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final BrowserEventCodec.Encoder encoder;
+    private final BrowserEventCodec.Output scratch = new BrowserEventCodec.Output(1024);
+    private MappedByteBuffer segment;
+    private int segmentIndex = -1;
+    // Bumped whenever dictionary entries are dropped, invalidating encodes made outside the lock
+    private volatile long dictionaryGeneration;
+    private long journaledCount;
+    private volatile boolean failed;
+    
+    private EventJournal(Path directory, int segmentSize, Instant base, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.base = base;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.encoder = BrowserEventCodec.encoder(base);
+    }
+    
+    /**
+     * Create the journal for a session under the given root directory and write its header record.
+     * The journal holds a file lock for its lifetime so recovery in another JVM leaves it alone.
+     */
+    public static EventJournal open(Path root, MonitoringSession session, int segmentSize) throws IOException {
+        Path directory = root.resolve(session.getId()).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        Path creating = Files.createTempDirectory(root, CREATING_PREFIX + session.getId() + "-");
+        
+        FileChannel lockChannel = null;
+        try {
+            lockChannel = FileChannel.open(creating.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Nobody else uses a fresh temporary directory, so this only fails on platforms without locking
+            FileLock lock = lockChannel.tryLock();
+            if (lock == null) {
+                throw new IOException("Could not lock new journal: " + creating);
+            }
+            OPEN_DIRECTORIES.add(directory);
+            Files.move(creating, directory, StandardCopyOption.ATOMIC_MOVE);
+            
+            EventJournal journal = new EventJournal(directory, segmentSize, session.getStartTime(), lockChannel, lock);
+            journal.writeSessionHeader(session);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            OPEN_DIRECTORIES.remove(directory);
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+            deleteDirectory(creating);
+            throw e;
+        }
+    }
+    
+    /**
+     * Whether the journal in the directory is open in this JVM
+     */
+    static boolean isOpen(Path directory) {
+        return OPEN_DIRECTORIES.contains(directory.toAbsolutePath().normalize());
+    }
+    
+    /**
+     * Append an event, rolling to a new segment when the current one is full
+     */
+    public void append(BrowserEvent event) {
+        if (failed) {
+            return;
+        }
+        
+        // Encode on the calling thread so the lock only covers the copy into the segment
+        BrowserEventCodec.Output encoded = ENCODE_BUFFER.get();
+        encoded.reset();
+        long generation = dictionaryGeneration;
+        boolean complete = encoder.encodeShared(event, encoded);
+        
+        synchronized (this) {
+            if (failed) {
+                return;
+            }
+            if (complete && generation == dictionaryGeneration && fits(encoded)) {
+                writeRecord(RECORD_EVENT, encoded);
+                journaledCount++;
+                return;
+            }
+            appendDefining(event);
+        }
+    }
+    
+    /**
+     * Encode under the lock, adding new strings to the dictionary or starting a new segment
+     */
+    private void appendDefining(BrowserEvent event) {
+        try {
+            int mark = encoder.mark();
+            scratch.reset();
+            encoder.encode(event, scratch);
+            if (!fits(scratch)) {
+                // Dictionary references are per segment, so re-encode against the new one
+                openNextSegment();
+                mark = encoder.mark();
+                scratch.reset();
+                encoder.encode(event, scratch);
+                if (!fits(scratch)) {
+                    // Entries defined only by this record must not be referenced by later ones
+                    encoder.truncate(mark);
+                    dictionaryGeneration++;
+                    logger.warn("Event larger than journal segment size ({} bytes) was not journaled", segmentSize);
+                    return;
+                }
+            }
+            writeRecord(RECORD_EVENT, scratch);
+            journaledCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+    
+    public synchronized long getJournaledCount() {
+        return journaledCount;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Mark the session as cleanly finished, release the lock and delete the journal files.
+     * A journal whose files cannot be deleted is skipped by recovery thanks to the closed marker.
+     */
+    public synchronized void delete() {
+        close();
+        deleteDirectory(directory);
+    }
+    
+    /**
+     * Mark the session as cleanly finished and release the lock, keeping the files
+     */
+    synchronized void close() {
+        scratch.reset();
+        if (!failed && fits(scratch)) {
+            writeRecord(RECORD_CLOSED, scratch);
+        }
+        segment = null;
+        failed = true;
+        
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to release journal lock in {}", directory, e);
+        }
+        OPEN_DIRECTORIES.remove(directory);
+    }
+    
+    private void writeSessionHeader(MonitoringSession session) {
+        try {
+            openNextSegment();
+            scratch.reset();
+            scratch.writeString(session.getId());
+            scratch.writeString(session.getName() != null ? session.getName() : session.getId());
+            writeRecord(RECORD_SESSION, scratch);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+    
+    private boolean fits(BrowserEventCodec.Output payload) {
+        return segment != null && segment.remaining() >= RECORD_HEADER_BYTES + payload.size();
+    }
+    
+    /**
+     * Copy a record into the mapping, publishing its length last
+     */
+    private void writeRecord(byte type, BrowserEventCodec.Output payload) {
+        int start = segment.position();
+        segment.position(start + Integer.BYTES);
+        segment.put(type);
+        payload.writeTo(segment);
+        segment.putInt(start, payload.size() + 1);
+    }
+    
+    private void openNextSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        
+        segmentIndex++;
+        Path file = directory.resolve(String.format("segment-%06d.jnl", segmentIndex));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment.putInt(SEGMENT_MAGIC);
+        segment.putLong(BrowserEventCodec.toEpochNanos(base));
+        encoder.reset();
+        dictionaryGeneration++;
+        
+        logger.debug("Opened journal segment: {}", file);
+    }
+    
+    private void fail(IOException e) {
+        // Journaling is best effort; the in-memory buffer still has the events
+        failed = true;
+        logger.error("Failed to write event journal in {}. Journaling for this session is disabled.", directory, e);
+    }
+    
+    static void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    // Still-mapped segments cannot be deleted on some platforms until they are unmapped
+                    logger.debug("Could not delete journal file: {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to clean up journal directory: {}", directory, e);
+        }
+    }
+}
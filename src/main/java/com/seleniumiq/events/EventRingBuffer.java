@@ -0,0 +1,261 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer ring buffer holding the most recent events of a session.
+ *
+ * Producers (DevTools listener threads) claim a sequence number with a single atomic
+ * increment and publish into the slot for that sequence; they never block each other.
+ * Readers take lock-free snapshots by walking the published sequence range and skipping
+ * slots that have not been published yet or were already overwritten.
+ *
+ * A slot always keeps the newest of the events competing for it: a producer that finds its slot
+ * already taken by a later sequence treats its own event as the evicted one. Every event is
+ * therefore evicted exactly once, and never while a newer event for the same slot is discarded.
+ */
+public class EventRingBuffer {
+
+    /**
+     * What to do with an event when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /** Overwrite the oldest event */
+        DROP_OLDEST,
+        /**
+         * Reject the incoming event and keep what is already buffered. Nothing consumes the
+         * buffer, so this means "stop capturing once full": after {@code capacity} events every
+         * later event of the session is rejected.
+         */
+        DROP_NEWEST,
+        /** Overwrite the oldest event and hand it to the overflow handler */
+        SPILL;
+
+        public static OverflowPolicy fromString(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int capacity;
+    private final int mask;
+    private final OverflowPolicy overflowPolicy;
+    private final OverflowHandler overflowHandler;
+    private final AtomicLong nextSequence = new AtomicLong(0);
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    /**
+     * Receives events evicted under the {@link OverflowPolicy#SPILL} policy, on the producer
+     * thread; implementations must not block
+     */
+    @FunctionalInterface
+    public interface OverflowHandler {
+        void accept(long sequence, BrowserEvent event);
+    }
+
+    public EventRingBuffer(int capacity, OverflowPolicy overflowPolicy) {
+        this(capacity, overflowPolicy, null);
+    }
+
+    /**
+     * @param capacity Requested capacity, rounded up to the next power of two
+     * @param overflowPolicy Policy applied once the buffer is full
+     * @param overflowHandler Receives overwritten events when the policy is {@link OverflowPolicy#SPILL}
+     */
+    public EventRingBuffer(int capacity, OverflowPolicy overflowPolicy, OverflowHandler overflowHandler) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ring buffer capacity must be positive: " + capacity);
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && overflowHandler == null) {
+            throw new IllegalArgumentException("SPILL overflow policy requires an overflow handler");
+        }
+
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.overflowHandler = overflowHandler;
+    }
+
+    /**
+     * Append an event without blocking
+     *
+     * @return false if the event was rejected by the DROP_NEWEST policy
+     */
+    public boolean append(BrowserEvent event) {
+        long sequence;
+        if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+            do {
+                sequence = nextSequence.get();
+                if (sequence >= capacity) {
+                    droppedCount.incrementAndGet();
+                    return false;
+                }
+            } while (!nextSequence.compareAndSet(sequence, sequence + 1));
+        } else {
+            sequence = nextSequence.getAndIncrement();
+        }
+
+        Slot published = new Slot(sequence, event);
+        int index = (int) (sequence & mask);
+        Slot evicted;
+        while (true) {
+            Slot current = slots.get(index);
+            if (current != null && current.sequence > sequence) {
+                // Lapped by a producer with a later sequence: this event is the older one
+                evicted = published;
+                break;
+            }
+            if (slots.compareAndSet(index, current, published)) {
+                evicted = current;
+                break;
+            }
+        }
+        if (evicted != null) {
+            if (overflowPolicy == OverflowPolicy.SPILL) {
+                overflowHandler.accept(evicted.sequence, evicted.event);
+            } else {
+                droppedCount.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Snapshot of all events currently held, oldest first
+     */
+    public List<BrowserEvent> snapshot() {
+        return snapshot(capacity);
+    }
+
+    /**
+     * Snapshot of the most recent events, oldest first
+     *
+     * @param limit Maximum number of events to return
+     */
+    public List<BrowserEvent> snapshot(int limit) {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - Math.min(limit, capacity));
+        return collect(start, end);
+    }
+
+    /**
+     * Snapshot of the most recent events with sequence numbers in {@code [fromSequence, toSequence)},
+     * oldest first. Events already overwritten are not included.
+     *
+     * @param limit Maximum number of events to return; the newest ones are kept
+     */
+    public List<BrowserEvent> snapshotRange(long fromSequence, long toSequence, int limit) {
+        long end = Math.min(toSequence, nextSequence.get());
+        long start = Math.max(Math.max(fromSequence, 0), end - Math.min(limit, capacity));
+        if (start >= end) {
+            return new ArrayList<>();
+        }
+        return collect(start, end);
+    }
+
+    /**
+     * Snapshot of all events currently held, oldest first, with their sequence numbers, for
+     * merging with the events the overflow handler has stored
+     */
+    public Snapshot sequencedSnapshot() {
+        long end = nextSequence.get();
+        long start = Math.max(0, end - capacity);
+        long evictedBelow = start;
+        long[] sequences = new long[(int) (end - start)];
+        List<BrowserEvent> events = new ArrayList<>(sequences.length);
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots.get((int) (sequence & mask));
+            if (slot != null && slot.sequence == sequence) {
+                sequences[events.size()] = slot.sequence;
+                events.add(slot.event);
+            } else if (slot != null && slot.sequence > sequence) {
+                // Evicted while walking; it is on its way to the overflow handler
+                evictedBelow = sequence + 1;
+            }
+        }
+        return new Snapshot(sequences, events, evictedBelow);
+    }
+
+    private List<BrowserEvent> collect(long start, long end) {
+        List<BrowserEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot slot = slots.get((int) (sequence & mask));
+            // Skip slots still being published or already lapped by a newer producer
+            if (slot != null && slot.sequence == sequence) {
+                events.add(slot.event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Number of events currently held in the buffer
+     */
+    public int size() {
+        return (int) Math.min(nextSequence.get(), capacity);
+    }
+
+    public int getCapacity() { return capacity; }
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+
+    /**
+     * Total number of events ever accepted by this buffer
+     */
+    public long getAppendedCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Number of events lost to the DROP_OLDEST or DROP_NEWEST policy
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Events held at one point in time. Every event with a sequence number below
+     * {@link #getEvictedBelow()} that is not in the snapshot had been evicted while it was taken.
+     */
+    public static final class Snapshot {
+        private final long[] sequences;
+        private final List<BrowserEvent> events;
+        private final long evictedBelow;
+
+        private Snapshot(long[] sequences, List<BrowserEvent> events, long evictedBelow) {
+            this.sequences = sequences;
+            this.events = events;
+            this.evictedBelow = evictedBelow;
+        }
+
+        public long getEvictedBelow() {
+            return evictedBelow;
+        }
+
+        /**
+         * Events of the snapshot with sequence numbers from {@code fromSequence} on, oldest first
+         */
+        public List<BrowserEvent> since(long fromSequence) {
+            int first = 0;
+            while (first < events.size() && sequences[first] < fromSequence) {
+                first++;
+            }
+            return events.subList(first, events.size());
+        }
+    }
+
+    private static final class Slot {
+        private final long sequence;
+        private final BrowserEvent event;
+
+        private Slot(long sequence, BrowserEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+}
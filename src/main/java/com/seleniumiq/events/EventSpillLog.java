@@ -0,0 +1,536 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Append-only on-disk log for events that no longer fit in a session's in-memory ring buffer.
+ *
+ * Capture threads only {@link #offer} evicted events to a bounded lock-free queue; the
+ * {@link SpillWriter} thread drains it, restores sequence order (producers may evict out of
+ * order) and does the disk I/O. If the queue is full the event is dropped rather than blocking
+ * the capture thread, and the writer skips its sequence once it can no longer wait for it.
+ *
+ * Events are encoded with {@link BrowserEventCodec} into blocks of about 64KB, optionally
+ * Deflate-compressed, and written to size-bounded segment files in sequence order. They are read
+ * back as a lazy stream, one block at a time, so heap use does not grow with the length of the session.
+ *
+ * Segment layout: {@code [int magic][byte compression][long base epoch nanos]} followed by blocks of
+ * {@code [int raw length][int stored length][int event count][bytes]}. Each segment has its own
+ * codec dictionary.
+ */
+public class EventSpillLog {
+    private static final Logger logger = LoggerFactory.getLogger(EventSpillLog.class);
+    
+    private static final int SEGMENT_MAGIC = 0x53515332; // "SQS2"
+    private static final long SEGMENT_SIZE_BYTES = 16L * 1024 * 1024;
+    private static final int BLOCK_SIZE_BYTES = 64 * 1024;
+    private static final long STRAGGLER_WAIT_NANOS = 50_000_000L;
+    
+    private final Path directory;
+    private final Instant base;
+    private final BrowserEventCodec.Compression compression;
+    private final int queueCapacity;
+    private final Queue<Spilled> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Snapshots waiting on the monitor for stragglers; written under the monitor, read by producers
+    private volatile int stragglerWaiters;
+    
+    // Writer state, guarded by this
+    private final PriorityQueue<Spilled> reorder = new PriorityQueue<>(Comparator.comparingLong((Spilled spilled) -> spilled.sequence));
+    private long nextSequence;
+    private long lostCount;
+    private final BrowserEventCodec.Encoder encoder;
+    private final BrowserEventCodec.Output block = new BrowserEventCodec.Output(BLOCK_SIZE_BYTES + 1024);
+    private final List<Segment> segments = new ArrayList<>();
+    private Deflater deflater;
+    private byte[] compressed;
+    private DataOutputStream output;
+    private long segmentBytes;
+    private int blockEventCount;
+    private long spilledCount;
+    private boolean failed;
+    private boolean deleted;
+    
+    /**
+     * @param directory Per-session directory for segment files
+     * @param base Timestamp base for the codec, normally the session start
+     * @param compression Block compression
+     * @param queueCapacity Evicted events that may wait for the writer before further ones are dropped
+     */
+    public EventSpillLog(Path directory, Instant base, BrowserEventCodec.Compression compression, int queueCapacity) {
+        this.directory = directory;
+        this.base = base;
+        this.compression = compression;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.encoder = BrowserEventCodec.encoder(base);
+    }
+    
+    /**
+     * Queue an evicted event for the writer without blocking
+     *
+     * @param sequence Ring buffer sequence of the event; events are written in this order
+     * @return false if the queue is full and the event was dropped
+     */
+    public boolean offer(long sequence, BrowserEvent event) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            return false;
+        }
+        queue.add(new Spilled(sequence, event));
+        if (stragglerWaiters > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Write queued events that are next in sequence; called by the spill writer
+     *
+     * @return Whether any event was written
+     */
+    public synchronized boolean drain() {
+        return drain(false);
+    }
+    
+    /**
+     * @param skipGaps Write past missing sequences instead of waiting for them
+     */
+    private boolean drain(boolean skipGaps) {
+        if (deleted) {
+            return false;
+        }
+        
+        Spilled spilled;
+        while ((spilled = queue.poll()) != null) {
+            queued.decrementAndGet();
+            if (spilled.sequence < nextSequence) {
+                // Its place in the log was given up as lost
+                lostCount++;
+            } else {
+                reorder.add(spilled);
+            }
+        }
+        
+        boolean written = false;
+        while (!reorder.isEmpty()) {
+            Spilled head = reorder.peek();
+            if (head.sequence != nextSequence) {
+                if (!skipGaps && reorder.size() < queueCapacity) {
+                    // A producer between eviction and offer; its event arrives shortly
+                    break;
+                }
+                // The missing events were dropped on a full queue, or are late and given up on
+                lostCount += head.sequence - nextSequence;
+                nextSequence = head.sequence;
+            }
+            reorder.poll();
+            write(head.event);
+            nextSequence++;
+            written = true;
+        }
+        return written;
+    }
+    
+    /**
+     * Write everything queued and every event before {@code through}, giving producers caught
+     * between eviction and offer a moment to catch up before their sequence is given up as lost.
+     * The wait releases the monitor, so the spill writer and readers carry on; offers wake it.
+     */
+    private void drainThrough(long through) {
+        drain(false);
+        long deadline = System.nanoTime() + STRAGGLER_WAIT_NANOS;
+        stragglerWaiters++;
+        try {
+            while (!deleted && (nextSequence < through || !reorder.isEmpty())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                drain(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stragglerWaiters--;
+        }
+        drain(true);
+        if (nextSequence < through) {
+            lostCount += through - nextSequence;
+            nextSequence = through;
+        }
+    }
+    
+    /**
+     * Append an event to the current block, writing the block out when it is full
+     */
+    private void write(BrowserEvent event) {
+        if (failed) {
+            return;
+        }
+        
+        try {
+            if (output == null) {
+                openNextSegment();
+            }
+            encoder.encode(event, block);
+            blockEventCount++;
+            
+            if (block.size() >= BLOCK_SIZE_BYTES) {
+                writeBlock();
+                if (segmentBytes >= SEGMENT_SIZE_BYTES) {
+                    closeOutput();
+                }
+            }
+        } catch (IOException e) {
+            // Stop spilling rather than fail every listener callback; older events are lost
+            failed = true;
+            logger.error("Failed to spill events to {}. Further overflow for this session is dropped.", directory, e);
+        }
+    }
+    
+    /**
+     * Lazily stream all spilled events, oldest first. Close the stream to release file handles.
+     */
+    public Stream<BrowserEvent> stream() {
+        return snapshot(0).stream();
+    }
+    
+    /**
+     * Write all events evicted so far, and wait briefly for those with sequence numbers below
+     * {@code through} that are still on their way, then snapshot what is on disk
+     *
+     * @param through Sequence below which the caller no longer finds events in memory
+     */
+    public Snapshot snapshot(long through) {
+        List<Segment> copies = new ArrayList<>();
+        long watermark;
+        synchronized (this) {
+            drainThrough(through);
+            flush();
+            // Copy counts so records appended after this point are never read half-written
+            segments.forEach(segment -> copies.add(new Segment(segment.path, segment.eventCount)));
+            watermark = nextSequence;
+        }
+        return new Snapshot(watermark, copies);
+    }
+    
+    /**
+     * Evicted events waiting for the writer
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+    
+    /**
+     * Whether events are queued or wait for an earlier sequence before they can be written
+     */
+    synchronized boolean hasPending() {
+        return !deleted && (queued.get() > 0 || !reorder.isEmpty());
+    }
+    
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+    
+    /**
+     * Evicted events that never reached disk, mostly because the queue was full
+     */
+    public synchronized long getLostCount() {
+        return lostCount;
+    }
+    
+    /**
+     * Close the log and delete its segment files
+     */
+    public synchronized void delete() {
+        deleted = true;
+        notifyAll();
+        queue.clear();
+        reorder.clear();
+        closeOutput();
+        segments.clear();
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.debug("Could not delete spill file: {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Failed to clean up spill directory: {}", directory, e);
+        }
+    }
+    
+    private void openNextSegment() throws IOException {
+        closeOutput();
+        Files.createDirectories(directory);
+        
+        Path segment = directory.resolve(String.format("segment-%06d.log", segments.size()));
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segment), BLOCK_SIZE_BYTES));
+        output.writeInt(SEGMENT_MAGIC);
+        output.writeByte(compression.ordinal());
+        output.writeLong(BrowserEventCodec.toEpochNanos(base));
+        segments.add(new Segment(segment, 0));
+        segmentBytes = 0;
+        encoder.reset();
+        
+        logger.debug("Opened spill segment: {}", segment);
+    }
+    
+    private void writeBlock() throws IOException {
+        if (blockEventCount == 0) {
+            return;
+        }
+        
+        int rawLength = block.size();
+        byte[] stored = block.array();
+        int storedLength = rawLength;
+        if (compression == BrowserEventCodec.Compression.DEFLATE) {
+            storedLength = deflate(rawLength);
+            stored = compressed;
+        }
+        
+        output.writeInt(rawLength);
+        output.writeInt(storedLength);
+        output.writeInt(blockEventCount);
+        output.write(stored, 0, storedLength);
+        segmentBytes += 3 * Integer.BYTES + storedLength;
+        
+        // Count events only once written, so readers never expect a block that failed
+        segments.get(segments.size() - 1).eventCount += blockEventCount;
+        spilledCount += blockEventCount;
+        
+        block.reset();
+        blockEventCount = 0;
+    }
+    
+    private int deflate(int rawLength) {
+        if (deflater == null) {
+            // Spilling sits on the capture path; favour speed over ratio
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        int bound = rawLength + rawLength / 100 + 64;
+        if (compressed == null || compressed.length < bound) {
+            compressed = new byte[bound];
+        }
+        
+        deflater.reset();
+        deflater.setInput(block.array(), 0, rawLength);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+    
+    private void flush() {
+        if (output != null && !failed) {
+            try {
+                writeBlock();
+                output.flush();
+            } catch (IOException e) {
+                // The segment may end in a partial block; appending after it would corrupt it
+                failed = true;
+                logger.error("Failed to flush spill segment in {}. Further overflow for this session is dropped.", directory, e);
+            }
+        }
+    }
+    
+    private void closeOutput() {
+        if (output != null) {
+            try {
+                writeBlock();
+                output.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close spill segment in {}", directory, e);
+            }
+            output = null;
+        }
+    }
+    
+    private static Stream<BrowserEvent> readSegment(Segment segment) {
+        try {
+            SegmentReader reader = new SegmentReader(segment);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED), false)
+                .onClose(reader::close);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spill segment: " + segment.path, e);
+        }
+    }
+    
+    /**
+     * Spilled events as of one point in time: every event with a sequence number below the
+     * watermark that reached disk
+     */
+    public static final class Snapshot {
+        private final long watermark;
+        private final List<Segment> segments;
+        
+        private Snapshot(long watermark, List<Segment> segments) {
+            this.watermark = watermark;
+            this.segments = segments;
+        }
+        
+        /**
+         * Sequence number of the first event not covered by this snapshot
+         */
+        public long getWatermark() {
+            return watermark;
+        }
+        
+        /**
+         * Lazily stream the events, oldest first. Close the stream to release file handles.
+         */
+        public Stream<BrowserEvent> stream() {
+            return segments.stream().flatMap(EventSpillLog::readSegment);
+        }
+    }
+    
+    private static final class Spilled {
+        private final long sequence;
+        private final BrowserEvent event;
+        
+        private Spilled(long sequence, BrowserEvent event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+    
+    private static final class Segment {
+        private final Path path;
+        private long eventCount;
+        
+        private Segment(Path path, long eventCount) {
+            this.path = path;
+            this.eventCount = eventCount;
+        }
+    }
+    
+    /**
+     * Decodes a segment block by block, stopping after the snapshotted event count
+     */
+    private static final class SegmentReader implements Iterator<BrowserEvent> {
+        private final Segment segment;
+        private final DataInputStream input;
+        private final BrowserEventCodec.Compression compression;
+        private final BrowserEventCodec.Decoder decoder;
+        private Inflater inflater;
+        private ByteBuffer block;
+        private int blockRemaining;
+        private long remaining;
+        
+        private SegmentReader(Segment segment) throws IOException {
+            this.segment = segment;
+            this.remaining = segment.eventCount;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.path), BLOCK_SIZE_BYTES));
+            if (input.readInt() != SEGMENT_MAGIC) {
+                input.close();
+                throw new IOException("Not a spill segment: " + segment.path);
+            }
+            this.compression = BrowserEventCodec.Compression.values()[input.readByte()];
+            this.decoder = BrowserEventCodec.decoder(BrowserEventCodec.fromEpochNanos(input.readLong()));
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+        
+        @Override
+        public BrowserEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                if (blockRemaining == 0) {
+                    readBlock();
+                }
+                blockRemaining--;
+                remaining--;
+                return decoder.decode(block);
+            } catch (IOException | DataFormatException e) {
+                throw new UncheckedIOException("Failed to read spill segment: " + segment.path,
+                    e instanceof IOException ? (IOException) e : new IOException(e));
+            }
+        }
+        
+        private void readBlock() throws IOException, DataFormatException {
+            int rawLength = input.readInt();
+            int storedLength = input.readInt();
+            blockRemaining = input.readInt();
+            byte[] stored = new byte[storedLength];
+            input.readFully(stored);
+            
+            if (compression == BrowserEventCodec.Compression.NONE) {
+                block = ByteBuffer.wrap(stored);
+                return;
+            }
+            if (inflater == null) {
+                inflater = new Inflater();
+            }
+            inflater.reset();
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(raw, length, rawLength - length);
+            }
+            block = ByteBuffer.wrap(raw, 0, length);
+        }
+        
+        private void close() {
+            if (inflater != null) {
+                inflater.end();
+            }
+            try {
+                input.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close spill segment reader: {}", segment.path, e);
+            }
+        }
+    }
+}
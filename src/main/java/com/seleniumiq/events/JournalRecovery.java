@@ -0,0 +1,378 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.reporting.ReportGenerator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replays event journals left behind by a JVM that died mid-suite and writes the session
+ * reports that were never generated.
+ *
+ * Runs automatically when SeleniumIQ starts with journaling enabled, or standalone:
+ * {@code java -cp <classpath> com.seleniumiq.events.JournalRecovery [journal-directory]}
+ */
+public class JournalRecovery {
+    private static final Logger logger = LoggerFactory.getLogger(JournalRecovery.class);
+    
+    // A journal is renamed into place right after it is locked; one still being created after this died mid-way
+    private static final Duration STALE_CREATING_AGE = Duration.ofMinutes(1);
+    
+    private final Path root;
+    private final ReportGenerator reportGenerator;
+    
+    public JournalRecovery(Path root, ReportGenerator reportGenerator) {
+        this.root = root;
+        this.reportGenerator = reportGenerator;
+    }
+    
+    /**
+     * Find journal directories not held by a live session, in this or another JVM
+     */
+    public List<Path> findOrphanedJournals() {
+        if (!Files.isDirectory(root)) {
+            return Collections.emptyList();
+        }
+        
+        List<Path> orphaned = new ArrayList<>();
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path directory : directories) {
+                if (directory.getFileName().toString().startsWith(EventJournal.CREATING_PREFIX)) {
+                    deleteIfStale(directory);
+                } else if (!EventJournal.isOpen(directory) && !isLocked(directory)) {
+                    orphaned.add(directory);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to scan journal directory: {}", root, e);
+        }
+        return orphaned;
+    }
+    
+    /**
+     * Recover every orphaned journal, generating a report for each crashed session
+     *
+     * @return Number of session reports generated
+     */
+    public int recoverAll() {
+        int recovered = 0;
+        for (Path directory : findOrphanedJournals()) {
+            if (recover(directory)) {
+                recovered++;
+            }
+        }
+        return recovered;
+    }
+    
+    /**
+     * Generate the report for one orphaned journal and delete it
+     *
+     * @return true if a report was generated; journals of sessions that closed cleanly are only deleted
+     */
+    public boolean recover(Path directory) {
+        if (EventJournal.isOpen(directory)) {
+            logger.debug("Skipping journal of a live session: {}", directory);
+            return false;
+        }
+        
+        boolean reported = false;
+        try (FileChannel lockChannel = FileChannel.open(directory.resolve(EventJournal.LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = tryLock(lockChannel);
+            if (lock == null) {
+                logger.debug("Skipping journal in use: {}", directory);
+                return false;
+            }
+            
+            try {
+                RecoveredSession recovered = read(directory);
+                if (recovered.getSession() == null) {
+                    // Either still being created by a starting session, or never got its header; leave it
+                    logger.debug("Skipping journal without a session header: {}", directory);
+                    return false;
+                } else if (recovered.isClosed()) {
+                    logger.debug("Deleting journal of cleanly finished session: {}", directory);
+                } else {
+                    MonitoringSession session = recovered.getSession();
+                    logger.info("Recovering session {} ({}) from journal with {} events",
+                               session.getName(), session.getId(), recovered.getEventCount());
+                    reportGenerator.generateSessionReport(session, recovered::events, null);
+                    reported = true;
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (Exception e) {
+            // Keep the journal so a later run (or the standalone tool) can retry
+            logger.error("Failed to recover journal: {}", directory, e);
+            return false;
+        }
+        
+        EventJournal.deleteDirectory(directory);
+        return reported;
+    }
+    
+    /**
+     * Read a journal directory: session header, event count and whether the session closed cleanly.
+     * Events themselves are read lazily through {@link RecoveredSession#events()}.
+     */
+    public static RecoveredSession read(Path directory) throws IOException {
+        List<Path> segments = listSegments(directory);
+        RecoveredSession recovered = new RecoveredSession(directory, segments);
+        
+        Iterator<Record> records = new RecordIterator(segments);
+        while (records.hasNext()) {
+            Record record = records.next();
+            ByteBuffer payload = record.payload;
+            switch (record.type) {
+                case EventJournal.RECORD_SESSION:
+                    String id = BrowserEventCodec.readString(payload);
+                    String name = BrowserEventCodec.readString(payload);
+                    // Segments store the session start as their timestamp base
+                    recovered.session = new MonitoringSession(id, name, null, record.base);
+                    break;
+                case EventJournal.RECORD_EVENT:
+                    recovered.eventCount++;
+                    recovered.lastEventTime = record.decoder.peekTimestamp(payload);
+                    break;
+                case EventJournal.RECORD_CLOSED:
+                    recovered.closed = true;
+                    break;
+                default:
+                    logger.debug("Skipping unknown journal record type {} in {}", record.type, directory);
+            }
+        }
+        
+        if (recovered.session != null) {
+            recovered.session.setStatus("RECOVERED");
+            recovered.session.setEndTime(recovered.lastEventTime);
+        }
+        return recovered;
+    }
+    
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, EventJournal.SEGMENT_GLOB)) {
+            files.forEach(segments::add);
+        }
+        // Zero-padded indexes sort in write order
+        Collections.sort(segments);
+        return segments;
+    }
+    
+    private static boolean isLocked(Path directory) {
+        Path lockFile = directory.resolve(EventJournal.LOCK_FILE);
+        if (!Files.exists(lockFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = tryLock(channel);
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (IOException e) {
+            logger.debug("Could not check journal lock: {}", lockFile, e);
+            return true;
+        }
+    }
+    
+    /**
+     * Delete a journal directory left half-created by a JVM that died while opening it
+     */
+    private static void deleteIfStale(Path directory) {
+        try {
+            Instant modified = Files.getLastModifiedTime(directory).toInstant();
+            if (modified.isBefore(Instant.now().minus(STALE_CREATING_AGE)) && !isLocked(directory)) {
+                logger.debug("Deleting half-created journal: {}", directory);
+                EventJournal.deleteDirectory(directory);
+            }
+        } catch (IOException e) {
+            logger.debug("Could not check half-created journal: {}", directory, e);
+        }
+    }
+    
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by a live session in this JVM
+            return null;
+        }
+    }
+    
+    /**
+     * Standalone recovery tool. Uses the configured journal directory unless one is given.
+     */
+    public static void main(String[] args) {
+        MonitorConfig config = MonitorConfig.load();
+        Path root = args.length > 0 ? Paths.get(args[0]) : config.getJournalDirectory();
+        ReportGenerator reportGenerator = new ReportGenerator(config);
+        
+        int recovered = new JournalRecovery(root, reportGenerator).recoverAll();
+        reportGenerator.shutdown();
+        logger.info("Recovered {} session(s) from {}", recovered, root);
+    }
+    
+    /**
+     * A session rebuilt from its journal
+     */
+    public static class RecoveredSession {
+        private final Path directory;
+        private final List<Path> segments;
+        private MonitoringSession session;
+        private long eventCount;
+        private Instant lastEventTime;
+        private boolean closed;
+        
+        private RecoveredSession(Path directory, List<Path> segments) {
+            this.directory = directory;
+            this.segments = segments;
+        }
+        
+        public Path getDirectory() { return directory; }
+        public MonitoringSession getSession() { return session; }
+        public long getEventCount() { return eventCount; }
+        public boolean isClosed() { return closed; }
+        
+        /**
+         * Lazily stream the journaled events, oldest first; may be called repeatedly
+         */
+        public Stream<BrowserEvent> events() {
+            Iterator<Record> records = new RecordIterator(segments);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED), false)
+                .filter(record -> record.type == EventJournal.RECORD_EVENT)
+                .map(record -> record.decoder.decode(record.payload));
+        }
+        
+        /**
+         * All journaled events materialized in memory
+         */
+        public List<BrowserEvent> getEvents() {
+            return events().collect(Collectors.toList());
+        }
+    }
+    
+    private static final class Record {
+        private final byte type;
+        private final ByteBuffer payload;
+        private final Instant base;
+        private final BrowserEventCodec.Decoder decoder;
+        
+        private Record(byte type, ByteBuffer payload, Instant base, BrowserEventCodec.Decoder decoder) {
+            this.type = type;
+            this.payload = payload;
+            this.base = base;
+            this.decoder = decoder;
+        }
+    }
+    
+    /**
+     * Walks the records of a journal's segments, mapping one segment at a time.
+     * A zero or out-of-range length marks the end of the written part of a segment.
+     * Event records of a segment share its decoder and must be decoded in order.
+     */
+    private static final class RecordIterator implements Iterator<Record> {
+        private final Iterator<Path> segments;
+        private ByteBuffer current;
+        private Instant base;
+        private BrowserEventCodec.Decoder decoder;
+        private Record next;
+        
+        private RecordIterator(List<Path> segments) {
+            this.segments = segments.iterator();
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (current != null) {
+                    next = readRecord();
+                    if (next != null) {
+                        break;
+                    }
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                current = map(segments.next());
+                if (current != null) {
+                    base = BrowserEventCodec.fromEpochNanos(current.getLong());
+                    decoder = BrowserEventCodec.decoder(base);
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public Record next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Record record = next;
+            next = null;
+            return record;
+        }
+        
+        private Record readRecord() {
+            ByteBuffer buffer = current;
+            try {
+                if (buffer.remaining() < EventJournal.RECORD_HEADER_BYTES) {
+                    return null;
+                }
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    return null;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position() + 1, length - 1);
+                byte type = buffer.get();
+                buffer.position(buffer.position() + length - 1);
+                return new Record(type, payload, base, decoder);
+            } catch (BufferUnderflowException e) {
+                return null;
+            }
+        }
+        
+        private static ByteBuffer map(Path segment) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < Integer.BYTES + Long.BYTES || buffer.getInt() != EventJournal.SEGMENT_MAGIC) {
+                    logger.warn("Skipping journal segment with an invalid header: {}", segment);
+                    return null;
+                }
+                return buffer;
+            } catch (IOException e) {
+                logger.warn("Failed to read journal segment: {}", segment, e);
+                return null;
+            }
+        }
+    }
+}
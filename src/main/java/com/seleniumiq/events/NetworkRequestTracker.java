@@ -0,0 +1,292 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.NetworkTiming;
+
+import org.openqa.selenium.devtools.v85.network.model.ResourceTiming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Correlates CDP network events by request id so that each request produces a single
+ * {@link NetworkTiming} with real latency, transfer size and timing phases.
+ *
+ * Entries are removed when the request finishes or fails. Requests that never complete are
+ * evicted after a timeout, and the oldest ones are evicted early whenever more than
+ * {@code maxPending} are in flight, so the table stays bounded on pages issuing thousands of requests.
+ * Evicted requests are reported as failed unless they are long-lived by design: WebSockets, event
+ * streams and requests whose response is still streaming are dropped without a failure.
+ * All CDP timestamps are monotonic seconds.
+ */
+public class NetworkRequestTracker {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkRequestTracker.class);
+
+    private static final int SWEEP_INTERVAL = 256;
+    private static final Set<String> LONG_LIVED_RESOURCE_TYPES = Set.of("WEBSOCKET", "EVENTSOURCE");
+
+    private final Map<String, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger requestsSinceSweep = new AtomicInteger(0);
+    private final long timeoutNanos;
+    private final int maxPending;
+    private final CaptureFilter captureFilter;
+    private final Consumer<NetworkTiming> onMeasured;
+    private final Consumer<NetworkTiming> onCompleted;
+    private final Consumer<NetworkTiming> onFailed;
+
+    /**
+     * @param timeout How long an uncompleted request is kept before it is evicted as timed out
+     * @param maxPending Table size that triggers an eviction sweep regardless of the sweep interval
+     * @param captureFilter Decides which requests are tracked and which completions are reported
+     * @param onMeasured Receives every tracked request that finished, failed or timed out, before
+     *                   the response filter, for latency metrics
+     * @param onCompleted Receives requests that finished loading
+     * @param onFailed Receives requests that failed or timed out
+     */
+    public NetworkRequestTracker(Duration timeout, int maxPending, CaptureFilter captureFilter,
+                                 Consumer<NetworkTiming> onMeasured,
+                                 Consumer<NetworkTiming> onCompleted, Consumer<NetworkTiming> onFailed) {
+        this.timeoutNanos = timeout.toNanos();
+        this.maxPending = maxPending;
+        this.captureFilter = captureFilter;
+        this.onMeasured = onMeasured;
+        this.onCompleted = onCompleted;
+        this.onFailed = onFailed;
+    }
+
+    /**
+     * Network.requestWillBeSent
+     */
+    public void onRequestWillBeSent(String requestId, String url, String method, String resourceType, double timestamp) {
+        if (!captureFilter.acceptRequestUrl(url)) {
+            return;
+        }
+        
+        // Redirects reuse the request id; keep the original start so latency covers the whole chain
+        pending.compute(requestId, (id, existing) -> {
+            if (existing != null) {
+                existing.url = url;
+                return existing;
+            }
+            return new PendingRequest(url, method, resourceType, timestamp);
+        });
+
+        if (requestsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL || pending.size() > maxPending) {
+            requestsSinceSweep.set(0);
+            evictExpired();
+            if (pending.size() > maxPending) {
+                evictOldest();
+            }
+        }
+    }
+
+    /**
+     * Network.responseReceived
+     */
+    public void onResponseReceived(String requestId, String url, int status, String mimeType,
+                                   double timestamp, ResourceTiming timing) {
+        pending.computeIfPresent(requestId, (id, request) -> {
+            request.url = url;
+            request.status = status;
+            request.mimeType = mimeType;
+            request.responseTimestamp = timestamp;
+
+            if (timing != null) {
+                double requestTime = timing.getRequestTime().doubleValue();
+                request.dnsMs = phase(timing.getDnsStart(), timing.getDnsEnd());
+                request.connectMs = phase(timing.getConnectStart(), timing.getConnectEnd());
+                request.ttfbMs = phase(timing.getSendStart(), timing.getReceiveHeadersEnd());
+                double headersEnd = timing.getReceiveHeadersEnd().doubleValue();
+                if (headersEnd >= 0) {
+                    request.headersReceivedTimestamp = requestTime + headersEnd / 1000.0;
+                }
+            }
+            return request;
+        });
+    }
+
+    /**
+     * Network.loadingFinished
+     */
+    public void onLoadingFinished(String requestId, double timestamp, long encodedDataLength) {
+        PendingRequest request = pending.remove(requestId);
+        if (request == null) {
+            return;
+        }
+
+        NetworkTiming timing = request.toTiming(requestId, timestamp)
+            .transferSize(encodedDataLength)
+            .build();
+        onMeasured.accept(timing);
+        if (!captureFilter.acceptResponse(request.status, request.mimeType, timing.getLatencyMs())) {
+            return;
+        }
+
+        onCompleted.accept(timing);
+    }
+
+    /**
+     * Network.loadingFailed
+     */
+    public void onLoadingFailed(String requestId, double timestamp, String errorText) {
+        PendingRequest request = pending.remove(requestId);
+        if (request == null) {
+            // Excluded by the capture filter, or started before monitoring began
+            logger.debug("Ignoring failure of untracked request {}: {}", requestId, errorText);
+            return;
+        }
+
+        NetworkTiming timing = request.toTiming(requestId, timestamp)
+            .errorText(errorText)
+            .build();
+        onMeasured.accept(timing);
+        onFailed.accept(timing);
+    }
+
+    /**
+     * Number of requests awaiting completion
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Discard all in-flight requests, e.g. when the session stops
+     */
+    public void clear() {
+        int discarded = pending.size();
+        pending.clear();
+        if (discarded > 0) {
+            logger.debug("Discarded {} in-flight network requests", discarded);
+        }
+    }
+
+    /**
+     * Evict requests older than the timeout, reporting them as failed unless they are long-lived
+     */
+    private void evictExpired() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, PendingRequest>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PendingRequest> entry = iterator.next();
+            PendingRequest request = entry.getValue();
+            if (now - request.trackedAtNanos > timeoutNanos && pending.remove(entry.getKey(), request)) {
+                reportTimedOut(entry.getKey(), request, now,
+                    "Timed out after " + timeoutNanos / 1_000_000 + "ms without completing");
+            }
+        }
+    }
+
+    /**
+     * Evict the longest-pending requests, reporting them as timed out, until the table is an eighth
+     * below its bound, so a page with more live requests than the bound does not sort the table on
+     * every new request
+     */
+    private void evictOldest() {
+        int target = maxPending - maxPending / 8;
+        List<Map.Entry<String, PendingRequest>> oldestFirst = new ArrayList<>(pending.entrySet());
+        oldestFirst.sort(Comparator.comparingLong(entry -> entry.getValue().trackedAtNanos));
+
+        long now = System.nanoTime();
+        for (Map.Entry<String, PendingRequest> entry : oldestFirst) {
+            if (pending.size() <= target) {
+                break;
+            }
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                reportTimedOut(entry.getKey(), entry.getValue(), now,
+                    "Timed out: evicted with more than " + maxPending + " requests pending");
+            }
+        }
+    }
+
+    private void reportTimedOut(String requestId, PendingRequest request, long now, String errorText) {
+        if (request.isLongLived()) {
+            // Open connections and streamed responses outlive any timeout without having failed
+            logger.debug("Stopped tracking long-lived {} request {}: {}", request.resourceType, requestId, request.url);
+            return;
+        }
+        
+        NetworkTiming timing = NetworkTiming.builder()
+            .requestId(requestId)
+            .url(request.url)
+            .method(request.method)
+            .resourceType(request.resourceType)
+            .statusCode(request.status)
+            .latencyMs((now - request.trackedAtNanos) / 1_000_000.0)
+            .errorText(errorText)
+            .build();
+        onMeasured.accept(timing);
+        onFailed.accept(timing);
+    }
+
+    private static double phase(Number start, Number end) {
+        double startMs = start.doubleValue();
+        double endMs = end.doubleValue();
+        return startMs >= 0 && endMs >= startMs ? endMs - startMs : -1;
+    }
+
+    /**
+     * Mutable correlation entry; only mutated inside map compute operations
+     */
+    private static final class PendingRequest {
+        private final String method;
+        private final String resourceType;
+        private final double startTimestamp;
+        private final long trackedAtNanos = System.nanoTime();
+        private String url;
+        private int status;
+        private String mimeType;
+        private double responseTimestamp = -1;
+        private double headersReceivedTimestamp = -1;
+        private double dnsMs = -1;
+        private double connectMs = -1;
+        private double ttfbMs = -1;
+
+        private PendingRequest(String url, String method, String resourceType, double startTimestamp) {
+            this.url = url;
+            this.method = method;
+            this.resourceType = resourceType;
+            this.startTimestamp = startTimestamp;
+        }
+
+        /**
+         * WebSockets and event streams stay open for the life of the page, and a request whose
+         * response arrived but never finished is still streaming its body (long-polls, streamed fetches)
+         */
+        private boolean isLongLived() {
+            return LONG_LIVED_RESOURCE_TYPES.contains(resourceType) || responseTimestamp >= 0;
+        }
+
+        private NetworkTiming.Builder toTiming(String requestId, double endTimestamp) {
+            double ttfb = ttfbMs;
+            double downloadFrom = headersReceivedTimestamp;
+            if (responseTimestamp >= 0) {
+                // No ResourceTiming (e.g. served from cache): fall back to event timestamps
+                if (ttfb < 0) ttfb = (responseTimestamp - startTimestamp) * 1000.0;
+                if (downloadFrom < 0) downloadFrom = responseTimestamp;
+            }
+
+            return NetworkTiming.builder()
+                .requestId(requestId)
+                .url(url)
+                .method(method)
+                .resourceType(resourceType)
+                .statusCode(status)
+                .mimeType(mimeType)
+                .latencyMs(Math.max(0, (endTimestamp - startTimestamp) * 1000.0))
+                .dnsMs(dnsMs)
+                .connectMs(connectMs)
+                .ttfbMs(ttfb)
+                .downloadMs(downloadFrom >= 0 ? Math.max(0, (endTimestamp - downloadFrom) * 1000.0) : -1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.seleniumiq.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background thread that moves evicted events from the queues of all open spill logs to disk.
+ *
+ * Capture threads never touch the disk: they offer evicted events to the log's queue, and this
+ * thread drains every registered log in turn. When a pass finds nothing to write it parks until a
+ * queue filling up wakes it, or only briefly while events wait for a straggler in their sequence.
+ */
+class SpillWriter {
+    private static final Logger logger = LoggerFactory.getLogger(SpillWriter.class);
+    
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+    
+    private final Set<EventSpillLog> logs = ConcurrentHashMap.newKeySet();
+    private final Thread thread;
+    private volatile boolean closed;
+    
+    SpillWriter() {
+        // Daemon: spilled events are only needed while the JVM that captured them is alive
+        this.thread = Thread.ofPlatform().name("seleniumiq-spill-writer").daemon().start(this::run);
+    }
+    
+    void register(EventSpillLog log) {
+        logs.add(log);
+    }
+    
+    void unregister(EventSpillLog log) {
+        logs.remove(log);
+    }
+    
+    /**
+     * Wake the writer before its next scheduled pass
+     */
+    void wake() {
+        LockSupport.unpark(thread);
+    }
+    
+    /**
+     * Stop the writer thread and wait for it to finish its current pass
+     */
+    void close() {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            boolean written = false;
+            boolean waiting = false;
+            for (EventSpillLog log : logs) {
+                try {
+                    written |= log.drain();
+                    waiting |= log.hasPending();
+                } catch (RuntimeException e) {
+                    logger.error("Spill writer failed to drain a spill log", e);
+                }
+            }
+            if (written) {
+                continue;
+            }
+            if (waiting) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.seleniumiq.integration;
 
+import com.seleniumiq.analysis.AnalysisPriority;
 import com.seleniumiq.core.SeleniumIQ;
 import com.seleniumiq.model.AnalysisResult;
 
@@ -111,8 +112,10 @@ public class SeleniumIQWatcher implements TestWatcher {
 
         if (sessionId != null) {
             try {
-                // Get real-time analysis before stopping
-                CompletableFuture<AnalysisResult> analysisFuture = monitor.getRealtimeSuggestions(sessionId);
+                // Get real-time analysis before stopping; failures are analyzed ahead of periodic work
+                AnalysisPriority priority = "FAILED".equals(testResult)
+                    ? AnalysisPriority.FAILED_TEST : AnalysisPriority.PERIODIC;
+                CompletableFuture<AnalysisResult> analysisFuture = monitor.getRealtimeSuggestions(sessionId, priority);
 
                 // Stop monitoring
                 monitor.stopMonitoring(sessionId);
@@ -0,0 +1,147 @@
+package com.seleniumiq.llm;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of the providers' retry loops.
+ *
+ * Requests go through OkHttp's {@code enqueue}, so no caller thread waits on the network, and
+ * retries are scheduled on a timer instead of sleeping. Backoff and the rule of not retrying
+ * client errors match the synchronous path.
+ */
+class AsyncRequestExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncRequestExecutor.class);
+    
+    private final OkHttpClient httpClient;
+    private final String providerName;
+    private final int maxRetries;
+    private final long backoffMillis;
+    private final ScheduledExecutorService retryTimer;
+    
+    AsyncRequestExecutor(OkHttpClient httpClient, String providerName, int maxRetries) {
+        this(httpClient, providerName, maxRetries, Duration.ofSeconds(1));
+    }
+    
+    /**
+     * @param backoff Delay before the second attempt; each further attempt waits one more of it
+     */
+    AsyncRequestExecutor(OkHttpClient httpClient, String providerName, int maxRetries, Duration backoff) {
+        this.httpClient = httpClient;
+        this.providerName = providerName;
+        this.maxRetries = Math.max(1, maxRetries);
+        this.backoffMillis = backoff.toMillis();
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seleniumiq-" + providerName.toLowerCase() + "-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Send the request, retrying server errors and I/O failures with linear backoff
+     *
+     * @param handler Reads the answer from a successful response; runs on an OkHttp callback thread
+     * @param clientErrorMapper Builds the (non-retried) failure for a 4xx response from its code and body
+     */
+    CompletableFuture<String> execute(Request request, ResponseHandler handler, ClientErrorMapper clientErrorMapper) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempt(request, handler, clientErrorMapper, 1, result);
+        return result;
+    }
+    
+    void shutdown() {
+        retryTimer.shutdownNow();
+    }
+    
+    private void attempt(Request request, ResponseHandler handler, ClientErrorMapper clientErrorMapper,
+                         int attempt, CompletableFuture<String> result) {
+        if (result.isDone()) {
+            return;
+        }
+        
+        Call call = httpClient.newCall(request);
+        // Cancelling the returned future cancels the HTTP call
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                call.cancel();
+            }
+        });
+        
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                logger.warn("{} request attempt {}/{} failed: {}", providerName, attempt, maxRetries, e.getMessage());
+                retry(request, handler, clientErrorMapper, attempt, result, e);
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    if (response.isSuccessful()) {
+                        result.complete(handler.handle(response));
+                        return;
+                    }
+                    
+                    String errorBody = response.body() != null ? response.body().string() : "No error details";
+                    logger.warn("{} request failed (attempt {}/{}): HTTP {} - {}",
+                              providerName, attempt, maxRetries, response.code(), errorBody);
+                    
+                    // Don't retry on client errors (4xx)
+                    if (response.code() >= 400 && response.code() < 500) {
+                        result.completeExceptionally(clientErrorMapper.map(response.code(), errorBody));
+                        return;
+                    }
+                    retry(request, handler, clientErrorMapper, attempt, result,
+                          new IOException("HTTP " + response.code() + ": " + errorBody));
+                
+                } catch (IOException e) {
+                    logger.warn("{} request attempt {}/{} failed: {}", providerName, attempt, maxRetries, e.getMessage());
+                    retry(request, handler, clientErrorMapper, attempt, result, e);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+    }
+    
+    private void retry(Request request, ResponseHandler handler, ClientErrorMapper clientErrorMapper,
+                       int attempt, CompletableFuture<String> result, IOException failure) {
+        if (attempt >= maxRetries) {
+            result.completeExceptionally(new IOException("All retry attempts failed", failure));
+            return;
+        }
+        try {
+            retryTimer.schedule(() -> attempt(request, handler, clientErrorMapper, attempt + 1, result),
+                backoffMillis * attempt, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Timer already shut down: the provider is closing
+            result.completeExceptionally(failure);
+        }
+    }
+    
+    /**
+     * Creates the failure for a client error response
+     */
+    @FunctionalInterface
+    interface ClientErrorMapper {
+        
+        IOException map(int statusCode, String errorBody);
+        
+        static ClientErrorMapper standard() {
+            return ClientErrorException::new;
+        }
+    }
+}
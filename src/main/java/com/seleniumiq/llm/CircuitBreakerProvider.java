@@ -0,0 +1,251 @@
+package com.seleniumiq.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Fails requests fast while the provider is known to be down.
+ *
+ * After a run of consecutive failures the circuit opens and every request is rejected with a
+ * {@link CircuitOpenException} without touching the network. While open, the provider is probed
+ * through {@link LLMProvider#isAvailable()} in the background; once it answers, the circuit is
+ * half-open and a single trial request decides whether it closes again or reopens.
+ */
+public class CircuitBreakerProvider implements LLMProvider {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerProvider.class);
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final LLMProvider delegate;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final ScheduledExecutorService prober;
+    
+    // Guarded by this
+    private State state = State.CLOSED;
+    private Instant stateSince = Instant.now();
+    private int consecutiveFailures;
+    private boolean trialInFlight;
+    private long rejectedCount;
+    private final Map<State, Long> transitions = new EnumMap<>(State.class);
+    
+    public CircuitBreakerProvider(LLMProvider delegate, int failureThreshold, Duration openDuration) {
+        this.delegate = delegate;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seleniumiq-llm-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public String analyze(String prompt, String systemPrompt) {
+        acquire();
+        try {
+            String response = delegate.analyze(prompt, systemPrompt);
+            onSuccess();
+            return response;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        acquire();
+        try {
+            String response = delegate.analyzeStreaming(prompt, systemPrompt, chunkListener);
+            onSuccess();
+            return response;
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        try {
+            acquire();
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        CompletableFuture<String> call;
+        try {
+            call = delegate.analyzeAsync(prompt, systemPrompt);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<String> sent = call;
+        CompletableFuture<String> result = new CompletableFuture<>();
+        sent.whenComplete((response, error) -> {
+            if (sent.isCancelled()) {
+                onCancelled();
+                result.cancel(false);
+            } else if (error != null) {
+                onFailure(error);
+                result.completeExceptionally(error);
+            } else {
+                onSuccess();
+                result.complete(response);
+            }
+        });
+        // Cancelling the returned future cancels the request
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                sent.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return getState() != State.OPEN && delegate.isAvailable();
+    }
+    
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        delegate.close();
+    }
+    
+    public LLMProvider getDelegate() {
+        return delegate;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    /**
+     * Current state, how long it has lasted, rejected requests and the number of times each state was entered
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("stateSince", stateSince.toString());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("rejected", rejectedCount);
+        for (State entered : State.values()) {
+            stats.put("transitionsTo" + toCamelCase(entered), transitions.getOrDefault(entered, 0L));
+        }
+        return stats;
+    }
+    
+    private synchronized void acquire() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return;
+        }
+        rejectedCount++;
+        throw new CircuitOpenException("LLM provider circuit is " + state + " since " + stateSince);
+    }
+    
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+    
+    /**
+     * A cancelled request says nothing about the provider; a cancelled trial frees the slot for another
+     */
+    private synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+    
+    private synchronized void onFailure(Throwable error) {
+        if (state == State.HALF_OPEN) {
+            logger.warn("LLM provider trial request failed, circuit reopens: {}", error.getMessage());
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            logger.warn("LLM provider failed {} times in a row, failing fast for {}s: {}",
+                       consecutiveFailures, openDuration.toSeconds(), error.getMessage());
+            transitionTo(State.OPEN);
+        }
+    }
+    
+    private void transitionTo(State next) {
+        logger.info("LLM provider circuit {} -> {}", state, next);
+        state = next;
+        stateSince = Instant.now();
+        trialInFlight = false;
+        transitions.merge(next, 1L, Long::sum);
+        if (next == State.OPEN) {
+            scheduleProbe();
+        } else if (next == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+    
+    private void scheduleProbe() {
+        if (!prober.isShutdown()) {
+            prober.schedule(this::probe, openDuration.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Health check while open; runs without the lock since it does network I/O
+     */
+    private void probe() {
+        boolean available;
+        try {
+            available = delegate.isAvailable();
+        } catch (RuntimeException e) {
+            available = false;
+        }
+        
+        synchronized (this) {
+            if (state != State.OPEN) {
+                return;
+            }
+            if (available) {
+                transitionTo(State.HALF_OPEN);
+            } else {
+                logger.debug("LLM provider still unavailable, next probe in {}s", openDuration.toSeconds());
+                scheduleProbe();
+            }
+        }
+    }
+    
+    private static String toCamelCase(State state) {
+        return state == State.HALF_OPEN ? "HalfOpen" : state.name().charAt(0) + state.name().substring(1).toLowerCase();
+    }
+    
+    /**
+     * Thrown instead of calling the provider while the circuit is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
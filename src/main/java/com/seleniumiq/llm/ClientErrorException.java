@@ -0,0 +1,22 @@
+package com.seleniumiq.llm;
+
+import java.io.IOException;
+
+/**
+ * A 4xx answer from an LLM endpoint. The request itself was rejected, so it is neither retried
+ * nor sent to another endpoint.
+ */
+public class ClientErrorException extends IOException {
+    private static final long serialVersionUID = 1L;
+    
+    private final int statusCode;
+    
+    public ClientErrorException(int statusCode, String errorBody) {
+        super("Client error: " + statusCode + " - " + errorBody);
+        this.statusCode = statusCode;
+    }
+    
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
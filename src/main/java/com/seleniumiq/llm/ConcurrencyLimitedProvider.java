@@ -0,0 +1,158 @@
+package com.seleniumiq.llm;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Caps the number of requests in flight against one provider.
+ *
+ * Blocking calls wait for a permit, which is cheap on virtual threads. Asynchronous calls never
+ * block: when no permit is free they are queued and started as earlier requests complete.
+ */
+public class ConcurrencyLimitedProvider implements LLMProvider {
+    
+    private final LLMProvider delegate;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final Queue<Waiting> waiting = new ConcurrentLinkedQueue<>();
+    
+    public ConcurrencyLimitedProvider(LLMProvider delegate, int maxConcurrent) {
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+    
+    @Override
+    public String analyze(String prompt, String systemPrompt) {
+        acquire();
+        try {
+            return delegate.analyze(prompt, systemPrompt);
+        } finally {
+            release();
+        }
+    }
+    
+    @Override
+    public String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        acquire();
+        try {
+            return delegate.analyzeStreaming(prompt, systemPrompt, chunkListener);
+        } finally {
+            release();
+        }
+    }
+    
+    /**
+     * Cancelling the returned future removes a queued request, or cancels it once started
+     */
+    @Override
+    public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        Waiting request = new Waiting(prompt, systemPrompt);
+        waiting.add(request);
+        request.result.whenComplete((response, error) -> {
+            if (request.result.isCancelled()) {
+                waiting.remove(request);
+            }
+        });
+        startWaiting();
+        return request.result;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+    
+    @Override
+    public void close() {
+        delegate.close();
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getInFlightCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+    
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+    
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an LLM request slot", e);
+        }
+    }
+    
+    private void release() {
+        permits.release();
+        startWaiting();
+    }
+    
+    /**
+     * Start queued asynchronous requests while permits are free
+     */
+    private void startWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Waiting next = waiting.poll();
+            // Null when another thread took the last task; re-check in case one was added meanwhile
+            if (next == null || !next.start()) {
+                permits.release();
+            }
+        }
+    }
+    
+    /**
+     * Asynchronous request waiting for a permit
+     */
+    private final class Waiting {
+        private final String prompt;
+        private final String systemPrompt;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        
+        private Waiting(String prompt, String systemPrompt) {
+            this.prompt = prompt;
+            this.systemPrompt = systemPrompt;
+        }
+        
+        /**
+         * Send the request on the permit just acquired
+         * 
+         * @return false if it was cancelled while waiting, leaving the permit unused
+         */
+        private boolean start() {
+            if (result.isDone()) {
+                return false;
+            }
+            CompletableFuture<String> call;
+            try {
+                call = delegate.analyzeAsync(prompt, systemPrompt);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<String> sent = call;
+            sent.whenComplete((response, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    sent.cancel(true);
+                }
+            });
+            return true;
+        }
+    }
+}
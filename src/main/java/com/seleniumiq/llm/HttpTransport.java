@@ -0,0 +1,87 @@
+package com.seleniumiq.llm;
+
+import com.seleniumiq.config.ExecutionMode;
+import com.seleniumiq.config.MonitorConfig;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client shared by all LLM providers in the JVM.
+ *
+ * Providers for every endpoint share one connection pool and one dispatcher, so closing and
+ * recreating a provider keeps its warm connections; idle connections expire after the configured
+ * keep-alive. HTTP/2 is negotiated on TLS endpoints and multiplexes concurrent analyses over a
+ * single connection per host.
+ */
+public final class HttpTransport {
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+    
+    // One client per distinct transport configuration, in practice exactly one
+    private static final Map<String, OkHttpClient> CLIENTS = new ConcurrentHashMap<>();
+    
+    private HttpTransport() {
+    }
+    
+    /**
+     * The shared client for the transport settings of this configuration
+     */
+    public static OkHttpClient shared(MonitorConfig config) {
+        String key = String.join("|", config.getTimeout().toString(), config.getExecutionMode().name(),
+            String.valueOf(config.getHttpMaxIdleConnections()), config.getHttpKeepAlive().toString(),
+            String.valueOf(config.getHttpMaxRequests()), String.valueOf(config.getHttpMaxRequestsPerHost()),
+            String.valueOf(config.isHttp2Enabled()), config.getHttpPingInterval().toString());
+        return CLIENTS.computeIfAbsent(key, k -> build(config));
+    }
+    
+    /**
+     * Close idle connections and stop dispatcher threads of all shared clients
+     */
+    public static void shutdown() {
+        for (OkHttpClient client : CLIENTS.values()) {
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+        CLIENTS.clear();
+    }
+    
+    private static OkHttpClient build(MonitorConfig config) {
+        Dispatcher dispatcher = config.getExecutionMode() == ExecutionMode.VIRTUAL
+            // Run OkHttp's asynchronous calls on virtual threads too
+            ? new Dispatcher(ExecutionMode.VIRTUAL.newExecutor("seleniumiq-llm-http", 0))
+            : new Dispatcher();
+        dispatcher.setMaxRequests(config.getHttpMaxRequests());
+        // OkHttp allows only 5 concurrent calls per host by default; all analyses may go to one host
+        dispatcher.setMaxRequestsPerHost(config.getHttpMaxRequestsPerHost());
+        
+        long timeoutSeconds = config.getTimeout().toSeconds();
+        OkHttpClient client = new OkHttpClient.Builder()
+            .connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .writeTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .retryOnConnectionFailure(true)
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(config.getHttpMaxIdleConnections(),
+                config.getHttpKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+            .protocols(config.isHttp2Enabled()
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1))
+            .pingInterval(config.getHttpPingInterval().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+        
+        logger.info("Shared LLM HTTP transport: {} idle connections kept {}s, {} requests ({} per host), HTTP/2 {}",
+                   config.getHttpMaxIdleConnections(), config.getHttpKeepAlive().toSeconds(),
+                   config.getHttpMaxRequests(), config.getHttpMaxRequestsPerHost(),
+                   config.isHttp2Enabled() ? "enabled" : "disabled");
+        return client;
+    }
+}
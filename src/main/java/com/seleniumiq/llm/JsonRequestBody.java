@@ -0,0 +1,48 @@
+package com.seleniumiq.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * JSON request body written with Jackson's streaming generator straight into the connection,
+ * without building a tree or an intermediate String. Written again on each retry.
+ */
+class JsonRequestBody extends RequestBody {
+    
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    
+    // The sink belongs to OkHttp; closing the generator must not close it
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .build();
+    
+    @FunctionalInterface
+    interface Writer {
+        void write(JsonGenerator generator) throws IOException;
+    }
+    
+    private final Writer writer;
+    
+    JsonRequestBody(Writer writer) {
+        this.writer = writer;
+    }
+    
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+    
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(sink.outputStream())) {
+            writer.write(generator);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.seleniumiq.llm;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 /**
  * Interface for LLM providers
  */
@@ -14,6 +17,34 @@ public interface LLMProvider {
      */
     String analyze(String prompt, String systemPrompt);
     
+    /**
+     * Analyze the given prompt without blocking the calling thread. Providers built on an
+     * asynchronous HTTP client complete the future from its callbacks; the default runs
+     * {@link #analyze} on the common pool.
+     * 
+     * @param prompt The analysis prompt
+     * @param systemPrompt The system prompt for context
+     * @return Future completed with the LLM response as JSON string
+     */
+    default CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        return CompletableFuture.supplyAsync(() -> analyze(prompt, systemPrompt));
+    }
+    
+    /**
+     * Analyze the given prompt, passing each chunk of the answer to the listener as it arrives.
+     * Providers without streaming support deliver the whole answer as a single chunk.
+     * 
+     * @param prompt The analysis prompt
+     * @param systemPrompt The system prompt for context
+     * @param chunkListener Receives the answer text incrementally
+     * @return The complete LLM response
+     */
+    default String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        String response = analyze(prompt, systemPrompt);
+        chunkListener.accept(response);
+        return response;
+    }
+    
     /**
      * Check if the LLM provider is available
      * 
@@ -2,19 +2,54 @@ package com.seleniumiq.llm;
 
 import com.seleniumiq.config.MonitorConfig;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Factory for creating LLM provider instances
  */
 public class LLMProviderFactory {
     
     public static LLMProvider create(MonitorConfig config) {
+        List<String> endpoints = config.getLlmEndpoints();
+        LLMProvider provider;
+        if (endpoints.size() > 1) {
+            // Each host gets its own request limit, so capacity grows with the number of hosts
+            Map<String, LLMProvider> pool = new LinkedHashMap<>();
+            for (String baseUrl : endpoints) {
+                pool.put(baseUrl, limitConcurrency(createProvider(config, baseUrl), config));
+            }
+            provider = new PooledProvider(pool, config.getLlmLoadBalancing(), config.isLlmHedging(),
+                                          config.getLlmHealthCheckInterval());
+        } else {
+            provider = limitConcurrency(createProvider(config, endpoints.isEmpty() ? null : endpoints.get(0)), config);
+        }
+        // Outermost, so an open circuit fails fast instead of waiting for a request slot
+        if (config.isCircuitBreakerEnabled()) {
+            provider = new CircuitBreakerProvider(provider, config.getCircuitBreakerFailureThreshold(),
+                                                  config.getCircuitBreakerOpenDuration());
+        }
+        return provider;
+    }
+    
+    private static LLMProvider limitConcurrency(LLMProvider provider, MonitorConfig config) {
+        return config.getMaxConcurrentLlmRequests() > 0
+            ? new ConcurrencyLimitedProvider(provider, config.getMaxConcurrentLlmRequests())
+            : provider;
+    }
+    
+    /**
+     * @param baseUrl Endpoint to use, or null for the provider's configured base URL
+     */
+    private static LLMProvider createProvider(MonitorConfig config, String baseUrl) {
         String provider = config.getProvider().toLowerCase();
         
         switch (provider) {
             case "openai":
-                return new OpenAIProvider(config);
+                return new OpenAIProvider(config, baseUrl != null ? baseUrl : config.getBaseUrl());
             case "ollama":
-                return new OllamaProvider(config);
+                return new OllamaProvider(config, baseUrl != null ? baseUrl : config.getOllamaBaseUrl());
             case "anthropic":
                 // TODO: Implement AnthropicProvider when needed
                 throw new UnsupportedOperationException("Anthropic provider not yet implemented");
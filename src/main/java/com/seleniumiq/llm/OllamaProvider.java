@@ -3,18 +3,23 @@ package com.seleniumiq.llm;
 import com.seleniumiq.config.MonitorConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
-import okhttp3.MediaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Ollama LLM provider implementation for local AI models
@@ -22,50 +27,52 @@ import java.util.concurrent.TimeUnit;
 public class OllamaProvider implements LLMProvider {
     private static final Logger logger = LoggerFactory.getLogger(OllamaProvider.class);
     
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
-    
     private final MonitorConfig config;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String baseUrl;
     private final String model;
+    private final Duration modelCheckTtl;
+    private final AsyncRequestExecutor asyncExecutor;
+    
+    // Cached result of the model check; a single check (and pull) runs at a time
+    private final Object modelCheckLock = new Object();
+    private CompletableFuture<Boolean> modelCheck;
+    private volatile boolean modelAvailable;
+    private volatile Instant modelCheckedAt;
     
     public OllamaProvider(MonitorConfig config) {
+        this(config, config.getOllamaBaseUrl());
+    }
+    
+    /**
+     * Provider for one of several Ollama hosts
+     */
+    public OllamaProvider(MonitorConfig config, String baseUrl) {
         this.config = config;
         this.objectMapper = new ObjectMapper();
         
         // Get Ollama configuration
-        this.baseUrl = config.getOllamaBaseUrl();
+        this.baseUrl = baseUrl;
         this.model = config.getOllamaModel();
+        this.modelCheckTtl = config.getOllamaModelCheckTtl();
         
-        // Configure HTTP client with longer timeout for local models
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .readTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .writeTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .retryOnConnectionFailure(true)
-            .build();
+        this.httpClient = HttpTransport.shared(config);
+        this.asyncExecutor = new AsyncRequestExecutor(httpClient, "Ollama", config.getMaxRetries());
         
         logger.info("Ollama Provider initialized with model: {} at {}", model, baseUrl);
+        
+        if (config.isOllamaWarmUp()) {
+            // Check the model in the background so the first analysis does not pay for it
+            ensureModelAsync();
+        }
     }
     
     @Override
     public String analyze(String prompt, String systemPrompt) {
         try {
-            // First, ensure the model is available
-            if (!isModelAvailable()) {
-                pullModel();
-            }
-            
-            ObjectNode requestBody = createRequestBody(prompt, systemPrompt);
-            
-            Request request = new Request.Builder()
-                .url(baseUrl + "/api/generate")
-                .header("Content-Type", "application/json")
-                .post(RequestBody.create(requestBody.toString(), JSON))
-                .build();
-            
-            return executeRequestWithRetry(request);
+            return generate(createRequestBody(prompt, systemPrompt, false),
+                response -> extractContentFromResponse(response.body().string()));
             
         } catch (Exception e) {
             logger.error("Ollama analysis request failed", e);
@@ -73,6 +80,62 @@ public class OllamaProvider implements LLMProvider {
         }
     }
     
+    @Override
+    public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        Request request = generateRequest(createRequestBody(prompt, systemPrompt, false));
+        ResponseHandler handler = response -> extractContentFromResponse(response.body().string());
+        
+        CompletableFuture<String> result = new CompletableFuture<>();
+        ensureModelAsync()
+            .thenCompose(ready -> execute(request, handler, result)
+                .exceptionallyCompose(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof ModelNotFoundException)) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    // The model went away since it was last checked: check again, pull it, retry once
+                    logger.info("Ollama reports model {} as missing; refreshing model check", model);
+                    modelCheckedAt = null;
+                    return ensureModelAsync().thenCompose(available -> execute(request, handler, result));
+                }))
+            .whenComplete((response, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            });
+        return result;
+    }
+    
+    /**
+     * Send a generate request for an asynchronous analysis; cancelling the analysis cancels the request
+     */
+    private CompletableFuture<String> execute(Request request, ResponseHandler handler, CompletableFuture<String> result) {
+        if (result.isDone()) {
+            return CompletableFuture.failedFuture(new CancellationException("Analysis cancelled"));
+        }
+        CompletableFuture<String> call = asyncExecutor.execute(request, handler, this::mapClientError);
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return call;
+    }
+    
+    @Override
+    public String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        try {
+            return generate(createRequestBody(prompt, systemPrompt, true),
+                response -> readChunkStream(response, chunkListener));
+            
+        } catch (Exception e) {
+            logger.error("Ollama streaming analysis request failed", e);
+            throw new RuntimeException("Ollama analysis failed", e);
+        }
+    }
+    
     @Override
     public boolean isAvailable() {
         try {
@@ -94,13 +157,114 @@ public class OllamaProvider implements LLMProvider {
     
     @Override
     public void close() {
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-            httpClient.connectionPool().evictAll();
-        }
+        // The HTTP client is shared; its connections stay warm for other providers
+        asyncExecutor.shutdown();
         logger.info("Ollama Provider closed");
     }
     
+    /**
+     * Send a generate request once the model is known to be present
+     */
+    private String generate(JsonRequestBody requestBody, ResponseHandler handler) throws IOException {
+        // First, ensure the model is available
+        ensureModel();
+        
+        Request request = generateRequest(requestBody);
+        try {
+            return executeRequestWithRetry(request, handler);
+        } catch (ModelNotFoundException e) {
+            // The model went away since it was last checked: check again, pull it, retry once
+            logger.info("Ollama reports model {} as missing; refreshing model check", model);
+            modelCheckedAt = null;
+            ensureModel();
+            return executeRequestWithRetry(request, handler);
+        }
+    }
+    
+    private Request generateRequest(JsonRequestBody requestBody) {
+        return new Request.Builder()
+            .url(baseUrl + "/api/generate")
+            .header("Content-Type", "application/json")
+            .post(requestBody)
+            .build();
+    }
+    
+    private IOException mapClientError(int statusCode, String errorBody) {
+        if (statusCode == 404 && errorBody.contains("not found")) {
+            return new ModelNotFoundException(errorBody);
+        }
+        return AsyncRequestExecutor.ClientErrorMapper.standard().map(statusCode, errorBody);
+    }
+    
+    /**
+     * Make sure the model is present, failing fast while the cached check says it is not
+     */
+    private void ensureModel() throws ModelNotFoundException {
+        if (!checkModel(false).join()) {
+            throw modelUnavailable();
+        }
+    }
+    
+    private CompletableFuture<Void> ensureModelAsync() {
+        return checkModel(true).thenCompose(available -> available
+            ? CompletableFuture.<Void>completedFuture(null)
+            : CompletableFuture.failedFuture(modelUnavailable()));
+    }
+    
+    private ModelNotFoundException modelUnavailable() {
+        return new ModelNotFoundException("Model " + model + " is not available at " + baseUrl
+            + " and could not be pulled; next check after " + modelCheckTtl);
+    }
+    
+    /**
+     * Make sure the model is present, querying /api/tags at most once per TTL. Concurrent callers
+     * wait for the check already in progress instead of starting their own, so a missing model is
+     * only pulled once.
+     * 
+     * @param inBackground Run a new check on the HTTP transport's dispatcher rather than the caller's thread
+     */
+    private CompletableFuture<Boolean> checkModel(boolean inBackground) {
+        CompletableFuture<Boolean> check;
+        synchronized (modelCheckLock) {
+            if (modelCheck != null) {
+                return modelCheck;
+            }
+            Instant checkedAt = modelCheckedAt;
+            if (checkedAt != null && checkedAt.plus(modelCheckTtl).isAfter(Instant.now())) {
+                return CompletableFuture.completedFuture(modelAvailable);
+            }
+            check = new CompletableFuture<>();
+            modelCheck = check;
+        }
+        
+        if (inBackground) {
+            try {
+                // The transport's dispatcher threads already serve this provider's asynchronous calls
+                httpClient.dispatcher().executorService().execute(() -> runModelCheck(check));
+            } catch (RejectedExecutionException e) {
+                // The shared transport is shutting down
+                runModelCheck(check);
+            }
+        } else {
+            runModelCheck(check);
+        }
+        return check;
+    }
+    
+    private void runModelCheck(CompletableFuture<Boolean> check) {
+        boolean available = false;
+        try {
+            available = isModelAvailable() || pullModel();
+        } finally {
+            modelAvailable = available;
+            modelCheckedAt = Instant.now();
+            synchronized (modelCheckLock) {
+                modelCheck = null;
+            }
+            check.complete(available);
+        }
+    }
+    
     /**
      * Check if the specified model is available locally
      */
@@ -136,24 +300,28 @@ public class OllamaProvider implements LLMProvider {
     
     /**
      * Pull the model if it's not available locally
+     * 
+     * @return true if the pull succeeded
      */
-    private void pullModel() {
+    private boolean pullModel() {
         logger.info("Model {} not found locally. Attempting to pull...", model);
         
         try {
-            ObjectNode pullRequest = objectMapper.createObjectNode();
-            pullRequest.put("name", model);
-            pullRequest.put("stream", false);
-            
             Request request = new Request.Builder()
                 .url(baseUrl + "/api/pull")
                 .header("Content-Type", "application/json")
-                .post(RequestBody.create(pullRequest.toString(), JSON))
+                .post(new JsonRequestBody(json -> {
+                    json.writeStartObject();
+                    json.writeStringField("name", model);
+                    json.writeBooleanField("stream", false);
+                    json.writeEndObject();
+                }))
                 .build();
             
             try (Response response = httpClient.newCall(request).execute()) {
                 if (response.isSuccessful()) {
                     logger.info("Successfully pulled model: {}", model);
+                    return true;
                 } else {
                     String errorBody = response.body() != null ? response.body().string() : "No error details";
                     logger.warn("Failed to pull model {}: HTTP {} - {}", model, response.code(), errorBody);
@@ -163,17 +331,13 @@ public class OllamaProvider implements LLMProvider {
         } catch (Exception e) {
             logger.error("Error pulling model {}: {}", model, e.getMessage());
         }
+        return false;
     }
     
     /**
      * Create the request body for Ollama generate API
      */
-    private ObjectNode createRequestBody(String prompt, String systemPrompt) {
-        ObjectNode requestBody = objectMapper.createObjectNode();
-        requestBody.put("model", model);
-        requestBody.put("stream", false);
-        requestBody.put("format", "json");
-        
+    private JsonRequestBody createRequestBody(String prompt, String systemPrompt, boolean stream) {
         // Combine system prompt and user prompt
         StringBuilder fullPrompt = new StringBuilder();
         
@@ -182,22 +346,30 @@ public class OllamaProvider implements LLMProvider {
         }
         
         fullPrompt.append("USER: ").append(prompt);
+        String combinedPrompt = fullPrompt.toString();
         
-        requestBody.put("prompt", fullPrompt.toString());
-        
-        // Set options for better analysis
-        ObjectNode options = requestBody.putObject("options");
-        options.put("temperature", 0.3);
-        options.put("top_p", 0.9);
-        options.put("num_predict", 2000);
-        
-        return requestBody;
+        return new JsonRequestBody(json -> {
+            json.writeStartObject();
+            json.writeStringField("model", model);
+            json.writeBooleanField("stream", stream);
+            json.writeStringField("format", "json");
+            json.writeStringField("prompt", combinedPrompt);
+            
+            // Set options for better analysis
+            json.writeObjectFieldStart("options");
+            json.writeNumberField("temperature", 0.3);
+            json.writeNumberField("top_p", 0.9);
+            json.writeNumberField("num_predict", 2000);
+            json.writeEndObject();
+            
+            json.writeEndObject();
+        });
     }
     
     /**
      * Execute the request with retry logic
      */
-    private String executeRequestWithRetry(Request request) throws IOException {
+    private String executeRequestWithRetry(Request request, ResponseHandler handler) throws IOException {
         int maxRetries = config.getMaxRetries();
         IOException lastException = null;
         
@@ -205,8 +377,7 @@ public class OllamaProvider implements LLMProvider {
             try {
                 try (Response response = httpClient.newCall(request).execute()) {
                     if (response.isSuccessful()) {
-                        String responseBody = response.body().string();
-                        return extractContentFromResponse(responseBody);
+                        return handler.handle(response);
                     } else {
                         String errorBody = response.body() != null ? response.body().string() : "No error details";
                         logger.warn("Ollama request failed (attempt {}/{}): HTTP {} - {}", 
@@ -214,12 +385,14 @@ public class OllamaProvider implements LLMProvider {
                         
                         // Don't retry on client errors (4xx)
                         if (response.code() >= 400 && response.code() < 500) {
-                            throw new IOException("Client error: " + response.code() + " - " + errorBody);
+                            throw mapClientError(response.code(), errorBody);
                         }
                         
                         lastException = new IOException("HTTP " + response.code() + ": " + errorBody);
                     }
                 }
+            } catch (ModelNotFoundException | ClientErrorException e) {
+                throw e;
             } catch (IOException e) {
                 lastException = e;
                 logger.warn("Ollama request attempt {}/{} failed: {}", attempt, maxRetries, e.getMessage());
@@ -239,6 +412,46 @@ public class OllamaProvider implements LLMProvider {
         throw new IOException("All retry attempts failed", lastException);
     }
     
+    /**
+     * Read newline-delimited JSON chunks from a streaming generate call, passing each piece of text on
+     * as it arrives. Once text has been delivered a failure is not retried, since the listener already
+     * saw part of it.
+     */
+    private String readChunkStream(Response response, Consumer<String> chunkListener) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(response.body().charStream())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                
+                JsonNode chunk = objectMapper.readTree(line);
+                if (chunk.has("error")) {
+                    throw new IOException("Ollama API error: " + chunk.get("error").asText());
+                }
+                String text = chunk.path("response").asText("");
+                if (!text.isEmpty()) {
+                    content.append(text);
+                    chunkListener.accept(text);
+                }
+                if (chunk.path("done").asBoolean(false)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            if (content.length() > 0) {
+                throw new UncheckedIOException("Ollama stream interrupted", e);
+            }
+            throw e;
+        }
+        
+        if (content.toString().trim().isEmpty()) {
+            throw new IOException("Empty content in Ollama response");
+        }
+        return content.toString().trim();
+    }
+    
     /**
      * Extract the content from Ollama response
      */
@@ -263,4 +476,15 @@ public class OllamaProvider implements LLMProvider {
             throw new IOException("Failed to parse Ollama response", e);
         }
     }
+    
+    /**
+     * Ollama does not have the requested model
+     */
+    private static class ModelNotFoundException extends IOException {
+        private static final long serialVersionUID = 1L;
+        
+        ModelNotFoundException(String message) {
+            super(message);
+        }
+    }
 } 
\ No newline at end of file
@@ -1,22 +1,22 @@
 package com.seleniumiq.llm;
 
 import com.seleniumiq.config.MonitorConfig;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
-import okhttp3.MediaType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * OpenAI LLM provider implementation
@@ -24,35 +24,36 @@ import java.util.concurrent.TimeUnit;
 public class OpenAIProvider implements LLMProvider {
     private static final Logger logger = LoggerFactory.getLogger(OpenAIProvider.class);
     
-    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
-    
     private final MonitorConfig config;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String baseUrl;
     private final String model;
+    private final AsyncRequestExecutor asyncExecutor;
     
     public OpenAIProvider(MonitorConfig config) {
+        this(config, config.getBaseUrl());
+    }
+    
+    /**
+     * Provider for one of several OpenAI-compatible endpoints
+     */
+    public OpenAIProvider(MonitorConfig config, String baseUrl) {
         this.config = config;
         this.objectMapper = new ObjectMapper();
         
         // Get configuration values
         this.apiKey = config.getApiKey();
-        this.baseUrl = config.getBaseUrl();
+        this.baseUrl = baseUrl;
         this.model = config.getModel();
         
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("OpenAI API key is required. Set OPENAI_API_KEY environment variable.");
         }
         
-        // Configure HTTP client with timeout and retry settings
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .readTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .writeTimeout(config.getTimeout().toSeconds(), TimeUnit.SECONDS)
-            .retryOnConnectionFailure(true)
-            .build();
+        this.httpClient = HttpTransport.shared(config);
+        this.asyncExecutor = new AsyncRequestExecutor(httpClient, "OpenAI", config.getMaxRetries());
         
         logger.info("OpenAI Provider initialized with model: {} and base URL: {}", model, baseUrl);
     }
@@ -60,16 +61,8 @@ public class OpenAIProvider implements LLMProvider {
     @Override
     public String analyze(String prompt, String systemPrompt) {
         try {
-            ObjectNode requestBody = createRequestBody(prompt, systemPrompt);
-            
-            Request request = new Request.Builder()
-                .url(baseUrl + "/chat/completions")
-                .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "application/json")
-                .post(RequestBody.create(requestBody.toString(), JSON))
-                .build();
-            
-            return executeRequestWithRetry(request);
+            Request request = chatCompletionRequest(createRequestBody(prompt, systemPrompt, false));
+            return executeRequestWithRetry(request, response -> extractContentFromResponse(response.body().string()));
             
         } catch (Exception e) {
             logger.error("OpenAI analysis request failed", e);
@@ -77,24 +70,42 @@ public class OpenAIProvider implements LLMProvider {
         }
     }
     
+    @Override
+    public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        Request request = chatCompletionRequest(createRequestBody(prompt, systemPrompt, false));
+        return asyncExecutor.execute(request, response -> extractContentFromResponse(response.body().string()),
+            AsyncRequestExecutor.ClientErrorMapper.standard());
+    }
+    
+    @Override
+    public String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        try {
+            Request request = chatCompletionRequest(createRequestBody(prompt, systemPrompt, true));
+            return executeRequestWithRetry(request, response -> readEventStream(response, chunkListener));
+            
+        } catch (Exception e) {
+            logger.error("OpenAI streaming analysis request failed", e);
+            throw new RuntimeException("OpenAI analysis failed", e);
+        }
+    }
+    
     @Override
     public boolean isAvailable() {
         try {
             // Simple health check - try to make a minimal request
-            ObjectNode testRequest = objectMapper.createObjectNode();
-            testRequest.put("model", model);
-            testRequest.put("max_tokens", 1);
-            
-            ArrayNode messages = testRequest.putArray("messages");
-            ObjectNode message = messages.addObject();
-            message.put("role", "user");
-            message.put("content", "test");
-            
             Request request = new Request.Builder()
                 .url(baseUrl + "/chat/completions")
                 .header("Authorization", "Bearer " + apiKey)
                 .header("Content-Type", "application/json")
-                .post(RequestBody.create(testRequest.toString(), JSON))
+                .post(new JsonRequestBody(json -> {
+                    json.writeStartObject();
+                    json.writeStringField("model", model);
+                    json.writeNumberField("max_tokens", 1);
+                    json.writeArrayFieldStart("messages");
+                    writeMessage(json, "user", "test");
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }))
                 .build();
             
             try (Response response = httpClient.newCall(request).execute()) {
@@ -109,44 +120,60 @@ public class OpenAIProvider implements LLMProvider {
     
     @Override
     public void close() {
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-            httpClient.connectionPool().evictAll();
-        }
+        // The HTTP client is shared; its connections stay warm for other providers
+        asyncExecutor.shutdown();
         logger.info("OpenAI Provider closed");
     }
     
+    private Request chatCompletionRequest(JsonRequestBody requestBody) {
+        return new Request.Builder()
+            .url(baseUrl + "/chat/completions")
+            .header("Authorization", "Bearer " + apiKey)
+            .header("Content-Type", "application/json")
+            .post(requestBody)
+            .build();
+    }
+    
     /**
      * Create the request body for OpenAI chat completions API
      */
-    private ObjectNode createRequestBody(String prompt, String systemPrompt) {
-        ObjectNode requestBody = objectMapper.createObjectNode();
-        requestBody.put("model", model);
-        requestBody.put("max_tokens", 2000);
-        requestBody.put("temperature", 0.3);
-        requestBody.put("top_p", 0.9);
-        
-        ArrayNode messages = requestBody.putArray("messages");
-        
-        // Add system message
-        if (systemPrompt != null && !systemPrompt.trim().isEmpty()) {
-            ObjectNode systemMessage = messages.addObject();
-            systemMessage.put("role", "system");
-            systemMessage.put("content", systemPrompt);
-        }
-        
-        // Add user message
-        ObjectNode userMessage = messages.addObject();
-        userMessage.put("role", "user");
-        userMessage.put("content", prompt);
-        
-        return requestBody;
+    private JsonRequestBody createRequestBody(String prompt, String systemPrompt, boolean stream) {
+        return new JsonRequestBody(json -> {
+            json.writeStartObject();
+            json.writeStringField("model", model);
+            json.writeNumberField("max_tokens", 2000);
+            json.writeNumberField("temperature", 0.3);
+            json.writeNumberField("top_p", 0.9);
+            if (stream) {
+                json.writeBooleanField("stream", true);
+            }
+            
+            json.writeArrayFieldStart("messages");
+            
+            // Add system message
+            if (systemPrompt != null && !systemPrompt.trim().isEmpty()) {
+                writeMessage(json, "system", systemPrompt);
+            }
+            
+            // Add user message
+            writeMessage(json, "user", prompt);
+            
+            json.writeEndArray();
+            json.writeEndObject();
+        });
+    }
+    
+    private static void writeMessage(JsonGenerator json, String role, String content) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("role", role);
+        json.writeStringField("content", content);
+        json.writeEndObject();
     }
     
     /**
      * Execute the request with retry logic
      */
-    private String executeRequestWithRetry(Request request) throws IOException {
+    private String executeRequestWithRetry(Request request, ResponseHandler handler) throws IOException {
         int maxRetries = config.getMaxRetries();
         IOException lastException = null;
         
@@ -154,8 +181,7 @@ public class OpenAIProvider implements LLMProvider {
             try {
                 try (Response response = httpClient.newCall(request).execute()) {
                     if (response.isSuccessful()) {
-                        String responseBody = response.body().string();
-                        return extractContentFromResponse(responseBody);
+                        return handler.handle(response);
                     } else {
                         String errorBody = response.body() != null ? response.body().string() : "No error details";
                         logger.warn("OpenAI request failed (attempt {}/{}): HTTP {} - {}", 
@@ -163,12 +189,14 @@ public class OpenAIProvider implements LLMProvider {
                         
                         // Don't retry on client errors (4xx)
                         if (response.code() >= 400 && response.code() < 500) {
-                            throw new IOException("Client error: " + response.code() + " - " + errorBody);
+                            throw new ClientErrorException(response.code(), errorBody);
                         }
                         
                         lastException = new IOException("HTTP " + response.code() + ": " + errorBody);
                     }
                 }
+            } catch (ClientErrorException e) {
+                throw e;
             } catch (IOException e) {
                 lastException = e;
                 logger.warn("OpenAI request attempt {}/{} failed: {}", attempt, maxRetries, e.getMessage());
@@ -188,6 +216,47 @@ public class OpenAIProvider implements LLMProvider {
         throw new IOException("All retry attempts failed", lastException);
     }
     
+    /**
+     * Read a server-sent event stream of chat completion chunks, passing each content delta on as it arrives.
+     * Once content has been delivered a failure is not retried, since the listener already saw part of it.
+     */
+    private String readEventStream(Response response, Consumer<String> chunkListener) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(response.body().charStream())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Blank lines separate events; other fields (event:, id:, comments) carry nothing we need
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                
+                JsonNode chunk = objectMapper.readTree(data);
+                if (chunk.has("error")) {
+                    throw new IOException("OpenAI API error: " + chunk.get("error").path("message").asText("Unknown error"));
+                }
+                JsonNode delta = chunk.path("choices").path(0).path("delta").path("content");
+                if (delta.isTextual() && !delta.asText().isEmpty()) {
+                    content.append(delta.asText());
+                    chunkListener.accept(delta.asText());
+                }
+            }
+        } catch (IOException e) {
+            if (content.length() > 0) {
+                throw new UncheckedIOException("OpenAI stream interrupted", e);
+            }
+            throw e;
+        }
+        
+        if (content.toString().trim().isEmpty()) {
+            throw new IOException("Empty content in OpenAI response");
+        }
+        return content.toString().trim();
+    }
+    
     /**
      * Extract the content from OpenAI response
      */
@@ -0,0 +1,401 @@
+package com.seleniumiq.llm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spreads requests over several endpoints of the same provider, e.g. one Ollama per GPU host.
+ *
+ * Each request goes to the healthy endpoint with the fewest outstanding requests, or with the
+ * lowest latency EWMA weighted by its outstanding requests. A request that fails with an I/O
+ * error, a 5xx or a timeout is retried on the next endpoint and the failing one is taken out of
+ * rotation until a background {@link LLMProvider#isAvailable()} check passes; other failures,
+ * such as client errors, would fail the same way anywhere and are returned as they are. Optionally, a request still running after the
+ * endpoint's p95 latency is hedged to a second endpoint; the first answer wins.
+ */
+public class PooledProvider implements LLMProvider {
+    private static final Logger logger = LoggerFactory.getLogger(PooledProvider.class);
+    
+    // Latency samples needed before an endpoint's p95 is trusted for hedging
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    
+    public enum Balancing {
+        LEAST_OUTSTANDING,
+        LATENCY_EWMA;
+        
+        public static Balancing fromString(String value) {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+    
+    private final List<Endpoint> endpoints;
+    private final Balancing balancing;
+    private final boolean hedging;
+    private final ScheduledExecutorService timer;
+    private final AtomicLong hedgedCount = new AtomicLong();
+    
+    /**
+     * @param providers Provider per endpoint, keyed by a display name such as the base URL
+     */
+    public PooledProvider(Map<String, LLMProvider> providers, Balancing balancing, boolean hedging,
+                          Duration healthCheckInterval) {
+        List<Endpoint> pool = new ArrayList<>();
+        providers.forEach((name, provider) -> pool.add(new Endpoint(name, provider)));
+        this.endpoints = List.copyOf(pool);
+        this.balancing = balancing;
+        this.hedging = hedging;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seleniumiq-llm-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        timer.scheduleWithFixedDelay(this::checkUnhealthy, interval, interval, TimeUnit.MILLISECONDS);
+        
+        logger.info("LLM provider pool of {} endpoints ({} balancing{})", endpoints.size(), balancing,
+                   hedging ? ", hedged" : "");
+    }
+    
+    @Override
+    public String analyze(String prompt, String systemPrompt) {
+        return callWithFailover(endpoint -> endpoint.provider.analyze(prompt, systemPrompt));
+    }
+    
+    @Override
+    public String analyzeStreaming(String prompt, String systemPrompt, Consumer<String> chunkListener) {
+        // Not failed over: part of the answer may already have been delivered
+        Endpoint endpoint = choose(List.of());
+        long startedAt = endpoint.begin();
+        try {
+            String response = endpoint.provider.analyzeStreaming(prompt, systemPrompt, chunkListener);
+            endpoint.succeeded(startedAt);
+            return response;
+        } catch (RuntimeException e) {
+            endpoint.failed(e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attemptAsync(prompt, systemPrompt, new CopyOnWriteArrayList<>(), result);
+        return result;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy && endpoint.provider.isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        endpoints.forEach(endpoint -> endpoint.provider.close());
+    }
+    
+    /**
+     * Per-endpoint health, load and latency, plus the number of hedged requests
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("balancing", balancing.name());
+        stats.put("hedged", hedgedCount.get());
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> endpointStats = new LinkedHashMap<>();
+            endpointStats.put("healthy", endpoint.healthy);
+            endpointStats.put("outstanding", endpoint.outstanding.get());
+            endpointStats.put("requests", endpoint.requests.get());
+            endpointStats.put("failures", endpoint.failures.get());
+            endpointStats.put("latencyEwmaMs", Math.round(endpoint.ewmaMillis));
+            endpointStats.put("latencyP95Ms", endpoint.p95Millis());
+            stats.put(endpoint.name, endpointStats);
+        }
+        return stats;
+    }
+    
+    private String callWithFailover(Function<Endpoint, String> call) {
+        List<Endpoint> tried = new ArrayList<>();
+        RuntimeException lastError = null;
+        while (tried.size() < endpoints.size()) {
+            Endpoint endpoint = choose(tried);
+            tried.add(endpoint);
+            long startedAt = endpoint.begin();
+            try {
+                String response = call.apply(endpoint);
+                endpoint.succeeded(startedAt);
+                return response;
+            } catch (RuntimeException e) {
+                endpoint.failed(e);
+                if (!isEndpointFault(e)) {
+                    throw e;
+                }
+                lastError = e;
+                logger.warn("LLM endpoint {} failed, {}", endpoint.name,
+                           tried.size() < endpoints.size() ? "failing over" : "no endpoints left");
+            }
+        }
+        throw lastError;
+    }
+    
+    private void attemptAsync(String prompt, String systemPrompt, List<Endpoint> tried, CompletableFuture<String> result) {
+        Endpoint primary = choose(tried);
+        tried.add(primary);
+        CompletableFuture<String> primaryCall = send(primary, prompt, systemPrompt);
+        AtomicReference<CompletableFuture<String>> hedgeCall = new AtomicReference<>();
+        // Primary and hedge may fail at the same time; only one of them moves on to the next endpoint
+        AtomicBoolean failedOver = new AtomicBoolean();
+        
+        ScheduledFuture<?> hedge = null;
+        if (hedging && tried.size() < endpoints.size() && primary.latencySamples() >= MIN_HEDGE_SAMPLES) {
+            long hedgeDelay = primary.p95Millis();
+            hedge = timer.schedule(() -> {
+                if (result.isDone() || primaryCall.isDone()) {
+                    return;
+                }
+                Endpoint secondary = choose(tried);
+                tried.add(secondary);
+                hedgedCount.incrementAndGet();
+                logger.debug("Hedging request to {} after {}ms on {}", secondary.name, hedgeDelay, primary.name);
+                CompletableFuture<String> call = send(secondary, prompt, systemPrompt);
+                hedgeCall.set(call);
+                call.whenComplete((response, error) -> {
+                    if (error == null) {
+                        result.complete(response);
+                    } else if (primaryCall.isCompletedExceptionally() && failedOver.compareAndSet(false, true)) {
+                        failOver(prompt, systemPrompt, tried, result, error);
+                    }
+                });
+            }, hedgeDelay, TimeUnit.MILLISECONDS);
+        }
+        ScheduledFuture<?> pendingHedge = hedge;
+        
+        primaryCall.whenComplete((response, error) -> {
+            if (error == null) {
+                result.complete(response);
+                return;
+            }
+            CompletableFuture<String> hedged = hedgeCall.get();
+            if (hedged != null && !hedged.isDone()) {
+                // The hedge already acts as the retry
+                return;
+            }
+            if (pendingHedge != null) {
+                pendingHedge.cancel(false);
+            }
+            if (failedOver.compareAndSet(false, true)) {
+                failOver(prompt, systemPrompt, tried, result, error);
+            }
+        });
+        
+        // Whoever answers first, the other request is no longer needed
+        result.whenComplete((response, error) -> {
+            if (pendingHedge != null) {
+                pendingHedge.cancel(false);
+            }
+            primaryCall.cancel(true);
+            CompletableFuture<String> hedged = hedgeCall.get();
+            if (hedged != null) {
+                hedged.cancel(true);
+            }
+        });
+    }
+    
+    private void failOver(String prompt, String systemPrompt, List<Endpoint> tried, CompletableFuture<String> result,
+                          Throwable error) {
+        if (result.isDone()) {
+            return;
+        }
+        if (tried.size() < endpoints.size() && isEndpointFault(error)) {
+            logger.warn("LLM endpoint failed, failing over: {}", unwrap(error).getMessage());
+            attemptAsync(prompt, systemPrompt, tried, result);
+        } else {
+            result.completeExceptionally(unwrap(error));
+        }
+    }
+    
+    /**
+     * Start a request on one endpoint; cancelling the returned future cancels the request
+     */
+    private CompletableFuture<String> send(Endpoint endpoint, String prompt, String systemPrompt) {
+        long startedAt = endpoint.begin();
+        CompletableFuture<String> call;
+        try {
+            call = endpoint.provider.analyzeAsync(prompt, systemPrompt);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<String> sent = call;
+        sent.whenComplete((response, error) -> {
+            if (error == null) {
+                endpoint.succeeded(startedAt);
+            } else if (sent.isCancelled()) {
+                endpoint.outstanding.decrementAndGet();
+            } else {
+                endpoint.failed(error);
+            }
+        });
+        return sent;
+    }
+    
+    /**
+     * Best endpoint not tried yet, preferring healthy ones
+     */
+    private Endpoint choose(List<Endpoint> tried) {
+        Endpoint best = null;
+        for (Endpoint endpoint : endpoints) {
+            if (tried.contains(endpoint)) {
+                continue;
+            }
+            if (best == null || (endpoint.healthy && !best.healthy)
+                || (endpoint.healthy == best.healthy && score(endpoint) < score(best))) {
+                best = endpoint;
+            }
+        }
+        return best != null ? best : endpoints.get(0);
+    }
+    
+    private double score(Endpoint endpoint) {
+        int outstanding = endpoint.outstanding.get();
+        if (balancing == Balancing.LATENCY_EWMA) {
+            // Unmeasured endpoints score as fast, so they get traffic and a measurement
+            return endpoint.ewmaMillis * (outstanding + 1);
+        }
+        return outstanding;
+    }
+    
+    /**
+     * Put endpoints taken out of rotation back once they answer a health check
+     */
+    private void checkUnhealthy() {
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.healthy) {
+                continue;
+            }
+            boolean available;
+            try {
+                available = endpoint.provider.isAvailable();
+            } catch (RuntimeException e) {
+                available = false;
+            }
+            if (available) {
+                logger.info("LLM endpoint {} is available again", endpoint.name);
+                endpoint.healthy = true;
+            }
+        }
+    }
+    
+    /**
+     * Whether a failure lies with the endpoint: an I/O error, a 5xx or a timeout, as opposed to a
+     * client error or a failure of the request itself
+     */
+    private static boolean isEndpointFault(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ClientErrorException) {
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * One provider endpoint and its load and latency statistics
+     */
+    private static class Endpoint {
+        private static final double EWMA_WEIGHT = 0.2;
+        private static final int LATENCY_WINDOW = 128;
+        
+        private final String name;
+        private final LLMProvider provider;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile boolean healthy = true;
+        private volatile double ewmaMillis;
+        
+        // Recent latencies for the hedging threshold; guarded by itself
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCount;
+        
+        Endpoint(String name, LLMProvider provider) {
+            this.name = name;
+            this.provider = provider;
+        }
+        
+        long begin() {
+            outstanding.incrementAndGet();
+            requests.incrementAndGet();
+            return System.nanoTime();
+        }
+        
+        void succeeded(long startedAt) {
+            outstanding.decrementAndGet();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            ewmaMillis = ewmaMillis == 0 ? millis : ewmaMillis + (millis - ewmaMillis) * EWMA_WEIGHT;
+            synchronized (latencies) {
+                latencies[latencyCount++ % LATENCY_WINDOW] = millis;
+            }
+        }
+        
+        void failed(Throwable error) {
+            outstanding.decrementAndGet();
+            failures.incrementAndGet();
+            if (healthy && isEndpointFault(error)) {
+                logger.warn("Taking LLM endpoint {} out of rotation until it passes a health check", name);
+                healthy = false;
+            }
+        }
+        
+        int latencySamples() {
+            synchronized (latencies) {
+                return Math.min(latencyCount, LATENCY_WINDOW);
+            }
+        }
+        
+        long p95Millis() {
+            long[] window;
+            synchronized (latencies) {
+                window = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_WINDOW));
+            }
+            if (window.length == 0) {
+                return 0;
+            }
+            Arrays.sort(window);
+            return window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.seleniumiq.llm;
+
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Turns a successful provider response into the answer text
+ */
+@FunctionalInterface
+interface ResponseHandler {
+    
+    String handle(Response response) throws IOException;
+}
@@ -1,25 +1,41 @@
 package com.seleniumiq.model;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Represents a browser event captured via WebDriver BiDi
+ * Represents a browser event captured via WebDriver BiDi.
+ *
+ * Events created on the capture hot path get a cheap monotonic sequence instead of a UUID,
+ * capture the clock once, and render message/details/metadata from their {@link EventContent}
+ * only when first read.
  */
 public class BrowserEvent {
-    private final String id;
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+    
+    // Distinguishes sequence ids of this JVM from those of earlier runs (journals, caches)
+    private static final String ID_PREFIX = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE) + "-";
+    
+    private final long sequence;
     private final String sessionId;
     private final String type;
     private final String level;
-    private final String message;
-    private final String details;
     private final Instant timestamp;
     private final String source;
-    private final Map<String, Object> metadata;
+    private final EventContent content;
+    
+    // Rendered lazily from content; benign races only render the same text twice
+    private volatile String id;
+    private volatile String message;
+    private volatile String details;
+    private volatile Map<String, Object> metadata;
     
     @JsonCreator
     public BrowserEvent(
@@ -32,12 +48,20 @@ public class BrowserEvent {
             @JsonProperty("timestamp") Instant timestamp,
             @JsonProperty("source") String source,
             @JsonProperty("metadata") Map<String, Object> metadata) {
+        this(SEQUENCE.getAndIncrement(), id, sessionId, type, level, message, details, null, timestamp, source, metadata);
+    }
+    
+    private BrowserEvent(long sequence, String id, String sessionId, String type, String level, String message,
+                         String details, EventContent content, Instant timestamp, String source,
+                         Map<String, Object> metadata) {
+        this.sequence = sequence;
         this.id = id;
         this.sessionId = sessionId;
         this.type = type;
         this.level = level;
         this.message = message;
         this.details = details;
+        this.content = content;
         this.timestamp = timestamp;
         this.source = source;
         this.metadata = metadata;
@@ -51,18 +75,34 @@ public class BrowserEvent {
             .level(level)
             .message(message)
             .source(source)
-            .timestamp(Instant.now())
             .build();
     }
     
     public static BrowserEvent networkRequest(String sessionId, String url, int statusCode, long duration) {
+        return networkRequest(sessionId, NetworkTiming.builder()
+            .url(url)
+            .statusCode(statusCode)
+            .latencyMs(duration)
+            .build());
+    }
+    
+    public static BrowserEvent networkRequest(String sessionId, NetworkTiming timing) {
         return new Builder()
             .sessionId(sessionId)
             .type("network")
-            .level(statusCode >= 400 ? "ERROR" : "INFO")
-            .message(String.format("Request to %s returned %d in %dms", url, statusCode, duration))
-            .details(String.format("URL: %s, Status: %d, Duration: %dms", url, statusCode, duration))
-            .timestamp(Instant.now())
+            .level(timing.getStatusCode() >= 400 ? "ERROR" : "INFO")
+            .source(timing.getUrl())
+            .content(timing)
+            .build();
+    }
+    
+    public static BrowserEvent networkFailure(String sessionId, NetworkTiming timing) {
+        return new Builder()
+            .sessionId(sessionId)
+            .type("network-failure")
+            .level("ERROR")
+            .source(timing.getUrl())
+            .content(timing)
             .build();
     }
     
@@ -73,7 +113,6 @@ public class BrowserEvent {
             .level("ERROR")
             .message(error)
             .details(stackTrace)
-            .timestamp(Instant.now())
             .build();
     }
     
@@ -82,40 +121,105 @@ public class BrowserEvent {
             .sessionId(sessionId)
             .type("performance")
             .level("INFO")
-            .message(String.format("Performance metric: %s = %s", metric, value))
-            .details(String.format("Metric: %s, Value: %s", metric, value))
-            .timestamp(Instant.now())
+            .content(new MetricContent(metric, value))
             .build();
     }
     
     // Getters
-    public String getId() { return id; }
+    public String getId() {
+        String value = id;
+        if (value == null) {
+            value = ID_PREFIX + sequence;
+            id = value;
+        }
+        return value;
+    }
+    
     public String getSessionId() { return sessionId; }
     public String getType() { return type; }
     public String getLevel() { return level; }
-    public String getMessage() { return message; }
-    public String getDetails() { return details; }
     public Instant getTimestamp() { return timestamp; }
     public String getSource() { return source; }
-    public Map<String, Object> getMetadata() { return metadata; }
+    
+    public String getMessage() {
+        String value = message;
+        if (value == null && content != null) {
+            value = content.renderMessage();
+            message = value;
+        }
+        return value;
+    }
+    
+    public String getDetails() {
+        String value = details;
+        if (value == null && content != null) {
+            value = content.renderDetails();
+            details = value;
+        }
+        return value;
+    }
+    
+    public Map<String, Object> getMetadata() {
+        Map<String, Object> value = metadata;
+        if (value == null && content != null) {
+            value = content.renderMetadata();
+            metadata = value;
+        }
+        return value;
+    }
+    
+    /**
+     * Monotonic capture order within this JVM
+     */
+    @JsonIgnore
+    public long getSequence() { return sequence; }
+    
+    /**
+     * Structured content backing the rendered text, if the event was created from one
+     */
+    @JsonIgnore
+    public EventContent getContent() { return content; }
     
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BrowserEvent that = (BrowserEvent) o;
-        return Objects.equals(id, that.id);
+        return Objects.equals(getId(), that.getId());
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hash(getId());
     }
     
     @Override
     public String toString() {
         return String.format("BrowserEvent{id='%s', type='%s', level='%s', message='%s', timestamp=%s}",
-                id, type, level, message, timestamp);
+                getId(), type, level, getMessage(), timestamp);
+    }
+    
+    /**
+     * Performance metric content, formatted only when read
+     */
+    private static final class MetricContent implements EventContent {
+        private final String metric;
+        private final Object value;
+        
+        private MetricContent(String metric, Object value) {
+            this.metric = metric;
+            this.value = value;
+        }
+        
+        @Override
+        public String renderMessage() {
+            return "Performance metric: " + metric + " = " + value;
+        }
+        
+        @Override
+        public String renderDetails() {
+            return "Metric: " + metric + ", Value: " + value;
+        }
     }
     
     /**
@@ -128,27 +232,28 @@ public class BrowserEvent {
         private String level;
         private String message;
         private String details;
+        private EventContent content;
         private Instant timestamp;
         private String source;
         private Map<String, Object> metadata;
         
-        public Builder() {
-            this.id = java.util.UUID.randomUUID().toString();
-            this.timestamp = Instant.now();
-        }
-        
         public Builder id(String id) { this.id = id; return this; }
         public Builder sessionId(String sessionId) { this.sessionId = sessionId; return this; }
         public Builder type(String type) { this.type = type; return this; }
         public Builder level(String level) { this.level = level; return this; }
         public Builder message(String message) { this.message = message; return this; }
         public Builder details(String details) { this.details = details; return this; }
+        public Builder content(EventContent content) { this.content = content; return this; }
         public Builder timestamp(Instant timestamp) { this.timestamp = timestamp; return this; }
         public Builder source(String source) { this.source = source; return this; }
         public Builder metadata(Map<String, Object> metadata) { this.metadata = metadata; return this; }
         
+        /**
+         * Build the event; the id defaults to a sequence id and the timestamp to now
+         */
         public BrowserEvent build() {
-            return new BrowserEvent(id, sessionId, type, level, message, details, timestamp, source, metadata);
+            return new BrowserEvent(SEQUENCE.getAndIncrement(), id, sessionId, type, level, message, details,
+                                    content, timestamp != null ? timestamp : Instant.now(), source, metadata);
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.seleniumiq.model;
+
+import java.util.Map;
+
+/**
+ * Structured source of an event's message, details and metadata.
+ * Rendering is deferred until a report or prompt actually reads the text.
+ */
+public interface EventContent {
+    
+    String renderMessage();
+    
+    String renderDetails();
+    
+    default Map<String, Object> renderMetadata() {
+        return null;
+    }
+}
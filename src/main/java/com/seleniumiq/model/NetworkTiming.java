@@ -0,0 +1,161 @@
+package com.seleniumiq.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timing and size information for a completed (or failed) network request.
+ * Phase durations are in milliseconds; a negative value means the phase was not reported.
+ */
+public class NetworkTiming implements EventContent {
+    private final String requestId;
+    private final String url;
+    private final String method;
+    private final String resourceType;
+    private final int statusCode;
+    private final String mimeType;
+    private final double latencyMs;
+    private final double dnsMs;
+    private final double connectMs;
+    private final double ttfbMs;
+    private final double downloadMs;
+    private final long transferSize;
+    private final String errorText;
+    
+    private NetworkTiming(Builder builder) {
+        this.requestId = builder.requestId;
+        this.url = builder.url;
+        this.method = builder.method;
+        this.resourceType = builder.resourceType;
+        this.statusCode = builder.statusCode;
+        this.mimeType = builder.mimeType;
+        this.latencyMs = builder.latencyMs;
+        this.dnsMs = builder.dnsMs;
+        this.connectMs = builder.connectMs;
+        this.ttfbMs = builder.ttfbMs;
+        this.downloadMs = builder.downloadMs;
+        this.transferSize = builder.transferSize;
+        this.errorText = builder.errorText;
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    // Getters
+    public String getRequestId() { return requestId; }
+    public String getUrl() { return url; }
+    public String getMethod() { return method; }
+    public String getResourceType() { return resourceType; }
+    public int getStatusCode() { return statusCode; }
+    public String getMimeType() { return mimeType; }
+    public double getLatencyMs() { return latencyMs; }
+    public double getDnsMs() { return dnsMs; }
+    public double getConnectMs() { return connectMs; }
+    public double getTtfbMs() { return ttfbMs; }
+    public double getDownloadMs() { return downloadMs; }
+    public long getTransferSize() { return transferSize; }
+    public String getErrorText() { return errorText; }
+    
+    public boolean isFailed() {
+        return errorText != null || statusCode >= 400;
+    }
+    
+    @Override
+    public String renderMessage() {
+        if (errorText != null) {
+            return "Network request failed: " + errorText;
+        }
+        return "Request to " + url + " returned " + statusCode + " in " + Math.round(latencyMs) + "ms";
+    }
+    
+    @Override
+    public String renderDetails() {
+        StringBuilder details = new StringBuilder(160);
+        if (errorText != null) {
+            details.append("Error: ").append(errorText).append(", ");
+        }
+        details.append("URL: ").append(url)
+            .append(", Status: ").append(statusCode)
+            .append(", Duration: ").append(Math.round(latencyMs)).append("ms");
+        appendPhase(details, "DNS", dnsMs);
+        appendPhase(details, "Connect", connectMs);
+        appendPhase(details, "TTFB", ttfbMs);
+        appendPhase(details, "Download", downloadMs);
+        if (transferSize >= 0) {
+            details.append(", Size: ").append(transferSize).append(" bytes");
+        }
+        return details.toString();
+    }
+    
+    /**
+     * Flatten the timing into event metadata
+     */
+    @Override
+    public Map<String, Object> renderMetadata() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("url", url);
+        if (method != null) metadata.put("method", method);
+        if (resourceType != null) metadata.put("resourceType", resourceType);
+        metadata.put("status", statusCode);
+        if (mimeType != null) metadata.put("mimeType", mimeType);
+        metadata.put("latencyMs", round(latencyMs));
+        if (dnsMs >= 0) metadata.put("dnsMs", round(dnsMs));
+        if (connectMs >= 0) metadata.put("connectMs", round(connectMs));
+        if (ttfbMs >= 0) metadata.put("ttfbMs", round(ttfbMs));
+        if (downloadMs >= 0) metadata.put("downloadMs", round(downloadMs));
+        if (transferSize >= 0) metadata.put("transferSize", transferSize);
+        if (errorText != null) metadata.put("error", errorText);
+        return metadata;
+    }
+    
+    private static void appendPhase(StringBuilder details, String name, double millis) {
+        if (millis >= 0) {
+            details.append(", ").append(name).append(": ").append(round(millis)).append("ms");
+        }
+    }
+    
+    private static double round(double millis) {
+        return Math.round(millis * 100.0) / 100.0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("NetworkTiming{url='%s', status=%d, latencyMs=%.1f, transferSize=%d}",
+                url, statusCode, latencyMs, transferSize);
+    }
+    
+    public static class Builder {
+        private String requestId;
+        private String url;
+        private String method;
+        private String resourceType;
+        private int statusCode;
+        private String mimeType;
+        private double latencyMs = -1;
+        private double dnsMs = -1;
+        private double connectMs = -1;
+        private double ttfbMs = -1;
+        private double downloadMs = -1;
+        private long transferSize = -1;
+        private String errorText;
+        
+        public Builder requestId(String requestId) { this.requestId = requestId; return this; }
+        public Builder url(String url) { this.url = url; return this; }
+        public Builder method(String method) { this.method = method; return this; }
+        public Builder resourceType(String resourceType) { this.resourceType = resourceType; return this; }
+        public Builder statusCode(int statusCode) { this.statusCode = statusCode; return this; }
+        public Builder mimeType(String mimeType) { this.mimeType = mimeType; return this; }
+        public Builder latencyMs(double latencyMs) { this.latencyMs = latencyMs; return this; }
+        public Builder dnsMs(double dnsMs) { this.dnsMs = dnsMs; return this; }
+        public Builder connectMs(double connectMs) { this.connectMs = connectMs; return this; }
+        public Builder ttfbMs(double ttfbMs) { this.ttfbMs = ttfbMs; return this; }
+        public Builder downloadMs(double downloadMs) { this.downloadMs = downloadMs; return this; }
+        public Builder transferSize(long transferSize) { this.transferSize = transferSize; return this; }
+        public Builder errorText(String errorText) { this.errorText = errorText; return this; }
+        
+        public NetworkTiming build() {
+            return new NetworkTiming(this);
+        }
+    }
+}
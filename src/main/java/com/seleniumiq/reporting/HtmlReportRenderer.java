@@ -0,0 +1,822 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes the HTML session report straight to a character stream, without building the document
+ * in memory.
+ *
+ * Only the first page of the events table is rendered as rows. Later pages are embedded as JSON
+ * arrays in inert script blocks and turned into rows when the reader pages to them, so the
+ * browser lays out one page at a time however many events the session has.
+ */
+class HtmlReportRenderer {
+    
+    private static final DateTimeFormatter ROW_TIME_FORMAT =
+        DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE_TIME_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    
+    // Event pages are written as JSON into the page; "<" must not end their script block
+    private static final JsonFactory PAGE_JSON_FACTORY = new JsonFactoryBuilder()
+        .characterEscapes(new ScriptSafeEscapes())
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+        .build();
+    
+    private final Writer out;
+    private final int pageSize;
+    
+    HtmlReportRenderer(Writer out, int pageSize) {
+        this.out = out;
+        this.pageSize = Math.max(1, pageSize);
+    }
+    
+    /**
+     * Render the report, streaming up to maxEvents events (0 = all) from the source
+     *
+     * @param summary Running totals of the session for the network latency section, or null
+     */
+    void render(MonitoringSession session, Supplier<Stream<BrowserEvent>> eventSource, int maxEvents,
+                int totalEvents, Map<String, Integer> eventTypes, AnalysisResult analysisResult,
+                SessionSummary summary) throws IOException {
+        // HTML Header with CSS
+        out.write("""
+<!DOCTYPE html>
+<html lang="en">
+<head>
+    <meta charset="UTF-8">
+    <meta name="viewport" content="width=device-width, initial-scale=1.0">
+    <title>SeleniumIQ Test Report - %s</title>
+    <style>
+        * { margin: 0; padding: 0; box-sizing: border-box; }
+
+        body {
+            font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, sans-serif;
+            line-height: 1.6;
+            color: #333;
+            background: #f8f9fa;
+            padding: 20px;
+        }
+
+        .container {
+            max-width: 1200px;
+            margin: 0 auto;
+            background: white;
+            border-radius: 12px;
+            box-shadow: 0 4px 6px rgba(0,0,0,0.1);
+            overflow: hidden;
+        }
+
+        .header {
+            background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%);
+            color: white;
+            padding: 30px;
+            text-align: center;
+        }
+
+        .header h1 {
+            font-size: 2.5em;
+            margin-bottom: 10px;
+            font-weight: 300;
+        }
+
+        .header .subtitle {
+            font-size: 1.2em;
+            opacity: 0.9;
+        }
+
+        .content {
+            padding: 30px;
+        }
+
+        .section {
+            margin-bottom: 40px;
+        }
+
+        .section h2 {
+            color: #2c3e50;
+            border-bottom: 3px solid #3498db;
+            padding-bottom: 10px;
+            margin-bottom: 20px;
+            font-size: 1.8em;
+        }
+
+        .info-grid {
+            display: grid;
+            grid-template-columns: repeat(auto-fit, minmax(250px, 1fr));
+            gap: 20px;
+            margin-bottom: 30px;
+        }
+
+        .info-card {
+            background: #f8f9fa;
+            border: 1px solid #e9ecef;
+            border-radius: 8px;
+            padding: 20px;
+            text-align: center;
+        }
+
+        .info-card h3 {
+            color: #495057;
+            margin-bottom: 10px;
+            font-size: 0.9em;
+            text-transform: uppercase;
+            letter-spacing: 1px;
+        }
+
+        .info-card .value {
+            font-size: 1.8em;
+            font-weight: bold;
+            color: #2c3e50;
+        }
+
+        .severity-low { color: #28a745; }
+        .severity-medium { color: #ffc107; }
+        .severity-high { color: #fd7e14; }
+        .severity-critical { color: #dc3545; }
+
+        .issue-card, .recommendation-card {
+            background: white;
+            border: 1px solid #dee2e6;
+            border-radius: 8px;
+            padding: 20px;
+            margin-bottom: 15px;
+            border-left: 4px solid #3498db;
+        }
+
+        .issue-card.priority-high { border-left-color: #fd7e14; }
+        .issue-card.priority-critical { border-left-color: #dc3545; }
+        .issue-card.priority-medium { border-left-color: #ffc107; }
+        .issue-card.priority-low { border-left-color: #28a745; }
+
+        .issue-title {
+            font-size: 1.2em;
+            font-weight: bold;
+            margin-bottom: 10px;
+            color: #2c3e50;
+        }
+
+        .issue-type {
+            display: inline-block;
+            background: #e9ecef;
+            color: #495057;
+            padding: 4px 12px;
+            border-radius: 20px;
+            font-size: 0.8em;
+            margin-bottom: 10px;
+            text-transform: uppercase;
+            font-weight: 500;
+        }
+
+        .priority-badge {
+            display: inline-block;
+            padding: 4px 12px;
+            border-radius: 20px;
+            font-size: 0.8em;
+            font-weight: bold;
+            text-transform: uppercase;
+            margin-left: 10px;
+        }
+
+        .priority-high { background: #fd7e14; color: white; }
+        .priority-critical { background: #dc3545; color: white; }
+        .priority-medium { background: #ffc107; color: #212529; }
+        .priority-low { background: #28a745; color: white; }
+
+        .events-table {
+            width: 100%%;
+            border-collapse: collapse;
+            margin-top: 20px;
+            font-size: 0.9em;
+        }
+
+        .events-table th {
+            background: #f8f9fa;
+            padding: 12px;
+            text-align: left;
+            border-bottom: 2px solid #dee2e6;
+            font-weight: 600;
+            color: #495057;
+        }
+
+        .events-table td {
+            padding: 12px;
+            border-bottom: 1px solid #dee2e6;
+            vertical-align: top;
+        }
+
+        .events-table tr:hover {
+            background: #f8f9fa;
+        }
+
+        .event-type {
+            padding: 4px 8px;
+            border-radius: 4px;
+            font-size: 0.8em;
+            font-weight: 500;
+        }
+
+        .event-console-log { background: #e3f2fd; color: #1565c0; }
+        .event-network-request { background: #e8f5e8; color: #2e7d32; }
+        .event-javascript-exception { background: #ffebee; color: #c62828; }
+        .event-performance-metric { background: #fff3e0; color: #ef6c00; }
+
+        .level-info { color: #17a2b8; }
+        .level-warn { color: #ffc107; }
+        .level-error { color: #dc3545; }
+
+        .timestamp {
+            font-family: 'Monaco', 'Menlo', monospace;
+            font-size: 0.8em;
+            color: #6c757d;
+        }
+
+        .no-issues {
+            text-align: center;
+            padding: 40px;
+            color: #28a745;
+            font-size: 1.2em;
+        }
+
+        .footer {
+            background: #f8f9fa;
+            padding: 20px;
+            text-align: center;
+            color: #6c757d;
+            border-top: 1px solid #dee2e6;
+        }
+
+        .collapsible {
+            cursor: pointer;
+            user-select: none;
+        }
+
+        .collapsible:hover {
+            background: #f8f9fa;
+        }
+
+        .collapsible-content {
+            max-height: 300px;
+            overflow-y: auto;
+        }
+
+        .pager {
+            display: flex;
+            align-items: center;
+            justify-content: center;
+            gap: 15px;
+            margin-top: 20px;
+        }
+
+        .pager button {
+            background: #3498db;
+            color: white;
+            border: none;
+            border-radius: 4px;
+            padding: 6px 14px;
+            cursor: pointer;
+        }
+
+        .pager-status {
+            color: #6c757d;
+        }
+    </style>
+</head>
+<body>
+""".formatted(escapeHtml(session.getName())));
+        
+        // Header
+        out.write("""
+    <div class="container">
+        <div class="header">
+            <h1>🧠 SeleniumIQ Test Report</h1>
+            <div class="subtitle">AI-Powered Test Intelligence</div>
+        </div>
+
+        <div class="content">
+""");
+        
+        // Session Information
+        writeSessionInfoSection(session, totalEvents, eventTypes);
+        
+        // Network Latency Section
+        if (summary != null && summary.getNetworkRequests() > 0) {
+            writeNetworkLatencySection(summary);
+        }
+        
+        // AI Analysis Section
+        if (analysisResult != null) {
+            writeAnalysisSection(analysisResult);
+        }
+        
+        // Events Section
+        int shownEvents = maxEvents > 0 ? Math.min(maxEvents, totalEvents) : totalEvents;
+        writeEventsSection(eventSource, shownEvents, totalEvents);
+        
+        // Footer
+        out.write("""
+        </div>
+
+        <div class="footer">
+            <p>Generated by <strong>SeleniumIQ v1.0.0</strong> at %s</p>
+            <p>AI-Powered Test Intelligence for Selenium WebDriver</p>
+        </div>
+    </div>
+
+    <script>
+        // Add collapsible functionality
+        document.querySelectorAll('.collapsible').forEach(function(element) {
+            element.addEventListener('click', function() {
+                const content = this.nextElementSibling;
+                if (content.style.display === 'none') {
+                    content.style.display = 'block';
+                } else {
+                    content.style.display = 'none';
+                }
+            });
+        });
+
+        // Page through events; pages after the first are rendered from their JSON on demand
+        (function() {
+            const rows = document.getElementById('event-rows');
+            const pages = document.querySelectorAll('script.event-page');
+            const status = document.querySelector('.pager-status');
+            if (!rows || pages.length === 0) {
+                return;
+            }
+            const firstPage = rows.innerHTML;
+            let current = 0;
+
+            function cell(row, text, className) {
+                const td = row.insertCell();
+                td.className = className || '';
+                td.textContent = text;
+            }
+
+            function show(page) {
+                current = Math.max(0, Math.min(pages.length, page));
+                if (current === 0) {
+                    rows.innerHTML = firstPage;
+                } else {
+                    const fragment = document.createDocumentFragment();
+                    JSON.parse(pages[current - 1].textContent).forEach(function(event) {
+                        const row = document.createElement('tr');
+                        cell(row, event[0], 'timestamp');
+                        const badge = document.createElement('span');
+                        badge.className = 'event-type event-' + event[1].replace(/_/g, '-');
+                        badge.textContent = event[1].replace(/-/g, ' ');
+                        row.insertCell().appendChild(badge);
+                        cell(row, event[2], event[2] ? 'level-' + event[2].toLowerCase() : '');
+                        cell(row, event[3]);
+                        cell(row, event[4]);
+                        fragment.appendChild(row);
+                    });
+                    rows.replaceChildren(fragment);
+                }
+                status.textContent = 'Page ' + (current + 1) + ' of ' + (pages.length + 1);
+            }
+
+            document.querySelectorAll('.pager button').forEach(function(button) {
+                button.addEventListener('click', function() {
+                    show(current + (button.dataset.page === 'next' ? 1 : -1));
+                });
+            });
+        })();
+    </script>
+</body>
+</html>
+""".formatted(DATE_TIME_FORMAT.format(Instant.now())));
+    }
+    
+    /**
+     * Write session information section
+     */
+    private void writeSessionInfoSection(MonitoringSession session, int totalEvents, Map<String, Integer> eventTypes) throws IOException {
+        out.write("""
+            <div class="section">
+                <h2>📊 Session Overview</h2>
+                <div class="info-grid">
+                    <div class="info-card">
+                        <h3>Session Name</h3>
+                        <div class="value">%s</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Duration</h3>
+                        <div class="value">%s</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Total Events</h3>
+                        <div class="value">%d</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Start Time</h3>
+                        <div class="value timestamp">%s</div>
+                    </div>
+                </div>
+
+                <div class="info-grid">
+        """.formatted(
+            escapeHtml(session.getName()),
+            ReportGenerator.calculateDuration(session.getStartTime()),
+            totalEvents,
+            DATE_TIME_FORMAT.format(session.getStartTime())
+        ));
+        
+        for (Map.Entry<String, Integer> entry : eventTypes.entrySet()) {
+            String displayName = entry.getKey().replace("-", " ");
+            displayName = displayName.substring(0, 1).toUpperCase() + displayName.substring(1);
+            
+            out.write("""
+                <div class="info-card">
+                    <h3>%s</h3>
+                    <div class="value">%d</div>
+                </div>
+            """.formatted(escapeHtml(displayName), entry.getValue()));
+        }
+        
+        out.write("""
+                </div>
+            </div>
+        """);
+    }
+    
+    /**
+     * Write network latency section: percentiles of all requests and of the busiest URL patterns
+     */
+    private void writeNetworkLatencySection(SessionSummary summary) throws IOException {
+        LatencyHistogram latency = summary.getNetworkLatency();
+        out.write("""
+            <div class="section">
+                <h2>🌐 Network Latency</h2>
+                <div class="info-grid">
+                    <div class="info-card">
+                        <h3>Requests</h3>
+                        <div class="value">%d (%d failed)</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>p50</h3>
+                        <div class="value">%.1f ms</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>p90</h3>
+                        <div class="value">%.1f ms</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>p99</h3>
+                        <div class="value">%.1f ms</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Max</h3>
+                        <div class="value">%.1f ms</div>
+                    </div>
+                </div>
+
+                <table class="events-table">
+                    <thead>
+                        <tr>
+                            <th>URL Pattern</th>
+                            <th>Requests</th>
+                            <th>p50</th>
+                            <th>p90</th>
+                            <th>p99</th>
+                            <th>Max</th>
+                        </tr>
+                    </thead>
+                    <tbody>
+        """.formatted(
+            summary.getNetworkRequests(),
+            summary.getFailedRequests(),
+            latency.getPercentileMillis(50),
+            latency.getPercentileMillis(90),
+            latency.getPercentileMillis(99),
+            latency.getMaxMillis()
+        ));
+        
+        for (Map.Entry<String, LatencyHistogram> entry
+                : LatencyHistogram.busiest(summary.getLatencyByUrlPattern(), ReportGenerator.REPORTED_URL_PATTERNS)) {
+            LatencyHistogram pattern = entry.getValue();
+            out.write("""
+                        <tr>
+                            <td>%s</td>
+                            <td>%d</td>
+                            <td>%.1f ms</td>
+                            <td>%.1f ms</td>
+                            <td>%.1f ms</td>
+                            <td>%.1f ms</td>
+                        </tr>
+            """.formatted(
+                escapeHtml(entry.getKey()),
+                pattern.getCount(),
+                pattern.getPercentileMillis(50),
+                pattern.getPercentileMillis(90),
+                pattern.getPercentileMillis(99),
+                pattern.getMaxMillis()
+            ));
+        }
+        
+        out.write("""
+                    </tbody>
+                </table>
+            </div>
+        """);
+    }
+    
+    /**
+     * Write AI analysis section
+     */
+    private void writeAnalysisSection(AnalysisResult analysisResult) throws IOException {
+        String severityClass = "severity-" + analysisResult.getSeverity().toString().toLowerCase();
+        
+        out.write("""
+            <div class="section">
+                <h2>🤖 AI Analysis Results</h2>
+                <div class="info-grid">
+                    <div class="info-card">
+                        <h3>Severity</h3>
+                        <div class="value %s">%s</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Issues Found</h3>
+                        <div class="value">%d</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Recommendations</h3>
+                        <div class="value">%d</div>
+                    </div>
+                    <div class="info-card">
+                        <h3>Summary</h3>
+                        <div class="value" style="font-size: 1em;">%s</div>
+                    </div>
+                </div>
+        """.formatted(
+            severityClass,
+            analysisResult.getSeverity(),
+            analysisResult.getIssues().size(),
+            analysisResult.getRecommendations().size(),
+            escapeHtml(analysisResult.getSummary())
+        ));
+        
+        // Issues
+        if (!analysisResult.getIssues().isEmpty()) {
+            out.write("<h3>🚨 Issues Detected</h3>");
+            for (Suggestion.Issue issue : analysisResult.getIssues()) {
+                String priorityClass = "priority-" + issue.getPriority().toString().toLowerCase();
+                out.write("""
+                    <div class="issue-card %s">
+                        <div class="issue-title">
+                            %s
+                            <span class="priority-badge %s">%s</span>
+                        </div>
+                        <div class="issue-type">%s</div>
+                        <p><strong>Description:</strong> %s</p>
+                        <p><strong>Suggestion:</strong> %s</p>
+                        <p><strong>Impact:</strong> %s</p>
+                    </div>
+                """.formatted(
+                    priorityClass,
+                    escapeHtml(issue.getTitle()),
+                    priorityClass,
+                    issue.getPriority(),
+                    escapeHtml(issue.getType()),
+                    escapeHtml(issue.getDescription()),
+                    escapeHtml(issue.getSuggestion()),
+                    escapeHtml(issue.getImpact())
+                ));
+            }
+        } else {
+            out.write("<div class=\"no-issues\">✅ No issues detected - Great job!</div>");
+        }
+        
+        // Recommendations
+        if (!analysisResult.getRecommendations().isEmpty()) {
+            out.write("<h3>💡 Recommendations</h3>");
+            for (Suggestion.Recommendation rec : analysisResult.getRecommendations()) {
+                out.write("""
+                    <div class="recommendation-card">
+                        <div class="issue-title">%s</div>
+                        <div class="issue-type">%s</div>
+                        <p><strong>Recommendation:</strong> %s</p>
+                        <p><strong>Reasoning:</strong> %s</p>
+                    </div>
+                """.formatted(
+                    escapeHtml(rec.getCategory().replace("-", " ").toUpperCase()),
+                    escapeHtml(rec.getCategory()),
+                    escapeHtml(rec.getRecommendation()),
+                    escapeHtml(rec.getReasoning())
+                ));
+            }
+        }
+        
+        out.write("</div>");
+    }
+    
+    /**
+     * Write events section: the first page as table rows, the rest as JSON pages
+     */
+    private void writeEventsSection(Supplier<Stream<BrowserEvent>> eventSource, int shownEvents, int totalEvents) throws IOException {
+        int pages = (shownEvents + pageSize - 1) / pageSize;
+        
+        out.write("""
+            <div class="section">
+                <h2 class="collapsible">📋 Browser Events (%d events) - Click to toggle</h2>
+                <div class="collapsible-content">
+        """.formatted(totalEvents));
+        
+        if (pages > 1) {
+            out.write("""
+                    <div class="pager">
+                        <button type="button" data-page="prev">&lsaquo; Previous</button>
+                        <span class="pager-status">Page 1 of %d</span>
+                        <button type="button" data-page="next">Next &rsaquo;</button>
+                    </div>
+            """.formatted(pages));
+        }
+        
+        out.write("""
+                    <table class="events-table">
+                        <thead>
+                            <tr>
+                                <th>Timestamp</th>
+                                <th>Type</th>
+                                <th>Level</th>
+                                <th>Message</th>
+                                <th>Source</th>
+                            </tr>
+                        </thead>
+                        <tbody id="event-rows">
+        """);
+        
+        int written = 0;
+        JsonGenerator page = null;
+        try (Stream<BrowserEvent> events = eventSource.get()) {
+            Iterator<BrowserEvent> iterator = events.limit(shownEvents).iterator();
+            while (iterator.hasNext()) {
+                BrowserEvent event = iterator.next();
+                if (written < pageSize) {
+                    writeRow(event);
+                } else {
+                    if (written % pageSize == 0) {
+                        if (page == null) {
+                            out.write("                        </tbody>\n                    </table>\n");
+                        } else {
+                            endPage(page);
+                        }
+                        page = startPage(written / pageSize);
+                    }
+                    writePageEntry(page, event);
+                }
+                written++;
+            }
+        }
+        
+        if (page == null) {
+            out.write("                        </tbody>\n                    </table>");
+        } else {
+            endPage(page);
+        }
+        
+        if (totalEvents > written) {
+            out.write(String.format("\n                    <p style=\"text-align: center; margin-top: 20px; color: #6c757d;\">Showing first %d of %d events</p>", written, totalEvents));
+        }
+        
+        out.write("\n                </div>\n            </div>");
+    }
+    
+    private void writeRow(BrowserEvent event) throws IOException {
+        String level = event.getLevel() != null ? event.getLevel() : "";
+        
+        out.write("                            <tr>\n                                <td class=\"timestamp\">");
+        out.write(ROW_TIME_FORMAT.format(event.getTimestamp()));
+        out.write("</td>\n                                <td><span class=\"event-type event-");
+        writeEscaped(event.getType().replace("_", "-"));
+        out.write("\">");
+        writeEscaped(event.getType().replace("-", " "));
+        out.write("</span></td>\n                                <td class=\"");
+        if (!level.isEmpty()) {
+            out.write("level-");
+            writeEscaped(level.toLowerCase());
+        }
+        out.write("\">");
+        writeEscaped(level);
+        out.write("</td>\n                                <td>");
+        writeEscaped(event.getMessage());
+        out.write("</td>\n                                <td>");
+        writeEscaped(event.getSource());
+        out.write("</td>\n                            </tr>\n");
+    }
+    
+    private JsonGenerator startPage(int index) throws IOException {
+        out.write("                    <script type=\"application/json\" class=\"event-page\" data-page=\"" + index + "\">");
+        JsonGenerator page = PAGE_JSON_FACTORY.createGenerator(out);
+        page.writeStartArray();
+        return page;
+    }
+    
+    private void endPage(JsonGenerator page) throws IOException {
+        page.writeEndArray();
+        page.close();
+        out.write("</script>\n");
+    }
+    
+    /**
+     * One event as [timestamp, type, level, message, source]
+     */
+    private void writePageEntry(JsonGenerator page, BrowserEvent event) throws IOException {
+        page.writeStartArray();
+        page.writeString(ROW_TIME_FORMAT.format(event.getTimestamp()));
+        page.writeString(event.getType());
+        page.writeString(event.getLevel() != null ? event.getLevel() : "");
+        page.writeString(event.getMessage() != null ? event.getMessage() : "");
+        page.writeString(event.getSource() != null ? event.getSource() : "");
+        page.writeEndArray();
+    }
+    
+    /**
+     * Write text with HTML characters escaped, without copying it
+     */
+    private void writeEscaped(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            String entity = htmlEntity(text.charAt(i));
+            if (entity != null) {
+                out.write(text, start, i - start);
+                out.write(entity);
+                start = i + 1;
+            }
+        }
+        out.write(text, start, text.length() - start);
+    }
+    
+    /**
+     * Escape HTML characters
+     */
+    private static String escapeHtml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;")
+                   .replace("'", "&#39;");
+    }
+    
+    private static String htmlEntity(char c) {
+        switch (c) {
+            case '&': return "&amp;";
+            case '<': return "&lt;";
+            case '>': return "&gt;";
+            case '"': return "&quot;";
+            case '\'': return "&#39;";
+            default: return null;
+        }
+    }
+    
+    /**
+     * JSON escapes that also cover the characters ending or confusing an HTML script block
+     */
+    private static class ScriptSafeEscapes extends CharacterEscapes {
+        private static final long serialVersionUID = 1L;
+        
+        private final int[] asciiEscapes;
+        
+        ScriptSafeEscapes() {
+            asciiEscapes = standardAsciiEscapesForJSON();
+            asciiEscapes['<'] = ESCAPE_STANDARD;
+            asciiEscapes['>'] = ESCAPE_STANDARD;
+            asciiEscapes['&'] = ESCAPE_STANDARD;
+        }
+        
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return asciiEscapes;
+        }
+        
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.seleniumiq.reporting;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory latency histogram in the layout of HdrHistogram.
+ *
+ * Values are recorded in microseconds from 1µs up to about an hour. Each power-of-two range is
+ * split into 32 linear sub-buckets, so any percentile is accurate to within about 3% of the
+ * value; the whole histogram takes about 7 KB however many values it holds. Recording is lock-free
+ * and histograms of different sessions can be merged.
+ */
+public class LatencyHistogram {
+    
+    // 64 sub-buckets per bucket, of which the upper half is used above the first bucket
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 5;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT * 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    
+    // Longer latencies are recorded as this value
+    static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+    static final int COUNTS_LENGTH = countsLength(HIGHEST_TRACKABLE_MICROS);
+    
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    /**
+     * Record a latency in milliseconds; negative values (phase not reported) are ignored
+     */
+    public void recordMillis(double latencyMs) {
+        if (latencyMs >= 0) {
+            recordMicros(Math.round(latencyMs * 1000));
+        }
+    }
+    
+    public void recordMicros(long micros) {
+        long value = Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS);
+        counts.incrementAndGet(countsIndex(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+    
+    /**
+     * Add all values recorded in another histogram to this one
+     */
+    public void merge(LatencyHistogram other) {
+        long merged = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+                merged += count;
+            }
+        }
+        totalCount.addAndGet(merged);
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+    
+    public double getMeanMillis() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalMicros.get() / 1000.0 / count;
+    }
+    
+    /**
+     * Latency at or below which the given percentage of values fall
+     *
+     * @param percentile Between 0 and 100
+     */
+    public double getPercentileMillis(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+    
+    /**
+     * Count, mean, p50/p90/p99 and max in milliseconds
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("meanMs", round(getMeanMillis()));
+        summary.put("p50Ms", round(getPercentileMillis(50)));
+        summary.put("p90Ms", round(getPercentileMillis(90)));
+        summary.put("p99Ms", round(getPercentileMillis(99)));
+        summary.put("maxMs", round(getMaxMillis()));
+        return summary;
+    }
+    
+    /**
+     * Write the summary as fields of the current JSON object
+     */
+    void writeSummary(JsonGenerator json) throws IOException {
+        for (Map.Entry<String, Object> entry : getSummary().entrySet()) {
+            json.writeObjectField(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Up to {@code limit} histograms with the most values, busiest first
+     */
+    static List<Map.Entry<String, LatencyHistogram>> busiest(Map<String, LatencyHistogram> histograms, int limit) {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getCount()).reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+    
+    private static double round(double millis) {
+        return Math.round(millis * 10) / 10.0;
+    }
+    
+    static int countsIndex(long value) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + subBucketIndex - SUB_BUCKET_HALF_COUNT;
+    }
+    
+    /**
+     * Largest value that lands in the same slot as the values at this index
+     */
+    static long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return ((long) subBucketIndex << bucketIndex) + (1L << bucketIndex) - 1;
+    }
+    
+    private static int countsLength(long highestTrackableValue) {
+        long smallestUntrackableValue = SUB_BUCKET_COUNT;
+        int buckets = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            smallestUntrackableValue <<= 1;
+            buckets++;
+        }
+        return (buckets + 1) * SUB_BUCKET_HALF_COUNT;
+    }
+}
@@ -0,0 +1,242 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.config.ExecutionMode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes reports on dedicated threads, so neither test teardown nor analysis threads wait for
+ * report I/O.
+ *
+ * Reports wait in a bounded queue; when it is full, the submitter blocks until a writer frees a
+ * slot rather than dropping a report. Written files are synced to disk in groups: the writer that
+ * empties the queue, or completes a batch, syncs every file written since the last sync plus the
+ * reports directory, then completes their futures. Shutdown drains the queue within a timeout.
+ */
+class ReportWriteQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ReportWriteQueue.class);
+    
+    private static final int SYNC_BATCH = 16;
+    private static final long POLL_MILLIS = 200;
+    
+    /**
+     * Writes one report and returns the files it wrote
+     */
+    @FunctionalInterface
+    interface Job {
+        List<Path> write() throws IOException;
+    }
+    
+    private final Path directory;
+    private final int threads;
+    private final int capacity;
+    private final boolean fsync;
+    private final BlockingQueue<Task> queue;
+    private final ExecutorService writers;
+    private volatile boolean closed;
+    
+    // Written but not yet synced, guarded by syncLock
+    private final Object syncLock = new Object();
+    private List<Task> unsynced = new ArrayList<>();
+    
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong blockedSubmits = new AtomicLong();
+    
+    ReportWriteQueue(Path directory, int threads, int capacity, boolean fsync, ExecutionMode executionMode) {
+        this.directory = directory;
+        this.threads = Math.max(1, threads);
+        this.capacity = Math.max(1, capacity);
+        this.fsync = fsync;
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        
+        // Daemon threads: the JVM may exit without waiting, the shutdown hook drains the queue
+        ThreadFactory threadFactory = executionMode == ExecutionMode.VIRTUAL
+            ? Thread.ofVirtual().name("seleniumiq-report-writer-", 0).factory()
+            : Thread.ofPlatform().name("seleniumiq-report-writer-", 0).daemon().factory();
+        this.writers = Executors.newThreadPerTaskExecutor(threadFactory);
+        for (int i = 0; i < this.threads; i++) {
+            writers.execute(this::runWriter);
+        }
+    }
+    
+    /**
+     * Queue a report; the future completes once its files are written and synced
+     */
+    CompletableFuture<List<Path>> submit(String description, Job job) {
+        Task task = new Task(description, job);
+        if (closed) {
+            task.future.completeExceptionally(new IllegalStateException("Report writer is shut down, dropping " + description));
+            return task.future;
+        }
+        
+        try {
+            if (!queue.offer(task)) {
+                blockedSubmits.incrementAndGet();
+                logger.debug("Report queue full ({} reports), waiting for a writer", capacity);
+                queue.put(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.future.completeExceptionally(e);
+            return task.future;
+        }
+        
+        // Shut down while waiting for a slot: no writer may be left to take it
+        if (closed && queue.remove(task)) {
+            task.future.completeExceptionally(new IllegalStateException("Report writer is shut down, dropping " + description));
+        }
+        return task.future;
+    }
+    
+    /**
+     * Stop accepting reports and wait up to the timeout for queued ones to be written
+     */
+    void shutdown(Duration timeout) {
+        closed = true;
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Report writer did not drain within {}s, {} reports not written",
+                           timeout.toSeconds(), queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        
+        Task abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            failedCount.incrementAndGet();
+            abandoned.future.completeExceptionally(
+                new IllegalStateException("Report writer shut down before writing " + abandoned.description));
+        }
+        syncPending();
+    }
+    
+    /**
+     * Queued reports, reports written and failed, and the number of grouped syncs
+     */
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", threads);
+        stats.put("capacity", capacity);
+        stats.put("queued", queue.size());
+        stats.put("written", writtenCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("blockedSubmits", blockedSubmits.get());
+        stats.put("syncs", syncCount.get());
+        return stats;
+    }
+    
+    private void runWriter() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Task task = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    write(task);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void write(Task task) {
+        boolean syncNow;
+        try {
+            task.files = task.job.write();
+            synchronized (syncLock) {
+                unsynced.add(task);
+                syncNow = unsynced.size() >= SYNC_BATCH || queue.isEmpty();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            logger.error("Failed to write {}", task.description, e);
+            task.future.completeExceptionally(e);
+            syncNow = queue.isEmpty();
+        }
+        
+        if (syncNow) {
+            syncPending();
+        }
+    }
+    
+    /**
+     * Sync all files written since the last sync and complete their reports
+     */
+    private void syncPending() {
+        List<Task> batch;
+        synchronized (syncLock) {
+            if (unsynced.isEmpty()) {
+                return;
+            }
+            batch = unsynced;
+            unsynced = new ArrayList<>();
+        }
+        
+        if (fsync) {
+            for (Task task : batch) {
+                for (Path file : task.files) {
+                    try {
+                        force(file);
+                    } catch (IOException e) {
+                        logger.warn("Failed to sync report file {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+            // Make the new directory entries durable too
+            try {
+                force(directory);
+            } catch (IOException e) {
+                // Not every platform can open a directory for syncing
+                logger.debug("Could not sync reports directory {}: {}", directory, e.getMessage());
+            }
+            syncCount.incrementAndGet();
+        }
+        
+        for (Task task : batch) {
+            writtenCount.incrementAndGet();
+            task.future.complete(task.files);
+        }
+    }
+    
+    private static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+    
+    private static class Task {
+        private final String description;
+        private final Job job;
+        private final CompletableFuture<List<Path>> future = new CompletableFuture<>();
+        private List<Path> files = List.of();
+        
+        Task(String description, Job job) {
+            this.description = description;
+            this.job = job;
+        }
+    }
+}
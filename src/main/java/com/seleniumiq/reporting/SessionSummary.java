@@ -0,0 +1,179 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.NetworkTiming;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of one session, updated as events are captured.
+ *
+ * Holds event counts per type and level, network latency histograms for the session and per URL
+ * pattern, and the most frequently failing URLs, all in bounded memory, so a finished session
+ * folds into the suite aggregate without reading its events again. Network requests are recorded
+ * as the collector measures them, including those the capture filters keep out of the event log.
+ */
+public class SessionSummary {
+    
+    private static final int MAX_FAILING_URLS = 50;
+    private static final int MAX_URL_PATTERNS = 64;
+    
+    // Requests to further patterns once the limit is reached
+    static final String OTHER_PATTERN = "(other)";
+    
+    private final LongAdder totalEvents = new LongAdder();
+    private final Map<String, LongAdder> eventTypes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> eventLevels = new ConcurrentHashMap<>();
+    private final LongAdder networkRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> patternLatency = new ConcurrentHashMap<>();
+    private final TopCounts failingUrls = new TopCounts(MAX_FAILING_URLS);
+    
+    /**
+     * Count a captured event
+     */
+    public void record(BrowserEvent event) {
+        totalEvents.increment();
+        eventTypes.computeIfAbsent(event.getType(), type -> new LongAdder()).increment();
+        String level = event.getLevel() != null ? event.getLevel().toUpperCase() : "NONE";
+        eventLevels.computeIfAbsent(level, key -> new LongAdder()).increment();
+    }
+    
+    /**
+     * Count a finished or failed network request and its latency
+     */
+    public void recordRequest(NetworkTiming timing) {
+        networkRequests.increment();
+        networkLatency.recordMillis(timing.getLatencyMs());
+        patternHistogram(urlPattern(timing.getUrl())).recordMillis(timing.getLatencyMs());
+        if (timing.isFailed()) {
+            failedRequests.increment();
+            failingUrls.add(withoutQuery(timing.getUrl()), 1);
+        }
+    }
+    
+    public long getTotalEvents() {
+        return totalEvents.sum();
+    }
+    
+    public Map<String, Long> getEventTypes() {
+        return sums(eventTypes);
+    }
+    
+    public Map<String, Long> getEventLevels() {
+        return sums(eventLevels);
+    }
+    
+    public long getNetworkRequests() {
+        return networkRequests.sum();
+    }
+    
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+    
+    public LatencyHistogram getNetworkLatency() {
+        return networkLatency;
+    }
+    
+    /**
+     * Latency histograms keyed by URL pattern, e.g. {@code api.example.com/orders/{id}}
+     */
+    public Map<String, LatencyHistogram> getLatencyByUrlPattern() {
+        return Collections.unmodifiableMap(patternLatency);
+    }
+    
+    TopCounts getFailingUrls() {
+        return failingUrls;
+    }
+    
+    private LatencyHistogram patternHistogram(String pattern) {
+        LatencyHistogram histogram = patternLatency.get(pattern);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (patternLatency.size() >= MAX_URL_PATTERNS) {
+            pattern = OTHER_PATTERN;
+        }
+        return patternLatency.computeIfAbsent(pattern, key -> new LatencyHistogram());
+    }
+    
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> sums = new TreeMap<>();
+        counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+        return sums;
+    }
+    
+    /**
+     * Host and path of a URL with id-like path segments (numbers, hex and UUIDs) replaced by
+     * {id}, so requests for different records of one endpoint share a pattern
+     */
+    static String urlPattern(String url) {
+        String resource = withoutQuery(url);
+        int start = resource.indexOf("://");
+        start = start >= 0 ? start + 3 : 0;
+        
+        StringBuilder pattern = new StringBuilder(resource.length() - start);
+        int segmentStart = start;
+        for (int i = start; i <= resource.length(); i++) {
+            if (i == resource.length() || resource.charAt(i) == '/') {
+                if (segmentStart > start && isIdSegment(resource, segmentStart, i)) {
+                    pattern.append("{id}");
+                } else {
+                    pattern.append(resource, segmentStart, i);
+                }
+                if (i < resource.length()) {
+                    pattern.append('/');
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return pattern.toString();
+    }
+    
+    /**
+     * All digits, or at least 8 hex digits and dashes with at least one digit
+     */
+    private static boolean isIdSegment(String text, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        boolean allDigits = true;
+        boolean hasDigit = false;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            boolean hex = digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+            if (!hex) {
+                return false;
+            }
+            allDigits &= digit;
+            hasDigit |= digit;
+        }
+        return allDigits || (hasDigit && to - from >= 8);
+    }
+    
+    /**
+     * Group requests to the same resource regardless of query string and fragment
+     */
+    private static String withoutQuery(String url) {
+        if (url == null) {
+            return "unknown";
+        }
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        return url.substring(0, end);
+    }
+}
@@ -0,0 +1,140 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totals of all sessions that finished in this run.
+ *
+ * Each session is folded in once, from its {@link SessionSummary} and final analysis, at a cost
+ * that depends only on the size of the summary. The aggregate itself is bounded too, so writing
+ * the suite report costs the same after ten sessions as after ten thousand.
+ */
+class SuiteAggregate {
+    
+    private static final int MAX_FAILING_URLS = 200;
+    private static final int REPORTED_FAILING_URLS = 20;
+    private static final int MAX_URL_PATTERNS = 128;
+    private static final int REPORTED_URL_PATTERNS = 20;
+    
+    private final Instant startedAt = Instant.now();
+    private long sessions;
+    private long analyzedSessions;
+    private long totalEvents;
+    private long networkRequests;
+    private long failedRequests;
+    private final Map<String, Long> eventTypes = new TreeMap<>();
+    private final Map<String, Long> eventLevels = new TreeMap<>();
+    private final Map<Suggestion.Priority, Long> issuesByPriority = new EnumMap<>(Suggestion.Priority.class);
+    private final Map<AnalysisResult.Severity, Long> sessionsBySeverity = new EnumMap<>(AnalysisResult.Severity.class);
+    private final LatencyHistogram networkLatency = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> patternLatency = new HashMap<>();
+    private final TopCounts failingUrls = new TopCounts(MAX_FAILING_URLS);
+    
+    /**
+     * Fold a finished session into the totals
+     *
+     * @param analysisResult Final analysis of the session, or null if there was none
+     */
+    synchronized void fold(SessionSummary summary, AnalysisResult analysisResult) {
+        sessions++;
+        totalEvents += summary.getTotalEvents();
+        networkRequests += summary.getNetworkRequests();
+        failedRequests += summary.getFailedRequests();
+        summary.getEventTypes().forEach((type, count) -> eventTypes.merge(type, count, Long::sum));
+        summary.getEventLevels().forEach((level, count) -> eventLevels.merge(level, count, Long::sum));
+        networkLatency.merge(summary.getNetworkLatency());
+        summary.getLatencyByUrlPattern().forEach((pattern, histogram) -> {
+            String key = patternLatency.containsKey(pattern) || patternLatency.size() < MAX_URL_PATTERNS
+                ? pattern : SessionSummary.OTHER_PATTERN;
+            patternLatency.computeIfAbsent(key, k -> new LatencyHistogram()).merge(histogram);
+        });
+        failingUrls.merge(summary.getFailingUrls());
+        
+        if (analysisResult != null) {
+            analyzedSessions++;
+            sessionsBySeverity.merge(analysisResult.getSeverity(), 1L, Long::sum);
+            for (Suggestion.Issue issue : analysisResult.getIssues()) {
+                issuesByPriority.merge(issue.getPriority(), 1L, Long::sum);
+            }
+        }
+    }
+    
+    synchronized long getSessions() {
+        return sessions;
+    }
+    
+    /**
+     * Write the totals as fields of the current JSON object
+     */
+    synchronized void write(JsonGenerator json) throws IOException {
+        json.writeStringField("suiteStartedAt", startedAt.toString());
+        json.writeNumberField("completedSessions", sessions);
+        json.writeNumberField("analyzedSessions", analyzedSessions);
+        json.writeNumberField("totalEvents", totalEvents);
+        
+        writeCounts(json, "eventTypes", eventTypes);
+        writeCounts(json, "eventLevels", eventLevels);
+        
+        json.writeObjectFieldStart("network");
+        json.writeNumberField("requests", networkRequests);
+        json.writeNumberField("failedRequests", failedRequests);
+        json.writeObjectFieldStart("latency");
+        networkLatency.writeSummary(json);
+        json.writeEndObject();
+        writeLatencyByUrlPattern(json, patternLatency, REPORTED_URL_PATTERNS);
+        json.writeArrayFieldStart("topFailingUrls");
+        for (Map.Entry<String, Long> entry : failingUrls.top(REPORTED_FAILING_URLS)) {
+            json.writeStartObject();
+            json.writeStringField("url", entry.getKey());
+            json.writeNumberField("failures", entry.getValue());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        
+        json.writeObjectFieldStart("issuesByPriority");
+        for (Suggestion.Priority priority : Suggestion.Priority.values()) {
+            json.writeNumberField(priority.name(), issuesByPriority.getOrDefault(priority, 0L));
+        }
+        json.writeEndObject();
+        
+        json.writeObjectFieldStart("sessionsBySeverity");
+        for (AnalysisResult.Severity severity : AnalysisResult.Severity.values()) {
+            json.writeNumberField(severity.name(), sessionsBySeverity.getOrDefault(severity, 0L));
+        }
+        json.writeEndObject();
+    }
+    
+    /**
+     * Write the busiest URL patterns with their latency percentiles as an array field
+     */
+    static void writeLatencyByUrlPattern(JsonGenerator json, Map<String, LatencyHistogram> histograms,
+                                         int limit) throws IOException {
+        json.writeArrayFieldStart("latencyByUrlPattern");
+        for (Map.Entry<String, LatencyHistogram> entry : LatencyHistogram.busiest(histograms, limit)) {
+            json.writeStartObject();
+            json.writeStringField("pattern", entry.getKey());
+            entry.getValue().writeSummary(json);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+    
+    private static void writeCounts(JsonGenerator json, String field, Map<String, Long> counts) throws IOException {
+        json.writeObjectFieldStart(field);
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            json.writeNumberField(entry.getKey(), entry.getValue());
+        }
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,64 @@
+package com.seleniumiq.reporting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate most frequent keys in bounded memory (the Space-Saving algorithm).
+ *
+ * At most {@code capacity} keys are tracked. A new key arriving when all slots are taken
+ * replaces the least frequent one and inherits its count, so frequent keys are never lost and
+ * their counts are over-estimated by at most the smallest tracked count.
+ */
+class TopCounts {
+    
+    private final int capacity;
+    private final Map<String, Long> counts = new HashMap<>();
+    
+    TopCounts(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+    
+    synchronized void add(String key, long count) {
+        if (counts.containsKey(key) || counts.size() < capacity) {
+            counts.merge(key, count, Long::sum);
+            return;
+        }
+        
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (smallest == null || entry.getValue() < smallest.getValue()) {
+                smallest = entry;
+            }
+        }
+        long floor = smallest.getValue();
+        counts.remove(smallest.getKey());
+        counts.put(key, floor + count);
+    }
+    
+    /**
+     * Add the counts tracked by another instance
+     */
+    void merge(TopCounts other) {
+        for (Map.Entry<String, Long> entry : other.snapshot()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    /**
+     * Up to {@code limit} keys, most frequent first
+     */
+    List<Map.Entry<String, Long>> top(int limit) {
+        List<Map.Entry<String, Long>> entries = snapshot();
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+    
+    private synchronized List<Map.Entry<String, Long>> snapshot() {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> entries.add(Map.entry(key, count)));
+        return entries;
+    }
+}
@@ -0,0 +1,88 @@
+package com.seleniumiq.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveConcurrencyLimitTest {
+    
+    private static final long MILLIS = 1_000_000L;
+    
+    @Test
+    void clampsTheInitialLimit() {
+        assertEquals(8, new AdaptiveConcurrencyLimit(20, 1, 8, 2.0).getLimit());
+        assertEquals(2, new AdaptiveConcurrencyLimit(0, 2, 8, 2.0).getLimit());
+        assertEquals(1, new AdaptiveConcurrencyLimit(1, 0, 0, 2.0).getLimit());
+    }
+    
+    @Test
+    void growsByAboutOnePerRoundOfHealthyResponses() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 2.0);
+        
+        // 1/limit per sample: 2 -> 2.5 -> 2.9 -> 3.24 -> 3.55 -> 3.83 -> 4.1
+        limit.onSample(100 * MILLIS, false);
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(2, limit.getLimit());
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(3, limit.getLimit());
+        limit.onSample(100 * MILLIS, false);
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(3, limit.getLimit());
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(4, limit.getLimit());
+    }
+    
+    @Test
+    void neverGrowsPastTheMaximum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 4, 2.0);
+        
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(100 * MILLIS, false);
+        }
+        
+        assertEquals(4, limit.getLimit());
+    }
+    
+    @Test
+    void halvesOnErrorsDownToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(16, 3, 16, 2.0);
+        
+        limit.onSample(100 * MILLIS, true);
+        assertEquals(8, limit.getLimit());
+        limit.onSample(100 * MILLIS, true);
+        assertEquals(4, limit.getLimit());
+        limit.onSample(100 * MILLIS, true);
+        assertEquals(3, limit.getLimit());
+    }
+    
+    @Test
+    void shrinksWhenLatencyExceedsTheToleratedMultipleOfTheBaseline() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 10, 2.0);
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(100, limit.getBaselineLatencyMillis());
+        
+        limit.onSample(150 * MILLIS, false);
+        assertEquals(10, limit.getLimit());
+        limit.onSample(500 * MILLIS, false);
+        assertEquals(9, limit.getLimit());
+    }
+    
+    @Test
+    void baselineFollowsTheFastestResponseAndDriftsUpSlowly() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 8, 2.0);
+        limit.onSample(200 * MILLIS, false);
+        limit.onSample(100 * MILLIS, false);
+        assertEquals(100, limit.getBaselineLatencyMillis());
+        
+        // Errors carry no latency information
+        limit.onSample(10 * MILLIS, true);
+        assertEquals(100, limit.getBaselineLatencyMillis());
+        
+        limit.onSample(180 * MILLIS, false);
+        assertEquals(100, limit.getBaselineLatencyMillis());
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(180 * MILLIS, false);
+        }
+        assertEquals(170, limit.getBaselineLatencyMillis(), 10);
+    }
+}
@@ -0,0 +1,137 @@
+package com.seleniumiq.analysis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisCacheTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        AnalysisCache cache = new AnalysisCache(2, Duration.ofHours(1), null, 0);
+        cache.put("a", "answer a");
+        cache.put("b", "answer b");
+        assertEquals(Optional.of("answer a"), cache.get("a"));
+        
+        cache.put("c", "answer c");
+        
+        assertEquals(2, cache.size());
+        assertEquals(Optional.of("answer a"), cache.get("a"));
+        assertEquals(Optional.empty(), cache.get("b"));
+        assertEquals(Optional.of("answer c"), cache.get("c"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    @Test
+    void expiresEntriesAfterTheTtl() throws Exception {
+        AnalysisCache cache = new AnalysisCache(10, Duration.ofMillis(20), null, 0);
+        cache.put("a", "answer a");
+        assertEquals(Optional.of("answer a"), cache.get("a"));
+        
+        Thread.sleep(50);
+        
+        assertEquals(Optional.empty(), cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void reusesResponsesStoredOnDiskByAnEarlierRun() throws IOException {
+        new AnalysisCache(10, Duration.ofHours(1), directory, 100).put("a", "answer a");
+        
+        AnalysisCache later = new AnalysisCache(10, Duration.ofHours(1), directory, 100);
+        
+        assertEquals(Optional.of("answer a"), later.get("a"));
+        assertEquals(1, later.size());
+        assertEquals(List.of("a.json"), fileNames());
+    }
+    
+    @Test
+    void replacesStoredFilesWholeWithoutLeavingTemporaryFiles() throws Exception {
+        AnalysisCache cache = new AnalysisCache(10, Duration.ofHours(1), directory, 100);
+        String first = "a".repeat(256 * 1024);
+        String second = "b".repeat(256 * 1024);
+        cache.put("key", first);
+        
+        // A reader sharing the directory sees one complete response or the other, never a mix
+        Path file = directory.resolve("key.json");
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 50; i++) {
+                cache.put("key", i % 2 == 0 ? second : first);
+            }
+            done.set(true);
+        });
+        int reads = 0;
+        while (!done.get() || reads == 0) {
+            String content;
+            try {
+                content = Files.readString(file);
+            } catch (NoSuchFileException e) {
+                continue;
+            }
+            assertTrue(content.equals(first) || content.equals(second), "read " + content.length() + " characters");
+            reads++;
+        }
+        writer.join();
+        
+        assertEquals(List.of("key.json"), fileNames());
+    }
+    
+    @Test
+    void deletesExpiredFilesOnRead() throws IOException {
+        new AnalysisCache(10, Duration.ofHours(1), directory, 100).put("a", "answer a");
+        age("a", Duration.ofHours(2));
+        
+        AnalysisCache later = new AnalysisCache(10, Duration.ofHours(1), directory, 100);
+        
+        assertEquals(Optional.empty(), later.get("a"));
+        assertTrue(fileNames().isEmpty());
+    }
+    
+    @Test
+    void prunesExpiredAndThenTheOldestFiles() throws IOException {
+        AnalysisCache cache = new AnalysisCache(10, Duration.ofHours(1), directory, 5);
+        // The disk is pruned every 64 writes; make the first 63 progressively older
+        for (int i = 0; i < 63; i++) {
+            cache.put("entry" + i, "answer " + i);
+            age("entry" + i, Duration.ofMinutes(63 - i));
+        }
+        age("entry0", Duration.ofHours(2));
+        assertEquals(63, fileNames().size());
+        
+        cache.put("entry63", "answer 63");
+        
+        assertEquals(List.of("entry59.json", "entry60.json", "entry61.json", "entry62.json", "entry63.json"), fileNames());
+        assertFalse(Files.exists(directory.resolve("entry0.json")));
+    }
+    
+    private void age(String fingerprint, Duration age) throws IOException {
+        Files.setLastModifiedTime(directory.resolve(fingerprint + ".json"), FileTime.from(Instant.now().minus(age)));
+    }
+    
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class EventFingerprintTest {
+    
+    private static final String SALT = "ollama|llama3|v1";
+    
+    @Test
+    void matchesRunsThatDifferOnlyInVolatileDetails() {
+        MonitoringSession first = session("Checkout-A");
+        MonitoringSession second = session("Checkout-B");
+        
+        String fingerprint = EventFingerprint.of(List.of(
+            error(first, "Order 8f14e45f-ceea-467f-a0e6-3a6c1b2f9d10 failed at 2026-10-15T10:00:00Z in Checkout-A",
+                "https://shop.test/orders/123?page=1"),
+            error(first, "Request took 1532ms, 20480 bytes, trace 0123456789abcdef0123", "https://shop.test/cart")),
+            first, SALT);
+        String repeated = EventFingerprint.of(List.of(
+            error(second, "Request took 87ms, 512 bytes, trace fedcba98765432100000", "https://shop.test/cart"),
+            error(second, "Order 1b4e28ba-2fa1-11d2-883f-0016d3cca427 failed at 2026-10-16 08:30:12.250+02:00 in Checkout-B",
+                "https://shop.test/orders/98765?page=1")),
+            second, SALT);
+        
+        assertEquals(fingerprint, repeated);
+    }
+    
+    @Test
+    void differsWhenEventCountsDiffer() {
+        MonitoringSession session = session("Checkout");
+        BrowserEvent failure = error(session, "Order failed", "https://shop.test/orders");
+        List<BrowserEvent> once = List.of(failure);
+        List<BrowserEvent> twice = new ArrayList<>(List.of(failure, failure));
+        
+        assertNotEquals(EventFingerprint.of(once, session, SALT), EventFingerprint.of(twice, session, SALT));
+    }
+    
+    @Test
+    void differsWhenTheMessageOrSaltDiffers() {
+        MonitoringSession session = session("Checkout");
+        List<BrowserEvent> events = List.of(error(session, "Order failed", "https://shop.test/orders"));
+        
+        assertNotEquals(EventFingerprint.of(events, session, SALT),
+            EventFingerprint.of(List.of(error(session, "Payment failed", "https://shop.test/orders")), session, SALT));
+        assertNotEquals(EventFingerprint.of(events, session, SALT), EventFingerprint.of(events, session, "openai|gpt-4|v1"));
+    }
+    
+    @Test
+    void keepsShortSessionNamesAndNonIdNumbers() {
+        assertEquals("HTTP 500 from <session> at /orders/<id>",
+            EventFingerprint.normalize("HTTP 500 from Checkout at /orders/42", "Checkout"));
+        assertEquals("ab", EventFingerprint.normalize("ab", "ab"));
+    }
+    
+    private static MonitoringSession session(String name) {
+        return new MonitoringSession(name.toLowerCase(), name, null, Instant.now());
+    }
+    
+    private static BrowserEvent error(MonitoringSession session, String message, String source) {
+        return BrowserEvent.consoleLog(session.getId(), "ERROR", message, source);
+    }
+}
@@ -0,0 +1,113 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.config.ExecutionMode;
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.llm.ConcurrencyLimitedProvider;
+import com.seleniumiq.llm.LLMProvider;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LLMAnalysisServiceLoadTest {
+    
+    private static final int SESSIONS = 500;
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+    
+    private static final String RESPONSE = """
+        {"summary": "One error", "severity": "MEDIUM",
+         "issues": [{"type": "error", "title": "Console error", "description": "d", "suggestion": "s",
+                     "priority": "MEDIUM", "impact": "i"}],
+         "recommendations": []}
+        """;
+    
+    @Test
+    void analyzesFiveHundredSessionsOnVirtualThreadsWithinTheRequestCap() throws Exception {
+        MonitorConfig config = new MonitorConfig.Builder()
+            .executionMode(ExecutionMode.VIRTUAL)
+            .analysisCacheEnabled(false)
+            .analysisBatchMaxSessions(1)
+            .build();
+        StubProvider stub = new StubProvider();
+        LLMAnalysisService service = new LLMAnalysisService(config,
+            new ConcurrencyLimitedProvider(stub, MAX_CONCURRENT_REQUESTS));
+        
+        List<CompletableFuture<AnalysisResult>> results = new ArrayList<>();
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < SESSIONS; i++) {
+                MonitoringSession session = new MonitoringSession("session-" + i, "Session " + i, null, Instant.now());
+                List<BrowserEvent> events = List.of(
+                    BrowserEvent.consoleLog(session.getId(), "ERROR", "Uncaught failure in session " + i, "app.js"));
+                results.add(CompletableFuture.supplyAsync(() -> service.analyzeEvents(events, session), sessions)
+                    .thenCompose(future -> future));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+        } finally {
+            service.shutdown();
+        }
+        
+        for (CompletableFuture<AnalysisResult> result : results) {
+            assertFalse(result.join().hasError(), result.join().getErrorMessage());
+            assertEquals(1, result.join().getIssues().size());
+        }
+        assertEquals(SESSIONS, stub.calls.get());
+        assertTrue(stub.maxInFlight.get() <= MAX_CONCURRENT_REQUESTS, "max in flight " + stub.maxInFlight.get());
+        assertTrue(stub.closed);
+    }
+    
+    /**
+     * Answers every prompt after a short delay on its own virtual thread
+     */
+    private static final class StubProvider implements LLMProvider {
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private volatile boolean closed;
+        
+        @Override
+        public String analyze(String prompt, String systemPrompt) {
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+                return RESPONSE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+        
+        @Override
+        public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+            return CompletableFuture.supplyAsync(() -> analyze(prompt, systemPrompt), executor);
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.llm.LLMProvider;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.NetworkTiming;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LLMAnalysisServiceTest {
+    
+    private static final String RESPONSE = """
+        {"summary": "%s", "severity": "LOW", "issues": [], "recommendations": []}""";
+    
+    private static final Pattern BATCH_SECTION = Pattern.compile("=== Session key: (\\w+) ===\\s+Session: (\\S+)");
+    
+    private final GatedProvider provider = new GatedProvider();
+    private LLMAnalysisService service;
+    
+    @AfterEach
+    void shutdown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+    
+    @Test
+    void startsQueuedAnalysesHighestPriorityFirst() {
+        service = singleSlotService(1);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> periodic = service.analyzeEvents(errors("C"), session("C"));
+        CompletableFuture<AnalysisResult> failedTest =
+            service.analyzeEvents(errors("D"), session("D"), AnalysisPriority.FAILED_TEST);
+        CompletableFuture<AnalysisResult> last = service.analyzeEvents(errors("E"), session("E"), AnalysisPriority.FINAL);
+        
+        provider.answer("A");
+        
+        assertEquals("E", provider.answer("E"));
+        assertEquals("D", provider.answer("D"));
+        assertEquals("C", provider.answer("C"));
+        assertEquals("C", periodic.join().getSummary());
+        assertEquals("D", failedTest.join().getSummary());
+        assertEquals("E", last.join().getSummary());
+    }
+    
+    @Test
+    void coalescesAQueuedPeriodicAnalysisIntoANewerOneOfTheSameSession() {
+        service = singleSlotService(1);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> periodic = service.analyzeEvents(errors("B"), session("B"));
+        CompletableFuture<AnalysisResult> newer = service.analyzeEvents(errors("B"), session("B"), AnalysisPriority.FINAL);
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Long> periodicStats = (Map<String, Long>) service.getSchedulerStats().get("periodic");
+        assertEquals(1L, periodicStats.get("coalesced"));
+        assertEquals(0L, periodicStats.get("queued"));
+        
+        provider.answer("A");
+        assertEquals("B", provider.answer("B"));
+        
+        assertSame(newer.join(), periodic.join());
+        assertNull(provider.calls.poll(), "the coalesced analysis must not reach the provider");
+    }
+    
+    @Test
+    void doesNotCoalesceAPeriodicAnalysisThatAlreadyStarted() {
+        service = singleSlotService(1);
+        CompletableFuture<AnalysisResult> running = service.analyzeEvents(errors("B"), session("B"));
+        CompletableFuture<AnalysisResult> newer = service.analyzeEvents(errors("B"), session("B"), AnalysisPriority.FINAL);
+        
+        provider.answer("B-first");
+        provider.answer("B-final");
+        
+        assertEquals("B-first", running.join().getSummary());
+        assertEquals("B-final", newer.join().getSummary());
+    }
+    
+    @Test
+    void fansABatchedAnswerOutBySessionKey() {
+        service = singleSlotService(3);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> b = service.analyzeEvents(errors("B"), session("B"));
+        CompletableFuture<AnalysisResult> c = service.analyzeEvents(errors("C"), session("C"));
+        CompletableFuture<AnalysisResult> d = service.analyzeEvents(errors("D"), session("D"));
+        provider.answer("A");
+        
+        Call batch = provider.calls.poll();
+        assertNotNull(batch);
+        assertEquals(Map.of("S1", "B", "S2", "C", "S3", "D"), batch.sessionKeys());
+        // Keys in a different order than asked; each session must still get its own answer
+        batch.response.complete("{"
+            + "\"S3\": " + String.format(RESPONSE, "for D") + ", "
+            + "\"S1\": " + String.format(RESPONSE, "for B") + ", "
+            + "\"S2\": " + String.format(RESPONSE, "for C") + "}");
+        
+        assertEquals("for B", b.join().getSummary());
+        assertEquals("for C", c.join().getSummary());
+        assertEquals("for D", d.join().getSummary());
+        assertEquals(1L, service.getSchedulerStats().get("batchedCalls"));
+        assertEquals(3L, service.getSchedulerStats().get("batchedAnalyses"));
+    }
+    
+    @Test
+    void failsOnlyTheSessionsMissingFromABatchedAnswer() {
+        service = singleSlotService(2);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> b = service.analyzeEvents(errors("B"), session("B"));
+        CompletableFuture<AnalysisResult> c = service.analyzeEvents(errors("C"), session("C"));
+        provider.answer("A");
+        
+        Call batch = provider.calls.poll();
+        assertNotNull(batch);
+        batch.response.complete("{\"S1\": " + String.format(RESPONSE, "for B") + ", \"S2\": \"not an object\"}");
+        
+        assertEquals("for B", b.join().getSummary());
+        assertTrue(c.join().hasError());
+        assertTrue(c.join().getErrorMessage().contains("S2"), c.join().getErrorMessage());
+    }
+    
+    @Test
+    void failsEverySessionOfAFailedBatchedCall() {
+        service = singleSlotService(2);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> b = service.analyzeEvents(errors("B"), session("B"));
+        CompletableFuture<AnalysisResult> c = service.analyzeEvents(errors("C"), session("C"));
+        provider.answer("A");
+        
+        provider.calls.remove().response.complete("not json");
+        
+        assertTrue(b.join().hasError());
+        assertTrue(c.join().hasError());
+    }
+    
+    @Test
+    void neverBatchesHigherPriorityAnalyses() {
+        service = singleSlotService(4);
+        service.analyzeEvents(errors("A"), session("A"));
+        service.analyzeEvents(errors("B"), session("B"), AnalysisPriority.FAILED_TEST);
+        service.analyzeEvents(errors("C"), session("C"), AnalysisPriority.FAILED_TEST);
+        provider.answer("A");
+        
+        assertEquals("B", provider.answer("B"));
+        assertEquals("C", provider.answer("C"));
+        assertEquals(0L, service.getSchedulerStats().get("batchedCalls"));
+    }
+    
+    @Test
+    void keepsTheRuleFindingsWhenTheLlmCallFails() {
+        service = singleSlotService(1);
+        CompletableFuture<AnalysisResult> result = service.analyzeEvents(withServerError("A"), session("A"));
+        
+        provider.calls.remove().response.completeExceptionally(new IllegalStateException("read timed out"));
+        
+        assertRuleFindingsKept(result.join(), "read timed out");
+    }
+    
+    @Test
+    void keepsTheRuleFindingsWhenTheLlmAnswerIsUnparsable() {
+        service = singleSlotService(1);
+        CompletableFuture<AnalysisResult> result = service.analyzeEvents(withServerError("A"), session("A"));
+        
+        provider.calls.remove().response.complete("not json");
+        
+        assertRuleFindingsKept(result.join(), "Failed to parse analysis response");
+    }
+    
+    @Test
+    void keepsTheRuleFindingsOfAnalysesStillQueuedAtShutdown() {
+        service = singleSlotService(1);
+        service.analyzeEvents(errors("A"), session("A"));
+        CompletableFuture<AnalysisResult> queued = service.analyzeEvents(withServerError("B"), session("B"));
+        
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(service::shutdown);
+        assertRuleFindingsKept(queued.join(), "Analysis service shut down");
+        provider.answer("A");
+        shutdown.join();
+    }
+    
+    @Test
+    void shutdownWaitsForAnAnalysisAlreadySent() throws Exception {
+        service = singleSlotService(1);
+        CompletableFuture<AnalysisResult> sent = service.analyzeEvents(errors("A"), session("A"), AnalysisPriority.FINAL);
+        CompletableFuture<AnalysisResult> queued = service.analyzeEvents(errors("B"), session("B"));
+        
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(service::shutdown);
+        assertTrue(queued.get(5, TimeUnit.SECONDS).hasError());
+        Thread.sleep(50);
+        assertFalse(shutdown.isDone());
+        assertFalse(provider.closed);
+        
+        provider.answer("A");
+        shutdown.get(5, TimeUnit.SECONDS);
+        
+        assertEquals("A", sent.join().getSummary());
+        assertTrue(provider.closed);
+    }
+    
+    /**
+     * A service that sends one LLM call at a time, so queue order is observable
+     */
+    private LLMAnalysisService singleSlotService(int batchMaxSessions) {
+        MonitorConfig config = new MonitorConfig.Builder()
+            .analysisInitialConcurrency(1)
+            .analysisMinConcurrency(1)
+            .analysisMaxConcurrency(1)
+            .analysisBatchMaxSessions(batchMaxSessions)
+            .analysisCacheEnabled(false)
+            .build();
+        return new LLMAnalysisService(config, provider);
+    }
+    
+    private static MonitoringSession session(String name) {
+        return new MonitoringSession("id-" + name, name, null, Instant.now());
+    }
+    
+    private static void assertRuleFindingsKept(AnalysisResult result, String failure) {
+        assertFalse(result.hasError(), result.getErrorMessage());
+        assertEquals(1, result.getIssues().size());
+        assertTrue(result.getIssues().get(0).getTitle().startsWith("Server error 503"), result.getIssues().get(0).getTitle());
+        assertEquals(AnalysisResult.Severity.HIGH, result.getSeverity());
+        assertTrue(result.getSummary().contains("LLM analysis failed"), result.getSummary());
+        assertTrue(result.getSummary().contains(failure), result.getSummary());
+    }
+    
+    /**
+     * A server error the rules report, plus a console error only the LLM can explain
+     */
+    private static List<BrowserEvent> withServerError(String name) {
+        return List.of(
+            BrowserEvent.networkRequest("id-" + name, NetworkTiming.builder()
+                .url("https://api.example.com/orders")
+                .method("GET")
+                .statusCode(503)
+                .latencyMs(20)
+                .build()),
+            BrowserEvent.consoleLog("id-" + name, "ERROR", "Failure in " + name, "app.js"));
+    }
+    
+    private static List<BrowserEvent> errors(String name) {
+        return List.of(BrowserEvent.consoleLog("id-" + name, "ERROR", "Failure in " + name, "app.js"));
+    }
+    
+    /**
+     * Holds every call until the test answers it
+     */
+    private static final class GatedProvider implements LLMProvider {
+        private final LinkedBlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+        
+        /**
+         * Answer the oldest outstanding call with the given summary
+         *
+         * @return Name of the session the call was for
+         */
+        String answer(String summary) {
+            Call call = calls.poll();
+            assertNotNull(call, "no outstanding LLM call");
+            call.response.complete(String.format(RESPONSE, summary));
+            return call.sessionName();
+        }
+        
+        @Override
+        public String analyze(String prompt, String systemPrompt) {
+            return analyzeAsync(prompt, systemPrompt).join();
+        }
+        
+        @Override
+        public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+            Call call = new Call(prompt);
+            calls.add(call);
+            return call.response;
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    private static final class Call {
+        private final String prompt;
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+        
+        private Call(String prompt) {
+            this.prompt = prompt;
+        }
+        
+        /**
+         * Session name under each batch key of a batched prompt
+         */
+        private Map<String, String> sessionKeys() {
+            Map<String, String> keys = new HashMap<>();
+            Matcher matcher = BATCH_SECTION.matcher(prompt);
+            while (matcher.find()) {
+                keys.put(matcher.group(1), matcher.group(2));
+            }
+            return keys;
+        }
+        
+        private String sessionName() {
+            int start = prompt.indexOf("Session: ") + "Session: ".length();
+            assertTrue(start >= "Session: ".length(), prompt);
+            return prompt.substring(start, prompt.indexOf('\n', start));
+        }
+    }
+}
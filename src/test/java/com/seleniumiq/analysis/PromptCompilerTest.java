@@ -0,0 +1,144 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptCompilerTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T10:00:00Z");
+    private static final String SESSION = "Checkout flow";
+    
+    @Test
+    void collapsesEventsThatOnlyDifferInVolatilePartsIntoOneCountedLine() {
+        List<BrowserEvent> events = List.of(
+            event("console", "ERROR", "Checkout flow: GET /api/orders/101 failed after 120ms", 2),
+            event("console", "ERROR", "Checkout flow: GET /api/orders/202 failed after 340ms", 0),
+            event("console", "ERROR", "Checkout flow: GET /api/orders/303 failed after 95ms", 5),
+            event("console", "ERROR", "Checkout flow: POST /api/orders/404 failed after 95ms", 1));
+        
+        PromptCompiler.Sections sections = compiler(10_000).compile(events, SESSION);
+        
+        assertEquals("- console: 4 events\n", sections.getSummary());
+        assertEquals(
+            "[2024-05-01T10:00:00Z] console: Checkout flow: GET /api/orders/101 failed after 120ms"
+                + " x3 (last at 2024-05-01T10:00:05Z)\n  Level: ERROR\n\n"
+                + "[2024-05-01T10:00:01Z] console: Checkout flow: POST /api/orders/404 failed after 95ms\n"
+                + "  Level: ERROR\n\n",
+            sections.getDetails());
+    }
+    
+    @Test
+    void keepsTheMostSevereThenTheRarestGroupsWithinTheBudget() {
+        List<BrowserEvent> info = List.of(event("console", "INFO", "Loaded widgets", 0));
+        List<BrowserEvent> frequentWarning = repeat("console", "WARN", "Slow image decode", 1, 5);
+        List<BrowserEvent> rareWarning = List.of(event("console", "WARN", "Deprecated API used", 2));
+        List<BrowserEvent> errors = repeat("console", "ERROR", "Payment form crashed", 3, 3);
+        int budget = tokens(errors) + tokens(rareWarning);
+        
+        List<BrowserEvent> events = new ArrayList<>();
+        events.addAll(info);
+        events.addAll(frequentWarning);
+        events.addAll(rareWarning);
+        events.addAll(errors);
+        String details = compiler(budget).compile(events, SESSION).getDetails();
+        
+        assertTrue(details.contains("Payment form crashed x3"), details);
+        assertTrue(details.contains("Deprecated API used"), details);
+        assertFalse(details.contains("Slow image decode"), details);
+        assertFalse(details.contains("Loaded widgets"), details);
+        assertTrue(details.endsWith("... and 6 more lower-ranked events (2 distinct) left out\n"), details);
+    }
+    
+    @Test
+    void prefersTheEarlierOfTwoEquallyRankedGroups() {
+        List<BrowserEvent> later = List.of(event("console", "ERROR", "Cart total mismatch", 7));
+        List<BrowserEvent> earlier = List.of(event("console", "ERROR", "Coupon rejected", 3));
+        List<BrowserEvent> events = new ArrayList<>(later);
+        events.addAll(earlier);
+        
+        String details = compiler(tokens(earlier)).compile(events, SESSION).getDetails();
+        
+        assertTrue(details.contains("Coupon rejected"), details);
+        assertFalse(details.contains("Cart total mismatch"), details);
+        assertTrue(details.endsWith("... and 1 more lower-ranked events (1 distinct) left out\n"), details);
+    }
+    
+    @Test
+    void alwaysIncludesTheTopRankedGroupEvenOverBudget() {
+        List<BrowserEvent> events = List.of(
+            event("console", "INFO", "Loaded widgets", 0),
+            event("javascript-exception", "WARN", "TypeError: cannot read properties of undefined", 1));
+        
+        String details = compiler(1).compile(events, SESSION).getDetails();
+        
+        assertTrue(details.startsWith("[2024-05-01T10:00:01Z] javascript-exception: TypeError"), details);
+        assertTrue(details.endsWith("... and 1 more lower-ranked events (1 distinct) left out\n"), details);
+    }
+    
+    @Test
+    void printsTheChosenLinesInTimeOrderRatherThanRankOrder() {
+        List<BrowserEvent> events = List.of(
+            event("console", "ERROR", "Payment form crashed", 30),
+            event("console", "INFO", "Loaded widgets", 10),
+            event("console", "WARN", "Deprecated API used", 20));
+        
+        String details = compiler(10_000).compile(events, SESSION).getDetails();
+        
+        int info = details.indexOf("Loaded widgets");
+        int warning = details.indexOf("Deprecated API used");
+        int error = details.indexOf("Payment form crashed");
+        assertTrue(info >= 0 && info < warning && warning < error, details);
+        assertFalse(details.contains("left out"), details);
+    }
+    
+    @Test
+    void estimatesOneTokenPerFourLetterOrDigitCharactersAndOnePerSymbol() {
+        assertEquals(0, PromptCompiler.estimateTokens(""));
+        assertEquals(0, PromptCompiler.estimateTokens(" \n\t "));
+        assertEquals(1, PromptCompiler.estimateTokens("abcd"));
+        assertEquals(2, PromptCompiler.estimateTokens("abcde"));
+        assertEquals(2, PromptCompiler.estimateTokens("a b"));
+        assertEquals(3, PromptCompiler.estimateTokens("{}\""));
+        // https : / / example . com / api
+        assertEquals(11, PromptCompiler.estimateTokens("https://example.com/api"));
+    }
+    
+    private static PromptCompiler compiler(int tokenBudget) {
+        return new PromptCompiler(tokenBudget, Duration.ofSeconds(5));
+    }
+    
+    /**
+     * Tokens of the events' lines when they are compiled on their own
+     */
+    private static int tokens(List<BrowserEvent> events) {
+        return PromptCompiler.estimateTokens(compiler(Integer.MAX_VALUE).compile(events, SESSION).getDetails());
+    }
+    
+    private static List<BrowserEvent> repeat(String type, String level, String message, int atSecond, int times) {
+        List<BrowserEvent> events = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            events.add(event(type, level, message, atSecond + i * 10));
+        }
+        return events;
+    }
+    
+    private static BrowserEvent event(String type, String level, String message, int atSecond) {
+        return new BrowserEvent.Builder()
+            .sessionId("session")
+            .type(type)
+            .level(level)
+            .message(message)
+            .timestamp(BASE.plusSeconds(atSecond))
+            .build();
+    }
+}
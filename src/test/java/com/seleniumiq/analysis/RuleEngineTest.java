@@ -0,0 +1,105 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.NetworkTiming;
+import com.seleniumiq.model.Suggestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleEngineTest {
+    
+    @Test
+    void dispatchesEachEventOnlyToRulesForItsType() {
+        List<String> seen = new ArrayList<>();
+        RuleEngine engine = new RuleEngine(List.of(
+            recording("network-rule", Set.of("network"), seen),
+            recording("console-rule", Set.of("console"), seen),
+            recording("any-rule", Set.of(), seen)));
+        
+        engine.evaluate(List.of(network(200, 10), console("hello")));
+        
+        assertEquals(List.of("network-rule:network", "any-rule:network", "console-rule:console", "any-rule:console"), seen);
+    }
+    
+    @Test
+    void runsRulesForAllTypesOnUnknownAndMissingTypes() {
+        List<String> seen = new ArrayList<>();
+        RuleEngine engine = new RuleEngine(List.of(
+            recording("network-rule", Set.of("network"), seen),
+            recording("any-rule", Set.of(), seen)));
+        
+        engine.evaluate(List.of(
+            BrowserEvent.performanceMetric("session", "load", 5L),
+            new BrowserEvent.Builder().message("untyped").build()));
+        
+        assertEquals(List.of("any-rule:performance", "any-rule:null"), seen);
+    }
+    
+    @Test
+    void foldsRepeatedFindingsAndKeepsUnmatchedEvents() {
+        RuleEngine engine = new RuleEngine(BuiltInRules.defaults(Duration.ofSeconds(1)));
+        BrowserEvent ok = network(200, 10);
+        BrowserEvent info = console("all good");
+        
+        RuleEngine.Result result = engine.evaluate(List.of(network(503, 10), ok, network(503, 20), info));
+        
+        assertEquals(1, result.getIssues().size());
+        Suggestion.Issue issue = result.getIssues().get(0);
+        assertEquals("Server error 503 from https://api.example.com/orders/<id>", issue.getTitle());
+        assertTrue(issue.getDescription().endsWith("(seen 2 times)"), issue.getDescription());
+        assertEquals(Suggestion.Priority.HIGH, issue.getPriority());
+        assertEquals(List.of(ok, info), result.getUnmatchedEvents());
+    }
+    
+    @Test
+    void reportsEveryRuleThatMatchesAnEvent() {
+        RuleEngine engine = new RuleEngine(BuiltInRules.defaults(Duration.ofMillis(500)));
+        
+        RuleEngine.Result result = engine.evaluate(List.of(network(500, 2_000)));
+        
+        assertEquals(2, result.getIssues().size());
+        assertTrue(result.getUnmatchedEvents().isEmpty());
+    }
+    
+    @Test
+    void withRuleLeavesTheOriginalEngineUnchanged() {
+        RuleEngine empty = new RuleEngine(List.of());
+        RuleEngine extended = empty.withRule(BuiltInRules.mixedContent());
+        BrowserEvent mixed = console("Mixed Content: The page was loaded over HTTPS, but requested an insecure "
+            + "image 'http://cdn.example.com/logo.png?v=2'.");
+        
+        assertFalse(empty.evaluate(List.of(mixed)).hasIssues());
+        RuleEngine.Result result = extended.evaluate(List.of(mixed));
+        assertEquals("Mixed content: insecure image http://cdn.example.com/logo.png",
+            result.getIssues().get(0).getTitle());
+    }
+    
+    private static AnalysisRule recording(String name, Set<String> types, List<String> seen) {
+        return AnalysisRule.of(name, types, event -> {
+            seen.add(name + ":" + event.getType());
+            return null;
+        });
+    }
+    
+    private static BrowserEvent network(int status, double latencyMs) {
+        return BrowserEvent.networkRequest("session", NetworkTiming.builder()
+            .url("https://api.example.com/orders/" + (int) latencyMs + "?page=1")
+            .method("GET")
+            .statusCode(status)
+            .latencyMs(latencyMs)
+            .build());
+    }
+    
+    private static BrowserEvent console(String message) {
+        return BrowserEvent.consoleLog("session", "WARN", message, "test");
+    }
+}
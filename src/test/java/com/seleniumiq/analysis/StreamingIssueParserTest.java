@@ -0,0 +1,120 @@
+package com.seleniumiq.analysis;
+
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingIssueParserTest {
+    
+    // A fenced answer whose strings hold quotes, escapes, brackets, braces and the word "issues"
+    private static final String ANSWER = String.join("\n",
+        "Here is what I found:",
+        "```json",
+        "{",
+        "  \"summary\": \"Two issues: a \\\"500\\\" on [orders] and a {broken} script\",",
+        "  \"recommendations\": [{\"category\": \"issues\", \"recommendation\": \"Retry\"}],",
+        "  \"issues\": [",
+        "    {\"type\": \"network\", \"title\": \"Orders API fails\",",
+        "     \"description\": \"POST /orders returns 500 with \\\\ and \\\"boom\\\"\",",
+        "     \"steps\": [[\"open\", \"cart\"], [\"submit\"]], \"priority\": \"high\"},",
+        "    {\"type\": \"console\", \"title\": \"Caf\\u00e9 widget \\\"}\\\" crash\",",
+        "     \"description\": \"} ] are not the end\", \"details\": {\"nested\": [1, {\"x\": []}]}, \"priority\": \"low\"}",
+        "  ],",
+        "  \"notes\": [{\"title\": \"not an issue\"}]",
+        "}",
+        "```");
+    
+    private static final List<String> TITLES = List.of("Orders API fails", "Café widget \"}\" crash");
+    
+    private final List<Suggestion.Issue> issues = new ArrayList<>();
+    
+    @Test
+    void parsesTheIssuesOfAFencedAnswerFedAtOnce() {
+        StreamingIssueParser parser = parser();
+        parser.accept(ANSWER);
+        
+        assertEquals(TITLES, titles());
+        assertEquals(2, parser.getEmittedCount());
+        Suggestion.Issue first = issues.get(0);
+        assertEquals("network", first.getType());
+        assertEquals("POST /orders returns 500 with \\ and \"boom\"", first.getDescription());
+        assertEquals("[[\"open\",\"cart\"],[\"submit\"]]", first.getImpact());
+        assertEquals(Suggestion.Priority.HIGH, first.getPriority());
+        assertEquals("} ] are not the end", issues.get(1).getDescription());
+        assertEquals(Suggestion.Priority.LOW, issues.get(1).getPriority());
+    }
+    
+    @Test
+    void givesTheSameIssuesWhereverTheAnswerIsSplit() {
+        // Every split point, which includes the middle of strings, escapes, nested arrays and objects
+        for (int split = 0; split <= ANSWER.length(); split++) {
+            issues.clear();
+            StreamingIssueParser parser = parser();
+            parser.accept(ANSWER.substring(0, split));
+            parser.accept(ANSWER.substring(split));
+            
+            assertEquals(TITLES, titles(), "split at " + split);
+        }
+    }
+    
+    @Test
+    void givesTheSameIssuesWhenFedOneCharacterAtATime() {
+        StreamingIssueParser parser = parser();
+        for (int i = 0; i < ANSWER.length(); i++) {
+            parser.accept(ANSWER.substring(i, i + 1));
+        }
+        
+        assertEquals(TITLES, titles());
+    }
+    
+    @Test
+    void emitsEachIssueAsSoonAsItsObjectCloses() {
+        StreamingIssueParser parser = parser();
+        int firstEnd = ANSWER.indexOf("\"priority\": \"high\"}") + "\"priority\": \"high\"}".length();
+        
+        parser.accept(ANSWER.substring(0, firstEnd - 1));
+        assertEquals(0, issues.size());
+        parser.accept(ANSWER.substring(firstEnd - 1, firstEnd));
+        assertEquals(List.of(TITLES.get(0)), titles());
+        
+        parser.accept(ANSWER.substring(firstEnd));
+        assertEquals(TITLES, titles());
+    }
+    
+    @Test
+    void skipsAnIssueThatDoesNotParseAndKeepsGoing() {
+        StreamingIssueParser parser = parser();
+        parser.accept("{\"issues\": [{\"title\": \"bad\", \"priority\": \"urgent\"}, {\"title\": \"good\"}]}");
+        
+        assertEquals(List.of("good"), titles());
+        assertEquals(1, parser.getEmittedCount());
+    }
+    
+    private StreamingIssueParser parser() {
+        return new StreamingIssueParser(new ObjectMapper(), StreamingIssueParserTest::parseIssue, issues::add);
+    }
+    
+    private List<String> titles() {
+        return issues.stream().map(Suggestion.Issue::getTitle).collect(Collectors.toList());
+    }
+    
+    private static Suggestion.Issue parseIssue(JsonNode node) {
+        return Suggestion.Issue.builder()
+            .type(node.path("type").asText("unknown"))
+            .title(node.path("title").asText())
+            .description(node.path("description").asText())
+            .impact(node.path("steps").toString())
+            .priority(node.has("priority")
+                ? Suggestion.Priority.valueOf(node.get("priority").asText().toUpperCase())
+                : Suggestion.Priority.MEDIUM)
+            .build();
+    }
+}
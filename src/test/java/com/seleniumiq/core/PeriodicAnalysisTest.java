@@ -0,0 +1,189 @@
+package com.seleniumiq.core;
+
+import com.seleniumiq.analysis.AnalysisPriority;
+import com.seleniumiq.analysis.LLMAnalysisService;
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.events.BiDiEventCollector;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PeriodicAnalysisTest {
+    
+    private static final MonitoringSession SESSION = new MonitoringSession("session", "Checkout", null, Instant.now());
+    
+    private final BiDiEventCollector collector = mock(BiDiEventCollector.class);
+    private final LLMAnalysisService analysisService = mock(LLMAnalysisService.class);
+    private final List<List<BrowserEvent>> submitted = new ArrayList<>();
+    private final List<CompletableFuture<AnalysisResult>> analyses = new ArrayList<>();
+    // Sequences of events at ERROR level; all others are INFO
+    private Set<Long> errors = Set.of();
+    
+    @BeforeEach
+    void stubCollaborators() {
+        when(collector.getEventsSince(anyString(), anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            long to = invocation.getArgument(2);
+            List<BrowserEvent> events = new ArrayList<>();
+            for (long sequence = from; sequence < to; sequence++) {
+                events.add(BrowserEvent.consoleLog(SESSION.getId(), errors.contains(sequence) ? "ERROR" : "INFO",
+                    "event " + sequence, "app.js"));
+            }
+            return events;
+        });
+        when(analysisService.hasSignificantEvents(anyList())).thenAnswer(invocation -> {
+            List<BrowserEvent> events = invocation.getArgument(0);
+            return events.stream().anyMatch(event -> "ERROR".equals(event.getLevel()));
+        });
+        when(analysisService.analyzeEvents(anyList(), any(), eq(AnalysisPriority.PERIODIC))).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(0));
+            CompletableFuture<AnalysisResult> analysis = new CompletableFuture<>();
+            analyses.add(analysis);
+            return analysis;
+        });
+    }
+    
+    @Test
+    void analyzesNewEventsOldestFirstAndAdvancesTheWatermarkOnSuccess() {
+        PeriodicAnalysis analysis = periodicAnalysis(false, 10);
+        events(25);
+        
+        for (int tick = 0; tick < 3; tick++) {
+            analysis.analyzeNewEvents(SESSION);
+            succeed(tick);
+        }
+        
+        assertEquals(List.of(range(0, 10), range(10, 20), range(20, 25)), submittedMessages());
+        assertEquals(25, analysis.getWatermark(SESSION.getId()));
+    }
+    
+    @Test
+    void keepsTheWatermarkWhenTheAnalysisFails() {
+        PeriodicAnalysis analysis = periodicAnalysis(false, 10);
+        events(5);
+        
+        analysis.analyzeNewEvents(SESSION);
+        analyses.get(0).complete(AnalysisResult.error("LLM unavailable"));
+        assertEquals(0, analysis.getWatermark(SESSION.getId()));
+        
+        analysis.analyzeNewEvents(SESSION);
+        analyses.get(1).completeExceptionally(new IllegalStateException("Analysis service shut down"));
+        assertEquals(0, analysis.getWatermark(SESSION.getId()));
+        
+        // The same events are retried on the next tick
+        analysis.analyzeNewEvents(SESSION);
+        succeed(2);
+        assertEquals(List.of(range(0, 5), range(0, 5), range(0, 5)), submittedMessages());
+        assertEquals(5, analysis.getWatermark(SESSION.getId()));
+    }
+    
+    @Test
+    void skipsSessionsWithNoNewEvents() {
+        PeriodicAnalysis analysis = periodicAnalysis(false, 10);
+        events(0);
+        
+        analysis.analyzeNewEvents(SESSION);
+        
+        verify(collector, never()).getEventsSince(anyString(), anyLong(), anyLong(), anyInt());
+        assertEquals(0, submitted.size());
+    }
+    
+    @Test
+    void skipsSessionsWhoseAnalysisIsStillRunning() {
+        PeriodicAnalysis analysis = periodicAnalysis(false, 10);
+        events(5);
+        analysis.analyzeNewEvents(SESSION);
+        
+        events(8);
+        analysis.analyzeNewEvents(SESSION);
+        assertEquals(1, submitted.size());
+        
+        succeed(0);
+        analysis.analyzeNewEvents(SESSION);
+        assertEquals(List.of(range(0, 5), range(5, 8)), submittedMessages());
+    }
+    
+    @Test
+    void passesOverLowSeverityBatchesUpToTheNextSignificantOne() {
+        PeriodicAnalysis analysis = periodicAnalysis(true, 10);
+        errors = Set.of(23L);
+        events(40);
+        
+        analysis.analyzeNewEvents(SESSION);
+        
+        // The significant batch is found in the same tick, wherever it is in the range
+        assertEquals(List.of(range(20, 30)), submittedMessages());
+        assertEquals(20, analysis.getWatermark(SESSION.getId()));
+        succeed(0);
+        assertEquals(30, analysis.getWatermark(SESSION.getId()));
+        
+        // The remaining low-severity events are skipped without an analysis
+        analysis.analyzeNewEvents(SESSION);
+        assertEquals(1, submitted.size());
+        assertEquals(40, analysis.getWatermark(SESSION.getId()));
+    }
+    
+    @Test
+    void startsFromTheOldestEventStillInMemory() {
+        PeriodicAnalysis analysis = periodicAnalysis(false, 10);
+        events(1_000);
+        
+        analysis.analyzeNewEvents(SESSION);
+        
+        // The buffer holds 64 events
+        assertEquals(List.of(range(936, 946)), submittedMessages());
+    }
+    
+    private PeriodicAnalysis periodicAnalysis(boolean skipLowSeverity, int batchSize) {
+        MonitorConfig config = new MonitorConfig.Builder()
+            .skipLowSeverityAnalysis(skipLowSeverity)
+            .batchSize(batchSize)
+            .eventBufferCapacity(64)
+            .build();
+        return new PeriodicAnalysis(config, collector, analysisService);
+    }
+    
+    private void events(long captured) {
+        when(collector.getEventSequence(SESSION.getId())).thenReturn(captured);
+    }
+    
+    private void succeed(int analysis) {
+        analyses.get(analysis).complete(AnalysisResult.empty("No issues"));
+    }
+    
+    private List<List<String>> submittedMessages() {
+        return submitted.stream()
+            .map(events -> events.stream().map(BrowserEvent::getMessage).collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    }
+    
+    private static List<String> range(int from, int to) {
+        List<String> messages = new ArrayList<>();
+        for (int sequence = from; sequence < to; sequence++) {
+            messages.add("event " + sequence);
+        }
+        return messages;
+    }
+}
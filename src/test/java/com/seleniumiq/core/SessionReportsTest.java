@@ -0,0 +1,92 @@
+package com.seleniumiq.core;
+
+import com.seleniumiq.analysis.AnalysisPriority;
+import com.seleniumiq.analysis.LLMAnalysisService;
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.events.BiDiEventCollector;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.reporting.ReportGenerator;
+import com.seleniumiq.reporting.SessionSummary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionReportsTest {
+    
+    private static final MonitoringSession SESSION = new MonitoringSession("session", "Checkout", null, Instant.now());
+    
+    private final BiDiEventCollector collector = mock(BiDiEventCollector.class);
+    private final LLMAnalysisService analysisService = mock(LLMAnalysisService.class);
+    private final ReportGenerator reportGenerator = mock(ReportGenerator.class);
+    private final SessionSummary summary = new SessionSummary();
+    private final CompletableFuture<AnalysisResult> analysis = new CompletableFuture<>();
+    private final SessionReports reports = new SessionReports(new MonitorConfig.Builder().build(), collector,
+        analysisService, reportGenerator);
+    
+    @BeforeEach
+    void stubCollaborators() {
+        when(collector.getRecentEvents(eq(SESSION.getId()), anyInt()))
+            .thenReturn(List.of(BrowserEvent.consoleLog(SESSION.getId(), "ERROR", "boom", "app.js")));
+        when(collector.getSessionSummary(SESSION.getId())).thenReturn(summary);
+        when(analysisService.analyzeEvents(anyList(), eq(SESSION), eq(AnalysisPriority.FINAL))).thenReturn(analysis);
+        when(reportGenerator.submitSessionReport(eq(SESSION), any(), any(), eq(summary)))
+            .thenReturn(CompletableFuture.completedFuture(null));
+    }
+    
+    @Test
+    void reportsWithTheFinalAnalysisOnceItCompletes() {
+        reports.report(SESSION);
+        AnalysisResult result = AnalysisResult.builder().summary("One failure").build();
+        analysis.complete(result);
+        
+        reports.awaitPending(Duration.ofSeconds(5));
+        
+        verify(reportGenerator).foldSession(summary, result);
+        verify(reportGenerator).submitSessionReport(eq(SESSION), any(), eq(result), eq(summary));
+        verify(collector).releaseSession(SESSION.getId());
+        assertEquals(0, reports.getPendingCount());
+    }
+    
+    @Test
+    void reportsWithoutTheAnalysisWhenShutdownCannotWaitForIt() {
+        reports.report(SESSION);
+        
+        reports.awaitPending(Duration.ofMillis(50));
+        
+        // Queued before the report writer shuts down, and the analysis is no longer needed
+        verify(reportGenerator).foldSession(eq(summary), isNull());
+        verify(reportGenerator).submitSessionReport(eq(SESSION), any(), isNull(), eq(summary));
+        verify(collector).releaseSession(SESSION.getId());
+        assertTrue(analysis.isCancelled());
+        assertEquals(0, reports.getPendingCount());
+    }
+    
+    @Test
+    void reportsWithoutTheAnalysisWhenItFails() {
+        reports.report(SESSION);
+        analysis.completeExceptionally(new IllegalStateException("LLM unavailable"));
+        
+        reports.awaitPending(Duration.ofSeconds(5));
+        
+        verify(reportGenerator).submitSessionReport(eq(SESSION), any(), isNull(), eq(summary));
+        assertEquals(0, reports.getPendingCount());
+    }
+}
@@ -0,0 +1,371 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.NetworkTiming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrowserEventCodecTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T10:00:00Z");
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void roundTripsEveryEventType() {
+        List<BrowserEvent> events = List.of(
+            BrowserEvent.consoleLog("session-1", "WARN", "Deprecated API used", "app.js:12"),
+            BrowserEvent.networkRequest("session-1", completedTiming()),
+            BrowserEvent.networkFailure("session-1", failedTiming()),
+            BrowserEvent.javascriptException("session-1", "TypeError: x is undefined", "at f (app.js:3:7)"),
+            BrowserEvent.performanceMetric("session-1", "dom-content-loaded", 1234L));
+        
+        List<BrowserEvent> decoded = roundTrip(events);
+        
+        for (int i = 0; i < events.size(); i++) {
+            assertSameEvent(events.get(i), decoded.get(i));
+        }
+    }
+    
+    @Test
+    void roundTripsNullFields() {
+        BrowserEvent event = new BrowserEvent.Builder()
+            .id("not-a-sequence-id")
+            .timestamp(BASE.plusMillis(5))
+            .build();
+        
+        BrowserEvent decoded = roundTrip(List.of(event)).get(0);
+        
+        assertEquals("not-a-sequence-id", decoded.getId());
+        assertNull(decoded.getSessionId());
+        assertNull(decoded.getType());
+        assertNull(decoded.getLevel());
+        assertNull(decoded.getSource());
+        assertNull(decoded.getMessage());
+        assertNull(decoded.getDetails());
+        assertNull(decoded.getMetadata());
+    }
+    
+    @Test
+    void roundTripsMetadataValues() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("int", 7);
+        metadata.put("long", -9_000_000_000L);
+        metadata.put("double", 1.5);
+        metadata.put("flag", true);
+        metadata.put("text", "value");
+        metadata.put("missing", null);
+        metadata.put("short", (short) -300);
+        metadata.put("byte", (byte) 42);
+        metadata.put("float", 0.1f);
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("frames", List.of("app.js:3", "vendor.js:97"));
+        nested.put("depth", 2);
+        nested.put("empty", Map.of());
+        metadata.put("stack", nested);
+        metadata.put("matrix", List.of(List.of(1, 2L), List.of(), Arrays.asList(null, true)));
+        BrowserEvent event = new BrowserEvent.Builder()
+            .sessionId("session-1")
+            .type("custom")
+            .metadata(metadata)
+            .timestamp(BASE)
+            .build();
+        
+        Map<String, Object> decoded = roundTrip(List.of(event)).get(0).getMetadata();
+        
+        assertEquals(metadata, decoded);
+        assertInstanceOf(Short.class, decoded.get("short"));
+        assertInstanceOf(Byte.class, decoded.get("byte"));
+        assertInstanceOf(Float.class, decoded.get("float"));
+        assertInstanceOf(Long.class, ((List<?>) ((List<?>) decoded.get("matrix")).get(0)).get(1));
+    }
+    
+    @Test
+    void storesOtherMetadataValuesAsTheirNearestSupportedType() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("decimal", new BigDecimal("12.25"));
+        metadata.put("big", BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE));
+        metadata.put("set", new LinkedHashSet<>(List.of("a", "b")));
+        metadata.put("numberKeys", Map.of(1, "one"));
+        metadata.put("instant", BASE);
+        metadata.put("char", 'x');
+        BrowserEvent event = new BrowserEvent.Builder()
+            .type("custom")
+            .metadata(metadata)
+            .timestamp(BASE)
+            .build();
+        
+        Map<String, Object> decoded = roundTrip(List.of(event)).get(0).getMetadata();
+        
+        // Arbitrary-precision numbers become doubles, collections lists, map keys strings, anything else a string
+        assertEquals(12.25, decoded.get("decimal"));
+        assertEquals(9.223372036854776E18, decoded.get("big"));
+        assertEquals(List.of("a", "b"), decoded.get("set"));
+        assertEquals(Map.of("1", "one"), decoded.get("numberKeys"));
+        assertEquals("2024-05-01T10:00:00Z", decoded.get("instant"));
+        assertEquals("x", decoded.get("char"));
+    }
+    
+    @Test
+    void decodesTimestampsBeforeTheBase() {
+        BrowserEvent early = new BrowserEvent.Builder()
+            .type("console")
+            .timestamp(BASE.minus(Duration.ofHours(3)).plusNanos(17))
+            .build();
+        BrowserEvent late = new BrowserEvent.Builder()
+            .type("console")
+            .timestamp(BASE.plus(Duration.ofDays(2)))
+            .build();
+        
+        List<BrowserEvent> decoded = roundTrip(List.of(late, early));
+        
+        assertEquals(late.getTimestamp(), decoded.get(0).getTimestamp());
+        assertEquals(early.getTimestamp(), decoded.get(1).getTimestamp());
+    }
+    
+    @Test
+    void reusesDictionaryEntriesAcrossBlocks() {
+        BrowserEventCodec.Encoder encoder = BrowserEventCodec.encoder(BASE);
+        BrowserEventCodec.Output first = new BrowserEventCodec.Output(256);
+        BrowserEventCodec.Output second = new BrowserEventCodec.Output(256);
+        BrowserEvent event = BrowserEvent.networkRequest("session-1", completedTiming());
+        encoder.encode(event, first);
+        encoder.encode(BrowserEvent.networkRequest("session-1", completedTiming()), second);
+        
+        // The second block only references session, type, level, URL, method and MIME type
+        assertTrue(second.size() < first.size() / 2, second.size() + " vs " + first.size());
+        
+        BrowserEventCodec.Decoder decoder = BrowserEventCodec.decoder(BASE);
+        decoder.decode(ByteBuffer.wrap(first.array(), 0, first.size()));
+        BrowserEvent decoded = decoder.decode(ByteBuffer.wrap(second.array(), 0, second.size()));
+        assertEquals(event.getSource(), decoded.getSource());
+        assertEquals(event.getSessionId(), decoded.getSessionId());
+    }
+    
+    @Test
+    void keepsNetworkTimingStructured() {
+        BrowserEvent decoded = roundTrip(List.of(BrowserEvent.networkFailure("session-1", failedTiming()))).get(0);
+        
+        NetworkTiming timing = assertInstanceOf(NetworkTiming.class, decoded.getContent());
+        assertTrue(timing.isFailed());
+        assertEquals("net::ERR_CONNECTION_RESET", timing.getErrorText());
+        assertEquals(0, timing.getStatusCode());
+        assertEquals(31.5, timing.getLatencyMs());
+        assertEquals(-1, timing.getTtfbMs());
+        assertEquals(-1, timing.getTransferSize());
+        assertEquals("Network request failed: net::ERR_CONNECTION_RESET", decoded.getMessage());
+    }
+    
+    @Test
+    void encodesNetworkEventsFarSmallerThanJson() throws Exception {
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+        BrowserEventCodec.Encoder encoder = BrowserEventCodec.encoder(BASE);
+        BrowserEventCodec.Output out = new BrowserEventCodec.Output(1 << 16);
+        long jsonBytes = 0;
+        for (int i = 0; i < 1000; i++) {
+            BrowserEvent event = BrowserEvent.networkRequest("session-1", NetworkTiming.builder()
+                .requestId("r" + i)
+                .url("https://api.example.com/orders")
+                .method("GET")
+                .statusCode(200)
+                .mimeType("application/json")
+                .latencyMs(i % 90)
+                .transferSize(1024)
+                .build());
+            encoder.encode(event, out);
+            jsonBytes += json.writeValueAsBytes(event).length;
+        }
+        
+        assertTrue(out.size() * 5 < jsonBytes, out.size() + " bytes encoded vs " + jsonBytes + " as JSON");
+    }
+    
+    @Test
+    void encodesAndDecodesFasterThanJson() throws Exception {
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<BrowserEvent> events = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            events.add(BrowserEvent.consoleLog("session-1", i % 3 == 0 ? "ERROR" : "INFO",
+                "message " + i, "https://cdn.example.com/app.js"));
+        }
+        
+        // Best of several rounds, after the first ones warmed both paths up
+        long codecNanos = Long.MAX_VALUE;
+        long jsonNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 15; round++) {
+            long started = System.nanoTime();
+            assertEquals(events.size(), roundTripCount(events));
+            codecNanos = Math.min(codecNanos, System.nanoTime() - started);
+            
+            started = System.nanoTime();
+            int decoded = 0;
+            for (BrowserEvent event : events) {
+                json.readValue(json.writeValueAsBytes(event), BrowserEvent.class);
+                decoded++;
+            }
+            assertEquals(events.size(), decoded);
+            jsonNanos = Math.min(jsonNanos, System.nanoTime() - started);
+        }
+        
+        double codecPerSecond = events.size() * 1e9 / codecNanos;
+        double jsonPerSecond = events.size() * 1e9 / jsonNanos;
+        assertTrue(codecPerSecond > jsonPerSecond, String.format(
+            "%.0f events/s through the codec vs %.0f events/s through JSON", codecPerSecond, jsonPerSecond));
+    }
+    
+    @Test
+    void roundTripsUncompressedSpillSegments() {
+        assertSpillRoundTrip(BrowserEventCodec.Compression.NONE);
+    }
+    
+    @Test
+    void roundTripsDeflatedSpillSegments() {
+        assertSpillRoundTrip(BrowserEventCodec.Compression.DEFLATE);
+    }
+    
+    private void assertSpillRoundTrip(BrowserEventCodec.Compression compression) {
+        EventSpillLog spillLog = new EventSpillLog(directory.resolve(compression.name()), BASE, compression, 1 << 16);
+        List<BrowserEvent> events = new ArrayList<>();
+        // Several 64KB blocks
+        for (int i = 0; i < 5_000; i++) {
+            BrowserEvent event = i % 2 == 0
+                ? BrowserEvent.consoleLog("session-1", "INFO", "message " + i + " " + "x".repeat(i % 50), "app.js")
+                : BrowserEvent.networkRequest("session-1", completedTiming());
+            events.add(event);
+            spillLog.offer(i, event);
+        }
+        
+        List<BrowserEvent> decoded;
+        try (Stream<BrowserEvent> stream = spillLog.stream()) {
+            decoded = stream.collect(Collectors.toList());
+        }
+        spillLog.delete();
+        
+        assertEquals(events.size(), decoded.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertSameEvent(events.get(i), decoded.get(i));
+        }
+    }
+    
+    @Test
+    void roundTripsJournalAcrossSegments() throws Exception {
+        MonitoringSession session = new MonitoringSession("journal-session", "Journal test", null, BASE);
+        EventJournal journal = EventJournal.open(directory, session, 8 * 1024);
+        List<BrowserEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            BrowserEvent event = i % 3 == 0
+                ? BrowserEvent.networkFailure(session.getId(), failedTiming())
+                : BrowserEvent.consoleLog(session.getId(), "ERROR", "failure " + i, "app.js");
+            events.add(event);
+            journal.append(event);
+        }
+        
+        JournalRecovery.RecoveredSession recovered = JournalRecovery.read(journal.getDirectory());
+        
+        assertEquals(session.getId(), recovered.getSession().getId());
+        assertEquals(events.size(), recovered.getEventCount());
+        List<BrowserEvent> decoded = recovered.getEvents();
+        for (int i = 0; i < events.size(); i++) {
+            assertSameEvent(events.get(i), decoded.get(i));
+        }
+        journal.delete();
+    }
+    
+    private static int roundTripCount(List<BrowserEvent> events) {
+        BrowserEventCodec.Encoder encoder = BrowserEventCodec.encoder(BASE);
+        BrowserEventCodec.Output out = new BrowserEventCodec.Output(1 << 16);
+        for (BrowserEvent event : events) {
+            encoder.encode(event, out);
+        }
+        BrowserEventCodec.Decoder decoder = BrowserEventCodec.decoder(BASE);
+        ByteBuffer in = ByteBuffer.wrap(out.array(), 0, out.size());
+        int decoded = 0;
+        while (in.hasRemaining()) {
+            decoder.decode(in);
+            decoded++;
+        }
+        return decoded;
+    }
+    
+    private static List<BrowserEvent> roundTrip(List<BrowserEvent> events) {
+        BrowserEventCodec.Encoder encoder = BrowserEventCodec.encoder(BASE);
+        BrowserEventCodec.Output out = new BrowserEventCodec.Output(64);
+        for (BrowserEvent event : events) {
+            encoder.encode(event, out);
+        }
+        
+        BrowserEventCodec.Decoder decoder = BrowserEventCodec.decoder(BASE);
+        ByteBuffer in = ByteBuffer.wrap(out.array(), 0, out.size());
+        List<BrowserEvent> decoded = new ArrayList<>();
+        while (in.hasRemaining()) {
+            decoded.add(decoder.decode(in));
+        }
+        assertEquals(events.size(), decoded.size());
+        return decoded;
+    }
+    
+    private static void assertSameEvent(BrowserEvent expected, BrowserEvent actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getSessionId(), actual.getSessionId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertEquals(expected.getDetails(), actual.getDetails());
+        assertEquals(expected.getMetadata(), actual.getMetadata());
+    }
+    
+    private static NetworkTiming completedTiming() {
+        return NetworkTiming.builder()
+            .requestId("1000.42")
+            .url("https://api.example.com/orders?page=2")
+            .method("GET")
+            .resourceType("XHR")
+            .statusCode(200)
+            .mimeType("application/json")
+            .latencyMs(87.25)
+            .dnsMs(1.5)
+            .connectMs(4.0)
+            .ttfbMs(60.0)
+            .downloadMs(12.0)
+            .transferSize(4096)
+            .build();
+    }
+    
+    private static NetworkTiming failedTiming() {
+        return NetworkTiming.builder()
+            .requestId("1000.43")
+            .url("https://cdn.example.com/app.js")
+            .method("GET")
+            .resourceType("Script")
+            .latencyMs(31.5)
+            .errorText("net::ERR_CONNECTION_RESET")
+            .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTest {
+    
+    private static final Instant BASE = Instant.parse("2024-05-01T10:00:00Z");
+    private static final MonitoringSession SESSION = new MonitoringSession("journal-session", "Journal test", null, BASE);
+    
+    @TempDir
+    Path root;
+    
+    @Test
+    void publishesTheSessionDirectoryOnlyOnceItIsLocked() throws Exception {
+        EventJournal journal = EventJournal.open(root, SESSION, 4096);
+        
+        assertEquals(List.of(root.resolve(SESSION.getId())), list(root));
+        assertTrue(EventJournal.isOpen(journal.getDirectory()));
+        assertTrue(Files.exists(journal.getDirectory().resolve(EventJournal.LOCK_FILE)));
+        
+        journal.delete();
+        assertFalse(EventJournal.isOpen(journal.getDirectory()));
+        assertFalse(Files.exists(journal.getDirectory()));
+    }
+    
+    @Test
+    void keepsEveryEventAppendedConcurrentlyAcrossSegments() throws Exception {
+        EventJournal journal = EventJournal.open(root, SESSION, 16 * 1024);
+        int threads = 8;
+        int perThread = 500;
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // New sources keep adding dictionary entries while other threads reference earlier ones
+                    journal.append(BrowserEvent.consoleLog(SESSION.getId(), i % 2 == 0 ? "ERROR" : "WARN",
+                        "event " + thread + "/" + i, "source-" + thread + "-" + (i % 50)));
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        
+        JournalRecovery.RecoveredSession recovered = JournalRecovery.read(journal.getDirectory());
+        List<BrowserEvent> events = recovered.getEvents();
+        assertEquals(threads * perThread, journal.getJournaledCount());
+        assertEquals(threads * perThread, events.size());
+        Set<String> messages = new HashSet<>();
+        for (BrowserEvent event : events) {
+            String[] parts = event.getMessage().substring("event ".length()).split("/");
+            int i = Integer.parseInt(parts[1]);
+            assertEquals("source-" + parts[0] + "-" + (i % 50), event.getSource());
+            assertEquals(i % 2 == 0 ? "ERROR" : "WARN", event.getLevel());
+            messages.add(event.getMessage());
+        }
+        assertEquals(threads * perThread, messages.size());
+        assertTrue(listSegments(journal.getDirectory()).size() > 1);
+        journal.delete();
+    }
+    
+    @Test
+    void readsUpToATornRecord() throws Exception {
+        EventJournal journal = journalWithEvents(10, 64 * 1024);
+        Path segment = listSegments(journal.getDirectory()).get(0);
+        
+        // A record is published by its length, written last; a crash before that leaves zero
+        writeIntAt(segment, recordOffsets(segment).get(1 + 6), 0);
+        
+        JournalRecovery.RecoveredSession recovered = JournalRecovery.read(journal.getDirectory());
+        assertEquals(SESSION.getId(), recovered.getSession().getId());
+        assertEquals(6, recovered.getEventCount());
+        assertEquals(messages(0, 6), recovered.getEvents().stream().map(BrowserEvent::getMessage).collect(Collectors.toList()));
+        journal.delete();
+    }
+    
+    @Test
+    void readsPastATruncatedSegmentIntoTheNextOne() throws Exception {
+        EventJournal journal = journalWithEvents(400, 2048);
+        List<Path> segments = listSegments(journal.getDirectory());
+        assertTrue(segments.size() > 2, "segments " + segments.size());
+        long inFirst = recordOffsets(segments.get(0)).size() - 1;
+        long inSecond = recordOffsets(segments.get(1)).size();
+        Path second = segments.get(1);
+        long cut = recordOffsets(second).get(3) + 2;
+        try (FileChannel channel = FileChannel.open(second, StandardOpenOption.WRITE)) {
+            channel.truncate(cut);
+        }
+        
+        JournalRecovery.RecoveredSession recovered = JournalRecovery.read(journal.getDirectory());
+        
+        // The records before the cut survive, as do all records of later segments
+        List<String> read = recovered.getEvents().stream().map(BrowserEvent::getMessage).collect(Collectors.toList());
+        List<String> expected = new ArrayList<>(messages(0, (int) inFirst + 3));
+        expected.addAll(messages((int) (inFirst + inSecond), 400));
+        assertEquals(expected, read);
+        journal.delete();
+    }
+    
+    @Test
+    void anEventTooLargeForASegmentDoesNotBreakLaterDictionaryReferences() throws Exception {
+        EventJournal journal = EventJournal.open(root, SESSION, 1024);
+        journal.append(BrowserEvent.consoleLog(SESSION.getId(), "INFO", "x".repeat(2048), "new-source"));
+        journal.append(BrowserEvent.consoleLog(SESSION.getId(), "INFO", "small", "new-source"));
+        journal.append(BrowserEvent.consoleLog(SESSION.getId(), "INFO", "again", "new-source"));
+        
+        List<BrowserEvent> events = JournalRecovery.read(journal.getDirectory()).getEvents();
+        
+        assertEquals(2, events.size());
+        assertEquals("small", events.get(0).getMessage());
+        assertEquals("new-source", events.get(0).getSource());
+        assertEquals("new-source", events.get(1).getSource());
+        journal.delete();
+    }
+    
+    private EventJournal journalWithEvents(int count, int segmentSize) throws IOException {
+        EventJournal journal = EventJournal.open(root, SESSION, segmentSize);
+        for (String message : messages(0, count)) {
+            journal.append(BrowserEvent.consoleLog(SESSION.getId(), "ERROR", message, "app.js"));
+        }
+        return journal;
+    }
+    
+    private static List<String> messages(int from, int to) {
+        List<String> messages = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            messages.add("failure " + i);
+        }
+        return messages;
+    }
+    
+    /**
+     * Offsets of the complete records in a segment, in order
+     */
+    private static List<Integer> recordOffsets(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        buffer.position(Integer.BYTES + Long.BYTES);
+        List<Integer> offsets = new ArrayList<>();
+        while (buffer.remaining() >= EventJournal.RECORD_HEADER_BYTES) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > buffer.remaining() - Integer.BYTES) {
+                break;
+            }
+            offsets.add(buffer.position());
+            buffer.position(buffer.position() + Integer.BYTES + length);
+        }
+        return offsets;
+    }
+    
+    private static void writeIntAt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+        }
+    }
+    
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, EventJournal.SEGMENT_GLOB)) {
+            files.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+    
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingBufferTest {
+    
+    @TempDir
+    Path spillDirectory;
+    
+    @Test
+    void dropOldestKeepsMostRecentEvents() {
+        EventRingBuffer buffer = new EventRingBuffer(4, EventRingBuffer.OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.append(event("e" + i)));
+        }
+        
+        assertEquals(List.of("e6", "e7", "e8", "e9"), messages(buffer.snapshot()));
+        assertEquals(6, buffer.getDroppedCount());
+    }
+    
+    @Test
+    void dropNewestStopsCapturingOnceFull() {
+        EventRingBuffer buffer = new EventRingBuffer(4, EventRingBuffer.OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.append(event("e" + i)));
+        }
+        
+        assertFalse(buffer.append(event("e4")));
+        assertEquals(List.of("e0", "e1", "e2", "e3"), messages(buffer.snapshot()));
+        assertEquals(1, buffer.getDroppedCount());
+    }
+    
+    @Test
+    void spillKeepsEveryEventOnceInProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        SpillWriter writer = new SpillWriter();
+        EventSpillLog spillLog = new EventSpillLog(spillDirectory, Instant.now(),
+                                                   BrowserEventCodec.Compression.NONE, producers * perProducer);
+        writer.register(spillLog);
+        EventRingBuffer buffer = new EventRingBuffer(256, EventRingBuffer.OverflowPolicy.SPILL, spillLog::offer);
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.append(event(producer + ":" + i));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        List<String> all;
+        try (Stream<BrowserEvent> spilled = spillLog.stream()) {
+            all = messages(spilled.collect(Collectors.toList()));
+        }
+        all.addAll(messages(buffer.snapshot()));
+        writer.unregister(spillLog);
+        writer.close();
+        spillLog.delete();
+        
+        assertEquals(0, spillLog.getLostCount());
+        assertEquals(producers * perProducer, all.size());
+        assertEquals(all.size(), new HashSet<>(all).size());
+        
+        // Sequences follow each producer's append order, so spilling by sequence preserves it
+        int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        for (String message : all) {
+            String[] parts = message.split(":");
+            int producer = Integer.parseInt(parts[0]);
+            int index = Integer.parseInt(parts[1]);
+            assertTrue(index > last[producer], "out of order: " + message);
+            last[producer] = index;
+        }
+    }
+    
+    @Test
+    void spillHandsEvictedSequencesToTheHandler() {
+        Set<Long> offered = new HashSet<>();
+        EventRingBuffer buffer = new EventRingBuffer(2, EventRingBuffer.OverflowPolicy.SPILL,
+                                                     (sequence, event) -> offered.add(sequence));
+        for (int i = 0; i < 5; i++) {
+            buffer.append(event("e" + i));
+        }
+        
+        assertEquals(Set.of(0L, 1L, 2L), offered);
+        assertEquals(List.of("e3", "e4"), messages(buffer.snapshot()));
+    }
+    
+    private static BrowserEvent event(String message) {
+        return BrowserEvent.consoleLog("session", "INFO", message, "test");
+    }
+    
+    private static List<String> messages(List<BrowserEvent> events) {
+        return events.stream().map(BrowserEvent::getMessage).collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -0,0 +1,138 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSpillLogTest {
+    
+    @TempDir
+    Path spillDirectory;
+    
+    @Test
+    void writesOutOfOrderOffersInSequenceOrder() {
+        EventSpillLog spillLog = spillLog(BrowserEventCodec.Compression.NONE, 16);
+        spillLog.offer(2, event("e2"));
+        spillLog.offer(0, event("e0"));
+        spillLog.offer(1, event("e1"));
+        
+        EventSpillLog.Snapshot snapshot = spillLog.snapshot(3);
+        
+        assertEquals(3, snapshot.getWatermark());
+        assertEquals(List.of("e0", "e1", "e2"), read(snapshot));
+        assertEquals(3, spillLog.getSpilledCount());
+    }
+    
+    @Test
+    void waitsForMissingSequenceThenGivesItUp() {
+        EventSpillLog spillLog = spillLog(BrowserEventCodec.Compression.NONE, 16);
+        spillLog.offer(0, event("e0"));
+        spillLog.offer(2, event("e2"));
+        
+        EventSpillLog.Snapshot snapshot = spillLog.snapshot(3);
+        
+        assertEquals(3, snapshot.getWatermark());
+        assertEquals(List.of("e0", "e2"), read(snapshot));
+        assertEquals(1, spillLog.getLostCount());
+    }
+    
+    @Test
+    void waitsForAStragglerWithoutHoldingUpTheWriter() throws Exception {
+        EventSpillLog spillLog = spillLog(BrowserEventCodec.Compression.NONE, 16);
+        spillLog.offer(0, event("e0"));
+        spillLog.offer(2, event("e2"));
+        
+        CompletableFuture<EventSpillLog.Snapshot> snapshot = CompletableFuture.supplyAsync(() -> spillLog.snapshot(3));
+        Thread.sleep(10);
+        
+        // The writer and readers get the log while the snapshot waits
+        long started = System.nanoTime();
+        spillLog.drain();
+        spillLog.getSpilledCount();
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(20));
+        
+        // The straggler's offer wakes the snapshot rather than it waiting out its deadline
+        spillLog.offer(1, event("e1"));
+        assertEquals(List.of("e0", "e1", "e2"), read(snapshot.get(5, TimeUnit.SECONDS)));
+        assertEquals(0, spillLog.getLostCount());
+    }
+    
+    @Test
+    void dropsOffersBeyondQueueCapacity() {
+        EventSpillLog spillLog = spillLog(BrowserEventCodec.Compression.DEFLATE, 2);
+        assertTrue(spillLog.offer(0, event("e0")));
+        assertTrue(spillLog.offer(1, event("e1")));
+        assertFalse(spillLog.offer(2, event("e2")));
+        
+        assertEquals(List.of("e0", "e1"), read(spillLog.snapshot(0)));
+    }
+    
+    @Test
+    void streamsEveryEventOnceWhileEventsAreEvicted() throws Exception {
+        EventSpillLog spillLog = spillLog(BrowserEventCodec.Compression.NONE, 1 << 16);
+        SpillWriter writer = new SpillWriter();
+        writer.register(spillLog);
+        EventRingBuffer buffer = new EventRingBuffer(512, EventRingBuffer.OverflowPolicy.SPILL, spillLog::offer);
+        
+        AtomicBoolean done = new AtomicBoolean();
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 50_000; i++) {
+                buffer.append(event("e" + i));
+                if (i % 100 == 0) {
+                    LockSupport.parkNanos(20_000);
+                }
+            }
+            done.set(true);
+        });
+        
+        int snapshots = 0;
+        while (!done.get() || snapshots == 0) {
+            List<String> messages;
+            try (Stream<BrowserEvent> events = BiDiEventCollector.streamAll(buffer, spillLog)) {
+                messages = events.map(BrowserEvent::getMessage).collect(Collectors.toList());
+            }
+            // A prefix of the appended events, each exactly once
+            for (int i = 0; i < messages.size(); i++) {
+                assertEquals("e" + i, messages.get(i));
+            }
+            snapshots++;
+        }
+        producer.join();
+        writer.unregister(spillLog);
+        writer.close();
+        
+        assertEquals(0, spillLog.getLostCount());
+        try (Stream<BrowserEvent> events = BiDiEventCollector.streamAll(buffer, spillLog)) {
+            assertEquals(50_000, events.count());
+        }
+    }
+    
+    private EventSpillLog spillLog(BrowserEventCodec.Compression compression, int queueCapacity) {
+        return new EventSpillLog(spillDirectory, Instant.now(), compression, queueCapacity);
+    }
+    
+    private static List<String> read(EventSpillLog.Snapshot snapshot) {
+        try (Stream<BrowserEvent> events = snapshot.stream()) {
+            return events.map(BrowserEvent::getMessage).collect(Collectors.toList());
+        }
+    }
+    
+    private static BrowserEvent event(String message) {
+        return BrowserEvent.consoleLog("session", "INFO", message, "test");
+    }
+}
@@ -0,0 +1,150 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.reporting.ReportGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class JournalRecoveryTest {
+    
+    private static final String READY = "journaled";
+    
+    @TempDir
+    Path root;
+    
+    private final ReportGenerator reportGenerator = mock(ReportGenerator.class);
+    
+    @Test
+    void leavesJournalsOfLiveSessionsAlone() throws Exception {
+        EventJournal journal = EventJournal.open(root, session("live"), 4096);
+        journal.append(BrowserEvent.consoleLog("live", "ERROR", "before", "app.js"));
+        
+        JournalRecovery recovery = new JournalRecovery(root, reportGenerator);
+        assertTrue(recovery.findOrphanedJournals().isEmpty());
+        assertFalse(recovery.recover(journal.getDirectory()));
+        
+        // The live journal keeps its lock and its files
+        journal.append(BrowserEvent.consoleLog("live", "ERROR", "after", "app.js"));
+        assertEquals(2, JournalRecovery.read(journal.getDirectory()).getEventCount());
+        verify(reportGenerator, never()).generateSessionReport(any(), any(Supplier.class), any());
+        journal.delete();
+    }
+    
+    @Test
+    void deletesJournalsOfCleanlyClosedSessionsWithoutReporting() throws Exception {
+        EventJournal journal = EventJournal.open(root, session("closed"), 4096);
+        journal.append(BrowserEvent.consoleLog("closed", "ERROR", "failure", "app.js"));
+        journal.close();
+        
+        assertEquals(List.of(journal.getDirectory()), new JournalRecovery(root, reportGenerator).findOrphanedJournals());
+        assertEquals(0, new JournalRecovery(root, reportGenerator).recoverAll());
+        
+        verify(reportGenerator, never()).generateSessionReport(any(), any(Supplier.class), any());
+        assertFalse(Files.exists(journal.getDirectory()));
+    }
+    
+    @Test
+    void deletesOnlyStaleHalfCreatedJournals() throws Exception {
+        Path stale = Files.createDirectory(root.resolve(EventJournal.CREATING_PREFIX + "stale"));
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minusSeconds(600)));
+        Path fresh = Files.createDirectory(root.resolve(EventJournal.CREATING_PREFIX + "fresh"));
+        
+        assertTrue(new JournalRecovery(root, reportGenerator).findOrphanedJournals().isEmpty());
+        
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(fresh));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsTheSessionOfAKilledJvmFromItsJournal() throws Exception {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                KilledSession.class.getName(), root.toString(), "250")
+            .redirectErrorStream(true)
+            .start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null && !line.equals(READY)) {
+                // Skip the child's log output
+            }
+            assertEquals(READY, line);
+            process.destroyForcibly();
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        } finally {
+            process.destroyForcibly();
+        }
+        
+        // Reports are generated while the journal is still on disk, so read the events during the call
+        List<String> messages = new ArrayList<>();
+        doAnswer(invocation -> {
+            Supplier<Stream<BrowserEvent>> events = invocation.getArgument(1);
+            events.get().map(BrowserEvent::getMessage).forEach(messages::add);
+            return null;
+        }).when(reportGenerator).generateSessionReport(any(), any(Supplier.class), any());
+        
+        assertEquals(1, new JournalRecovery(root, reportGenerator).recoverAll());
+        
+        ArgumentCaptor<MonitoringSession> session = ArgumentCaptor.forClass(MonitoringSession.class);
+        verify(reportGenerator).generateSessionReport(session.capture(), any(Supplier.class), isNull(AnalysisResult.class));
+        assertEquals("killed-session", session.getValue().getId());
+        assertEquals("Killed session", session.getValue().getName());
+        assertEquals("RECOVERED", session.getValue().getStatus());
+        assertNotNull(session.getValue().getEndTime());
+        assertEquals(250, messages.size());
+        assertEquals("failure 0", messages.get(0));
+        assertEquals("failure 249", messages.get(249));
+        assertFalse(Files.exists(root.resolve("killed-session")));
+    }
+    
+    private static MonitoringSession session(String id) {
+        return new MonitoringSession(id, id, null, Instant.now());
+    }
+    
+    /**
+     * Journals a session, reports that it did so, and waits to be killed
+     */
+    static final class KilledSession {
+        public static void main(String[] args) throws Exception {
+            MonitoringSession session = new MonitoringSession("killed-session", "Killed session", null, Instant.now());
+            EventJournal journal = EventJournal.open(Paths.get(args[0]), session, 4096);
+            for (int i = 0; i < Integer.parseInt(args[1]); i++) {
+                journal.append(BrowserEvent.consoleLog(session.getId(), "ERROR", "failure " + i, "app.js"));
+            }
+            System.out.println(READY);
+            System.out.flush();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(5));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.model.NetworkTiming;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.v85.network.model.ResourceTiming;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkRequestTrackerTest {
+    
+    private final List<NetworkTiming> measured = new ArrayList<>();
+    private final List<NetworkTiming> completed = new ArrayList<>();
+    private final List<NetworkTiming> failed = new ArrayList<>();
+    
+    @Test
+    void correlatesTheEventsOfARequestIntoOneTiming() {
+        NetworkRequestTracker tracker = tracker(16);
+        tracker.onRequestWillBeSent("r1", "https://example.com/old", "GET", "FETCH", 10.0);
+        // A redirect reuses the request id and keeps the original start
+        tracker.onRequestWillBeSent("r1", "https://example.com/api/orders", "GET", "FETCH", 10.05);
+        tracker.onResponseReceived("r1", "https://example.com/api/orders", 200, "application/json", 10.2,
+            timing(10.0, 1, 5, 5, 20, 21, 150));
+        tracker.onLoadingFinished("r1", 10.5, 2048);
+        
+        assertEquals(1, completed.size());
+        assertEquals(completed, measured);
+        assertTrue(failed.isEmpty());
+        NetworkTiming timing = completed.get(0);
+        assertEquals("r1", timing.getRequestId());
+        assertEquals("https://example.com/api/orders", timing.getUrl());
+        assertEquals("FETCH", timing.getResourceType());
+        assertEquals(200, timing.getStatusCode());
+        assertEquals("application/json", timing.getMimeType());
+        assertEquals(500, timing.getLatencyMs(), 1e-6);
+        assertEquals(2048, timing.getTransferSize());
+        assertEquals(4, timing.getDnsMs(), 1e-6);
+        assertEquals(15, timing.getConnectMs(), 1e-6);
+        assertEquals(129, timing.getTtfbMs(), 1e-6);
+        // From the end of the response headers at requestTime + 150ms to loadingFinished
+        assertEquals(350, timing.getDownloadMs(), 1e-6);
+        assertNull(timing.getErrorText());
+        assertEquals(0, tracker.getPendingCount());
+        
+        // Late events for a finished request are ignored
+        tracker.onLoadingFinished("r1", 11.0, 10);
+        tracker.onLoadingFailed("r1", 11.0, "net::ERR_ABORTED");
+        assertEquals(1, measured.size());
+    }
+    
+    @Test
+    void fallsBackToEventTimestampsWithoutResourceTiming() {
+        NetworkRequestTracker tracker = tracker(16);
+        tracker.onRequestWillBeSent("r1", "https://example.com/app.js", "GET", "SCRIPT", 10.0);
+        tracker.onResponseReceived("r1", "https://example.com/app.js", 200, "text/javascript", 10.1, null);
+        tracker.onLoadingFinished("r1", 10.25, 512);
+        
+        NetworkTiming timing = completed.get(0);
+        assertEquals(250, timing.getLatencyMs(), 1e-6);
+        assertEquals(-1, timing.getDnsMs());
+        assertEquals(-1, timing.getConnectMs());
+        assertEquals(100, timing.getTtfbMs(), 1e-6);
+        assertEquals(150, timing.getDownloadMs(), 1e-6);
+    }
+    
+    @Test
+    void reportsAFailedRequestOnceWithItsErrorText() {
+        NetworkRequestTracker tracker = tracker(16);
+        tracker.onRequestWillBeSent("r1", "https://example.com/api/orders", "POST", "XHR", 10.0);
+        tracker.onLoadingFailed("r1", 10.3, "net::ERR_CONNECTION_REFUSED");
+        tracker.onLoadingFailed("r1", 10.4, "net::ERR_CONNECTION_REFUSED");
+        // Requests the tracker never saw start are not reported
+        tracker.onLoadingFailed("unknown", 10.4, "net::ERR_ABORTED");
+        
+        assertEquals(1, failed.size());
+        assertEquals(failed, measured);
+        assertTrue(completed.isEmpty());
+        NetworkTiming timing = failed.get(0);
+        assertEquals("r1", timing.getRequestId());
+        assertEquals("POST", timing.getMethod());
+        assertEquals("net::ERR_CONNECTION_REFUSED", timing.getErrorText());
+        assertEquals(300, timing.getLatencyMs(), 1e-6);
+        assertTrue(timing.isFailed());
+        assertEquals(0, tracker.getPendingCount());
+    }
+    
+    @Test
+    void doesNotReportLongLivedRequestsAsFailedWhenTheyTimeOut() {
+        NetworkRequestTracker tracker = tracker(Duration.ZERO, 4);
+        tracker.onRequestWillBeSent("socket", "wss://example.com/live", "GET", "WEBSOCKET", 10.0);
+        tracker.onRequestWillBeSent("stream", "https://example.com/events", "GET", "EVENTSOURCE", 10.0);
+        tracker.onRequestWillBeSent("poll", "https://example.com/api/poll", "GET", "XHR", 10.0);
+        tracker.onResponseReceived("poll", "https://example.com/api/poll", 200, "application/json", 10.1, null);
+        tracker.onRequestWillBeSent("hung", "https://example.com/api/orders", "GET", "XHR", 10.0);
+        
+        // Exceeding the bound sweeps the table, and with no timeout every request has expired
+        tracker.onRequestWillBeSent("last", "https://example.com/api/users", "GET", "XHR", 10.0);
+        
+        assertEquals(0, tracker.getPendingCount());
+        assertEquals(List.of("hung", "last"), failed.stream().map(NetworkTiming::getRequestId).sorted().toList());
+        assertTrue(failed.get(0).getErrorText().startsWith("Timed out"));
+        assertEquals(failed.size(), measured.size());
+    }
+    
+    @Test
+    void evictsOldestRequestsOnceMorePendingThanTheBound() {
+        NetworkRequestTracker tracker = tracker(16);
+        for (int i = 0; i < 40; i++) {
+            tracker.onRequestWillBeSent("r" + i, "https://example.com/api/" + i, "GET", "XHR", i);
+            assertTrue(tracker.getPendingCount() <= 16, "pending " + tracker.getPendingCount());
+        }
+        
+        assertEquals(40, tracker.getPendingCount() + failed.size());
+        assertEquals("r0", failed.get(0).getRequestId());
+        assertTrue(failed.get(0).getErrorText().startsWith("Timed out"));
+        assertEquals(failed.size(), measured.size());
+    }
+    
+    @Test
+    void evictedRequestsNoLongerComplete() {
+        NetworkRequestTracker tracker = tracker(16);
+        for (int i = 0; i < 17; i++) {
+            tracker.onRequestWillBeSent("r" + i, "https://example.com/api/" + i, "GET", "XHR", i);
+        }
+        int evicted = failed.size();
+        
+        tracker.onLoadingFinished("r0", 100, 10);
+        tracker.onLoadingFinished("r16", 100, 10);
+        
+        assertEquals(evicted + 1, measured.size());
+        assertEquals("r16", measured.get(measured.size() - 1).getRequestId());
+    }
+    
+    private NetworkRequestTracker tracker(int maxPending) {
+        return tracker(Duration.ofHours(1), maxPending);
+    }
+    
+    private NetworkRequestTracker tracker(Duration timeout, int maxPending) {
+        return new NetworkRequestTracker(timeout, maxPending,
+            new CaptureFilter(new MonitorConfig.Builder().build()),
+            measured::add, completed::add, failed::add);
+    }
+    
+    /**
+     * Resource timing with the given phases, in milliseconds after {@code requestTime}; the rest unset
+     */
+    private static ResourceTiming timing(double requestTime, double dnsStart, double dnsEnd,
+                                         double connectStart, double connectEnd,
+                                         double sendStart, double receiveHeadersEnd) {
+        return new ResourceTiming(requestTime, -1, -1, dnsStart, dnsEnd, connectStart, connectEnd,
+            -1, -1, -1, -1, -1, -1, sendStart, sendStart + 1, -1, -1, receiveHeadersEnd);
+    }
+}
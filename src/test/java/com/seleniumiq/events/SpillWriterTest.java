@@ -0,0 +1,88 @@
+package com.seleniumiq.events;
+
+import com.seleniumiq.model.BrowserEvent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SpillWriterTest {
+    
+    @TempDir
+    Path directory;
+    
+    private final SpillWriter writer = new SpillWriter();
+    private EventSpillLog spillLog;
+    
+    @AfterEach
+    void close() {
+        writer.close();
+        if (spillLog != null) {
+            spillLog.delete();
+        }
+    }
+    
+    @Test
+    void drainsQueuedEventsWhenWoken() {
+        spillLog = register();
+        offer(spillLog, 0, 3);
+        
+        writer.wake();
+        
+        awaitDrained(spillLog);
+    }
+    
+    @Test
+    void doesNotPollWhileIdle() throws Exception {
+        spillLog = register();
+        Thread.sleep(50);
+        
+        offer(spillLog, 0, 3);
+        Thread.sleep(100);
+        assertEquals(3, spillLog.getQueuedCount());
+        
+        writer.wake();
+        awaitDrained(spillLog);
+    }
+    
+    @Test
+    void closeStopsTheWriterThread() throws Exception {
+        spillLog = register();
+        
+        writer.close();
+        offer(spillLog, 0, 3);
+        writer.wake();
+        Thread.sleep(100);
+        
+        assertEquals(3, spillLog.getQueuedCount());
+    }
+    
+    private EventSpillLog register() {
+        EventSpillLog log = new EventSpillLog(directory, Instant.now(), BrowserEventCodec.Compression.NONE, 16);
+        writer.register(log);
+        return log;
+    }
+    
+    private static void offer(EventSpillLog log, long from, int count) {
+        for (int i = 0; i < count; i++) {
+            log.offer(from + i, BrowserEvent.consoleLog("session", "INFO", "e" + (from + i), "test"));
+        }
+    }
+    
+    private static void awaitDrained(EventSpillLog log) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (log.getQueuedCount() > 0) {
+            if (System.nanoTime() > deadline) {
+                fail(log.getQueuedCount() + " events still queued");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.seleniumiq.llm;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncRequestExecutorTest {
+    
+    private static final Duration BACKOFF = Duration.ofMillis(50);
+    
+    private final StubServer server = new StubServer();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<Long> arrivals = new CopyOnWriteArrayList<>();
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+    private final OkHttpClient httpClient = new OkHttpClient.Builder()
+        .eventListener(new EventListener() {
+            @Override
+            public void canceled(Call call) {
+                cancelled.countDown();
+            }
+        })
+        .build();
+    private final AsyncRequestExecutor executor = new AsyncRequestExecutor(httpClient, "Test", 3, BACKOFF);
+    
+    AsyncRequestExecutorTest() throws IOException {
+    }
+    
+    @AfterEach
+    void close() {
+        released.countDown();
+        executor.shutdown();
+        server.close();
+        httpClient.dispatcher().executorService().shutdown();
+    }
+    
+    @Test
+    void retriesServerErrorsAfterAGrowingBackoff() {
+        AtomicInteger calls = new AtomicInteger();
+        server.handle("/generate", exchange -> {
+            arrivals.add(System.nanoTime());
+            if (calls.incrementAndGet() < 3) {
+                StubServer.respond(exchange, 503, "busy");
+            } else {
+                StubServer.respond(exchange, 200, "answer");
+            }
+        });
+        
+        assertEquals("answer", execute().join());
+        
+        assertEquals(3, server.requests("/generate"));
+        // One backoff before the second attempt, two before the third
+        assertTrue(millisBetween(0, 1) >= BACKOFF.toMillis(), "first backoff " + millisBetween(0, 1));
+        assertTrue(millisBetween(1, 2) >= 2 * BACKOFF.toMillis(), "second backoff " + millisBetween(1, 2));
+    }
+    
+    @Test
+    void failsWithTheLastErrorOnceEveryAttemptFailed() {
+        server.handle("/generate", exchange -> StubServer.respond(exchange, 500, "broken"));
+        
+        CompletionException error = assertThrows(CompletionException.class, () -> execute().join());
+        
+        assertEquals("All retry attempts failed", error.getCause().getMessage());
+        assertEquals("HTTP 500: broken", error.getCause().getCause().getMessage());
+        assertEquals(3, server.requests("/generate"));
+    }
+    
+    @Test
+    void doesNotRetryClientErrors() {
+        server.handle("/generate", exchange -> StubServer.respond(exchange, 429, "slow down"));
+        
+        CompletionException error = assertThrows(CompletionException.class, () -> execute().join());
+        
+        assertEquals("Client error: 429 - slow down", error.getCause().getMessage());
+        assertEquals(1, server.requests("/generate"));
+    }
+    
+    @Test
+    void cancellingTheFutureCancelsTheHttpCall() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        server.handle("/generate", exchange -> {
+            received.countDown();
+            StubServer.await(released);
+        });
+        CompletableFuture<String> result = execute();
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        
+        result.cancel(true);
+        
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS), "call not cancelled");
+        assertThrows(CancellationException.class, result::join);
+    }
+    
+    @Test
+    void cancellingDuringTheBackoffStopsFurtherAttempts() throws Exception {
+        server.handle("/generate", exchange -> StubServer.respond(exchange, 503, "busy"));
+        AsyncRequestExecutor slowRetries = new AsyncRequestExecutor(httpClient, "Test", 3, Duration.ofMillis(300));
+        try {
+            CompletableFuture<String> result = slowRetries.execute(request(), response -> response.body().string(),
+                AsyncRequestExecutor.ClientErrorMapper.standard());
+            awaitRequests(1);
+            
+            result.cancel(true);
+            Thread.sleep(600);
+            
+            assertEquals(1, server.requests("/generate"));
+        } finally {
+            slowRetries.shutdown();
+        }
+    }
+    
+    @Test
+    void completesExceptionallyWhenTheRetryTimerIsShutDown() {
+        server.handle("/generate", exchange -> StubServer.respond(exchange, 503, "busy"));
+        executor.shutdown();
+        
+        ExecutionException error = assertThrows(ExecutionException.class, () -> execute().get(5, TimeUnit.SECONDS));
+        
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals("HTTP 503: busy", error.getCause().getMessage());
+        assertEquals(1, server.requests("/generate"));
+    }
+    
+    private CompletableFuture<String> execute() {
+        return executor.execute(request(), response -> response.body().string(),
+            AsyncRequestExecutor.ClientErrorMapper.standard());
+    }
+    
+    private Request request() {
+        return new Request.Builder().url(server.url() + "/generate").get().build();
+    }
+    
+    private long millisBetween(int first, int second) {
+        return TimeUnit.NANOSECONDS.toMillis(arrivals.get(second) - arrivals.get(first));
+    }
+    
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.requests("/generate") < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
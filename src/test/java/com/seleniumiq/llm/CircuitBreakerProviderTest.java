@@ -0,0 +1,159 @@
+package com.seleniumiq.llm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class CircuitBreakerProviderTest {
+    
+    private static final Duration OPEN_DURATION = Duration.ofMillis(20);
+    
+    private final StubProvider delegate = new StubProvider();
+    private final CircuitBreakerProvider breaker = new CircuitBreakerProvider(delegate, 3, OPEN_DURATION);
+    
+    @AfterEach
+    void close() {
+        breaker.close();
+    }
+    
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsWithoutCallingTheProvider() {
+        failTimes(2);
+        assertEquals("ok", breaker.analyze("prompt", "system"));
+        failTimes(2);
+        assertEquals(CircuitBreakerProvider.State.CLOSED, breaker.getState());
+        
+        failTimes(1);
+        assertEquals(CircuitBreakerProvider.State.OPEN, breaker.getState());
+        
+        int calls = delegate.calls.get();
+        assertThrows(CircuitBreakerProvider.CircuitOpenException.class, () -> breaker.analyze("prompt", "system"));
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+            () -> breaker.analyzeAsync("prompt", "system").get());
+        assertInstanceOf(CircuitBreakerProvider.CircuitOpenException.class, rejected.getCause());
+        assertEquals(calls, delegate.calls.get());
+        assertEquals(2L, breaker.getStats().get("rejected"));
+        assertEquals(1L, breaker.getStats().get("transitionsToOpen"));
+    }
+    
+    @Test
+    void keepsProbingUntilTheProviderIsAvailableThenLetsOneTrialThrough() throws Exception {
+        delegate.available = false;
+        failTimes(3);
+        
+        Thread.sleep(OPEN_DURATION.toMillis() * 5);
+        assertEquals(CircuitBreakerProvider.State.OPEN, breaker.getState());
+        
+        delegate.available = true;
+        awaitState(CircuitBreakerProvider.State.HALF_OPEN);
+        CompletableFuture<String> trial = breaker.analyzeAsync("prompt", "system");
+        assertThrows(CircuitBreakerProvider.CircuitOpenException.class, () -> breaker.analyze("prompt", "system"));
+        
+        delegate.pending.remove().complete("answer");
+        assertEquals("answer", trial.get(1, TimeUnit.SECONDS));
+        assertEquals(CircuitBreakerProvider.State.CLOSED, breaker.getState());
+        assertEquals(1L, breaker.getStats().get("transitionsToClosed"));
+    }
+    
+    @Test
+    void reopensWhenTheTrialFails() {
+        failTimes(3);
+        awaitState(CircuitBreakerProvider.State.HALF_OPEN);
+        
+        failTimes(1);
+        
+        assertEquals(CircuitBreakerProvider.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.getStats().get("transitionsToOpen"));
+    }
+    
+    @Test
+    void cancellingTheReturnedFutureCancelsTheRequest() {
+        CompletableFuture<String> call = breaker.analyzeAsync("prompt", "system");
+        CompletableFuture<String> sent = delegate.pending.remove();
+        
+        call.cancel(true);
+        
+        assertTrue(sent.isCancelled());
+        assertEquals(0, breaker.getStats().get("consecutiveFailures"));
+    }
+    
+    @Test
+    void aCancelledTrialFreesTheSlotForAnother() {
+        failTimes(3);
+        awaitState(CircuitBreakerProvider.State.HALF_OPEN);
+        
+        breaker.analyzeAsync("prompt", "system").cancel(true);
+        assertEquals(CircuitBreakerProvider.State.HALF_OPEN, breaker.getState());
+        
+        CompletableFuture<String> trial = breaker.analyzeAsync("prompt", "system");
+        delegate.pending.removeLast().complete("answer");
+        assertEquals("answer", trial.join());
+        assertEquals(CircuitBreakerProvider.State.CLOSED, breaker.getState());
+    }
+    
+    private void failTimes(int times) {
+        delegate.failing = true;
+        for (int i = 0; i < times; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.analyze("prompt", "system"));
+        }
+        delegate.failing = false;
+    }
+    
+    private void awaitState(CircuitBreakerProvider.State expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (breaker.getState() != expected) {
+            if (System.nanoTime() > deadline) {
+                fail("circuit still " + breaker.getState() + ", expected " + expected);
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Blocking calls answer or fail at once; asynchronous calls wait until the test completes them
+     */
+    private static final class StubProvider implements LLMProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final ConcurrentLinkedDeque<CompletableFuture<String>> pending = new ConcurrentLinkedDeque<>();
+        private volatile boolean failing;
+        private volatile boolean available = true;
+        
+        @Override
+        public String analyze(String prompt, String systemPrompt) {
+            calls.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("provider down");
+            }
+            return "ok";
+        }
+        
+        @Override
+        public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+            calls.incrementAndGet();
+            CompletableFuture<String> call = new CompletableFuture<>();
+            pending.add(call);
+            return call;
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return available;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.seleniumiq.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitedProviderTest {
+    
+    private final GatedProvider delegate = new GatedProvider();
+    private final ConcurrencyLimitedProvider limited = new ConcurrencyLimitedProvider(delegate, 2);
+    
+    @Test
+    void queuesAsynchronousRequestsBeyondTheLimit() {
+        CompletableFuture<String> first = limited.analyzeAsync("1", "system");
+        limited.analyzeAsync("2", "system");
+        CompletableFuture<String> third = limited.analyzeAsync("3", "system");
+        
+        assertEquals(2, delegate.pending.size());
+        assertEquals(2, limited.getInFlightCount());
+        assertEquals(1, limited.getWaitingCount());
+        
+        delegate.pending.removeFirst().complete("one");
+        
+        assertEquals("one", first.join());
+        assertEquals(2, delegate.pending.size());
+        assertEquals(0, limited.getWaitingCount());
+        delegate.pending.removeLast().complete("three");
+        assertEquals("three", third.join());
+    }
+    
+    @Test
+    void cancellingAStartedRequestCancelsTheCallAndFreesItsPermit() {
+        CompletableFuture<String> first = limited.analyzeAsync("1", "system");
+        limited.analyzeAsync("2", "system");
+        CompletableFuture<String> sent = delegate.pending.getFirst();
+        limited.analyzeAsync("3", "system");
+        
+        first.cancel(true);
+        
+        assertTrue(sent.isCancelled());
+        assertEquals(3, delegate.calls);
+        assertEquals(0, limited.getWaitingCount());
+        assertEquals(2, limited.getInFlightCount());
+    }
+    
+    @Test
+    void dropsQueuedRequestsThatWereCancelled() {
+        limited.analyzeAsync("1", "system");
+        limited.analyzeAsync("2", "system");
+        CompletableFuture<String> queued = limited.analyzeAsync("3", "system");
+        
+        queued.cancel(true);
+        assertEquals(0, limited.getWaitingCount());
+        
+        delegate.pending.removeFirst().complete("one");
+        delegate.pending.removeFirst().complete("two");
+        
+        assertEquals(2, delegate.calls);
+        assertEquals(0, limited.getInFlightCount());
+        assertFalse(delegate.pending.stream().anyMatch(call -> !call.isDone()));
+    }
+    
+    @Test
+    void releasesThePermitWhenTheProviderThrows() {
+        delegate.throwing = true;
+        
+        CompletableFuture<String> failed = limited.analyzeAsync("1", "system");
+        
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, limited.getInFlightCount());
+    }
+    
+    /**
+     * Holds every asynchronous call until the test completes it
+     */
+    static final class GatedProvider implements LLMProvider {
+        final ConcurrentLinkedDeque<CompletableFuture<String>> pending = new ConcurrentLinkedDeque<>();
+        volatile int calls;
+        volatile boolean throwing;
+        
+        @Override
+        public String analyze(String prompt, String systemPrompt) {
+            return analyzeAsync(prompt, systemPrompt).join();
+        }
+        
+        @Override
+        public synchronized CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+            calls++;
+            if (throwing) {
+                throw new IllegalStateException("provider down");
+            }
+            CompletableFuture<String> call = new CompletableFuture<>();
+            pending.add(call);
+            return call;
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.seleniumiq.llm;
+
+import com.seleniumiq.config.MonitorConfig;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTransportTest {
+    
+    @AfterEach
+    void shutdown() {
+        HttpTransport.shutdown();
+    }
+    
+    @Test
+    void sharesOneClientPerTransportConfiguration() {
+        OkHttpClient client = HttpTransport.shared(config(Duration.ofSeconds(30), 16));
+        
+        // Settings that are not about the transport do not matter
+        assertSame(client, HttpTransport.shared(new MonitorConfig.Builder()
+            .timeout(Duration.ofSeconds(30))
+            .httpMaxRequestsPerHost(16)
+            .ollamaModel("other")
+            .build()));
+        assertNotSame(client, HttpTransport.shared(config(Duration.ofSeconds(60), 16)));
+        assertNotSame(client, HttpTransport.shared(config(Duration.ofSeconds(30), 8)));
+        
+        assertEquals(16, client.dispatcher().getMaxRequestsPerHost());
+        assertEquals(30_000, client.readTimeoutMillis());
+    }
+    
+    @Test
+    void shutdownStopsAndForgetsTheSharedClients() {
+        OkHttpClient client = HttpTransport.shared(config(Duration.ofSeconds(30), 16));
+        
+        HttpTransport.shutdown();
+        
+        assertTrue(client.dispatcher().executorService().isShutdown());
+        assertEquals(0, client.connectionPool().connectionCount());
+        assertNotSame(client, HttpTransport.shared(config(Duration.ofSeconds(30), 16)));
+    }
+    
+    private static MonitorConfig config(Duration timeout, int maxRequestsPerHost) {
+        return new MonitorConfig.Builder()
+            .timeout(timeout)
+            .httpMaxRequestsPerHost(maxRequestsPerHost)
+            .build();
+    }
+}
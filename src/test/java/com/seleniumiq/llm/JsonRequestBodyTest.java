@@ -0,0 +1,78 @@
+package com.seleniumiq.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class JsonRequestBodyTest {
+    
+    private static final String PROMPT = "Quotes \"500\", a backslash \\, a tab\t, a newline\n and Café";
+    
+    private final JsonRequestBody body = new JsonRequestBody(json -> {
+        json.writeStartObject();
+        json.writeStringField("model", "llama3");
+        json.writeArrayFieldStart("messages");
+        json.writeStartObject();
+        json.writeStringField("role", "user");
+        json.writeStringField("content", PROMPT);
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeBooleanField("stream", false);
+        json.writeEndObject();
+    });
+    
+    @Test
+    void writesValidJson() throws IOException {
+        JsonNode json = new ObjectMapper().readTree(write().readUtf8());
+        
+        assertEquals("llama3", json.path("model").asText());
+        assertEquals(PROMPT, json.path("messages").get(0).path("content").asText());
+        assertFalse(json.path("stream").asBoolean());
+        assertEquals("application/json; charset=utf-8", body.contentType().toString());
+    }
+    
+    @Test
+    void writesTheSameBodyOnEveryRetry() throws IOException {
+        assertEquals(write().readUtf8(), write().readUtf8());
+    }
+    
+    @Test
+    void leavesTheSinkOpen() throws IOException {
+        Buffer buffer = new Buffer();
+        AtomicBoolean closed = new AtomicBoolean();
+        BufferedSink sink = Okio.buffer(new ForwardingSink(buffer) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        });
+        
+        body.writeTo(sink);
+        // OkHttp keeps writing to the connection after the body
+        sink.writeUtf8("\n");
+        sink.flush();
+        
+        assertFalse(closed.get());
+        String written = buffer.readUtf8();
+        assertEquals("\n", written.substring(written.length() - 1));
+        new ObjectMapper().readTree(written);
+    }
+    
+    private Buffer write() throws IOException {
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,195 @@
+package com.seleniumiq.llm;
+
+import com.seleniumiq.config.MonitorConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OllamaProviderTest {
+    
+    private static final String MODEL = "llama3:latest";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String ANSWER = "{\"model\":\"" + MODEL + "\",\"response\":\"{\\\"issues\\\": []}\",\"done\":true}";
+    
+    // Whether the stub Ollama has the model; a pull adds it
+    private volatile boolean modelPresent = true;
+    // Holds /api/tags answers until released
+    private volatile CountDownLatch tagsReleased = new CountDownLatch(0);
+    private final StubServer server = new StubServer()
+        .handle("/api/tags", exchange -> {
+            StubServer.await(tagsReleased);
+            StubServer.respond(exchange, 200, modelPresent ? "{\"models\":[{\"name\":\"" + MODEL + "\"}]}" : "{\"models\":[]}");
+        })
+        .handle("/api/pull", exchange -> {
+            modelPresent = true;
+            StubServer.respond(exchange, 200, "{\"status\":\"success\"}");
+        });
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<String> chunks = new CopyOnWriteArrayList<>();
+    private OllamaProvider provider;
+    
+    OllamaProviderTest() throws IOException {
+    }
+    
+    @AfterEach
+    void close() {
+        released.countDown();
+        if (provider != null) {
+            provider.close();
+        }
+        server.close();
+    }
+    
+    @Test
+    void streamsResponseChunksAndStopsAtDoneWithoutWaitingForTheConnectionToClose() {
+        server.handle("/api/generate", exchange -> {
+            OutputStream out = StubServer.stream(exchange, NDJSON);
+            StubServer.write(out, "{\"model\":\"" + MODEL + "\",\"response\":\"{\\\"issues\\\": \",\"done\":false}\n");
+            StubServer.write(out, "\n");
+            StubServer.write(out, "{\"model\":\"" + MODEL + "\",\"response\":\"\",\"done\":false}\n");
+            StubServer.write(out, "{\"model\":\"" + MODEL + "\",\"response\":\"[]}\",\"done\":false}\n");
+            StubServer.write(out, "{\"model\":\"" + MODEL + "\",\"response\":\"\",\"done\":true}\n");
+            StubServer.write(out, "{\"model\":\"" + MODEL + "\",\"response\":\"ignored\",\"done\":false}\n");
+            StubServer.await(released);
+        });
+        provider = new OllamaProvider(config(3));
+        
+        String answer = provider.analyzeStreaming("prompt", "system", chunks::add);
+        
+        assertEquals("{\"issues\": []}", answer);
+        assertEquals(List.of("{\"issues\": ", "[]}"), chunks);
+        assertEquals(1, server.requests("/api/generate"));
+    }
+    
+    @Test
+    void doesNotRetryAStreamInterruptedAfterPartialText() {
+        server.handle("/api/generate", exchange -> StubServer.truncate(exchange, NDJSON,
+            "{\"model\":\"" + MODEL + "\",\"response\":\"{\\\"issues\\\": [\",\"done\":false}\n"));
+        provider = new OllamaProvider(config(3));
+        
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> provider.analyzeStreaming("prompt", "system", chunks::add));
+        
+        assertInstanceOf(UncheckedIOException.class, error.getCause());
+        assertEquals(List.of("{\"issues\": ["), chunks);
+        assertEquals(1, server.requests("/api/generate"));
+    }
+    
+    @Test
+    void checksTheModelInTheBackgroundBeforeAnAsynchronousAnalysis() {
+        answerGenerateRequests();
+        provider = new OllamaProvider(config(3));
+        
+        assertEquals("{\"issues\": []}", provider.analyzeAsync("prompt", "system").join());
+        assertEquals("{\"issues\": []}", provider.analyzeAsync("prompt", "system").join());
+        
+        assertEquals(1, server.requests("/api/tags"));
+        assertEquals(2, server.requests("/api/generate"));
+    }
+    
+    @Test
+    void concurrentAnalysesShareOneModelCheckAndPull() throws Exception {
+        modelPresent = false;
+        tagsReleased = new CountDownLatch(1);
+        answerGenerateRequests();
+        provider = new OllamaProvider(config(3));
+        
+        int analyses = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<String>> answers = new CopyOnWriteArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < analyses; i++) {
+            callers.add(Thread.ofPlatform().start(() -> {
+                StubServer.await(start);
+                answers.add(provider.analyzeAsync("prompt", "system"));
+            }));
+        }
+        start.countDown();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        // Every analysis has joined the check, which is still waiting for /api/tags
+        tagsReleased.countDown();
+        
+        for (CompletableFuture<String> answer : answers) {
+            assertEquals("{\"issues\": []}", answer.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, server.requests("/api/tags"));
+        assertEquals(1, server.requests("/api/pull"));
+        assertEquals(analyses, server.requests("/api/generate"));
+    }
+    
+    @Test
+    void checksTheModelAgainOnceTheCheckExpires() throws Exception {
+        answerGenerateRequests();
+        provider = new OllamaProvider(config(3, Duration.ofMillis(200)));
+        
+        provider.analyzeAsync("prompt", "system").join();
+        provider.analyzeAsync("prompt", "system").join();
+        assertEquals(1, server.requests("/api/tags"));
+        
+        Thread.sleep(300);
+        provider.analyzeAsync("prompt", "system").join();
+        
+        assertEquals(2, server.requests("/api/tags"));
+        assertEquals(0, server.requests("/api/pull"));
+    }
+    
+    @Test
+    void checksAndPullsTheModelAgainWhenAnAnalysisFindsItMissing() {
+        answerGenerateRequests();
+        provider = new OllamaProvider(config(3));
+        provider.analyzeAsync("prompt", "system").join();
+        
+        // Removed from the server while the earlier check is still valid
+        modelPresent = false;
+        
+        assertEquals("{\"issues\": []}", provider.analyzeAsync("prompt", "system").join());
+        assertEquals(2, server.requests("/api/tags"));
+        assertEquals(1, server.requests("/api/pull"));
+        assertEquals(3, server.requests("/api/generate"));
+    }
+    
+    /**
+     * Answer generate requests while the model is present, and with Ollama's 404 otherwise
+     */
+    private void answerGenerateRequests() {
+        server.handle("/api/generate", exchange -> {
+            if (modelPresent) {
+                StubServer.respond(exchange, 200, ANSWER);
+            } else {
+                StubServer.respond(exchange, 404, "{\"error\":\"model '" + MODEL + "' not found, try pulling it first\"}");
+            }
+        });
+    }
+    
+    private MonitorConfig config(int maxRetries) {
+        return config(maxRetries, Duration.ofHours(1));
+    }
+    
+    private MonitorConfig config(int maxRetries, Duration modelCheckTtl) {
+        return new MonitorConfig.Builder()
+            .ollamaBaseUrl(server.url())
+            .ollamaModel(MODEL)
+            .ollamaWarmUp(false)
+            .ollamaModelCheckTtl(modelCheckTtl)
+            .timeout(Duration.ofSeconds(10))
+            .maxRetries(maxRetries)
+            .build();
+    }
+}
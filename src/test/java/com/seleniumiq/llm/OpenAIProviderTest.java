@@ -0,0 +1,111 @@
+package com.seleniumiq.llm;
+
+import com.seleniumiq.config.MonitorConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OpenAIProviderTest {
+    
+    private static final String EVENT_STREAM = "text/event-stream";
+    
+    private final StubServer server = new StubServer();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final List<String> chunks = new CopyOnWriteArrayList<>();
+    private OpenAIProvider provider;
+    
+    OpenAIProviderTest() throws IOException {
+    }
+    
+    @AfterEach
+    void close() {
+        released.countDown();
+        if (provider != null) {
+            provider.close();
+        }
+        server.close();
+    }
+    
+    @Test
+    void streamsContentDeltasAndStopsAtDoneWithoutWaitingForTheConnectionToClose() {
+        server.handle("/chat/completions", exchange -> {
+            OutputStream out = StubServer.stream(exchange, EVENT_STREAM);
+            StubServer.write(out, ": keep-alive\n\n");
+            StubServer.write(out, "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n");
+            StubServer.write(out, "event: chunk\ndata: {\"choices\":[{\"delta\":{\"content\":\"{\\\"issues\\\": \"}}]}\n\n");
+            StubServer.write(out, "data:{\"choices\":[{\"delta\":{\"content\":\"[]}\"}}]}\n\n");
+            StubServer.write(out, "data: [DONE]\n\n");
+            // Anything after [DONE] is not read, and the server may keep the connection open
+            StubServer.write(out, "data: {\"choices\":[{\"delta\":{\"content\":\"ignored\"}}]}\n\n");
+            StubServer.await(released);
+        });
+        provider = new OpenAIProvider(config(3));
+        
+        String answer = provider.analyzeStreaming("prompt", "system", chunks::add);
+        
+        assertEquals("{\"issues\": []}", answer);
+        assertEquals(List.of("{\"issues\": ", "[]}"), chunks);
+        assertEquals(1, server.requests("/chat/completions"));
+    }
+    
+    @Test
+    void doesNotRetryAStreamInterruptedAfterPartialContent() {
+        server.handle("/chat/completions", exchange -> StubServer.truncate(exchange, EVENT_STREAM,
+            "data: {\"choices\":[{\"delta\":{\"content\":\"{\\\"issues\\\": [\"}}]}\n\n"));
+        provider = new OpenAIProvider(config(3));
+        
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> provider.analyzeStreaming("prompt", "system", chunks::add));
+        
+        assertInstanceOf(UncheckedIOException.class, error.getCause());
+        assertEquals(List.of("{\"issues\": ["), chunks);
+        assertEquals(1, server.requests("/chat/completions"));
+    }
+    
+    @Test
+    void doesNotRetryAClientError() {
+        server.handle("/chat/completions", exchange -> StubServer.respond(exchange, 400, "{\"error\": \"bad request\"}"));
+        provider = new OpenAIProvider(config(3));
+        
+        RuntimeException error = assertThrows(RuntimeException.class, () -> provider.analyze("prompt", "system"));
+        
+        assertEquals(400, assertInstanceOf(ClientErrorException.class, error.getCause()).getStatusCode());
+        assertEquals(1, server.requests("/chat/completions"));
+    }
+    
+    @Test
+    void failsOnAnErrorEventBeforeAnyContent() {
+        server.handle("/chat/completions", exchange -> {
+            OutputStream out = StubServer.stream(exchange, EVENT_STREAM);
+            StubServer.write(out, "data: {\"error\":{\"message\":\"model overloaded\"}}\n\n");
+        });
+        provider = new OpenAIProvider(config(1));
+        
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> provider.analyzeStreaming("prompt", "system", chunks::add));
+        
+        assertEquals("OpenAI API error: model overloaded", error.getCause().getCause().getMessage());
+        assertEquals(List.of(), chunks);
+    }
+    
+    private MonitorConfig config(int maxRetries) {
+        return new MonitorConfig.Builder()
+            .apiKey("test-key")
+            .baseUrl(server.url())
+            .timeout(Duration.ofSeconds(10))
+            .maxRetries(maxRetries)
+            .build();
+    }
+}
@@ -0,0 +1,218 @@
+package com.seleniumiq.llm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class PooledProviderTest {
+    
+    private final ScriptedProvider first = new ScriptedProvider("first");
+    private final ScriptedProvider second = new ScriptedProvider("second");
+    private PooledProvider pool;
+    
+    @AfterEach
+    void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+    
+    @Test
+    void failsOverAndTakesTheFailedEndpointOutOfRotation() {
+        pool = pool(false, first, second);
+        first.mode = Mode.FAIL;
+        
+        assertEquals("second", pool.analyzeAsync("prompt", "system").join());
+        assertEquals(false, endpointStats("first").get("healthy"));
+        
+        assertEquals("second", pool.analyzeAsync("prompt", "system").join());
+        assertEquals("second", pool.analyze("prompt", "system"));
+        assertEquals(1, first.calls.get());
+    }
+    
+    @Test
+    void failsWithTheLastErrorWhenEveryEndpointFails() {
+        pool = pool(false, first, second);
+        first.mode = Mode.FAIL;
+        second.mode = Mode.FAIL;
+        
+        CompletionException error = assertThrows(CompletionException.class,
+            () -> pool.analyzeAsync("prompt", "system").join());
+        assertEquals("second failed", error.getCause().getMessage());
+        UncheckedIOException blocking = assertThrows(UncheckedIOException.class, () -> pool.analyze("prompt", "system"));
+        assertEquals("second failed", blocking.getMessage());
+    }
+    
+    @Test
+    void returnsClientErrorsWithoutFailingOver() {
+        pool = pool(false, first, second);
+        first.mode = Mode.REJECT;
+        
+        CompletionException error = assertThrows(CompletionException.class,
+            () -> pool.analyzeAsync("prompt", "system").join());
+        assertEquals(400, ((ClientErrorException) error.getCause().getCause()).getStatusCode());
+        RuntimeException blocking = assertThrows(RuntimeException.class, () -> pool.analyze("prompt", "system"));
+        assertEquals("first rejected", blocking.getMessage());
+        
+        assertEquals(0, second.calls.get());
+        assertEquals(true, endpointStats("first").get("healthy"));
+        assertEquals(2L, endpointStats("first").get("failures"));
+        assertEquals(0, endpointStats("first").get("outstanding"));
+    }
+    
+    @Test
+    void hedgesASlowRequestAndCancelsTheLoserBehindTheRequestCap() {
+        ConcurrencyLimitedProvider limitedFirst = new ConcurrencyLimitedProvider(first, 1);
+        pool = pool(true, limitedFirst, second);
+        warmUp(first);
+        first.mode = Mode.HOLD;
+        
+        CompletableFuture<String> result = pool.analyzeAsync("prompt", "system");
+        
+        assertEquals("second", result.join());
+        assertTrue(first.pending.getFirst().isCancelled());
+        assertEquals(0, limitedFirst.getInFlightCount());
+        assertEquals(1L, pool.getStats().get("hedged"));
+    }
+    
+    @Test
+    void cancelsTheHedgeWhenThePrimaryAnswersFirst() {
+        pool = pool(true, first, second);
+        warmUp(first);
+        first.mode = Mode.HOLD;
+        second.mode = Mode.HOLD;
+        
+        CompletableFuture<String> result = pool.analyzeAsync("prompt", "system");
+        awaitCall(second);
+        first.pending.getFirst().complete("first");
+        
+        assertEquals("first", result.join());
+        assertTrue(second.pending.getFirst().isCancelled());
+        assertEquals(0, endpointStats("second").get("outstanding"));
+        assertEquals(true, endpointStats("second").get("healthy"));
+    }
+    
+    @Test
+    void cancellingTheResultCancelsTheRequest() {
+        pool = pool(false, first, second);
+        first.mode = Mode.HOLD;
+        
+        pool.analyzeAsync("prompt", "system").cancel(true);
+        
+        assertTrue(first.pending.getFirst().isCancelled());
+        assertEquals(0, second.calls.get());
+        assertEquals(true, endpointStats("first").get("healthy"));
+    }
+    
+    private PooledProvider pool(boolean hedging, LLMProvider... providers) {
+        Map<String, LLMProvider> endpoints = new LinkedHashMap<>();
+        String[] names = {"first", "second"};
+        for (int i = 0; i < providers.length; i++) {
+            endpoints.put(names[i], providers[i]);
+        }
+        return new PooledProvider(endpoints, PooledProvider.Balancing.LEAST_OUTSTANDING, hedging, Duration.ofMinutes(1));
+    }
+    
+    /**
+     * Enough fast answers from the first endpoint for its p95 to be trusted
+     */
+    private void warmUp(ScriptedProvider endpoint) {
+        for (int i = 0; i < 25; i++) {
+            assertEquals(endpoint.name, pool.analyzeAsync("prompt", "system").join());
+        }
+        assertFalse(second.calls.get() > 0, "warm-up requests must all go to the first endpoint");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> endpointStats(String name) {
+        return (Map<String, Object>) pool.getStats().get(name);
+    }
+    
+    private static void awaitCall(ScriptedProvider endpoint) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (endpoint.pending.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                fail("no request reached " + endpoint.name);
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    private enum Mode {
+        ANSWER,
+        FAIL,
+        REJECT,
+        HOLD
+    }
+    
+    /**
+     * Answers with its name, fails as an unreachable endpoint, rejects the request, or holds the call until the test completes it
+     */
+    private static final class ScriptedProvider implements LLMProvider {
+        private final String name;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final ConcurrentLinkedDeque<CompletableFuture<String>> pending = new ConcurrentLinkedDeque<>();
+        private volatile Mode mode = Mode.ANSWER;
+        
+        private ScriptedProvider(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        public String analyze(String prompt, String systemPrompt) {
+            calls.incrementAndGet();
+            if (mode == Mode.FAIL || mode == Mode.REJECT) {
+                throw failure();
+            }
+            return name;
+        }
+        
+        @Override
+        public CompletableFuture<String> analyzeAsync(String prompt, String systemPrompt) {
+            calls.incrementAndGet();
+            switch (mode) {
+                case FAIL:
+                case REJECT:
+                    return CompletableFuture.failedFuture(failure());
+                case HOLD:
+                    CompletableFuture<String> call = new CompletableFuture<>();
+                    pending.add(call);
+                    return call;
+                default:
+                    return CompletableFuture.completedFuture(name);
+            }
+        }
+        
+        private RuntimeException failure() {
+            if (mode == Mode.REJECT) {
+                return new RuntimeException(name + " rejected", new ClientErrorException(400, "bad request"));
+            }
+            return new UncheckedIOException(name + " failed", new IOException("Connection refused"));
+        }
+        
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.seleniumiq.model;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards the allocation budget of event construction on the capture path. The budgets leave
+ * headroom over the measured cost; a regression such as a UUID, String.format or eager metadata
+ * map per event exceeds them several times over. Each test also measures the event built the way
+ * it was before, with a random UUID id and eagerly rendered text, and logs both costs.
+ */
+class BrowserEventAllocationTest {
+    private static final Logger logger = LoggerFactory.getLogger(BrowserEventAllocationTest.class);
+    
+    private static final int WARM_UP = 200_000;
+    private static final int MEASURED = 100_000;
+    
+    private static com.sun.management.ThreadMXBean threads;
+    
+    @BeforeAll
+    static void allocationCounting() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    
+    @Test
+    void consoleEventsStayWithinBudget() {
+        double bytes = bytesPerEvent(i -> BrowserEvent.consoleLog("session", "WARN", "message", "source"));
+        double baseline = bytesPerEvent(i -> eager("console", "WARN", "message", null, null)
+            .source("source")
+            .build());
+        
+        report("console", baseline, bytes);
+        assertTrue(bytes < 160, "console event allocates " + bytes + " bytes");
+    }
+    
+    @Test
+    void networkEventsDoNotRenderTheirText() {
+        NetworkTiming timing = NetworkTiming.builder()
+            .url("https://example.com/api/orders")
+            .method("GET")
+            .statusCode(200)
+            .latencyMs(12.5)
+            .build();
+        double bytes = bytesPerEvent(i -> BrowserEvent.networkRequest("session", timing));
+        double baseline = bytesPerEvent(i -> {
+            long latency = Math.round(timing.getLatencyMs());
+            return eager("network", "INFO",
+                    String.format("Request to %s returned %d in %dms", timing.getUrl(), timing.getStatusCode(), latency),
+                    String.format("URL: %s, Status: %d, Duration: %dms, DNS: %.1fms, Connect: %.1fms, TTFB: %.1fms, Download: %.1fms, Size: %d bytes",
+                        timing.getUrl(), timing.getStatusCode(), latency, timing.getDnsMs(), timing.getConnectMs(),
+                        timing.getTtfbMs(), timing.getDownloadMs(), timing.getTransferSize()),
+                    timing.renderMetadata())
+                .source(timing.getUrl())
+                .build();
+        });
+        
+        report("network", baseline, bytes);
+        assertTrue(bytes < 160, "network event allocates " + bytes + " bytes");
+        assertTrue(bytes < baseline / 4, "network event allocates " + bytes + " bytes, " + baseline + " before");
+    }
+    
+    @Test
+    void performanceEventsStayWithinBudget() {
+        Long value = 42L;
+        double bytes = bytesPerEvent(i -> BrowserEvent.performanceMetric("session", "dom-content-loaded", value));
+        double baseline = bytesPerEvent(i -> eager("performance", "INFO",
+                String.format("Performance metric: %s = %s", "dom-content-loaded", value),
+                String.format("Metric: %s, Value: %s", "dom-content-loaded", value), null)
+            .build());
+        
+        report("performance", baseline, bytes);
+        assertTrue(bytes < 200, "performance event allocates " + bytes + " bytes");
+        assertTrue(bytes < baseline / 4, "performance event allocates " + bytes + " bytes, " + baseline + " before");
+    }
+    
+    @Test
+    void idsAreUniqueAndRenderedOnRead() {
+        BrowserEvent first = BrowserEvent.consoleLog("session", "INFO", "a", "source");
+        BrowserEvent second = BrowserEvent.consoleLog("session", "INFO", "b", "source");
+        
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(first.getId(), first.getId());
+    }
+    
+    private static double bytesPerEvent(IntFunction<BrowserEvent> factory) {
+        long thread = Thread.currentThread().threadId();
+        BrowserEvent sink = null;
+        for (int i = 0; i < WARM_UP; i++) {
+            sink = factory.apply(i);
+        }
+        
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED; i++) {
+            sink = factory.apply(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue(sink != null);
+        return (double) allocated / MEASURED;
+    }
+    
+    /**
+     * An event as the factories built it before: a random UUID id and text and metadata rendered up front
+     */
+    private static BrowserEvent.Builder eager(String type, String level, String message, String details,
+                                              Map<String, Object> metadata) {
+        return new BrowserEvent.Builder()
+            .id(UUID.randomUUID().toString())
+            .sessionId("session")
+            .type(type)
+            .level(level)
+            .message(message)
+            .details(details)
+            .metadata(metadata)
+            .timestamp(Instant.now());
+    }
+    
+    private static void report(String kind, double baseline, double bytes) {
+        logger.info("{} event: {} bytes allocated, {} with an eager UUID and text", kind,
+                   Math.round(bytes), Math.round(baseline));
+    }
+}
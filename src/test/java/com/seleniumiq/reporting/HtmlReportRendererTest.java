@@ -0,0 +1,68 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HtmlReportRendererTest {
+    
+    private static final String HOSTILE = "</script><script>alert('x & y')</script><!--";
+    private static final Pattern EVENT_PAGE = Pattern.compile(
+        "<script type=\"application/json\" class=\"event-page\" data-page=\"(\\d+)\">(.*?)</script>", Pattern.DOTALL);
+    
+    @Test
+    void escapesMarkupInRenderedRows() throws IOException {
+        String html = render(1, event(HOSTILE));
+        
+        assertFalse(html.contains("<script>alert"), "markup in a message must not reach the page");
+        assertTrue(html.contains("&lt;/script&gt;&lt;script&gt;alert("), html);
+    }
+    
+    @Test
+    void keepsEventPagesInsideTheirScriptBlock() throws IOException {
+        String html = render(1, event("first"), event(HOSTILE), event("third"));
+        
+        assertFalse(html.contains("<script>alert"), "markup in a message must not end the page's script block");
+        Matcher pages = EVENT_PAGE.matcher(html);
+        ObjectMapper mapper = new ObjectMapper();
+        int count = 0;
+        while (pages.find()) {
+            count++;
+            String json = pages.group(2);
+            assertFalse(json.contains("<") || json.contains(">") || json.contains("&"), json);
+            JsonNode rows = mapper.readTree(json);
+            assertEquals(1, rows.size());
+            String message = rows.get(0).get(3).asText();
+            assertEquals(count == 1 ? HOSTILE : "third", message);
+        }
+        assertEquals(2, count);
+    }
+    
+    private static String render(int pageSize, BrowserEvent... events) throws IOException {
+        StringWriter out = new StringWriter();
+        MonitoringSession session = new MonitoringSession("html-session", "HTML <test>", null, Instant.now());
+        new HtmlReportRenderer(out, pageSize).render(session, () -> List.of(events).stream(), 0,
+            events.length, Map.of("console", events.length), null, null);
+        return out.toString();
+    }
+    
+    private static BrowserEvent event(String message) {
+        return BrowserEvent.consoleLog("html-session", "ERROR", message, "app.js");
+    }
+}
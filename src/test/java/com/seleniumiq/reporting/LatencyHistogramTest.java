@@ -0,0 +1,117 @@
+package com.seleniumiq.reporting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void indexesValuesInTheHdrHistogramLayout() {
+        // First bucket: one slot per microsecond
+        for (long value = 0; value < 64; value++) {
+            assertEquals(value, LatencyHistogram.countsIndex(value));
+            assertEquals(value, LatencyHistogram.highestEquivalentValue((int) value));
+        }
+        // Each following bucket: 32 slots, each twice as wide as in the bucket before
+        assertEquals(64, LatencyHistogram.countsIndex(64));
+        assertEquals(64, LatencyHistogram.countsIndex(65));
+        assertEquals(65, LatencyHistogram.countsIndex(66));
+        assertEquals(95, LatencyHistogram.countsIndex(127));
+        assertEquals(96, LatencyHistogram.countsIndex(128));
+        assertEquals(96, LatencyHistogram.countsIndex(131));
+        assertEquals(97, LatencyHistogram.countsIndex(132));
+        assertEquals(65, LatencyHistogram.highestEquivalentValue(64));
+        assertEquals(131, LatencyHistogram.highestEquivalentValue(96));
+        assertTrue(LatencyHistogram.countsIndex(LatencyHistogram.HIGHEST_TRACKABLE_MICROS) < LatencyHistogram.COUNTS_LENGTH);
+    }
+    
+    @Test
+    void everySlotHoldsAContiguousRangeNarrowerThanAThirtySecondOfItsValues() {
+        List<Long> values = new ArrayList<>();
+        for (long value = 0; value < 1 << 16; value++) {
+            values.add(value);
+        }
+        for (long power = 1 << 16; power <= LatencyHistogram.HIGHEST_TRACKABLE_MICROS; power <<= 1) {
+            values.add(power - 1);
+            values.add(power);
+            values.add(power + 1);
+            values.add(power + power / 3);
+        }
+        values.add(LatencyHistogram.HIGHEST_TRACKABLE_MICROS);
+        
+        int previousIndex = -1;
+        for (long value : values) {
+            int index = LatencyHistogram.countsIndex(value);
+            long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(index >= previousIndex, "index decreases at " + value);
+            assertTrue(highest >= value, "slot of " + value + " ends at " + highest);
+            assertTrue(highest - value < Math.max(1, value / 32.0), "slot of " + value + " ends at " + highest);
+            assertEquals(index, LatencyHistogram.countsIndex(highest));
+            assertEquals(index + 1, LatencyHistogram.countsIndex(highest + 1));
+            previousIndex = index;
+        }
+    }
+    
+    @Test
+    void reportsPercentilesWithinTheSubBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1_000; millis++) {
+            histogram.recordMillis(millis);
+        }
+        
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanMillis(), 1e-9);
+        assertEquals(1_000, histogram.getMaxMillis());
+        assertEquals(500, histogram.getPercentileMillis(50), 500 / 32.0);
+        assertEquals(900, histogram.getPercentileMillis(90), 900 / 32.0);
+        assertEquals(990, histogram.getPercentileMillis(99), 990 / 32.0);
+        assertEquals(1_000, histogram.getPercentileMillis(100));
+        assertEquals(1, histogram.getPercentileMillis(0), 1 / 32.0);
+    }
+    
+    @Test
+    void ignoresUnreportedLatenciesAndClampsVeryLongOnes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMillis(-1);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMillis(99));
+        
+        histogram.recordMicros(Long.MAX_VALUE);
+        assertEquals(1, histogram.getCount());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_MICROS / 1000.0, histogram.getMaxMillis());
+        assertEquals(LatencyHistogram.HIGHEST_TRACKABLE_MICROS / 1000.0, histogram.getPercentileMillis(50));
+    }
+    
+    @Test
+    void mergingGivesTheSameHistogramAsRecordingEverythingInOne() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (int i = 0; i < 900; i++) {
+            fast.recordMillis(5 + i % 20);
+            all.recordMillis(5 + i % 20);
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.recordMillis(2_000 + i * 10);
+            all.recordMillis(2_000 + i * 10);
+        }
+        
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.merge(fast);
+        merged.merge(slow);
+        
+        assertEquals(all.getSummary(), merged.getSummary());
+        assertEquals(1_000, merged.getCount());
+        assertEquals(2_990, merged.getMaxMillis());
+        assertTrue(merged.getPercentileMillis(50) < 25, "p50 " + merged.getPercentileMillis(50));
+        assertTrue(merged.getPercentileMillis(95) >= 2_000, "p95 " + merged.getPercentileMillis(95));
+        // Merging leaves the source histograms untouched
+        assertEquals(900, fast.getCount());
+        assertEquals(100, slow.getCount());
+    }
+}
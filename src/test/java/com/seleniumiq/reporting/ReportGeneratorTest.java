@@ -0,0 +1,157 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportGeneratorTest {
+    
+    @TempDir
+    Path directory;
+    
+    private ReportGenerator generator;
+    
+    @AfterEach
+    void shutdown() {
+        if (generator != null) {
+            generator.shutdown();
+        }
+    }
+    
+    @Test
+    void writesOnlyTheFirstMaxEventsButCountsAll() throws IOException {
+        generator = generator(3);
+        List<BrowserEvent> events = events(10);
+        
+        generator.generateSessionReport(session(), events, null);
+        
+        JsonNode report = readReport();
+        assertEquals(10, report.path("eventsSummary").path("totalEvents").asInt());
+        assertEquals(10, report.path("eventsSummary").path("eventTypes").path("console").asInt());
+        JsonNode written = report.path("events");
+        assertEquals(3, written.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("message " + i, written.get(i).path("message").asText());
+        }
+        assertEquals("Showing first 3 of 10 events", report.path("eventsNote").asText());
+    }
+    
+    @Test
+    void writesEveryEventWhenUnlimited() throws IOException {
+        generator = generator(0);
+        
+        generator.generateSessionReport(session(), events(2_500), null);
+        
+        JsonNode report = readReport();
+        assertEquals(2_500, report.path("events").size());
+        assertFalse(report.has("eventsNote"));
+    }
+    
+    @Test
+    void pullsNoMoreEventsThanItWrites() throws IOException {
+        generator = generator(5);
+        List<BrowserEvent> events = events(1_000);
+        AtomicInteger streams = new AtomicInteger();
+        List<Integer> pulled = new ArrayList<>();
+        
+        generator.generateSessionReport(session(), () -> {
+            streams.incrementAndGet();
+            AtomicInteger count = new AtomicInteger();
+            pulled.add(0);
+            int index = pulled.size() - 1;
+            return events.stream().peek(event -> pulled.set(index, count.incrementAndGet()));
+        }, null);
+        
+        // Summary pass, JSON pass, HTML pass
+        assertEquals(3, streams.get());
+        assertEquals(1_000, pulled.get(0));
+        assertEquals(5, pulled.get(1));
+        assertEquals(5, readReport().path("events").size());
+    }
+    
+    @Test
+    void writesEventFieldsAndTheAnalysis() throws IOException {
+        generator = generator(10);
+        BrowserEvent sparse = new BrowserEvent.Builder()
+            .sessionId("session")
+            .type("custom")
+            .message("no level or source")
+            .details("stack")
+            .build();
+        AnalysisResult analysis = AnalysisResult.builder()
+            .summary("One slow request")
+            .severity(AnalysisResult.Severity.MEDIUM)
+            .addIssue(Suggestion.Issue.builder()
+                .type("performance")
+                .title("Slow request")
+                .description("GET /orders took 6s")
+                .suggestion("Add an index")
+                .priority(Suggestion.Priority.MEDIUM)
+                .impact("Slow tests")
+                .build())
+            .build();
+        
+        generator.generateSessionReport(session(), List.of(sparse), analysis);
+        
+        JsonNode report = readReport();
+        JsonNode event = report.path("events").get(0);
+        assertEquals("custom", event.path("type").asText());
+        assertTrue(event.path("level").isNull());
+        assertTrue(event.path("source").isNull());
+        assertEquals("stack", event.path("details").asText());
+        assertEquals(1, report.path("eventsSummary").path("eventTypes").path("custom").asInt());
+        assertEquals("MEDIUM", report.path("aiAnalysis").path("severity").asText());
+        assertEquals("Slow request", report.path("aiAnalysis").path("issues").get(0).path("title").asText());
+    }
+    
+    private ReportGenerator generator(int maxEvents) {
+        MonitorConfig config = new MonitorConfig.Builder()
+            .maxEventsPerReport(maxEvents)
+            .reportFsync(false)
+            .build();
+        return new ReportGenerator(config, directory);
+    }
+    
+    private static MonitoringSession session() {
+        return new MonitoringSession(UUID.randomUUID().toString(), "Report test", null, Instant.now());
+    }
+    
+    private static List<BrowserEvent> events(int count) {
+        List<BrowserEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(BrowserEvent.consoleLog("session", "INFO", "message " + i, "test"));
+        }
+        return events;
+    }
+    
+    private JsonNode readReport() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> reports = files.filter(path -> path.toString().endsWith(".json")).toList();
+            assertEquals(1, reports.size(), reports.toString());
+            return new ObjectMapper().readTree(reports.get(0).toFile());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.config.ExecutionMode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ReportWriteQueueTest {
+    
+    @TempDir
+    Path directory;
+    
+    private final CountDownLatch gateEntered = new CountDownLatch(1);
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private ReportWriteQueue queue;
+    
+    @AfterEach
+    void shutdown() {
+        gate.countDown();
+        if (queue != null) {
+            queue.shutdown(Duration.ofSeconds(5));
+        }
+    }
+    
+    @Test
+    void shutdownDrainsEveryQueuedReportBeforeReturning() throws Exception {
+        queue = new ReportWriteQueue(directory, 1, 16, false, ExecutionMode.PLATFORM);
+        List<CompletableFuture<List<Path>>> reports = new ArrayList<>();
+        reports.add(queue.submit("gate", this::gated));
+        for (int i = 0; i < 9; i++) {
+            reports.add(queue.submit("report " + i, file("report-" + i + ".json")));
+        }
+        
+        CompletableFuture.runAsync(gate::countDown, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        queue.shutdown(Duration.ofSeconds(5));
+        
+        for (CompletableFuture<List<Path>> report : reports) {
+            assertTrue(report.isDone());
+            for (Path file : report.join()) {
+                assertTrue(Files.exists(file), file.toString());
+            }
+        }
+        assertEquals(10L, queue.getStats().get("written"));
+        assertEquals(0, queue.getStats().get("queued"));
+        assertEquals(0L, queue.getStats().get("failed"));
+    }
+    
+    @Test
+    void failsReportsStillQueuedWhenTheTimeoutExpires() throws Exception {
+        queue = new ReportWriteQueue(directory, 1, 16, false, ExecutionMode.PLATFORM);
+        CompletableFuture<List<Path>> stuck = queue.submit("gate", this::gated);
+        assertTrue(gateEntered.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<List<Path>>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            queued.add(queue.submit("report " + i, file("report-" + i + ".json")));
+        }
+        
+        queue.shutdown(Duration.ofMillis(100));
+        
+        for (CompletableFuture<List<Path>> report : queued) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> report.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+        // The writer is interrupted out of the report it was stuck on
+        ExecutionException interrupted = assertThrows(ExecutionException.class, () -> stuck.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InterruptedIOException.class, interrupted.getCause());
+        assertEquals(0L, queue.getStats().get("written"));
+    }
+    
+    @Test
+    void rejectsReportsAfterShutdown() {
+        queue = new ReportWriteQueue(directory, 1, 16, false, ExecutionMode.PLATFORM);
+        queue.shutdown(Duration.ofSeconds(5));
+        
+        CompletableFuture<List<Path>> late = queue.submit("late", file("late.json"));
+        
+        ExecutionException failure = assertThrows(ExecutionException.class, late::get);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertFalse(Files.exists(directory.resolve("late.json")));
+    }
+    
+    @Test
+    void blocksTheSubmitterWhileTheQueueIsFull() throws Exception {
+        queue = new ReportWriteQueue(directory, 1, 1, false, ExecutionMode.PLATFORM);
+        CompletableFuture<List<Path>> first = queue.submit("gate", this::gated);
+        assertTrue(gateEntered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<Path>> second = queue.submit("second", file("second.json"));
+        
+        CompletableFuture<CompletableFuture<List<Path>>> third =
+            CompletableFuture.supplyAsync(() -> queue.submit("third", file("third.json")));
+        awaitBlockedSubmits(1L);
+        assertFalse(third.isDone());
+        
+        gate.countDown();
+        
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS);
+        assertEquals(3L, queue.getStats().get("written"));
+    }
+    
+    @Test
+    void aFailedWriteFailsOnlyItsOwnReport() throws Exception {
+        queue = new ReportWriteQueue(directory, 1, 16, false, ExecutionMode.PLATFORM);
+        
+        CompletableFuture<List<Path>> broken = queue.submit("broken", () -> {
+            throw new IOException("disk full");
+        });
+        CompletableFuture<List<Path>> fine = queue.submit("fine", file("fine.json"));
+        
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS));
+        assertEquals("disk full", failure.getCause().getMessage());
+        assertEquals(List.of(directory.resolve("fine.json")), fine.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, queue.getStats().get("failed"));
+        assertEquals(1L, queue.getStats().get("written"));
+    }
+    
+    @Test
+    void syncsReportsWrittenBackToBackInOneGroup() throws Exception {
+        queue = new ReportWriteQueue(directory, 1, 16, true, ExecutionMode.PLATFORM);
+        List<CompletableFuture<List<Path>>> reports = new ArrayList<>();
+        reports.add(queue.submit("gate", this::gated));
+        assertTrue(gateEntered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            reports.add(queue.submit("report " + i, file("report-" + i + ".json")));
+        }
+        
+        gate.countDown();
+        CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        
+        assertEquals(6L, queue.getStats().get("written"));
+        assertEquals(1L, queue.getStats().get("syncs"));
+    }
+    
+    /**
+     * Writes its file only once the test opens the gate
+     */
+    private List<Path> gated() throws IOException {
+        gateEntered.countDown();
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted at the gate");
+        }
+        return file("gate.json").write();
+    }
+    
+    private ReportWriteQueue.Job file(String name) {
+        return () -> List.of(Files.writeString(directory.resolve(name), "{}"));
+    }
+    
+    private void awaitBlockedSubmits(long expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Long.valueOf(expected).equals(queue.getStats().get("blockedSubmits"))) {
+            if (System.nanoTime() > deadline) {
+                fail("blocked submits " + queue.getStats().get("blockedSubmits") + ", expected " + expected);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
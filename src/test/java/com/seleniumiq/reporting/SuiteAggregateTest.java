@@ -0,0 +1,169 @@
+package com.seleniumiq.reporting;
+
+import com.seleniumiq.config.MonitorConfig;
+import com.seleniumiq.model.AnalysisResult;
+import com.seleniumiq.model.BrowserEvent;
+import com.seleniumiq.model.MonitoringSession;
+import com.seleniumiq.model.NetworkTiming;
+import com.seleniumiq.model.Suggestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuiteAggregateTest {
+    
+    @TempDir
+    Path directory;
+    
+    private ReportGenerator generator;
+    
+    @AfterEach
+    void shutdown() {
+        if (generator != null) {
+            generator.shutdown();
+        }
+    }
+    
+    @Test
+    void foldsTheCountsIssuesAndSeveritiesOfEverySession() throws IOException {
+        generator = generator();
+        
+        SessionSummary checkout = new SessionSummary();
+        checkout.record(BrowserEvent.consoleLog("checkout", "ERROR", "boom", "app.js"));
+        checkout.record(BrowserEvent.consoleLog("checkout", "warning", "slow", "app.js"));
+        checkout.record(BrowserEvent.javascriptException("checkout", "TypeError", "at app.js:1"));
+        request(checkout, "https://shop.test/orders?page=1", 500, 3);
+        request(checkout, "https://shop.test/login", 401, 1);
+        request(checkout, "https://shop.test/home", 200, 2);
+        generator.foldSession(checkout, analysis(AnalysisResult.Severity.HIGH,
+            Suggestion.Priority.HIGH, Suggestion.Priority.HIGH, Suggestion.Priority.LOW));
+        
+        SessionSummary cart = new SessionSummary();
+        cart.record(BrowserEvent.consoleLog("cart", "WARNING", "deprecated", "app.js"));
+        request(cart, "https://shop.test/orders?page=2", 503, 2);
+        request(cart, "https://shop.test/cart", 404, 4);
+        generator.foldSession(cart, analysis(AnalysisResult.Severity.MEDIUM, Suggestion.Priority.MEDIUM));
+        
+        SessionSummary search = new SessionSummary();
+        search.record(BrowserEvent.consoleLog("search", "INFO", "ready", "app.js"));
+        generator.foldSession(search, null);
+        
+        SessionSummary payment = new SessionSummary();
+        generator.foldSession(payment, analysis(AnalysisResult.Severity.HIGH, Suggestion.Priority.CRITICAL));
+        
+        JsonNode report = report(List.of(session("running")));
+        
+        assertEquals(5, report.path("totalSessions").asInt());
+        assertEquals(4, report.path("completedSessions").asInt());
+        assertEquals(3, report.path("analyzedSessions").asInt());
+        assertEquals(5, report.path("totalEvents").asInt());
+        assertEquals(4, report.path("eventTypes").path("console").asInt());
+        assertEquals(1, report.path("eventTypes").path("javascript-exception").asInt());
+        assertEquals(2, report.path("eventLevels").path("ERROR").asInt());
+        assertEquals(2, report.path("eventLevels").path("WARNING").asInt());
+        assertEquals(1, report.path("eventLevels").path("INFO").asInt());
+        
+        JsonNode network = report.path("network");
+        assertEquals(12, network.path("requests").asInt());
+        assertEquals(10, network.path("failedRequests").asInt());
+        assertEquals(12, network.path("latency").path("count").asInt());
+        JsonNode failing = network.path("topFailingUrls");
+        assertEquals(3, failing.size());
+        assertFailures(failing.get(0), "https://shop.test/orders", 5);
+        assertFailures(failing.get(1), "https://shop.test/cart", 4);
+        assertFailures(failing.get(2), "https://shop.test/login", 1);
+        
+        JsonNode issues = report.path("issuesByPriority");
+        assertEquals(1, issues.path("LOW").asInt());
+        assertEquals(1, issues.path("MEDIUM").asInt());
+        assertEquals(2, issues.path("HIGH").asInt());
+        assertEquals(1, issues.path("CRITICAL").asInt());
+        
+        JsonNode severities = report.path("sessionsBySeverity");
+        assertEquals(0, severities.path("LOW").asInt());
+        assertEquals(1, severities.path("MEDIUM").asInt());
+        assertEquals(2, severities.path("HIGH").asInt());
+        assertEquals(0, severities.path("CRITICAL").asInt());
+        
+        JsonNode active = report.path("sessions");
+        assertEquals(1, active.size());
+        assertEquals("running", active.get(0).path("sessionId").asText());
+    }
+    
+    @Test
+    void foldsUrlPatternsPastTheLimitIntoOther() throws IOException {
+        generator = generator();
+        
+        // Three sessions of 60 patterns each, every one below the per-session limit of 64
+        for (String host : List.of("a.test", "b.test", "c.test")) {
+            SessionSummary summary = new SessionSummary();
+            for (int i = 0; i < 60; i++) {
+                request(summary, "https://" + host + "/page" + i, 200, 1);
+            }
+            generator.foldSession(summary, null);
+        }
+        
+        JsonNode patterns = report(List.of()).path("network").path("latencyByUrlPattern");
+        
+        // The first 128 patterns keep their own histogram, the 52 after them share one
+        assertEquals(20, patterns.size());
+        assertEquals(SessionSummary.OTHER_PATTERN, patterns.get(0).path("pattern").asText());
+        assertEquals(52, patterns.get(0).path("count").asInt());
+        assertEquals(1, patterns.get(1).path("count").asInt());
+    }
+    
+    private ReportGenerator generator() {
+        MonitorConfig config = new MonitorConfig.Builder()
+            .reportFsync(false)
+            .build();
+        return new ReportGenerator(config, directory);
+    }
+    
+    private JsonNode report(List<MonitoringSession> active) throws IOException {
+        Path path = Paths.get(generator.generateComprehensiveReport(active));
+        return new ObjectMapper().readTree(path.toFile());
+    }
+    
+    private static void request(SessionSummary summary, String url, int statusCode, int times) {
+        for (int i = 0; i < times; i++) {
+            summary.recordRequest(NetworkTiming.builder()
+                .url(url)
+                .statusCode(statusCode)
+                .latencyMs(10 + i)
+                .build());
+        }
+    }
+    
+    private static AnalysisResult analysis(AnalysisResult.Severity severity, Suggestion.Priority... priorities) {
+        AnalysisResult.Builder builder = AnalysisResult.builder().severity(severity);
+        for (Suggestion.Priority priority : priorities) {
+            builder.addIssue(Suggestion.Issue.builder()
+                .type("network")
+                .title(priority + " issue")
+                .priority(priority)
+                .build());
+        }
+        return builder.build();
+    }
+    
+    private static void assertFailures(JsonNode entry, String url, int failures) {
+        assertEquals(url, entry.path("url").asText());
+        assertEquals(failures, entry.path("failures").asInt());
+    }
+    
+    private static MonitoringSession session(String id) {
+        return new MonitoringSession(id, id, null, Instant.now());
+    }
+}
@@ -0,0 +1,71 @@
+package com.seleniumiq.reporting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopCountsTest {
+    
+    @Test
+    void countsExactlyWhileKeysFitTheCapacity() {
+        TopCounts counts = new TopCounts(3);
+        counts.add("a", 1);
+        counts.add("b", 5);
+        counts.add("a", 2);
+        counts.add("c", 4);
+        
+        assertEquals(List.of(Map.entry("b", 5L), Map.entry("c", 4L), Map.entry("a", 3L)), counts.top(10));
+        assertEquals(List.of(Map.entry("b", 5L)), counts.top(1));
+    }
+    
+    @Test
+    void aNewKeyReplacesTheLeastFrequentAndInheritsItsCount() {
+        TopCounts counts = new TopCounts(2);
+        counts.add("a", 10);
+        counts.add("b", 3);
+        
+        counts.add("c", 1);
+        
+        assertEquals(List.of(Map.entry("a", 10L), Map.entry("c", 4L)), counts.top(10));
+    }
+    
+    @Test
+    void keepsAKeyMoreFrequentThanOneInCapacityAmongManyRareKeys() {
+        TopCounts counts = new TopCounts(4);
+        int total = 0;
+        for (int i = 0; i < 1_000; i++) {
+            counts.add("hot", 1);
+            counts.add("rare-" + i, 1);
+            total += 2;
+        }
+        
+        List<Map.Entry<String, Long>> top = counts.top(4);
+        assertEquals("hot", top.get(0).getKey());
+        // Over-estimated by at most the smallest tracked count, which is at most total / capacity
+        long smallest = top.get(top.size() - 1).getValue();
+        assertTrue(smallest <= total / 4, "smallest " + smallest);
+        assertTrue(top.get(0).getValue() >= 1_000);
+        assertTrue(top.get(0).getValue() <= 1_000 + smallest, "hot " + top.get(0).getValue());
+        // Counts only move between slots, so they always sum to the number of additions
+        assertEquals(total, top.stream().mapToLong(Map.Entry::getValue).sum());
+    }
+    
+    @Test
+    void mergeAddsTheCountsOfAnotherInstance() {
+        TopCounts suite = new TopCounts(3);
+        suite.add("https://api.example.com/orders", 2);
+        suite.add("https://api.example.com/users", 1);
+        TopCounts session = new TopCounts(3);
+        session.add("https://api.example.com/orders", 3);
+        session.add("https://cdn.example.com/app.js", 1);
+        
+        suite.merge(session);
+        
+        assertEquals(Map.entry("https://api.example.com/orders", 5L), suite.top(1).get(0));
+        assertEquals(3, suite.top(10).size());
+    }
+}